@@ -0,0 +1,22 @@
+package com.makibeans.cache;
+
+import java.time.Duration;
+
+/**
+ * Size and lifetime settings of a {@link TinyLfuCache}.
+ *
+ * @param maximumSize      the maximum number of entries; must be positive
+ * @param expireAfterWrite how long an entry is served after it was written, or null to never expire entries
+ */
+
+public record CacheSpec(long maximumSize, Duration expireAfterWrite) {
+
+    public CacheSpec {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum cache size must be positive.");
+        }
+        if (expireAfterWrite != null && (expireAfterWrite.isNegative() || expireAfterWrite.isZero())) {
+            throw new IllegalArgumentException("Cache expiry must be positive.");
+        }
+    }
+}
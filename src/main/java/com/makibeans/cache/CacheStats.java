@@ -0,0 +1,25 @@
+package com.makibeans.cache;
+
+/**
+ * Snapshot of the counters of a {@link TinyLfuCache}.
+ *
+ * @param hitCount        the number of lookups that found a live entry
+ * @param missCount       the number of lookups that found no entry or an expired one
+ * @param evictionCount   the number of entries evicted to stay within the maximum size
+ * @param expirationCount the number of entries dropped because they expired
+ * @param size            the current number of entries
+ */
+
+public record CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount, long size) {
+
+    /**
+     * Returns the ratio of lookups that were hits.
+     *
+     * @return the hit rate between 0 and 1, or 1 if there were no lookups
+     */
+
+    public double hitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+    }
+}
@@ -0,0 +1,42 @@
+package com.makibeans.cache;
+
+/**
+ * Application event published by the catalog services whenever catalog data changes.
+ * Catalog caches listen for it once the publishing transaction has completed, so they never
+ * drop an entry before the change is visible, and drop whatever the changed scope affects.
+ *
+ * @param scope     the part of the catalog that changed
+ * @param productId the ID of the only product that changed, or null if the change may affect any product
+ */
+
+public record CatalogChangedEvent(Scope scope, Long productId) {
+
+    /**
+     * Creates an event for a change that may affect any product.
+     *
+     * @param scope the part of the catalog that changed
+     */
+
+    public CatalogChangedEvent(Scope scope) {
+        this(scope, null);
+    }
+
+    /**
+     * The part of the catalog that changed.
+     */
+
+    public enum Scope {
+        /** Categories were created, updated, moved or deleted. */
+        CATEGORIES,
+        /** Products were added, removed or moved to another category. */
+        PRODUCTS,
+        /** Products were edited in place: their details, image, variants or attributes changed. */
+        PRODUCT_DETAILS,
+        /** The stock of product variants changed through reservations or orders; published once per product. */
+        STOCK,
+        /** Attribute templates were created, renamed or deleted. */
+        ATTRIBUTE_TEMPLATES,
+        /** Sizes or attribute values were created, renamed or deleted. */
+        REFERENCE_DATA
+    }
+}
@@ -0,0 +1,98 @@
+package com.makibeans.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic catalog version and per-product versions, advanced by every {@link CatalogChangedEvent} once the
+ * publishing transaction has completed. The versions back the weak ETags of catalog reads, so conditional
+ * requests can be answered with 304 Not Modified before any database access.
+ * <p>
+ * A response, and any cached value it is served from, must be tagged with the version read before its data was
+ * loaded: it then includes at least all changes up to that version, and a client can only hold a matching ETag
+ * if nothing changed since. The versions live in memory, so every ETag also carries the startup time and none
+ * survives a restart.
+ * Caches whose entries do not carry a version must drop them in a listener ordered before this one.
+ */
+
+@Component
+public class CatalogVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong referenceVersion = new AtomicLong();
+    private final AtomicLong allProductsVersion = new AtomicLong();
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current catalog version, which advances with every change.
+     *
+     * @return the catalog version
+     */
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Returns the current version of the catalog data that does not show stock, which advances with every change
+     * except stock changes. It backs the ETags of the category, size and attribute lists, so sales do not
+     * invalidate them.
+     *
+     * @return the reference data version
+     */
+
+    public long referenceVersion() {
+        return referenceVersion.get();
+    }
+
+    /**
+     * Returns the current version of a product, which advances with every change that may affect the product.
+     *
+     * @param productId the ID of the product
+     * @return the product version
+     */
+
+    public long productVersion(Long productId) {
+        return Math.max(productVersions.getOrDefault(productId, 0L), allProductsVersion.get());
+    }
+
+    /**
+     * Returns the weak ETag of a version.
+     *
+     * @param version the catalog or product version
+     * @return the quoted weak ETag
+     */
+
+    public String etag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * Advances the catalog version, the reference data version, and the version of the changed product or of all
+     * products, once the transaction that changed the catalog has completed, whether it committed or rolled back.
+     * Stock changes only advance the catalog version and the version of their product.
+     * Changes published outside a transaction advance them immediately.
+     *
+     * @param event the catalog change
+     */
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        long changed = version.incrementAndGet();
+        boolean stockChanged = event.scope() == CatalogChangedEvent.Scope.STOCK;
+        if (!stockChanged) {
+            referenceVersion.accumulateAndGet(changed, Math::max);
+        }
+        if (event.productId() != null) {
+            productVersions.merge(event.productId(), changed, Math::max);
+        } else if (!stockChanged) {
+            allProductsVersion.accumulateAndGet(changed, Math::max);
+        }
+    }
+}
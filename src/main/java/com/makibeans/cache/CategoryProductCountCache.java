@@ -0,0 +1,80 @@
+package com.makibeans.cache;
+
+import com.makibeans.repository.ProductRepository;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link CategoryProductCounts} snapshot.
+ * The counts are computed by a single aggregate query and rolled up over the category tree.
+ * They are recomputed when a {@link CatalogChangedEvent} reports added, removed or moved products,
+ * or when the category tree changes.
+ */
+
+@Component
+public class CategoryProductCountCache {
+
+    private final ProductRepository productRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CategoryProductCounts counts;
+
+    public CategoryProductCountCache(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Returns the product counts for the given category tree, computing them if necessary.
+     *
+     * @param tree the current category tree
+     * @return the product counts
+     */
+
+    public CategoryProductCounts get(CategoryTree tree) {
+        CategoryProductCounts current = counts;
+        if (current != null && current.source() == tree) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (counts != null && counts.source() == tree) {
+                return counts;
+            }
+
+            // counts computed while an invalidation happens may already be stale, so only keep them if none happened
+            long buildGeneration = generation.get();
+            CategoryProductCounts computed = CategoryProductCounts.of(tree, productRepository.countProductsByCategory());
+            if (generation.get() == buildGeneration) {
+                counts = computed;
+            }
+            return computed;
+        }
+    }
+
+    /**
+     * Drops the current product counts once the transaction that changed the products has completed, whether it committed
+     * or rolled back. Changes published outside a transaction drop it immediately.
+     * The counts are not versioned, so they are dropped before {@link CatalogVersions} advances the catalog version:
+     * counts read at a new version then never predate it.
+     *
+     * @param event the catalog change
+     */
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.scope() == CatalogChangedEvent.Scope.PRODUCTS) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        counts = null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.makibeans.cache;
+
+import com.makibeans.repository.CategoryProductCountRow;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the number of products per category, both directly assigned
+ * and in the whole subtree of each category.
+ */
+
+public final class CategoryProductCounts {
+
+    private final CategoryTree source;
+    private final Map<Long, Long> directCounts;
+    private final Map<Long, Long> subtreeCounts;
+
+    private CategoryProductCounts(CategoryTree source, Map<Long, Long> directCounts, Map<Long, Long> subtreeCounts) {
+        this.source = source;
+        this.directCounts = directCounts;
+        this.subtreeCounts = subtreeCounts;
+    }
+
+    /**
+     * Rolls the direct product counts up the category tree.
+     *
+     * @param tree the category tree
+     * @param rows the number of products directly assigned to each category
+     * @return the product counts
+     */
+
+    public static CategoryProductCounts of(CategoryTree tree, Collection<? extends CategoryProductCountRow> rows) {
+        Map<Long, Long> directCounts = new HashMap<>();
+        rows.forEach(row -> directCounts.put(row.getCategoryId(), row.getProductCount()));
+
+        // children are always deeper than their parent, so processing the deepest nodes first
+        // guarantees that the subtree counts of all children are known when a parent is processed
+        List<CategoryTree.Node> deepestFirst = new ArrayList<>(tree.nodes());
+        deepestFirst.sort(Comparator.comparingInt(CategoryTree.Node::depth).reversed());
+
+        Map<Long, Long> subtreeCounts = new HashMap<>();
+        for (CategoryTree.Node node : deepestFirst) {
+            long count = directCounts.getOrDefault(node.id(), 0L);
+            for (Long childId : node.childIds()) {
+                count += subtreeCounts.getOrDefault(childId, 0L);
+            }
+            subtreeCounts.put(node.id(), count);
+        }
+
+        return new CategoryProductCounts(tree, Map.copyOf(directCounts), Map.copyOf(subtreeCounts));
+    }
+
+    /**
+     * Returns the category tree the counts were rolled up over.
+     *
+     * @return the category tree
+     */
+
+    public CategoryTree source() {
+        return source;
+    }
+
+    /**
+     * Returns the number of products directly assigned to the category.
+     *
+     * @param categoryId the ID of the category
+     * @return the number of products, 0 for unknown categories
+     */
+
+    public long directCount(Long categoryId) {
+        return directCounts.getOrDefault(categoryId, 0L);
+    }
+
+    /**
+     * Returns the number of products in the category and all its descendants.
+     *
+     * @param categoryId the ID of the category
+     * @return the number of products, 0 for unknown categories
+     */
+
+    public long subtreeCount(Long categoryId) {
+        return subtreeCounts.getOrDefault(categoryId, 0L);
+    }
+}
@@ -0,0 +1,227 @@
+package com.makibeans.cache;
+
+import com.makibeans.filter.SearchIndex;
+import com.makibeans.repository.CategoryTreeRow;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable in-memory snapshot of the category hierarchy.
+ * Every node holds its parent, children, depth and the path of ancestor IDs,
+ * so breadcrumbs, subtree listings and ancestry checks never touch the database.
+ * The searchable name and description of all nodes are indexed once per snapshot.
+ */
+
+public final class CategoryTree {
+
+    /**
+     * A category in the tree.
+     *
+     * @param id          the ID of the category
+     * @param name        the name of the category
+     * @param description the description of the category
+     * @param hasImage    whether the category has an image
+     * @param parentId    the ID of the parent category, or null for root categories
+     * @param depth       the depth of the category, 0 for root categories
+     * @param ancestorIds the IDs of the ancestors, from the root down to the parent
+     * @param childIds    the IDs of the direct subcategories, ordered by ID
+     */
+
+    public record Node(Long id,
+                       String name,
+                       String description,
+                       boolean hasImage,
+                       Long parentId,
+                       int depth,
+                       List<Long> ancestorIds,
+                       List<Long> childIds) {
+
+        /**
+         * Returns the materialized path of the category, e.g. "/1/4/7/".
+         *
+         * @return the IDs of the ancestors and the category itself, separated by slashes
+         */
+
+        public String path() {
+            StringBuilder path = new StringBuilder("/");
+            ancestorIds.forEach(ancestorId -> path.append(ancestorId).append('/'));
+            return path.append(id).append('/').toString();
+        }
+    }
+
+    private static final Map<String, Function<Node, String>> SEARCH_FIELDS = Map.of(
+            "name", Node::name,
+            "description", Node::description);
+
+    private final Map<Long, Node> nodes;
+    private final List<Node> nodeList;
+    private final List<Long> rootIds;
+    private final SearchIndex<Node> searchIndex;
+
+    private CategoryTree(Map<Long, Node> nodes, List<Long> rootIds) {
+        this.nodes = nodes;
+        this.nodeList = List.copyOf(nodes.values());
+        this.rootIds = rootIds;
+        this.searchIndex = SearchIndex.of(nodeList, SEARCH_FIELDS);
+    }
+
+    /**
+     * Builds a tree from flat category rows.
+     * Rows whose parent is missing are treated as roots, rows that are part of a cycle are dropped.
+     *
+     * @param rows the category rows
+     * @return the category tree
+     */
+
+    public static CategoryTree of(Collection<? extends CategoryTreeRow> rows) {
+        Map<Long, CategoryTreeRow> rowsById = new TreeMap<>();
+        Map<Long, List<Long>> childIdsById = new HashMap<>();
+        List<Long> rootIds = new ArrayList<>();
+
+        rows.forEach(row -> rowsById.put(row.getId(), row));
+
+        for (CategoryTreeRow row : rowsById.values()) {
+            Long parentId = row.getParentCategoryId();
+            if (parentId == null || !rowsById.containsKey(parentId)) {
+                rootIds.add(row.getId());
+            } else {
+                childIdsById.computeIfAbsent(parentId, id -> new ArrayList<>()).add(row.getId());
+            }
+        }
+
+        // walk down from the roots, so every node is visited once and cycles are never entered
+        Map<Long, Node> nodes = new TreeMap<>();
+        Deque<Long> pending = new ArrayDeque<>(rootIds);
+        Map<Long, List<Long>> ancestorIdsById = new HashMap<>();
+        rootIds.forEach(id -> ancestorIdsById.put(id, List.of()));
+
+        while (!pending.isEmpty()) {
+            Long id = pending.poll();
+            CategoryTreeRow row = rowsById.get(id);
+            List<Long> ancestorIds = ancestorIdsById.get(id);
+            List<Long> childIds = List.copyOf(childIdsById.getOrDefault(id, List.of()));
+
+            List<Long> childAncestorIds = new ArrayList<>(ancestorIds);
+            childAncestorIds.add(id);
+            List<Long> immutableChildAncestorIds = List.copyOf(childAncestorIds);
+            childIds.forEach(childId -> ancestorIdsById.put(childId, immutableChildAncestorIds));
+            pending.addAll(childIds);
+
+            nodes.put(id, new Node(id, row.getName(), row.getDescription(), row.getHasImage(),
+                    ancestorIds.isEmpty() ? null : ancestorIds.get(ancestorIds.size() - 1),
+                    ancestorIds.size(), ancestorIds, childIds));
+        }
+
+        return new CategoryTree(Collections.unmodifiableMap(nodes), List.copyOf(rootIds));
+    }
+
+    /**
+     * Finds the node with the given ID.
+     *
+     * @param id the ID of the category
+     * @return an Optional containing the node, or empty if the category does not exist
+     */
+
+    public Optional<Node> find(Long id) {
+        return Optional.ofNullable(id).map(nodes::get);
+    }
+
+    /**
+     * Returns all nodes, ordered by ID.
+     *
+     * @return the nodes of the tree
+     */
+
+    public List<Node> nodes() {
+        return nodeList;
+    }
+
+    /**
+     * Returns the search index of all nodes, with "name" and "description" as search fields.
+     *
+     * @return the search index, ordered by ID
+     */
+
+    public SearchIndex<Node> searchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Returns the root nodes, ordered by ID.
+     *
+     * @return the root nodes
+     */
+
+    public List<Node> roots() {
+        return rootIds.stream().map(nodes::get).toList();
+    }
+
+    /**
+     * Returns the direct subcategories of the given node.
+     *
+     * @param node the parent node
+     * @return the child nodes, ordered by ID
+     */
+
+    public List<Node> children(Node node) {
+        return node.childIds().stream().map(nodes::get).toList();
+    }
+
+    /**
+     * Returns the ancestors of the given node.
+     *
+     * @param node the node
+     * @return the ancestor nodes, from the root down to the parent
+     */
+
+    public List<Node> ancestors(Node node) {
+        return node.ancestorIds().stream().map(nodes::get).toList();
+    }
+
+    /**
+     * Checks if a category is the same as, or an ancestor of, another category.
+     *
+     * @param ancestorId the ID of the potential ancestor
+     * @param id         the ID of the category
+     * @return true if ancestorId equals id or is one of its ancestors, false otherwise
+     */
+
+    public boolean isAncestorOrSelf(Long ancestorId, Long id) {
+        if (Objects.equals(ancestorId, id)) {
+            return true;
+        }
+        return find(id).map(node -> node.ancestorIds().contains(ancestorId)).orElse(false);
+    }
+
+    /**
+     * Returns the IDs of the given categories and all their descendants.
+     *
+     * @param ids the IDs of the root categories of the subtrees
+     * @return the IDs in the subtrees; unknown IDs are ignored
+     */
+
+    public Set<Long> subtreeIds(Collection<Long> ids) {
+        Set<Long> result = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        ids.stream().filter(nodes::containsKey).forEach(pending::add);
+
+        while (!pending.isEmpty()) {
+            Long id = pending.poll();
+            if (result.add(id)) {
+                pending.addAll(nodes.get(id).childIds());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of categories in the tree.
+     *
+     * @return the number of nodes
+     */
+
+    public int size() {
+        return nodes.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.makibeans.cache;
+
+import com.makibeans.config.CatalogCacheProperties;
+import com.makibeans.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds the current {@link CategoryTree} snapshot.
+ * The tree is built lazily from a single query. When a {@link CatalogChangedEvent} reports changed categories,
+ * the snapshot becomes stale: storefront reads keep getting it within the configured staleness bound while
+ * a background thread rebuilds it from the committed state, so they never wait for the rebuild.
+ * Every snapshot is kept with the catalog version it was built at, so responses derived from it can be tagged with it.
+ */
+
+@Component
+public class CategoryTreeCache {
+
+    private static final String CACHE_NAME = "categoryTree";
+    private static final String KEY = "tree";
+
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersions catalogVersions;
+    private final RevalidatingCache<String, Versioned<CategoryTree>> cache;
+    private final Logger logger = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, CatalogVersions catalogVersions, CatalogCacheProperties properties) {
+        this.categoryRepository = categoryRepository;
+        this.catalogVersions = catalogVersions;
+        this.cache = new RevalidatingCache<>(CACHE_NAME, properties.spec(CACHE_NAME), properties.maxStaleness());
+    }
+
+    /**
+     * Returns the category tree for reads, which may be a stale snapshot within the staleness bound.
+     *
+     * @return the category tree
+     */
+
+    public CategoryTree get() {
+        return getVersioned().value();
+    }
+
+    /**
+     * Returns the category tree for reads like {@link #get()}, with the catalog version it reflects.
+     *
+     * @return the category tree with its version
+     */
+
+    public Versioned<CategoryTree> getVersioned() {
+        return cache.get(KEY, this::build);
+    }
+
+    /**
+     * Returns the category tree reflecting all changes reported so far, building it if the current one is stale.
+     * For writes that resolve or validate categories against the tree.
+     *
+     * @return the current category tree
+     */
+
+    public CategoryTree getFresh() {
+        return cache.getFresh(KEY, this::build).value();
+    }
+
+    /**
+     * Marks the current category tree as stale once the transaction that changed the categories has completed,
+     * whether it committed or rolled back. Changes published outside a transaction mark it immediately.
+     *
+     * @param event the catalog change
+     */
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.scope() == CatalogChangedEvent.Scope.CATEGORIES) {
+            cache.invalidateAll();
+        }
+    }
+
+    private Versioned<CategoryTree> build() {
+        long version = catalogVersions.referenceVersion();
+        CategoryTree built = CategoryTree.of(categoryRepository.findTreeRows());
+        logger.info("Built category tree with {} categories", built.size());
+        return new Versioned<>(version, built);
+    }
+}
@@ -0,0 +1,109 @@
+package com.makibeans.cache;
+
+/**
+ * Count-min sketch with 4-bit counters that estimates how often keys were accessed recently.
+ * Every key maps to four counters; its frequency is the smallest of them, so collisions can only
+ * overestimate it. Once the number of increments reaches ten times the capacity, all counters are
+ * halved, so keys that were popular long ago lose their weight.
+ * Not thread-safe; callers must hold a lock.
+ */
+
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_COUNT = 15;
+
+    // each long holds 16 counters of 4 bits
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Creates a sketch for a cache of the given capacity.
+     *
+     * @param capacity the maximum number of entries of the cache
+     */
+
+    FrequencySketch(long capacity) {
+        int maximum = (int) Math.max(1, Math.min(capacity, 1 << 28));
+        int length = Integer.highestOneBit(maximum * 2 - 1);
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * maximum;
+    }
+
+    /**
+     * Returns the estimated number of recent accesses of a key.
+     *
+     * @param key the key
+     * @return the estimated frequency, at most 15
+     */
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int shift = counterOffset(hash, i) << 2;
+            frequency = Math.min(frequency, (int) ((table[indexOf(hash, i)] >>> shift) & 0xfL));
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of a key, halving all counters once the sample size is reached.
+     *
+     * @param key the key
+     */
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int offset) {
+        int shift = offset << 2;
+        long mask = 0xfL << shift;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << shift;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int oddCounters = 0;
+        for (int i = 0; i < table.length; i++) {
+            oddCounters += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        // halving drops the remainder of odd counters, so the size shrinks by a bit more than half
+        size = (size - (oddCounters >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    // each of the four hash functions uses its own group of four counters within a long
+    private static int counterOffset(int hash, int i) {
+        return ((hash >>> (i << 3)) & 3) + (i << 2);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,85 @@
+package com.makibeans.cache;
+
+import com.makibeans.config.CatalogCacheProperties;
+import com.makibeans.dto.product.ProductPageDTO;
+import com.makibeans.dto.product.ProductResponseDTO;
+import com.makibeans.util.SingleFlight;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate caches of the storefront product reads: search result pages and product details.
+ * Every {@link CatalogChangedEvent} except stock changes marks them as stale, since renamed categories, sizes and
+ * attribute templates also show up in product responses. Readers keep getting the stale responses within the
+ * configured staleness bound while they are recomputed in the background. Stock changes are too frequent to
+ * recompute every response; they become visible once the entries expire.
+ * Responses are cached with the catalog or product version they were computed at, so they can be tagged with it.
+ */
+
+@Component
+public class ProductReadCache {
+
+    private static final String SEARCH_CACHE_NAME = "productSearch";
+    private static final String DETAIL_CACHE_NAME = "productDetail";
+
+    private final RevalidatingCache<Map<String, String>, Versioned<ProductPageDTO>> searches;
+    private final RevalidatingCache<Long, Versioned<ProductResponseDTO>> details;
+
+    public ProductReadCache(CatalogCacheProperties properties) {
+        this.searches = new RevalidatingCache<>(SEARCH_CACHE_NAME, properties.spec(SEARCH_CACHE_NAME), properties.maxStaleness());
+        this.details = new RevalidatingCache<>(DETAIL_CACHE_NAME, properties.spec(DETAIL_CACHE_NAME), properties.maxStaleness());
+    }
+
+    /**
+     * Returns the result page of a product search.
+     *
+     * @param filters the filter parameters; must not be changed afterwards
+     * @param loader  runs the search in its own transaction
+     * @return the result page with the catalog version it reflects
+     */
+
+    public Versioned<ProductPageDTO> getSearch(Map<String, String> filters, Supplier<Versioned<ProductPageDTO>> loader) {
+        return searches.get(filters, loader);
+    }
+
+    /**
+     * Returns the details of a product.
+     *
+     * @param productId the ID of the product
+     * @param loader    loads and maps the product in its own transaction
+     * @return the product details with the product version they reflect
+     */
+
+    public Versioned<ProductResponseDTO> getProduct(Long productId, Supplier<Versioned<ProductResponseDTO>> loader) {
+        return details.get(productId, loader);
+    }
+
+    /**
+     * Returns how many product searches were coalesced onto a search that was already running.
+     *
+     * @return the coalescing statistics of product searches
+     */
+
+    public SingleFlight.Stats searchLoadStats() {
+        return searches.loadStats();
+    }
+
+    /**
+     * Marks the cached product responses as stale once the transaction that changed the catalog has completed,
+     * whether it committed or rolled back. Changes published outside a transaction mark them immediately.
+     *
+     * @param event the catalog change
+     */
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.scope() != CatalogChangedEvent.Scope.STOCK) {
+            searches.invalidateAll();
+            details.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.makibeans.cache;
+
+import com.makibeans.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache that serves stale values while it recomputes them (stale-while-revalidate).
+ * An entry is fresh until it expires or the cache is invalidated. A stale entry is still returned right away
+ * for up to the staleness bound, while one background virtual thread per key recomputes it; only entries that
+ * stayed stale for longer than that, and missing entries, are computed by the caller.
+ * If a refresh fails, the stale entry is dropped, so the next reader computes it and sees the failure.
+ * Concurrent computations of the same key are coalesced only if they started after the same invalidation, so a
+ * caller never joins a computation that may have read data from before the last invalidation it saw. A value
+ * computed while the cache was invalidated is stored as stale, so it cannot hide the invalidation.
+ * <p>
+ * Loaders run on background threads, so they must not depend on the caller's transaction or request.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+
+public class RevalidatingCache<K, V> {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private record LoadKey<K>(K key, long generation) {
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long generation;
+        final long expiresAt;
+        // when a reader first saw that the cache was invalidated after this entry was computed
+        final AtomicLong invalidatedAt = new AtomicLong(NEVER);
+
+        Entry(V value, long generation, long expiresAt) {
+            this.value = value;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final TinyLfuCache entries;
+    private final long expireAfterWriteNanos;
+    private final long maxStalenessNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier ticker;
+    private final Logger logger = LoggerFactory.getLogger(RevalidatingCache.class);
+
+    private final AtomicLong generation = new AtomicLong();
+    private final SingleFlight<LoadKey<K>, V> loads = new SingleFlight<>();
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a cache that refreshes stale entries on virtual threads.
+     *
+     * @param name         the name of the cache
+     * @param spec         the maximum size, and how long entries are fresh after they were computed
+     *                     (null to keep them fresh until the cache is invalidated)
+     * @param maxStaleness how long a stale entry is still served
+     */
+
+    public RevalidatingCache(String name, CacheSpec spec, Duration maxStaleness) {
+        this(name, spec, maxStaleness, task -> Thread.ofVirtual().name(name + "-refresh").start(task), System::nanoTime);
+    }
+
+    /**
+     * Creates a cache with the given refresh executor and time source.
+     *
+     * @param name            the name of the cache
+     * @param spec            the maximum size and freshness of entries
+     * @param maxStaleness    how long a stale entry is still served
+     * @param refreshExecutor runs the background refreshes
+     * @param ticker          the time source in nanoseconds
+     */
+
+    RevalidatingCache(String name, CacheSpec spec, Duration maxStaleness, Executor refreshExecutor, LongSupplier ticker) {
+        if (maxStaleness == null || maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("Maximum staleness cannot be null or negative.");
+        }
+        this.name = name;
+        this.expireAfterWriteNanos = spec.expireAfterWrite() == null ? 0 : spec.expireAfterWrite().toNanos();
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        // entries stay in the store for as long as they may be served stale, then they are dropped
+        Duration retention = spec.expireAfterWrite() == null ? null : spec.expireAfterWrite().plus(maxStaleness);
+        this.entries = new TinyLfuCache(name, new CacheSpec(spec.maximumSize(), retention), ticker);
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the value of a key: a fresh value, a stale value within the staleness bound (scheduling a
+     * background refresh), or a value computed by the caller.
+     *
+     * @param key    the key
+     * @param loader computes the value
+     * @return the value
+     */
+
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = lookup(key);
+        if (entry == null) {
+            return load(key, loader);
+        }
+
+        long now = ticker.getAsLong();
+        long staleSince = staleSince(entry, now);
+        if (now < staleSince) {
+            return entry.value;
+        }
+        if (now - staleSince <= maxStalenessNanos) {
+            refresh(key, loader);
+            return entry.value;
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * Returns a fresh value of a key, computing it if the cached value is missing or stale.
+     * For callers that must not act on outdated data, such as writes.
+     *
+     * @param key    the key
+     * @param loader computes the value
+     * @return the fresh value
+     */
+
+    public V getFresh(K key, Supplier<V> loader) {
+        Entry<V> entry = lookup(key);
+        long now = ticker.getAsLong();
+        if (entry != null && now < staleSince(entry, now)) {
+            return entry.value;
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * Marks all entries as stale. They are still served within the staleness bound while they are recomputed.
+     */
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Returns how many computations were coalesced onto one that was already running.
+     *
+     * @return the coalescing statistics of the computations
+     */
+
+    public SingleFlight.Stats loadStats() {
+        return loads.stats();
+    }
+
+    /**
+     * Returns the statistics of the underlying store.
+     *
+     * @return the cache statistics
+     */
+
+    public CacheStats stats() {
+        return entries.stats();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<V> lookup(K key) {
+        return (Entry<V>) entries.get(key, Entry.class);
+    }
+
+    /**
+     * Returns since when an entry is stale: its expiry, or the first time a reader saw an invalidation
+     * that happened after the entry was computed.
+     */
+
+    private long staleSince(Entry<V> entry, long now) {
+        if (entry.generation != generation.get()) {
+            entry.invalidatedAt.compareAndSet(NEVER, now);
+            return Math.min(entry.expiresAt, entry.invalidatedAt.get());
+        }
+        return entry.expiresAt;
+    }
+
+    private void refresh(K key, Supplier<V> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, loader);
+                } catch (RuntimeException ex) {
+                    // e.g. the entity was deleted; the next reader computes the entry and gets the error itself
+                    entries.evict(key);
+                    logger.warn("Failed to refresh entry of cache {}, dropped the stale value: {}", name, ex.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException ex) {
+            refreshing.remove(key);
+            throw ex;
+        }
+    }
+
+    private V load(K key, Supplier<V> loader) {
+        // read before computing, so a value computed while the cache is invalidated is stored as stale
+        long loadGeneration = generation.get();
+        return loads.execute(new LoadKey<>(key, loadGeneration), () -> {
+            long loadedAt = ticker.getAsLong();
+            V value = loader.get();
+            long expiresAt = expireAfterWriteNanos == 0 ? NEVER : loadedAt + expireAfterWriteNanos;
+            // a load that started before an invalidation may finish after one that started after it
+            Entry<V> current = lookup(key);
+            if (current == null || current.generation <= loadGeneration) {
+                entries.put(key, new Entry<>(value, loadGeneration, expiresAt));
+            }
+            return value;
+        });
+    }
+}
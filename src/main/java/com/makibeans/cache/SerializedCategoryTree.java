@@ -0,0 +1,13 @@
+package com.makibeans.cache;
+
+/**
+ * The JSON representation of a {@link CategoryTree}, serialized once per tree snapshot.
+ *
+ * @param source the tree snapshot the JSON was serialized from
+ * @param counts the product count snapshot the JSON was serialized with, or null if counts are left out
+ * @param json   the serialized JSON; must not be modified
+ * @param etag   the entity tag of the JSON, derived from its content
+ */
+
+public record SerializedCategoryTree(CategoryTree source, CategoryProductCounts counts, byte[] json, String etag) {
+}
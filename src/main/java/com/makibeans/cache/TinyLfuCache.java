@@ -0,0 +1,382 @@
+package com.makibeans.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded Spring {@link org.springframework.cache.Cache} with a W-TinyLFU eviction policy.
+ * New entries enter a small LRU window (1% of the maximum size). Entries leaving the window become candidates
+ * for the main space, a segmented LRU of a probation and a protected (80%) segment, and are only admitted if
+ * a {@link FrequencySketch} estimates that they are accessed more often than the probation entry they would
+ * replace. One-off keys such as scans therefore cannot flush frequently used entries.
+ * <p>
+ * Lookups read from a concurrent map without locking. Recording the access for the policy needs the eviction
+ * lock; if another thread holds it the access is not recorded, so reads never wait. Writes always take the lock.
+ * Entries can expire a fixed time after they were written; expired entries are dropped when they are read.
+ */
+
+public class TinyLfuCache extends AbstractValueAdaptingCache {
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node {
+        final Object key;
+        volatile Object value;
+        volatile long writeTime;
+        Segment segment;
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes in access order, least recently used first. Guarded by the eviction lock.
+     */
+
+    private static final class AccessOrderQueue {
+        private final Node sentinel = new Node(null, null, 0);
+        private long size;
+
+        AccessOrderQueue() {
+            clear();
+        }
+
+        Node first() {
+            return sentinel.next == sentinel ? null : sentinel.next;
+        }
+
+        Node next(Node node) {
+            return node.next == sentinel ? null : node.next;
+        }
+
+        void addLast(Node node) {
+            node.prev = sentinel.prev;
+            node.next = sentinel;
+            sentinel.prev.next = node;
+            sentinel.prev = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node node) {
+            remove(node);
+            addLast(node);
+        }
+
+        long size() {
+            return size;
+        }
+
+        void clear() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            size = 0;
+        }
+    }
+
+    private final String name;
+    private final long maximumSize;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrderQueue window = new AccessOrderQueue();
+    private final AccessOrderQueue probation = new AccessOrderQueue();
+    private final AccessOrderQueue protectedSegment = new AccessOrderQueue();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Creates a cache that allows null values.
+     *
+     * @param name the name of the cache
+     * @param spec the size and lifetime settings
+     */
+
+    public TinyLfuCache(String name, CacheSpec spec) {
+        this(name, spec, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache that allows null values, with the given time source.
+     *
+     * @param name   the name of the cache
+     * @param spec   the size and lifetime settings
+     * @param ticker the time source in nanoseconds
+     */
+
+    TinyLfuCache(String name, CacheSpec spec, LongSupplier ticker) {
+        super(true);
+        this.name = name;
+        this.maximumSize = spec.maximumSize();
+        this.windowMaximum = Math.min(maximumSize, Math.max(1, (long) (maximumSize * WINDOW_RATIO)));
+        this.protectedMaximum = (long) ((maximumSize - windowMaximum) * PROTECTED_RATIO);
+        this.expireAfterWriteNanos = spec.expireAfterWrite() == null ? 0 : spec.expireAfterWrite().toNanos();
+        this.ticker = ticker;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return data;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            afterRead(key, null);
+            return null;
+        }
+        if (isExpired(node, ticker.getAsLong())) {
+            misses.increment();
+            expire(node);
+            return null;
+        }
+        hits.increment();
+        afterRead(key, node);
+        return node.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        // concurrent callers for the same key wait for the first one instead of loading the value again
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            try {
+                return (T) fromStoreValue(inFlight.join());
+            } catch (CompletionException ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+            }
+        }
+
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            future.complete(toStoreValue(value));
+            return value;
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        evictionLock.lock();
+        try {
+            long now = ticker.getAsLong();
+            sketch.increment(key);
+            Node node = data.get(key);
+            if (node != null) {
+                node.value = storeValue;
+                node.writeTime = now;
+                onAccess(node);
+                return;
+            }
+
+            node = new Node(key, storeValue, now);
+            node.segment = Segment.WINDOW;
+            data.put(key, node);
+            window.addLast(node);
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictionLock.lock();
+        try {
+            Node node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            // readers may still hold nodes from before the clear, they must see them as removed
+            data.values().forEach(node -> node.segment = null);
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss, eviction and expiration counters.
+     *
+     * @return the cache statistics
+     */
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), data.size());
+    }
+
+    /**
+     * Records a read for the eviction policy, unless another thread holds the eviction lock.
+     *
+     * @param key  the key that was read
+     * @param node the entry that was found, or null on a miss
+     */
+
+    private void afterRead(Object key, Node node) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(key);
+            if (node != null && node.segment != null) {
+                onAccess(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Moves an accessed entry to the most recently used end of its segment.
+     * A probation entry is promoted to the protected segment; if that overflows, its least recently used
+     * entries are demoted back to probation.
+     */
+
+    private void onAccess(Node node) {
+        switch (node.segment) {
+            case WINDOW -> window.moveToLast(node);
+            case PROTECTED -> protectedSegment.moveToLast(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.segment = Segment.PROTECTED;
+                protectedSegment.addLast(node);
+                while (protectedSegment.size() > protectedMaximum) {
+                    Node demoted = protectedSegment.first();
+                    protectedSegment.remove(demoted);
+                    demoted.segment = Segment.PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the overflow of the window to probation, then evicts until the cache fits its maximum size.
+     * Each entry that left the window competes with the least recently used probation entry, and the one
+     * with the lower estimated frequency is evicted.
+     */
+
+    private void evictEntries() {
+        Node candidate = null;
+        while (window.size() > windowMaximum) {
+            Node node = window.first();
+            window.remove(node);
+            node.segment = Segment.PROBATION;
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (data.size() > maximumSize) {
+            Node victim = probation.first();
+            if (victim == null || candidate == null) {
+                evictEntry(victim != null ? victim : protectedSegment.first() != null ? protectedSegment.first() : window.first());
+                continue;
+            }
+
+            Node nextCandidate = probation.next(candidate);
+            if (victim == candidate || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evictEntry(candidate);
+            } else {
+                evictEntry(victim);
+            }
+            candidate = nextCandidate;
+        }
+    }
+
+    private void evictEntry(Node node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictions.increment();
+    }
+
+    private void expire(Node node) {
+        evictionLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                unlink(node);
+                expirations.increment();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void unlink(Node node) {
+        switch (node.segment) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedSegment.remove(node);
+        }
+        node.segment = null;
+    }
+
+    private boolean isExpired(Node node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+    }
+}
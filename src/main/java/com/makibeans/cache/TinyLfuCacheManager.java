@@ -0,0 +1,55 @@
+package com.makibeans.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Spring {@link CacheManager} that creates a bounded {@link TinyLfuCache} for every cache name.
+ * Caches are created on first use, with their own spec if one is configured and the default spec otherwise,
+ * so a new {@code @Cacheable} cache is always bounded.
+ */
+
+public class TinyLfuCacheManager implements CacheManager {
+
+    private final CacheSpec defaultSpec;
+    private final Map<String, CacheSpec> specs;
+    private final ConcurrentMap<String, TinyLfuCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache manager.
+     *
+     * @param defaultSpec the spec of caches without their own spec
+     * @param specs       the specs of individual caches, by cache name
+     */
+
+    public TinyLfuCacheManager(CacheSpec defaultSpec, Map<String, CacheSpec> specs) {
+        this.defaultSpec = Objects.requireNonNull(defaultSpec, "Default cache spec cannot be null.");
+        this.specs = Map.copyOf(specs);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> new TinyLfuCache(cacheName, specs.getOrDefault(cacheName, defaultSpec)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Returns the statistics of all caches created so far.
+     *
+     * @return the cache statistics, by cache name
+     */
+
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.stats()));
+        return stats;
+    }
+}
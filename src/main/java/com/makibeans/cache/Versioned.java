@@ -0,0 +1,13 @@
+package com.makibeans.cache;
+
+/**
+ * A value together with the catalog version it reflects: the value includes at least all changes
+ * up to that version, see {@link CatalogVersions}.
+ *
+ * @param version the catalog version the value was computed at
+ * @param value   the value
+ * @param <T>     the value type
+ */
+
+public record Versioned<T>(long version, T value) {
+}
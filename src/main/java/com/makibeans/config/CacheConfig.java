@@ -0,0 +1,24 @@
+package com.makibeans.config;
+
+import com.makibeans.cache.CacheSpec;
+import com.makibeans.cache.TinyLfuCacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the caches behind {@code @Cacheable}.
+ * Replaces the default unbounded ConcurrentMap caches with bounded W-TinyLFU caches, sized and expired
+ * per cache through the "catalog.cache" properties.
+ */
+
+@Configuration
+@EnableConfigurationProperties(CatalogCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public TinyLfuCacheManager cacheManager(CatalogCacheProperties properties) {
+        CacheSpec defaultSpec = new CacheSpec(properties.maximumSize(), properties.expireAfterWrite());
+        return new TinyLfuCacheManager(defaultSpec, properties.caches());
+    }
+}
@@ -0,0 +1,37 @@
+package com.makibeans.config;
+
+import com.makibeans.cache.CacheSpec;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings of the application's caches, bound from the "catalog.cache" properties.
+ *
+ * @param maximumSize      the maximum number of entries of caches without their own settings
+ * @param expireAfterWrite how long entries of caches without their own settings are served after they were written
+ * @param maxStaleness     how long the stale-while-revalidate catalog read caches keep serving a stale entry
+ *                         while it is recomputed
+ * @param caches           the settings of individual caches, by cache name
+ */
+
+@ConfigurationProperties(prefix = "catalog.cache")
+public record CatalogCacheProperties(
+        @DefaultValue("1000") long maximumSize,
+        @DefaultValue("PT10M") Duration expireAfterWrite,
+        @DefaultValue("PT1M") Duration maxStaleness,
+        @DefaultValue Map<String, CacheSpec> caches) {
+
+    /**
+     * Returns the settings of a cache.
+     *
+     * @param name the name of the cache
+     * @return the settings of the cache, or the default settings if it has none
+     */
+
+    public CacheSpec spec(String name) {
+        return caches.getOrDefault(name, new CacheSpec(maximumSize, expireAfterWrite));
+    }
+}
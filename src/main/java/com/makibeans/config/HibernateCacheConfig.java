@@ -0,0 +1,80 @@
+package com.makibeans.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration class for the Hibernate second-level cache.
+ * Reference data (sizes, attribute templates, attribute values and roles) changes rarely but is read constantly,
+ * so it is cached in bounded regions with a time to live. All regions are created here; Hibernate fails to start
+ * if an entity asks for a region that is not configured, so no unbounded region can be created by accident.
+ * Every application context gets its own cache manager, so several contexts can run in one JVM, e.g. in tests.
+ */
+
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final List<String> REFERENCE_DATA_REGIONS = List.of(
+            "reference-data.sizes",
+            "reference-data.roles",
+            "reference-data.attribute-templates",
+            "reference-data.attribute-values");
+
+    // one entry per table, so this region stays tiny; its entries must never expire while queries are cached
+    private static final long UPDATE_TIMESTAMPS_MAX_ENTRIES = 1_000;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${reference-data.cache.max-entries:10000}") long maxEntries,
+                                              @Value("${reference-data.cache.ttl:PT1H}") Duration ttl) {
+        // a manager of its own, since the default one is shared by every application context in the JVM
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("makibeans-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        REFERENCE_DATA_REGIONS.forEach(region -> cacheManager.createCache(region, regionConfiguration(maxEntries, ttl)));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, regionConfiguration(maxEntries, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, regionConfiguration(UPDATE_TIMESTAMPS_MAX_ENTRIES, null));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Creates the configuration of a bounded region. Entries are stored by reference, Hibernate already
+     * keeps them in a disassembled form.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param ttl        the time to live after an entry is written, or null to never expire entries
+     * @return the region configuration
+     */
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
@@ -93,7 +93,9 @@ public class SecurityConfig {
                                 "/attribute-values/**",
                                 "/product-variants/**",
                                 "/product-attributes",
-                                "/sizes/**"
+                                "/sizes/**",
+                                "/inventory/product-variants/**",
+                                "/catalog/changes"
                         ).permitAll()
 
                         .requestMatchers(HttpMethod.POST, "/users").permitAll()
@@ -123,6 +125,7 @@ public class SecurityConfig {
 
                         // User endpoints
                         .requestMatchers("/users/me", "/users/{id}").authenticated()
+                        .requestMatchers("/inventory/**").authenticated()
 
                         .anyRequest().permitAll()
                 )
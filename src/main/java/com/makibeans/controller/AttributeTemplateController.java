@@ -1,18 +1,21 @@
 package com.makibeans.controller;
 
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateRequestDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateResponseDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateUpdateDTO;
 import com.makibeans.service.AttributeTemplateService;
+import com.makibeans.util.ConditionalGetUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,9 +24,11 @@ import java.util.Map;
 public class AttributeTemplateController {
 
     private final AttributeTemplateService attributeTemplateService;
+    private final CatalogVersions catalogVersions;
 
-    public AttributeTemplateController(AttributeTemplateService attributeTemplateService) {
+    public AttributeTemplateController(AttributeTemplateService attributeTemplateService, CatalogVersions catalogVersions) {
         this.attributeTemplateService = attributeTemplateService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
@@ -41,21 +46,28 @@ public class AttributeTemplateController {
 
     /**
      * Retrieves all AttributeTemplates or searches for AttributeTemplates based on the provided serach params.
+     * The response carries a weak ETag of the catalog version; requests with a matching If-None-Match header
+     * get 304 Not Modified without searching the templates.
      *
-     * @param params the map containing the search parameters
-     * @return the ResponseEntity containing the list of AttributeTemplateResponseDTOs
+     * @param params  the map containing the search parameters
+     * @param request the current request
+     * @return the ResponseEntity containing a page of AttributeTemplateResponseDTOs
      */
     @Operation(summary = "Retrieve Attribute Templates",
-            description = "Fetch attribute templates with optional filtering and sorting. " +
+            description = "Fetch attribute templates with optional filtering, sorting and pagination. " +
                     "Parameters include:\n" +
                     "- `search`: Partial text search for template names.\n" +
                     "- `name`: Exact match for a template name.\n" +
                     "- `sort`: Field to sort by (`id`, `name`).\n" +
-                    "- `order`: Sort order (`asc`, `desc`).")
+                    "- `order`: Sort order (`asc`, `desc`).\n" +
+                    "- `page`: Page number for pagination (default 0).\n" +
+                    "- `size`: Number of items per page (default 20, at most 100).\n" +
+                    "Supports conditional requests via ETag.")
     @GetMapping
-    public ResponseEntity<List<AttributeTemplateResponseDTO>> getTemplates(@RequestParam Map<String, String> params) {
-        List<AttributeTemplateResponseDTO> attributeTemplateResponseDTOS =  attributeTemplateService.findBySearchQuery(params);
-        return ResponseEntity.ok(attributeTemplateResponseDTOS);
+    public ResponseEntity<PageDTO<AttributeTemplateResponseDTO>> getTemplates(@RequestParam Map<String, String> params,
+                                                                              HttpServletRequest request) {
+        return ConditionalGetUtils.conditionalGet(request, catalogVersions, catalogVersions.referenceVersion(),
+                () -> attributeTemplateService.findBySearchQuery(params));
     }
 
     /**
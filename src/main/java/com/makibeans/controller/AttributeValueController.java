@@ -1,11 +1,15 @@
 package com.makibeans.controller;
 
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.attributevalue.AttributeValueRequestDTO;
 import com.makibeans.dto.attributevalue.AttributeValueResponseDTO;
 import com.makibeans.dto.attributevalue.AttributeValueUpdateDTO;
 import com.makibeans.service.AttributeValueService;
+import com.makibeans.util.ConditionalGetUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,14 +29,17 @@ import java.util.Map;
 public class AttributeValueController {
 
     private final AttributeValueService attributeValueService;
+    private final CatalogVersions catalogVersions;
 
     /**
      * Constructs an AttributeValueController with the given service.
      *
      * @param attributeValueService the service handling Attribute Value operations
+     * @param catalogVersions       the catalog versions the ETags of list responses are derived from
      */
-    public AttributeValueController(AttributeValueService attributeValueService) {
+    public AttributeValueController(AttributeValueService attributeValueService, CatalogVersions catalogVersions) {
         this.attributeValueService = attributeValueService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
@@ -50,21 +57,29 @@ public class AttributeValueController {
 
     /**
      * Retrieves all AttributeValues, or filters them based on search parameters.
+     * The response carries a weak ETag of the catalog version; requests with a matching If-None-Match header
+     * get 304 Not Modified without searching the attribute values.
      *
-     * @param params optional search, sort, and order parameters
-     * @return a ResponseEntity containing a list of AttributeValueResponseDTOs
+     * @param params  optional search, sort, order and pagination parameters
+     * @param request the current request
+     * @return a ResponseEntity containing a page of AttributeValueResponseDTOs
      */
     @Operation(summary = "Get all or search Attribute Values",
-            description = "Fetch attribute templates with optional filtering and sorting. " +
+            description = "Fetch attribute values with optional filtering, sorting and pagination. " +
                     "Parameters include:\n" +
-                    "- `search`: Partial match on the fields `name` or `attributeTemplate`.\n" +
-                    "- `name`: Exact match on the attribute template name.\n" +
-                    "- `sort`: Field to sort by (`id`, `name`).\n" +
-                    "- `order`: Sort order (`asc`, `desc`).")
+                    "- `search`: Partial match on the fields `value` or `attributeTemplate`.\n" +
+                    "- `value`: Exact match on the value.\n" +
+                    "- `attributeTemplate`: Exact match on the attribute template name.\n" +
+                    "- `sort`: Field to sort by (`id`, `value`, `attributeTemplate`).\n" +
+                    "- `order`: Sort order (`asc`, `desc`).\n" +
+                    "- `page`: Page number for pagination (default 0).\n" +
+                    "- `size`: Number of items per page (default 20, at most 100).\n" +
+                    "Supports conditional requests via ETag.")
     @GetMapping
-    public ResponseEntity<List<AttributeValueResponseDTO>> getAttributeValues(@RequestParam Map<String, String> params) {
-        List<AttributeValueResponseDTO> attributeValueResponseDTOS = attributeValueService.findBySearchQuery(params);
-        return ResponseEntity.ok(attributeValueResponseDTOS);
+    public ResponseEntity<PageDTO<AttributeValueResponseDTO>> getAttributeValues(@RequestParam Map<String, String> params,
+                                                                                 HttpServletRequest request) {
+        return ConditionalGetUtils.conditionalGet(request, catalogVersions, catalogVersions.referenceVersion(),
+                () -> attributeValueService.findBySearchQuery(params));
     }
 
     /**
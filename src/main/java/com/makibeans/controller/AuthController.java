@@ -2,6 +2,8 @@ package com.makibeans.controller;
 
 import com.makibeans.dto.login.LoginRequestDTO;
 import com.makibeans.dto.login.LoginResponseDTO;
+import com.makibeans.exceptions.InvalidCredentialsException;
+import com.makibeans.model.User;
 import com.makibeans.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,18 +11,21 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 /**
  * Controller responsible for user authentication.
- * Handles login requests and returns JWT tokens on success.
+ * Handles login requests and returns JWT tokens on success, and revokes tokens on logout.
  */
 @RestController
 @RequestMapping("/auth")
-@Tag(name = "Authentication", description = "Endpoints for user login and JWT issuance")
+@Tag(name = "Authentication", description = "Endpoints for user login, logout and JWT issuance")
 public class AuthController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+    private static final String BEARER_PREFIX = "Bearer ";
 
     private final AuthService authService;
 
@@ -42,4 +47,37 @@ public class AuthController {
         logger.info("Login succesfull for username: {}", loginRequestDTO.getUsername());
         return ResponseEntity.ok(loginResponseDTO);
     }
+
+    /**
+     * Logs out the current user by revoking the JWT token used for this request.
+     *
+     * @param authorizationHeader the Authorization header containing the bearer token
+     * @return a ResponseEntity with no content
+     * @throws InvalidCredentialsException if the header does not carry a bearer token
+     */
+    @Operation(summary = "Log out by revoking the current JWT token")
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutUser(@RequestHeader("Authorization") String authorizationHeader) {
+        if (!authorizationHeader.startsWith(BEARER_PREFIX)) {
+            throw new InvalidCredentialsException("Authorization header must contain a bearer token.");
+        }
+        authService.logoutUser(authorizationHeader.substring(BEARER_PREFIX.length()));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Revokes all JWT tokens issued to the current user, logging out all sessions.
+     *
+     * @param user the authenticated user
+     * @return a ResponseEntity with no content
+     */
+    @Operation(summary = "Revoke all JWT tokens of the current user")
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/revoke-all")
+    public ResponseEntity<Void> revokeAllTokens(@AuthenticationPrincipal User user) {
+        authService.revokeAllTokens(user.getId());
+        logger.info("Revoked all tokens for username: {}", user.getUsername());
+        return ResponseEntity.noContent().build();
+    }
 }
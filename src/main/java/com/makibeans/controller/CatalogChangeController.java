@@ -0,0 +1,52 @@
+package com.makibeans.controller;
+
+import com.makibeans.service.CatalogChangeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST controller for the catalog change log.
+ * Lets consumers sync the catalog incrementally instead of downloading all of it.
+ */
+@RestController
+@RequestMapping("/catalog")
+@Tag(name = "Catalog Changes", description = "Incremental sync of products, variants, attributes and categories")
+public class CatalogChangeController {
+
+    private final CatalogChangeService catalogChangeService;
+
+    public CatalogChangeController(CatalogChangeService catalogChangeService) {
+        this.catalogChangeService = catalogChangeService;
+    }
+
+    /**
+     * Streams the catalog changes after the given sequence number.
+     * Consumers fetch the current state of every upserted entity and pass the last sequence number they
+     * received as since on the next call.
+     *
+     * @param since    the last sequence number the consumer has seen, 0 for all changes
+     * @param response the response to write the changes to
+     * @throws IOException if the response cannot be written
+     */
+    @Operation(summary = "Get catalog changes since a sequence number",
+            description = "Streams a JSON array of changes in sequence order. Each change has a `seq`, an `entityType` " +
+                    "(`PRODUCT`, `PRODUCT_VARIANT`, `PRODUCT_ATTRIBUTE`, `CATEGORY`), an `entityId`, an `operation` " +
+                    "(`UPSERT`, `DELETE`) and a `changedAt` timestamp.\n" +
+                    "- `since`: The last sequence number seen (default 0, i.e. all changes).\n" +
+                    "Deleting a product also deletes its variants and attributes. " +
+                    "Stock changes through reservations and orders are not included.")
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getChanges(@RequestParam(defaultValue = "0") long since,
+                           HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        catalogChangeService.streamChanges(since, response.getOutputStream());
+    }
+}
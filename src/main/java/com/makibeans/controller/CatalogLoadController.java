@@ -0,0 +1,68 @@
+package com.makibeans.controller;
+
+import com.makibeans.dto.product.CatalogLoadReportDTO;
+import com.makibeans.service.CatalogLoadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST controller for full catalog loads.
+ * Only available when the COPY based catalog loader is enabled.
+ */
+@RestController
+@RequestMapping("/products")
+@ConditionalOnProperty(name = "catalog.copy-loader.enabled", havingValue = "true")
+@Tag(name = "Products", description = "Operations for managing products and product images")
+public class CatalogLoadController {
+
+    private final CatalogLoadService catalogLoadService;
+
+    public CatalogLoadController(CatalogLoadService catalogLoadService) {
+        this.catalogLoadService = catalogLoadService;
+    }
+
+    /**
+     * Loads a full catalog feed (Admin only).
+     * Products are created or updated by name, variants by product and size. For every product attribute in
+     * the feed, the attribute values are replaced by the ones in the feed. Nothing is loaded if any row is invalid.
+     *
+     * @param products        CSV with the columns name, description, category_id
+     * @param variants        CSV with the columns product_name, size_name, price_in_cents, stock
+     * @param attributeValues CSV with the columns product_name, template_name, value
+     * @return a ResponseEntity containing the load report
+     * @throws IOException if an uploaded file cannot be read
+     */
+    @Operation(summary = "Load a full catalog",
+            description = "Streams CSV files (with header row) into staging tables and merges them into the catalog " +
+                    "in a single transaction.\n" +
+                    "- `products`: `name`, `description`, `category_id`.\n" +
+                    "- `variants` (optional): `product_name`, `size_name`, `price_in_cents`, `stock`.\n" +
+                    "- `attributes` (optional): `product_name`, `template_name`, `value`.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/catalog", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CatalogLoadReportDTO> loadCatalog(
+            @RequestPart("products") MultipartFile products,
+            @RequestPart(value = "variants", required = false) MultipartFile variants,
+            @RequestPart(value = "attributes", required = false) MultipartFile attributeValues) throws IOException {
+
+        try (InputStream productStream = products.getInputStream();
+             InputStream variantStream = variants != null ? variants.getInputStream() : null;
+             InputStream attributeValueStream = attributeValues != null ? attributeValues.getInputStream() : null) {
+
+            CatalogLoadReportDTO report = catalogLoadService.loadCatalog(productStream, variantStream, attributeValueStream);
+            return ResponseEntity.ok(report);
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package com.makibeans.controller;
 
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.cache.SerializedCategoryTree;
 import com.makibeans.dto.category.CategoryRequestDTO;
 import com.makibeans.dto.category.CategoryResponseDTO;
 import com.makibeans.dto.category.CategoryUpdateDTO;
 import com.makibeans.exceptions.ImageProcessingException;
 import com.makibeans.service.CategoryService;
+import com.makibeans.util.ConditionalGetUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -28,17 +34,22 @@ import static com.makibeans.util.FileTypeUtils.detectImageContentType;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersions catalogVersions;
     private final Logger logger = LoggerFactory.getLogger(CategoryController.class);
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersions catalogVersions) {
         this.categoryService = categoryService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
      * Retrieves a list of categories based on the provided search and sort parameters.
      * If no search or sort parameters are provided, all categories are retrieved.
+     * The response carries a weak ETag of the catalog version; requests with a matching If-None-Match header
+     * get 304 Not Modified without searching the categories.
      *
-     * @param params a map of search and sort parameters
+     * @param params  a map of search and sort parameters
+     * @param request the current request
      * @return a ResponseEntity containing a list of CategoryResponseDTOs
      */
     @Operation(summary = "Get all or search categories",
@@ -48,23 +59,49 @@ public class CategoryController {
                     "- `name`: Exact match on the category name.\n" +
                     "- `description`: Exact match on the category description.\n" +
                     "- `sort`: Field to sort by (`id`, `name`, `description`).\n" +
-                    "- `order`: Sort order (`asc`, `desc`).")
+                    "- `order`: Sort order (`asc`, `desc`).\n" +
+                    "- `includeCounts`: Include direct and subtree product counts (`true`, `false`).\n" +
+                    "Supports conditional requests via ETag.")
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDTO>> getCategories(@RequestParam Map<String, String> params) {
-        List<CategoryResponseDTO> categoryResponseDTOs = categoryService.findBySearchQuery(params);
-        return ResponseEntity.ok(categoryResponseDTOs);
+    public ResponseEntity<List<CategoryResponseDTO>> getCategories(@RequestParam Map<String, String> params,
+                                                                   HttpServletRequest request) {
+        return ConditionalGetUtils.conditionalGetVersioned(request, catalogVersions, catalogVersions.referenceVersion(),
+                () -> categoryService.findVersionedBySearchQuery(params));
+    }
+
+    /**
+     * Retrieves the whole category tree, i.e. all root categories with their nested subcategories.
+     * The response carries an ETag; requests with a matching If-None-Match header get 304 Not Modified.
+     *
+     * @param includeCounts whether to include the direct and subtree product counts
+     * @return a ResponseEntity containing the pre-serialized JSON of the category tree
+     */
+    @Operation(summary = "Get the full category tree",
+            description = "Returns all root categories with nested subcategories. Supports conditional requests via ETag.")
+    @GetMapping(value = "/tree", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getCategoryTree(@RequestParam(defaultValue = "false") boolean includeCounts) {
+        SerializedCategoryTree tree = categoryService.getSerializedCategoryTree(includeCounts);
+
+        // Spring answers with 304 Not Modified when the If-None-Match header matches the ETag
+        return ResponseEntity.ok()
+                .eTag(tree.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tree.json());
     }
 
     /**
      * Retrieves a category by its ID.
      *
-     * @param id the ID of the category to retrieve
+     * @param id            the ID of the category to retrieve
+     * @param includeCounts whether to include the direct and subtree product counts
      * @return a ResponseEntity containing the CategoryResponseDTO representing the category
      */
     @Operation(summary = "Get category by ID")
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponseDTO> getCategory(@Valid @PathVariable Long id) {
-        CategoryResponseDTO categoryResponseDTO = categoryService.getCategoryById(id);
+    public ResponseEntity<CategoryResponseDTO> getCategory(@Valid @PathVariable Long id,
+                                                           @RequestParam(defaultValue = "false") boolean includeCounts) {
+        CategoryResponseDTO categoryResponseDTO = categoryService.getCategoryById(id, includeCounts);
         return ResponseEntity.ok(categoryResponseDTO);
     }
 
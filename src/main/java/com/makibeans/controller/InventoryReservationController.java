@@ -0,0 +1,95 @@
+package com.makibeans.controller;
+
+import com.makibeans.dto.inventory.ReservationRequestDTO;
+import com.makibeans.dto.inventory.ReservationResponseDTO;
+import com.makibeans.model.User;
+import com.makibeans.service.InventoryReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST controller for stock reservations.
+ * Provides endpoints for reserving stock while it sits in a cart, and for releasing or confirming the reservation.
+ * These are the endpoints checkout uses: any authenticated user can reserve stock, and confirming the reservation
+ * completes the sale.
+ */
+@RestController
+@RequestMapping("/inventory")
+@Tag(name = "Inventory", description = "Stock reservations for carts and checkout")
+public class InventoryReservationController {
+
+    private final InventoryReservationService inventoryReservationService;
+
+    public InventoryReservationController(InventoryReservationService inventoryReservationService) {
+        this.inventoryReservationService = inventoryReservationService;
+    }
+
+    /**
+     * Retrieves the stock of a product variant that is neither reserved nor sold.
+     *
+     * @param id the ID of the product variant
+     * @return a ResponseEntity containing the available stock
+     */
+    @Operation(summary = "Get available stock of a product variant")
+    @GetMapping("/product-variants/{id}/available")
+    public ResponseEntity<Long> getAvailableStock(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryReservationService.getAvailableStock(id));
+    }
+
+    /**
+     * Reserves stock for the current user until the reservation expires.
+     *
+     * @param user       the authenticated user
+     * @param requestDTO the ReservationRequestDTO containing the product variant and quantity
+     * @return a ResponseEntity containing the created ReservationResponseDTO
+     */
+    @Operation(summary = "Reserve stock",
+            description = "Holds stock for the current user. The reservation expires unless it is confirmed. " +
+                    "Fails with 409 Conflict if less than the quantity is available.")
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/reservations")
+    public ResponseEntity<ReservationResponseDTO> reserve(
+            @AuthenticationPrincipal User user,
+            @Valid @RequestBody ReservationRequestDTO requestDTO) {
+        ReservationResponseDTO responseDTO = inventoryReservationService.reserve(
+                requestDTO.getProductVariantId(), requestDTO.getQuantity(), user.getUsername());
+        return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+    }
+
+    /**
+     * Confirms a reservation of the current user, e.g. at checkout.
+     *
+     * @param user the authenticated user
+     * @param id   the ID of the reservation
+     * @return a ResponseEntity containing the confirmed ReservationResponseDTO
+     */
+    @Operation(summary = "Confirm a reservation")
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/reservations/{id}/confirm")
+    public ResponseEntity<ReservationResponseDTO> confirm(@AuthenticationPrincipal User user, @PathVariable UUID id) {
+        return ResponseEntity.ok(inventoryReservationService.confirm(id, user.getUsername()));
+    }
+
+    /**
+     * Releases a reservation of the current user.
+     *
+     * @param user the authenticated user
+     * @param id   the ID of the reservation
+     * @return a ResponseEntity indicating the result of the operation
+     */
+    @Operation(summary = "Release a reservation")
+    @PreAuthorize("isAuthenticated()")
+    @DeleteMapping("/reservations/{id}")
+    public ResponseEntity<Void> release(@AuthenticationPrincipal User user, @PathVariable UUID id) {
+        inventoryReservationService.release(id, user.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,22 +1,34 @@
 package com.makibeans.controller;
 
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.cache.Versioned;
+import com.makibeans.dto.product.ProductImportReportDTO;
 import com.makibeans.dto.product.ProductPageDTO;
 import com.makibeans.dto.product.ProductRequestDTO;
 import com.makibeans.dto.product.ProductResponseDTO;
 import com.makibeans.dto.product.ProductUpdateDTO;
 import com.makibeans.exceptions.ImageProcessingException;
+import com.makibeans.service.ProductExportService;
+import com.makibeans.service.ProductImportService;
 import com.makibeans.service.ProductService;
+import com.makibeans.util.ConditionalGetUtils;
+import com.makibeans.util.SingleFlight;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import static com.makibeans.util.FileTypeUtils.detectImageContentType;
@@ -31,31 +43,48 @@ import static com.makibeans.util.FileTypeUtils.detectImageContentType;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final CatalogVersions catalogVersions;
     private final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ProductExportService productExportService, CatalogVersions catalogVersions) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
      * Retrieves a product by its ID.
+     * The response carries a weak ETag of the product version; requests with a matching If-None-Match header
+     * get 304 Not Modified without loading the product.
      *
-     * @param id the ID of the product to retrieve
+     * @param id      the ID of the product to retrieve
+     * @param request the current request
      * @return a ResponseEntity containing the ProductResponseDTO
      */
-    @Operation(summary = "Get product by ID")
+    @Operation(summary = "Get product by ID",
+            description = "Supports conditional requests via ETag.")
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
-        ProductResponseDTO responseDTO = productService.getProductById(id);
-        logger.info("HALO Retrieved product with ID: {}", id);
-        return ResponseEntity.ok(responseDTO);
+    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id, HttpServletRequest request) {
+        return ConditionalGetUtils.conditionalGetVersioned(request, catalogVersions, catalogVersions.productVersion(id),
+                () -> {
+                    Versioned<ProductResponseDTO> responseDTO = productService.getVersionedProductById(id);
+                    logger.info("HALO Retrieved product with ID: {}", id);
+                    return responseDTO;
+                });
     }
 
     /**
      * Filters products based on various criteria provided in the filters map.
      * The filters can include category ID, category name, price range, size, SKU, stock, and custom attributes.
+     * The response carries a weak ETag of the catalog version; requests with a matching If-None-Match header
+     * get 304 Not Modified without running the search.
      *
      * @param filters a map containing the filter criteria as key-value pairs
+     * @param request the current request
      * @return a ResponseEntity containing a list of ProductResponseDTOs representing the filtered products
      */
     @Operation(summary = "Get all or search products with filters",
@@ -74,11 +103,52 @@ public class ProductController {
                     "- `sort`: Field to sort by (`categoryName`, `priceInCents`, `productName`, `sizeName`).\n" +
                     "- `order`: Sort order (`asc`, `desc`).\n" +
                     "- `page`: Page number for pagination.\n" +
-                    "- `size`: Number of items per page.")
+                    "- `size`: Number of items per page.\n" +
+                    "Supports conditional requests via ETag.")
     @GetMapping("")
-    public ResponseEntity<ProductPageDTO> getProducts(@RequestParam Map<String, String> filters) {
-        ProductPageDTO content = productService.findBySearchQuery(filters);
-        return ResponseEntity.ok(content);
+    public ResponseEntity<ProductPageDTO> getProducts(@RequestParam Map<String, String> filters, HttpServletRequest request) {
+        return ConditionalGetUtils.conditionalGetVersioned(request, catalogVersions, catalogVersions.version(),
+                () -> productService.findVersionedBySearchQuery(filters));
+    }
+
+    /**
+     * Retrieves how many product searches were served by a search that was already running.
+     *
+     * @return a ResponseEntity containing the coalescing statistics of product searches
+     */
+    @Operation(summary = "Get product search coalescing statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/search/stats")
+    public ResponseEntity<SingleFlight.Stats> getSearchStats() {
+        return ResponseEntity.ok(productService.getSearchCoalescingStats());
+    }
+
+    /**
+     * Exports the whole catalog as JSON or CSV.
+     * The products are streamed from the database straight to the response, so the export does not
+     * need to hold the catalog in memory.
+     *
+     * @param accept   the accepted content type, text/csv for CSV and JSON otherwise
+     * @param response the response to write the export to
+     * @throws IOException if the response cannot be written
+     */
+    @Operation(summary = "Export all products",
+            description = "Streams all products with their variants and attributes.\n" +
+                    "- `application/json` (default): A JSON array of products, shaped like the products returned by `GET /products`.\n" +
+                    "- `text/csv`: Header row and one row per variant, in the format accepted by `POST /products/import`.")
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public void exportProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept,
+            HttpServletResponse response) throws IOException {
+
+        boolean csv = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.parseMediaType("text/csv")));
+        ProductExportService.Format format = csv ? ProductExportService.Format.CSV : ProductExportService.Format.JSON;
+
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + format.name().toLowerCase() + "\"");
+        productExportService.exportProducts(response.getOutputStream(), format);
     }
 
     /**
@@ -111,6 +181,38 @@ public class ProductController {
         return ResponseEntity.status(201).body(responseDTO);
     }
 
+    /**
+     * Imports products in bulk from a CSV or JSON Lines request body (Admin only).
+     * The body is streamed, so large catalogs can be imported without being held in memory.
+     *
+     * @param contentType the content type of the body, either text/csv or application/x-ndjson
+     * @param body        the request body
+     * @return a ResponseEntity containing the import report, including the rows that could not be imported
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(summary = "Import products in bulk",
+            description = "Streams products from the request body and imports them in chunks. Rows that cannot be " +
+                    "imported are skipped and listed in the report.\n" +
+                    "- `text/csv`: Header row with `name`, `description`, `categoryId` and optionally `size`, " +
+                    "`priceInCents`, `stock` and `attributes` (e.g. `origin=ethiopia|kenya;roast=dark`). " +
+                    "Consecutive rows with the same name add variants to the same product.\n" +
+                    "- `application/x-ndjson`: One product per line, e.g. `{\"name\": \"...\", \"description\": \"...\", " +
+                    "\"categoryId\": 1, \"variants\": [{\"size\": \"250g\", \"priceInCents\": 1299, \"stock\": 10}], " +
+                    "\"attributes\": {\"origin\": [\"ethiopia\"]}}`.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+    public ResponseEntity<ProductImportReportDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+
+        ProductImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.JSON_LINES;
+
+        ProductImportReportDTO report = productImportService.importProducts(body, format);
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * Uploads an image for a product (Admin only).
      *
@@ -1,17 +1,22 @@
 package com.makibeans.controller;
 
+import com.makibeans.dto.productvariant.ProductVariantBulkUpdateReportDTO;
 import com.makibeans.dto.productvariant.ProductVariantRequestDTO;
 import com.makibeans.dto.productvariant.ProductVariantResponseDTO;
 import com.makibeans.dto.productvariant.ProductVariantUpdateDTO;
+import com.makibeans.service.ProductVariantBulkUpdateService;
 import com.makibeans.service.ProductVariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -24,9 +29,12 @@ import java.util.List;
 public class ProductVariantController {
 
     private final ProductVariantService productVariantService;
+    private final ProductVariantBulkUpdateService productVariantBulkUpdateService;
 
-    public ProductVariantController(ProductVariantService productVariantService) {
+    public ProductVariantController(ProductVariantService productVariantService,
+                                    ProductVariantBulkUpdateService productVariantBulkUpdateService) {
         this.productVariantService = productVariantService;
+        this.productVariantBulkUpdateService = productVariantBulkUpdateService;
     }
 
     /**
@@ -83,6 +91,26 @@ public class ProductVariantController {
         return ResponseEntity.ok(responseDTO);
     }
 
+    /**
+     * Updates the stock and price of many product variants at once (Admin only).
+     * The body is streamed, so large inventory syncs can be applied without being held in memory.
+     *
+     * @param body the request body, a JSON array of updates
+     * @return a ResponseEntity containing the update report, including the entries that could not be applied
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(summary = "Bulk update stock and price of product variants",
+            description = "Applies a JSON array of updates such as `[{\"sku\": \"ESPRESSO-250G-0042\", \"stock\": 12}, " +
+                    "{\"id\": 7, \"stock\": 0, \"priceInCents\": 1299}]`. Each entry identifies its variant by `id` " +
+                    "or `sku`; `stock` and `priceInCents` are optional. Entries that cannot be applied are skipped and " +
+                    "listed in the report.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductVariantBulkUpdateReportDTO> bulkUpdateProductVariants(InputStream body) throws IOException {
+        ProductVariantBulkUpdateReportDTO report = productVariantBulkUpdateService.updateProductVariants(body);
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * Deletes a product variant by its ID.
      *
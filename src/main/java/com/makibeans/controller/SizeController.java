@@ -1,17 +1,20 @@
 package com.makibeans.controller;
 
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.size.SizeRequestDTO;
 import com.makibeans.dto.size.SizeResponseDTO;
 import com.makibeans.dto.size.SizeUpdateDTO;
 import com.makibeans.service.SizeService;
+import com.makibeans.util.ConditionalGetUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,9 +27,11 @@ import java.util.Map;
 public class SizeController {
 
     private final SizeService sizeService;
+    private final CatalogVersions catalogVersions;
 
-    public SizeController(SizeService sizeService) {
+    public SizeController(SizeService sizeService, CatalogVersions catalogVersions) {
         this.sizeService = sizeService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
@@ -44,22 +49,29 @@ public class SizeController {
 
     /**
      * Retrieves all Sizes, or filters them based on search parameters.
+     * The response carries a weak ETag of the catalog version; requests with a matching If-None-Match header
+     * get 304 Not Modified without searching the sizes.
      *
-     * @param params optional search, sort, and order parameters
-     * @return a ResponseEntity containing a list of SizeResponseDTOs
+     * @param params  optional search, sort, order and pagination parameters
+     * @param request the current request
+     * @return a ResponseEntity containing a page of SizeResponseDTOs
      */
     @Operation(
             summary = "Get all or search sizes",
-            description = "Fetch sizes with optional filtering and sorting. " +
+            description = "Fetch sizes with optional filtering, sorting and pagination. " +
                     "Parameters include:\n" +
                     "- `search`: Partial match on size name.\n" +
                     "- `name`: Exact match on size name.\n" +
                     "- `sort`: Field to sort by (`id`, `name`).\n" +
-                    "- `order`: Sort order (`asc`, `desc`).")
+                    "- `order`: Sort order (`asc`, `desc`).\n" +
+                    "- `page`: Page number for pagination (default 0).\n" +
+                    "- `size`: Number of items per page (default 20, at most 100).\n" +
+                    "Supports conditional requests via ETag.")
     @GetMapping
-    public ResponseEntity<List<SizeResponseDTO>> getSizes(@RequestParam Map<String, String> params) {
-        List<SizeResponseDTO> sizeResponseDTOS = sizeService.findBySearchQuery(params);
-        return ResponseEntity.ok(sizeResponseDTOS);
+    public ResponseEntity<PageDTO<SizeResponseDTO>> getSizes(@RequestParam Map<String, String> params,
+                                                             HttpServletRequest request) {
+        return ConditionalGetUtils.conditionalGet(request, catalogVersions, catalogVersions.referenceVersion(),
+                () -> sizeService.findBySearchQuery(params));
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.makibeans.controller;
 
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.user.UserRequestDTO;
 import com.makibeans.dto.user.UserResponseDTO;
 import com.makibeans.dto.user.UserUpdateDTO;
@@ -14,7 +15,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -52,24 +52,27 @@ public class UserController {
     }
 
     /**
-     * Retrieves all Sizes, or filters them based on search parameters. (Admin Only)
+     * Retrieves all Users, or filters them based on search parameters. (Admin Only)
      *
-     * @param params optional search, sort, and order parameters
-     * @return a ResponseEntity containing a list of SizeResponseDTOs
+     * @param params optional search, sort, order and pagination parameters
+     * @return a ResponseEntity containing a page of UserResponseDTOs
      */
     @Operation(
             summary = "Get all users or search by filters (Admin only)",
-            description = "Fetch users with optional filtering and sorting. " +
+            description = "Fetch users with optional filtering, sorting and pagination. " +
                     "Parameters include:\n" +
-                    "- `search`: Partial match on username or email.\n" +
+                    "- `search`: Prefix match on username or email.\n" +
                     "- `username`: Exact match on username.\n" +
                     "- `email`: Exact match on email.\n" +
+                    "- `role`: Comma-separated roles, e.g. `admin` or `ROLE_USER,ROLE_ADMIN`.\n" +
                     "- `sort`: Field to sort by (`id`, `username`, `email`).\n" +
-                    "- `order`: Sort order (`asc`, `desc`).")
+                    "- `order`: Sort order (`asc`, `desc`).\n" +
+                    "- `page`: Page number for pagination (default 0).\n" +
+                    "- `size`: Number of items per page (default 20, at most 100).")
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> getUsers(@RequestParam Map<String, String> params) {
-        List<UserResponseDTO> userResponseDTOS = userService.findBySearchQuery(params);
+    public ResponseEntity<PageDTO<UserResponseDTO>> getUsers(@RequestParam Map<String, String> params) {
+        PageDTO<UserResponseDTO> userResponseDTOS = userService.findBySearchQuery(params);
         return ResponseEntity.ok(userResponseDTOS);
     }
 
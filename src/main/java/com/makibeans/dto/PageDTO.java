@@ -0,0 +1,45 @@
+package com.makibeans.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a paginated list.
+ *
+ * @param <T> the type of the elements
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDTO<T> {
+    private List<T> content;
+    private int page;
+    private int totalPages;
+    private int size;
+    private Long totalElements;
+
+    /**
+     * Creates a PageDTO from a Spring Data page.
+     *
+     * @param page the page
+     * @param <T>  the type of the elements
+     * @return the PageDTO with the content and pagination details of the page
+     */
+
+    public static <T> PageDTO<T> from(Page<T> page) {
+        return PageDTO.<T>builder()
+                .content(page.getContent())
+                .page(page.getNumber())
+                .totalPages(page.getTotalPages())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .build();
+    }
+}
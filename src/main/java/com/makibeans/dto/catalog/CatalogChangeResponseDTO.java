@@ -0,0 +1,23 @@
+package com.makibeans.dto.catalog;
+
+import com.makibeans.model.CatalogChange;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for catalog change log entries.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangeResponseDTO {
+    private Long seq;
+    private CatalogChange.EntityType entityType;
+    private Long entityId;
+    private CatalogChange.Operation operation;
+    private Instant changedAt;
+}
@@ -1,5 +1,6 @@
 package com.makibeans.dto.category;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,4 +23,10 @@ public class CategoryResponseDTO {
 
     private List<CategoryResponseDTO> subCategories;
     private List<BreadCrumbDTO> breadCrumbs;
+
+    // only set when product counts are requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long productCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long subtreeProductCount;
 }
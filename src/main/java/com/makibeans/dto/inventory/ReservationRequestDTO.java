@@ -0,0 +1,26 @@
+package com.makibeans.dto.inventory;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for reserving stock of a ProductVariant, e.g. when it is put into a cart.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequestDTO {
+
+    @NotNull(message = "Product variant ID cannot be null.")
+    private Long productVariantId;
+
+    @NotNull(message = "Quantity cannot be null.")
+    @Min(value = 1, message = "Quantity should be a minimum of 1.")
+    @Digits(integer = 10, fraction = 0, message = "Quantity must be a valid number with up to 10 digits.")
+    private Long quantity;
+}
@@ -0,0 +1,22 @@
+package com.makibeans.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for stock reservations.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponseDTO {
+    private UUID id;
+    private Long productVariantId;
+    private Long quantity;
+    private Instant expiresAt;
+}
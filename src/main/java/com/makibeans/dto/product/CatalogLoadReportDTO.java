@@ -0,0 +1,25 @@
+package com.makibeans.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the result of a full catalog load.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogLoadReportDTO {
+    private long stagedProducts;
+    private long stagedVariants;
+    private long stagedAttributeValues;
+    private long insertedProducts;
+    private long updatedProducts;
+    private long insertedVariants;
+    private long updatedVariants;
+    private long linkedAttributeValues;
+}
@@ -0,0 +1,17 @@
+package com.makibeans.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a row that could not be imported.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportErrorDTO {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,25 @@
+package com.makibeans.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the result of a bulk product import.
+ * Only the first errors are listed; failedRows always holds the total number of failed rows.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportReportDTO {
+    private long totalRows;
+    private long importedProducts;
+    private long importedVariants;
+    private long failedRows;
+    private List<ProductImportErrorDTO> errors;
+}
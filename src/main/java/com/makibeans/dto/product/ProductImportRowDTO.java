@@ -0,0 +1,26 @@
+package com.makibeans.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for a single product in a bulk product import.
+ * Attributes map attribute template names to one or more attribute values.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportRowDTO {
+    private String name;
+    private String description;
+    private Long categoryId;
+    private List<ProductImportVariantDTO> variants = new ArrayList<>();
+    private Map<String, List<String>> attributes = new LinkedHashMap<>();
+}
@@ -0,0 +1,19 @@
+package com.makibeans.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a product variant in a bulk product import.
+ * The size is referenced by name; the SKU is generated like for any other variant.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportVariantDTO {
+    private String size;
+    private Long priceInCents;
+    private Long stock;
+}
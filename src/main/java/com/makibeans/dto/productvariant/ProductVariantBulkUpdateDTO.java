@@ -0,0 +1,20 @@
+package com.makibeans.dto.productvariant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one entry of a bulk Product Variant update.
+ * The variant is identified by either its ID or its SKU; fields left null are not changed.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductVariantBulkUpdateDTO {
+    private Long id;
+    private String sku;
+    private Long stock;
+    private Long priceInCents;
+}
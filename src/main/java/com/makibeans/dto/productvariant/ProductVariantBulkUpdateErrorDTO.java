@@ -0,0 +1,18 @@
+package com.makibeans.dto.productvariant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for an entry of a bulk Product Variant update that could not be applied.
+ * The index is the zero-based position of the entry in the request.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductVariantBulkUpdateErrorDTO {
+    private long index;
+    private String message;
+}
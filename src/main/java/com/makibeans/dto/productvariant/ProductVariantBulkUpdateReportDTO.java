@@ -0,0 +1,24 @@
+package com.makibeans.dto.productvariant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the result of a bulk Product Variant update.
+ * Only the first errors are listed; failedEntries always holds the total number of failed entries.
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductVariantBulkUpdateReportDTO {
+    private long totalEntries;
+    private long updatedVariants;
+    private long failedEntries;
+    private List<ProductVariantBulkUpdateErrorDTO> errors;
+}
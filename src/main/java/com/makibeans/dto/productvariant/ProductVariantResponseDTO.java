@@ -18,4 +18,5 @@ public class ProductVariantResponseDTO {
     private String sku;
     private Long priceInCents;
     private Long stock;
+    private Long version;
 }
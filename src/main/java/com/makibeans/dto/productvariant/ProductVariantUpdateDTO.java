@@ -7,6 +7,7 @@ import lombok.*;
 
 /**
  * Data Transfer Object for ProductVariant updates.
+ * If a version is given, the update is rejected when the variant has changed since that version was read.
  */
 
 @Data
@@ -21,6 +22,9 @@ public class ProductVariantUpdateDTO{
     @Min(value = 0, message = "Stock should be a minimum of 0.")
     @Digits(integer = 10, fraction = 0, message = "Stock must be a valid number with up to 10 digits.")
     private Long stock;
+
+    @Min(value = 0, message = "Version should be a minimum of 0.")
+    private Long version;
 }
 
 
@@ -0,0 +1,11 @@
+package com.makibeans.exceptions;
+
+/**
+ * Exception thrown when a product variant does not have enough stock for a reservation.
+ */
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.makibeans.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a catalog load contains rows that cannot be merged into the catalog.
+ */
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCatalogDataException extends RuntimeException {
+    public InvalidCatalogDataException(String message) {
+        super(message);
+    }
+}
@@ -16,6 +16,8 @@ import java.util.stream.Stream;
 
 /**
  * Utility class for filtering, sorting and paginating products.
+ * When "includeSubcategories=true" is set, the caller is expected to pass only the products
+ * of the category subtrees, so the category ID filter is not applied again.
  */
 
 public class ProductFilter {
@@ -23,6 +25,7 @@ public class ProductFilter {
     private final List<Product> products;
     private final ProductMapper productMapper;
     private List<Long> categoryIdValues;
+    private boolean includeSubcategories;
     private List<String> categoryNameValues;
     private List<Long> sizeIdValues;
     private List<String> sizeNameValues;
@@ -39,7 +42,8 @@ public class ProductFilter {
 
     private static final Set<String> KNOWN_PARAMS = Set.of(
             "categoryId", "categoryName", "minPrice", "maxPrice", "price",
-            "sizeId", "sizeName", "sku", "stock", "query", "sort", "order", "page", "size", "search"
+            "sizeId", "sizeName", "sku", "stock", "query", "sort", "order", "page", "size", "search",
+            "includeSubcategories"
     );
 
     @Builder
@@ -100,6 +104,7 @@ public class ProductFilter {
         minPrice = FilterUtils.extractLong(filters, "minPrice").orElse(null);
         maxPrice = FilterUtils.extractLong(filters, "maxPrice").orElse(null);
         stock = FilterUtils.extractLong(filters, "stock").orElse(null);
+        includeSubcategories = FilterUtils.extractBoolean(filters, "includeSubcategories").orElse(false);
 
         //extract query
         search = FilterUtils.extractLowerCase(filters, "search").orElse(null);
@@ -217,8 +222,8 @@ private ProductPageDTO applyPagination(List<Product> filtered) {
  */
 
 private Stream<Product> applyCategoryFilters(Stream<Product> products) {
-    //filter by categoryId
-    if (!categoryIdValues.isEmpty()) {
+    //filter by categoryId, products of subcategories are already selected by the caller
+    if (!categoryIdValues.isEmpty() && !includeSubcategories) {
         products = products.filter(p -> categoryIdValues.contains(p.getCategory().getId()));
     }
 
@@ -6,7 +6,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 /**
  * Utility class for filtering and sorting a list of objects based on search parameters.
@@ -19,6 +18,8 @@ public class SearchFilter {
 
     /**
      * Filters a list of objects using search parameters and a list of getter functions.
+     * Builds a {@link SearchIndex} for this call only; callers that search the same items repeatedly
+     * should keep an index and use {@link #apply(SearchIndex, Map, Map)} instead.
      *
      * @param items        the list of objects to filter
      * @param searchParams the map of search parameters
@@ -33,7 +34,26 @@ public class SearchFilter {
             Map<String, String> searchParams,
             Map<String, Function<T, String>> searchFields,
             Map<String, Comparator<T>> sortFields) {
+        return apply(SearchIndex.of(items, searchFields), searchParams, sortFields);
+    }
+
+    /**
+     * Filters the items of a search index using search parameters.
+     * The search fields were normalized when the index was built, so only the parameters are normalized here.
+     *
+     * @param index        the search index of the objects to filter
+     * @param searchParams the map of search parameters
+     * @param sortFields   map of field comparators for sorting
+     * @param <T>          the type of object
+     * @return a filtered list containing only objects where at least one field contains the query
+     */
+
+    public static <T> List<T> apply(
+            SearchIndex<T> index,
+            Map<String, String> searchParams,
+            Map<String, Comparator<T>> sortFields) {
 
+        List<T> items = index.items();
         String className = items.isEmpty() ? "Unknown" : items.get(0).getClass().getSimpleName();
         logger.info("Applying filter and sort on class: {} with params: {}", className, searchParams);
 
@@ -44,51 +64,81 @@ public class SearchFilter {
 
         //define allowed params
         Set<String> allowedParams = new HashSet<>(SPECIAL_PARAMS);
-        allowedParams.addAll(searchFields.keySet());
+        allowedParams.addAll(index.fields());
 
         //validate query
         FilterUtils.validateParams(searchParams, allowedParams);
 
-        //stream items
-        Stream<T> stream = items.stream();
-
-        // Apply search filter if present
-        if (query != null && !query.isBlank()) {
-            stream = stream.filter(item ->
-                    searchFields.values().stream().anyMatch(getter ->
-                            Optional.ofNullable(getter.apply(item)) // e.g attributeTemplate.getName()
-                                    .map(String::toLowerCase)
-                                    .map(val -> val.contains(query))
-                                    .orElse(false)));
+        //keys searched by the query, empty if there is no query
+        List<String[]> queryKeys = new ArrayList<>();
+        if (query != null) {
+            index.fields().forEach(field -> queryKeys.add(index.keys(field)));
         }
 
-        //apply filtering on search fields
+        //keys and normalized values of the field filters, skipping special params (sort, order, etc)
+        List<String[]> filterKeys = new ArrayList<>();
+        List<String> filterValues = new ArrayList<>();
         for (Map.Entry<String, String> entry : searchParams.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue();
-
-            //skip special params (sort, order, etc) and fields that don't have a getter.
-            if (SPECIAL_PARAMS.contains(key) || !searchFields.containsKey(key)) continue;
-
-            Function<T, String> getter = searchFields.get(key);
+            if (SPECIAL_PARAMS.contains(entry.getKey())) continue;
+            filterKeys.add(index.keys(entry.getKey()));
+            filterValues.add(SearchIndex.normalize(entry.getValue()));
+        }
 
-            stream = stream.filter(item ->
-                    Optional.ofNullable(getter.apply(item))
-                            .map(String::toLowerCase)
-                            .map(String::trim)
-                            .map(val -> val.equals(value.toLowerCase().trim()))
-                            .orElse(false));
+        List<T> matched = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (containsQuery(queryKeys, query, i) && equalsFilters(filterKeys, filterValues, i)) {
+                matched.add(items.get(i));
+            }
         }
 
         // Sort and default to id field if present and no sort field is provided
         Comparator<T> comparator = sortFields.getOrDefault(sort, null);
 
         if (comparator != null) {
-            stream = "desc".equals(order)
-                    ? stream.sorted(comparator.reversed())
-                    : stream.sorted(comparator);
+            matched.sort("desc".equals(order) ? comparator.reversed() : comparator);
         }
 
-        return stream.toList();
+        return Collections.unmodifiableList(matched);
+    }
+
+    /**
+     * Checks if at least one search field of an item contains the query.
+     *
+     * @param queryKeys the keys of the search fields, empty if there is no query
+     * @param query     the lowercase query
+     * @param item      the position of the item in the index
+     * @return true if there is no query or a field contains it, false otherwise
+     */
+
+    private static boolean containsQuery(List<String[]> queryKeys, String query, int item) {
+        if (queryKeys.isEmpty()) {
+            return true;
+        }
+        for (String[] keys : queryKeys) {
+            String key = keys[item];
+            if (key != null && key.contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every filtered search field of an item equals its filter value.
+     *
+     * @param filterKeys   the keys of the filtered search fields
+     * @param filterValues the normalized filter values
+     * @param item         the position of the item in the index
+     * @return true if all filters match, false otherwise
+     */
+
+    private static boolean equalsFilters(List<String[]> filterKeys, List<String> filterValues, int item) {
+        for (int f = 0; f < filterKeys.size(); f++) {
+            String key = filterKeys.get(f)[item];
+            if (key == null || !key.equals(filterValues.get(f))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
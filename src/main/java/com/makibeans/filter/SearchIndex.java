@@ -0,0 +1,90 @@
+package com.makibeans.filter;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable searchable projection of a list of objects for {@link SearchFilter}.
+ * The search fields of every item are lowercased and trimmed once when the index is built,
+ * so evaluating a search only compares precomputed strings.
+ * Build a new index whenever the items change, e.g. together with a cached snapshot.
+ *
+ * @param <T> the type of object
+ */
+
+public final class SearchIndex<T> {
+
+    private final List<T> items;
+    private final Map<String, String[]> keysByField;
+
+    private SearchIndex(List<T> items, Map<String, String[]> keysByField) {
+        this.items = items;
+        this.keysByField = keysByField;
+    }
+
+    /**
+     * Builds an index over the given items.
+     *
+     * @param items        the list of objects to index
+     * @param searchFields map of field getters (e.g. MyObject::getName, MyObject::getDescription)
+     * @param <T>          the type of object
+     * @return the search index
+     */
+
+    public static <T> SearchIndex<T> of(List<T> items, Map<String, Function<T, String>> searchFields) {
+        List<T> indexedItems = List.copyOf(items);
+        Map<String, String[]> keysByField = new LinkedHashMap<>();
+
+        searchFields.forEach((field, getter) -> {
+            String[] keys = new String[indexedItems.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = normalize(getter.apply(indexedItems.get(i)));
+            }
+            keysByField.put(field, keys);
+        });
+
+        return new SearchIndex<>(indexedItems, Collections.unmodifiableMap(keysByField));
+    }
+
+    /**
+     * Normalizes a value the same way the index keys are normalized.
+     *
+     * @param value the value, may be null
+     * @return the lowercase trimmed value, or null if the value is null
+     */
+
+    static String normalize(String value) {
+        return value == null ? null : value.toLowerCase().trim();
+    }
+
+    /**
+     * Returns the indexed items, in their original order.
+     *
+     * @return the items
+     */
+
+    public List<T> items() {
+        return items;
+    }
+
+    /**
+     * Returns the names of the indexed search fields.
+     *
+     * @return the search field names
+     */
+
+    public Set<String> fields() {
+        return keysByField.keySet();
+    }
+
+    /**
+     * Returns the normalized keys of a search field, in the order of the items.
+     *
+     * @param field the search field name
+     * @return the keys, with null for items whose field is null, or null if the field is not indexed
+     */
+
+    String[] keys(String field) {
+        return keysByField.get(field);
+    }
+}
@@ -0,0 +1,191 @@
+package com.makibeans.filter;
+
+import com.makibeans.exceptions.InvalidFilterException;
+import com.makibeans.util.FilterUtils;
+import jakarta.persistence.criteria.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Utility class for filtering, sorting and paginating entities in the database based on search parameters.
+ * Takes the same parameters as {@link SearchFilter}, but the search fields and sort fields are entity attribute
+ * paths (e.g. "name" or "attributeTemplate.name"), so filters become SQL predicates and only one page is loaded.
+ * <p>
+ * "search" matches entities where any search field contains (or, with {@link Match#PREFIX}, starts with) the query,
+ * ignoring case. Any other search field parameter matches entities where that field equals the value, ignoring case.
+ * Callers can add filters that do not map to a single field, e.g. on an association, as custom filters.
+ * "sort" and "order" choose the sort field and direction; ties and unsorted pages are ordered by ID.
+ * "page" and "size" choose the page, with a default size of 20 and at most 100 elements per page.
+ */
+
+public class SearchSpecification {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchSpecification.class);
+    private static final Set<String> SPECIAL_PARAMS = Set.of("sort", "order", "search", "page", "size");
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * How the "search" parameter is matched against the search fields.
+     */
+
+    public enum Match {
+        /** The field contains the query anywhere; cannot use a B-tree index. */
+        CONTAINS,
+        /** The field starts with the query; can use an index on lower(field) with pattern ops. */
+        PREFIX
+    }
+
+    /**
+     * Loads one page of entities matching the search parameters.
+     *
+     * @param repository   the repository of the entities
+     * @param searchParams the map of search parameters
+     * @param searchFields map of search parameter names to entity attribute paths
+     * @param sortFields   map of sort parameter values to entity attribute paths
+     * @param <T>          the type of entity
+     * @return the requested page of matching entities
+     * @throws InvalidFilterException if a parameter is unknown or the page or size is invalid
+     */
+
+    public static <T> Page<T> apply(
+            JpaSpecificationExecutor<T> repository,
+            Map<String, String> searchParams,
+            Map<String, String> searchFields,
+            Map<String, String> sortFields) {
+        return apply(repository, searchParams, searchFields, sortFields, Match.CONTAINS, Map.of());
+    }
+
+    /**
+     * Loads one page of entities matching the search parameters, with custom filters for parameters that
+     * are not search fields.
+     *
+     * @param repository    the repository of the entities
+     * @param searchParams  the map of search parameters
+     * @param searchFields  map of search parameter names to entity attribute paths
+     * @param sortFields    map of sort parameter values to entity attribute paths
+     * @param match         how the "search" parameter is matched
+     * @param customFilters map of parameter names to functions building the filter for the parameter value
+     * @param <T>           the type of entity
+     * @return the requested page of matching entities
+     * @throws InvalidFilterException if a parameter is unknown or the page or size is invalid
+     */
+
+    public static <T> Page<T> apply(
+            JpaSpecificationExecutor<T> repository,
+            Map<String, String> searchParams,
+            Map<String, String> searchFields,
+            Map<String, String> sortFields,
+            Match match,
+            Map<String, Function<String, Specification<T>>> customFilters) {
+
+        logger.info("Searching with params: {}", searchParams);
+
+        Set<String> allowedParams = new HashSet<>(SPECIAL_PARAMS);
+        allowedParams.addAll(searchFields.keySet());
+        allowedParams.addAll(customFilters.keySet());
+        FilterUtils.validateParams(searchParams, allowedParams);
+
+        Specification<T> specification = toSpecification(searchParams, searchFields, match);
+        for (Map.Entry<String, Function<String, Specification<T>>> filter : customFilters.entrySet()) {
+            String value = searchParams.get(filter.getKey());
+            if (value != null && !value.isBlank()) {
+                specification = specification.and(filter.getValue().apply(value));
+            }
+        }
+
+        return repository.findAll(specification, toPageable(searchParams, sortFields));
+    }
+
+    /**
+     * Builds the predicates for the search parameters.
+     *
+     * @param searchParams the map of search parameters
+     * @param searchFields map of search parameter names to entity attribute paths
+     * @param match        how the "search" parameter is matched
+     * @param <T>          the type of entity
+     * @return the specification matching all filters
+     */
+
+    static <T> Specification<T> toSpecification(Map<String, String> searchParams, Map<String, String> searchFields, Match match) {
+        String query = FilterUtils.extractLowerCase(searchParams, "search").orElse(null);
+
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (query != null) {
+                String pattern = (match == Match.CONTAINS ? "%" : "") + escapeLike(query) + "%";
+                predicates.add(cb.or(searchFields.values().stream()
+                        .map(path -> cb.like(cb.lower(path(root, path)), pattern, '\\'))
+                        .toArray(Predicate[]::new)));
+            }
+
+            searchParams.forEach((key, value) -> {
+                if (!SPECIAL_PARAMS.contains(key) && searchFields.containsKey(key)) {
+                    predicates.add(cb.equal(cb.lower(path(root, searchFields.get(key))), value.toLowerCase().trim()));
+                }
+            });
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Builds the page request for the sort and pagination parameters.
+     *
+     * @param searchParams the map of search parameters
+     * @param sortFields   map of sort parameter values to entity attribute paths
+     * @return the page request
+     * @throws InvalidFilterException if the page is negative or the size is not positive
+     */
+
+    static Pageable toPageable(Map<String, String> searchParams, Map<String, String> sortFields) {
+        int page = FilterUtils.extractInt(searchParams, "page").orElse(0);
+        int size = FilterUtils.extractInt(searchParams, "size").orElse(DEFAULT_PAGE_SIZE);
+        if (page < 0 || size < 1) {
+            throw new InvalidFilterException("Page must not be negative and size must be positive.");
+        }
+
+        // sort values are matched ignoring case, e.g. "sort=username" for the sort field "userName"
+        String sortParam = FilterUtils.extractLowerCase(searchParams, "sort").orElse("id");
+        Sort.Direction direction = "desc".equals(FilterUtils.extractLowerCase(searchParams, "order").orElse("asc"))
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+
+        Sort sort = sortFields.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(sortParam))
+                .findFirst()
+                .map(entry -> Sort.by(new Sort.Order(direction, entry.getValue()).ignoreCase()))
+                .orElse(Sort.unsorted());
+
+        // a unique tie-breaker keeps pages stable when the sort field has duplicates
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+
+        return PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), sort);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Expression<String> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return (Expression<String>) path;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,5 +1,7 @@
 package com.makibeans.mapper;
 
+import com.makibeans.cache.CategoryProductCounts;
+import com.makibeans.cache.CategoryTree;
 import com.makibeans.dto.category.BreadCrumbDTO;
 import com.makibeans.dto.category.CategoryRequestDTO;
 import com.makibeans.dto.category.CategoryResponseDTO;
@@ -29,6 +31,8 @@ public interface CategoryMapper {
     @Mapping(target = "breadCrumbs", ignore = true)
     @Mapping(source = "parentCategory.id", target = "parentCategoryId")
     @Mapping(source = ".", target = "imageUrl", qualifiedByName = "getImageUrl")
+    @Mapping(target = "productCount", ignore = true)
+    @Mapping(target = "subtreeProductCount", ignore = true)
     CategoryResponseDTO toResponseDTO(Category category);
 
     /**
@@ -85,4 +89,35 @@ public interface CategoryMapper {
 
         return breadcrumbs;
     }
+
+    /**
+     * Converts a node of the cached category tree to a CategoryResponseDTO,
+     * including its subcategories, breadcrumbs and, if given, product counts, without touching the database.
+     *
+     * @param tree   the category tree the node belongs to
+     * @param node   the node to convert
+     * @param counts the product counts for the tree, or null to leave the counts out
+     * @return the converted CategoryResponseDTO
+     */
+
+    default CategoryResponseDTO toResponseDTO(CategoryTree tree, CategoryTree.Node node, CategoryProductCounts counts) {
+        List<CategoryResponseDTO> subCategories = tree.children(node).stream()
+                .map(child -> toResponseDTO(tree, child, counts))
+                .toList();
+
+        List<BreadCrumbDTO> breadCrumbs = tree.ancestors(node).stream()
+                .map(ancestor -> new BreadCrumbDTO(ancestor.id(), ancestor.name()))
+                .toList();
+
+        return new CategoryResponseDTO(
+                node.id(),
+                node.name(),
+                node.description(),
+                node.hasImage() ? "/categories/" + node.id() + "/image" : "null",
+                node.parentId(),
+                subCategories,
+                breadCrumbs,
+                counts != null ? counts.directCount(node.id()) : null,
+                counts != null ? counts.subtreeCount(node.id()) : null);
+    }
 }
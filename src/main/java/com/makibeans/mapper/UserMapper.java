@@ -34,6 +34,7 @@ public interface UserMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "roles", ignore = true)
     @Mapping(target = "authorities", ignore = true)
+    @Mapping(target = "tokensValidAfter", ignore = true)
     User toEntity(UserRequestDTO userRequestDTO);
 
     /**
@@ -7,6 +7,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -22,9 +24,12 @@ import java.util.List;
 @NoArgsConstructor
 @Getter
 @ToString(exclude = "attributeValues")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-data.attribute-templates")
 public class AttributeTemplate {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attribute_templates_seq")
+    @SequenceGenerator(name = "attribute_templates_seq", sequenceName = "attribute_templates_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Setter
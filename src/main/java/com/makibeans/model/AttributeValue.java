@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents an attribute value entity.
@@ -21,10 +23,13 @@ import lombok.ToString;
 })
 
 @ToString(exclude = "attributeTemplate")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-data.attribute-values")
 public class AttributeValue {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attribute_values_seq")
+    @SequenceGenerator(name = "attribute_values_seq", sequenceName = "attribute_values_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch= FetchType.LAZY)
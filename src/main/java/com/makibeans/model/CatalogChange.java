@@ -0,0 +1,72 @@
+package com.makibeans.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Represents an entry of the catalog change log.
+ * Every upsert or delete of a product, product variant, product attribute or category is logged in the
+ * transaction that makes it, under a sequence number that increases in commit order, so consumers can sync
+ * incrementally by asking for the changes after the last sequence number they have seen.
+ * Deleting a product also deletes its variants and attributes; those deletes are not logged separately.
+ */
+
+@Entity
+@Getter
+@NoArgsConstructor
+@ToString
+@Table(name = "catalog_changes")
+public class CatalogChange {
+
+    /**
+     * The kind of catalog entity that changed.
+     */
+
+    public enum EntityType {
+        PRODUCT,
+        PRODUCT_VARIANT,
+        PRODUCT_ATTRIBUTE,
+        CATEGORY
+    }
+
+    /**
+     * What happened to the entity.
+     */
+
+    public enum Operation {
+        /** The entity was created or updated; consumers fetch its current state. */
+        UPSERT,
+        /** The entity was deleted. */
+        DELETE
+    }
+
+    // one sequence value per entry: entries are written under the change log lock, so their order is the commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catalog_changes_seq")
+    @SequenceGenerator(name = "catalog_changes_seq", sequenceName = "catalog_changes_seq", allocationSize = 1)
+    @Column(name = "seq")
+    private Long seq;
+
+    @NotNull(message = "Entity type cannot be null.")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityType entityType;
+
+    @NotNull(message = "Entity ID cannot be null.")
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @NotNull(message = "Operation cannot be null.")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 10)
+    private Operation operation;
+
+    @NotNull(message = "Change date cannot be null.")
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
@@ -6,14 +6,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Represents a category in the system.
  * A category can have a parent category and multiple subcategories.
  * It can also contain multiple products.
+ * The path holds the IDs of all ancestors and the category itself, e.g. "/1/4/7/",
+ * so hierarchy checks and subtree queries are simple prefix comparisons.
  */
 
 @Entity
@@ -27,15 +31,19 @@ import java.util.List;
         },
         indexes = {
                 @Index(name = "idx_category_name", columnList = "name"),
-                @Index(name = "idx_category_description", columnList = "description")
+                @Index(name = "idx_category_description", columnList = "description"),
+                @Index(name = "idx_category_path", columnList = "path")
         }
 )
 
-@ToString(exclude = {"parentCategory", "subCategories", "image", "products"})
+@ToString(exclude = {"parentCategory", "subCategories", "image", "products", "path"})
 public class Category {
 
+    public static final String PATH_SEPARATOR = "/";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Setter
@@ -52,6 +60,11 @@ public class Category {
     @Column(name = "image", nullable = true)
     private byte[] image;
 
+    @Setter
+    @ColumnDefault("'" + PATH_SEPARATOR + "'")
+    @Column(name = "path", nullable = false, length = 500)
+    private String path;
+
     @Setter
     @ManyToOne
     @JoinColumn(name = "parent_category_id", nullable = true)
@@ -72,5 +85,41 @@ public class Category {
         this.name = name;
         this.description = description;
     }
-}
 
+    /**
+     * Recomputes the path from the path of the parent category and the ID of this category.
+     * As long as no ID has been assigned, the path is the path of the parent category.
+     */
+
+    public void updatePath() {
+        String parentPath = parentCategory != null ? parentCategory.getPath() : PATH_SEPARATOR;
+        this.path = id != null ? parentPath + id + PATH_SEPARATOR : parentPath;
+    }
+
+    /**
+     * Checks if this category is the given category or one of its ancestors.
+     *
+     * @param other the category to check
+     * @return true if the path of the other category starts with the path of this category, false otherwise
+     */
+
+    public boolean isAncestorOrSelfOf(Category other) {
+        return path != null && other.getPath() != null && other.getPath().startsWith(path);
+    }
+
+    /**
+     * Returns the IDs on the path of this category, from the root category down to this category.
+     *
+     * @return the IDs on the path, or an empty list if no path has been assigned
+     */
+
+    public List<Long> getPathIds() {
+        if (path == null) {
+            return List.of();
+        }
+        return Arrays.stream(path.split(PATH_SEPARATOR))
+                .filter(segment -> !segment.isEmpty())
+                .map(Long::parseLong)
+                .toList();
+    }
+}
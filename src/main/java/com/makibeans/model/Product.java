@@ -28,7 +28,8 @@ import java.util.List;
 
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     Long id;
 
     @Setter
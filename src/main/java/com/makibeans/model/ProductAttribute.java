@@ -27,7 +27,8 @@ import java.util.List;
 public class ProductAttribute {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_attributes_seq")
+    @SequenceGenerator(name = "product_attributes_seq", sequenceName = "product_attributes_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Setter
@@ -19,7 +19,7 @@ import org.hibernate.annotations.OnDeleteAction;
 @NoArgsConstructor
 @Getter
 @Entity
-@ToString(exclude = {"product", "size"})
+@ToString(exclude = {"product", "size", "version"})
 @Table(name = "product_variants",
         indexes = {
                 @Index(name = "idx_product_variant_price", columnList = "price_in_cents")
@@ -30,7 +30,8 @@ import org.hibernate.annotations.OnDeleteAction;
 public class ProductVariant {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_variants_seq")
+    @SequenceGenerator(name = "product_variants_seq", sequenceName = "product_variants_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Setter
@@ -65,6 +66,11 @@ public class ProductVariant {
     @Column(name = "stock", nullable = false)
     private Long stock;
 
+    // guards read-modify-write edits; flushed sales bump it too, so an edit based on stale stock fails
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public ProductVariant(Product product, Size size, Long priceInCents, String sku, Long stock) {
         this.product = product;
         this.size = size;
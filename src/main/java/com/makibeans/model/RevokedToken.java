@@ -0,0 +1,58 @@
+package com.makibeans.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Represents a revoked JWT token.
+ * Tokens are identified by their unique token ID (jti claim) and kept until they expire.
+ */
+
+@Entity
+@Getter
+@NoArgsConstructor
+@ToString
+@Table(name = "revoked_tokens",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"token_id"})
+        },
+        indexes = {
+                @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"),
+                @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")
+        })
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
+    private Long id;
+
+    @NotBlank(message = "Token ID cannot be blank.")
+    @Column(name = "token_id", nullable = false, length = 36)
+    private String tokenId;
+
+    @NotBlank(message = "Username cannot be blank.")
+    @Column(name = "username", nullable = false, length = 50)
+    private String username;
+
+    @NotNull(message = "Expiration date cannot be null.")
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @NotNull(message = "Revocation date cannot be null.")
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public RevokedToken(String tokenId, String username, Instant expiresAt, Instant revokedAt) {
+        this.tokenId = tokenId;
+        this.username = username;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+}
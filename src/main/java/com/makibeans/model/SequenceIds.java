@@ -0,0 +1,15 @@
+package com.makibeans.model;
+
+/**
+ * Settings shared by the ID sequences of the entities and by code that allocates IDs from them directly.
+ */
+
+public class SequenceIds {
+
+    /**
+     * How many IDs a sequence value stands for. With the pooled-lo optimizer a sequence value is the first ID
+     * of a block of this size, so bulk inserts can allocate IDs the same way Hibernate does.
+     */
+
+    public static final int ALLOCATION_SIZE = 50;
+}
@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a Size.
@@ -22,10 +24,13 @@ import lombok.ToString;
                 @Index(name = "idx_size_name", columnList = "name")
         })
 @ToString
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-data.sizes")
 public class Size {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sizes_seq")
+    @SequenceGenerator(name = "sizes_seq", sequenceName = "sizes_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Setter
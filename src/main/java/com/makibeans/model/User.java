@@ -5,9 +5,11 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -35,7 +37,8 @@ import java.util.Set;
         })
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Username cannot be blank.")
@@ -54,7 +57,12 @@ public class User implements UserDetails {
     @Column(nullable = false, length = 255)
     private String password;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @Column(name = "tokens_valid_after", nullable = true)
+    private Instant tokensValidAfter;
+
+    // loaded in batches, so a page of users costs one query for all of their roles
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
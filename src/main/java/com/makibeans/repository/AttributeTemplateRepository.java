@@ -2,14 +2,19 @@ package com.makibeans.repository;
 
 import com.makibeans.model.AttributeTemplate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for the attribute template entity.
  */
 
-public interface AttributeTemplateRepository extends JpaRepository<AttributeTemplate, Long> {
+public interface AttributeTemplateRepository extends JpaRepository<AttributeTemplate, Long>, JpaSpecificationExecutor<AttributeTemplate> {
 
     /**
      * Returns the attribute template with the given name.
@@ -19,4 +24,58 @@ public interface AttributeTemplateRepository extends JpaRepository<AttributeTemp
      */
 
     boolean existsByName(String trimmedName);
+
+    /**
+     * Deletes all links to attribute values of the given template, whether through product attributes
+     * of the template or to one of its values.
+     *
+     * @param templateId The ID of the attribute template.
+     */
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM product_attribute_values " +
+            "WHERE product_attribute_id IN (SELECT id FROM product_attributes WHERE template_id = :templateId) " +
+            "OR attribute_value_id IN (SELECT id FROM attribute_values WHERE template_id = :templateId)", nativeQuery = true)
+    void deleteAttributeValueLinksByTemplateId(@Param("templateId") Long templateId);
+
+    /**
+     * Finds the IDs of the product attributes of the given template.
+     *
+     * @param templateId The ID of the attribute template.
+     * @return The IDs of the product attributes.
+     */
+
+    @Query(value = "SELECT id FROM product_attributes WHERE template_id = :templateId", nativeQuery = true)
+    List<Long> findProductAttributeIdsByTemplateId(@Param("templateId") Long templateId);
+
+    /**
+     * Deletes the product attributes of the given template.
+     *
+     * @param templateId The ID of the attribute template.
+     */
+
+    @Modifying
+    @Query(value = "DELETE FROM product_attributes WHERE template_id = :templateId", nativeQuery = true)
+    void deleteProductAttributesByTemplateId(@Param("templateId") Long templateId);
+
+    /**
+     * Deletes the attribute values of the given template.
+     *
+     * @param templateId The ID of the attribute template.
+     */
+
+    @Modifying
+    @Query(value = "DELETE FROM attribute_values WHERE template_id = :templateId", nativeQuery = true)
+    void deleteAttributeValuesByTemplateId(@Param("templateId") Long templateId);
+
+    /**
+     * Deletes an attribute template without loading it. Its product attributes and values must be deleted first.
+     *
+     * @param templateId The ID of the attribute template.
+     * @return The number of deleted templates, 0 if the template does not exist.
+     */
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM attribute_templates WHERE id = :templateId", nativeQuery = true)
+    int deleteAttributeTemplateById(@Param("templateId") Long templateId);
 }
@@ -4,6 +4,7 @@ import com.makibeans.model.AttributeTemplate;
 import com.makibeans.model.AttributeValue;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 
 import java.beans.JavaBean;
@@ -14,7 +15,7 @@ import java.util.Optional;
  * Repository for the attribute value entity.
  */
 
-public interface AttributeValueRepository extends JpaRepository<AttributeValue, Long> {
+public interface AttributeValueRepository extends JpaRepository<AttributeValue, Long>, JpaSpecificationExecutor<AttributeValue> {
 
     /**
      * Returns the attribute value with the given value.
@@ -0,0 +1,36 @@
+package com.makibeans.repository;
+
+import com.makibeans.model.CatalogChange;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for reading the catalog change log.
+ * Entries are written by the CatalogChangeService only, in the transaction of the change they record.
+ */
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    /**
+     * Streams the change log entries after the given sequence number, in sequence order, through a server-side cursor.
+     * Must be called within a transaction and the stream must be closed.
+     *
+     * @param since the last sequence number the caller has seen
+     * @return a stream of change log entries
+     */
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c.seq AS seq, c.entityType AS entityType, c.entityId AS entityId, " +
+            "c.operation AS operation, c.changedAt AS changedAt " +
+            "FROM CatalogChange c WHERE c.seq > :since ORDER BY c.seq")
+    Stream<CatalogChangeRow> streamSince(@Param("since") long since);
+}
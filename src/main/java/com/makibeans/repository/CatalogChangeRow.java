@@ -0,0 +1,22 @@
+package com.makibeans.repository;
+
+import com.makibeans.model.CatalogChange;
+
+import java.time.Instant;
+
+/**
+ * Projection of a catalog change log entry.
+ */
+
+public interface CatalogChangeRow {
+
+    Long getSeq();
+
+    CatalogChange.EntityType getEntityType();
+
+    Long getEntityId();
+
+    CatalogChange.Operation getOperation();
+
+    Instant getChangedAt();
+}
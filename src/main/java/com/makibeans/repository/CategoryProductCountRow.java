@@ -0,0 +1,12 @@
+package com.makibeans.repository;
+
+/**
+ * Projection of the number of products directly assigned to a category.
+ */
+
+public interface CategoryProductCountRow {
+
+    Long getCategoryId();
+
+    long getProductCount();
+}
@@ -4,6 +4,7 @@ import com.makibeans.model.Category;
 import com.makibeans.model.Product;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -44,4 +45,65 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
 
     List<Category> findByParentCategoryId(Long parentCategoryId);
+
+    /**
+     * Returns the IDs of the categories in the subtree with the given path, i.e. of the category
+     * with that path and of all its descendants.
+     *
+     * @param path The path of the root category of the subtree.
+     * @return The IDs of the categories in the subtree.
+     */
+
+    @Query("SELECT c.id FROM Category c WHERE c.path LIKE CONCAT(:path, '%')")
+    List<Long> findIdsInSubtree(@Param("path") String path);
+
+    /**
+     * Returns the names of the products in the subtree with the given path, i.e. in the category
+     * with that path or in any of its descendants.
+     *
+     * @param path The path of the root category of the subtree.
+     * @return The names of the products in the subtree, ordered by name.
+     */
+
+    @Query("SELECT p.name FROM Product p WHERE p.category.path LIKE CONCAT(:path, '%') ORDER BY p.name")
+    List<String> findProductNamesInSubtree(@Param("path") String path);
+
+    /**
+     * Moves the descendants of a category by replacing the prefix of their paths.
+     *
+     * @param oldPath The previous path of the moved category.
+     * @param newPath The new path of the moved category.
+     * @return The number of updated descendants.
+     */
+
+    @Modifying
+    @Query("""
+            UPDATE Category c SET c.path = CONCAT(:newPath, SUBSTRING(c.path, LENGTH(:oldPath) + 1))
+            WHERE c.path LIKE CONCAT(:oldPath, '%') AND c.path <> :oldPath
+            """)
+    int updateDescendantPaths(@Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    /**
+     * Checks if any of the categories with the given IDs has the given name, ignoring case.
+     *
+     * @param ids The IDs of the categories.
+     * @param name The name to look for.
+     * @return true if one of the categories has the given name, false otherwise.
+     */
+
+    boolean existsByIdInAndNameIgnoreCase(Collection<Long> ids, String name);
+
+    /**
+     * Returns all categories as flat rows without loading images, parents or subcategories.
+     *
+     * @return The rows of all categories, ordered by ID.
+     */
+
+    @Query("""
+            SELECT c.id AS id, c.name AS name, c.description AS description, p.id AS parentCategoryId,
+                   CASE WHEN c.image IS NULL THEN false ELSE true END AS hasImage
+            FROM Category c LEFT JOIN c.parentCategory p
+            ORDER BY c.id
+            """)
+    List<CategoryTreeRow> findTreeRows();
 }
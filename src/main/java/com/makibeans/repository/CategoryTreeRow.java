@@ -0,0 +1,18 @@
+package com.makibeans.repository;
+
+/**
+ * Projection of a category row with only the columns needed to build the category tree.
+ */
+
+public interface CategoryTreeRow {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Long getParentCategoryId();
+
+    boolean getHasImage();
+}
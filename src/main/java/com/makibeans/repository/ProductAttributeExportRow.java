@@ -0,0 +1,21 @@
+package com.makibeans.repository;
+
+/**
+ * Projection of a product attribute with one of its values for the catalog export.
+ * An attribute without values has a single row with a null value.
+ */
+
+public interface ProductAttributeExportRow {
+
+    Long getProductId();
+
+    Long getId();
+
+    Long getTemplateId();
+
+    String getTemplateName();
+
+    Long getValueId();
+
+    String getValue();
+}
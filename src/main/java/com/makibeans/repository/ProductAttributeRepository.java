@@ -1,12 +1,16 @@
 package com.makibeans.repository;
 
 import com.makibeans.model.ProductAttribute;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing `ProductAttribute` entities.
@@ -24,6 +28,16 @@ public interface ProductAttributeRepository extends JpaRepository<ProductAttribu
 
     boolean existsByProductIdAndAttributeTemplateId(Long productId, Long templateId);
 
+    /**
+     * Finds the IDs of the ProductAttributes linked to an attribute value.
+     *
+     * @param attributeValueId the ID of the attribute value
+     * @return the IDs of the ProductAttributes
+     */
+
+    @Query(value = "SELECT product_attribute_id FROM product_attribute_values WHERE attribute_value_id = :attributeValueId", nativeQuery = true)
+    List<Long> findIdsByAttributeValueId(@Param("attributeValueId") Long attributeValueId);
+
     /**
      * Deletes attribute values by attribute value ID.
      *
@@ -62,5 +76,20 @@ public interface ProductAttributeRepository extends JpaRepository<ProductAttribu
 
     List<ProductAttribute> findByProductId(Long productId);
 
+    /**
+     * Streams all product attributes with their template and values, ordered by product ID, through a server-side cursor.
+     * Must be called within a transaction and the stream must be closed.
+     *
+     * @return a stream of rows, one per attribute value
+     */
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT pa.product.id AS productId, pa.id AS id, t.id AS templateId, t.name AS templateName, " +
+            "v.id AS valueId, v.value AS value " +
+            "FROM ProductAttribute pa JOIN pa.attributeTemplate t LEFT JOIN pa.attributeValues v " +
+            "ORDER BY pa.product.id, pa.id, v.id")
+    Stream<ProductAttributeExportRow> streamAllForExport();
 }
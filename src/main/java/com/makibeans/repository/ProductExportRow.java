@@ -0,0 +1,20 @@
+package com.makibeans.repository;
+
+/**
+ * Projection of a product row for the catalog export.
+ */
+
+public interface ProductExportRow {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    boolean getHasImage();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+}
@@ -1,12 +1,18 @@
 package com.makibeans.repository;
 
 import com.makibeans.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing `Product` entities.
@@ -32,4 +38,91 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT p FROM Product p WHERE p.category.id = :id")
     List<Product> findProductsByCategoryId(@Param("id") Long categoryId);
+
+    /**
+     * Finds all products in the subtree of categories with the given path.
+     *
+     * @param path the path of the root category of the subtree
+     * @return a list of products in the category with that path or in any of its descendants
+     */
+
+    List<Product> findByCategoryPathStartingWith(String path);
+
+    /**
+     * Counts the products directly assigned to each category.
+     *
+     * @return one row per category that has at least one product
+     */
+
+    @Query("SELECT p.category.id AS categoryId, COUNT(p) AS productCount FROM Product p GROUP BY p.category.id")
+    List<CategoryProductCountRow> countProductsByCategory();
+
+    /**
+     * Finds which of the given product names are already taken.
+     *
+     * @param names the product names to check
+     * @return the names that already exist
+     */
+
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * Deletes the links between the attributes of a product and their attribute values.
+     *
+     * @param productId the ID of the product
+     */
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM product_attribute_values WHERE product_attribute_id IN " +
+            "(SELECT id FROM product_attributes WHERE product_id = :productId)", nativeQuery = true)
+    void deleteAttributeValueLinksByProductId(@Param("productId") Long productId);
+
+    /**
+     * Deletes the product attributes of a product.
+     *
+     * @param productId the ID of the product
+     */
+
+    @Modifying
+    @Query(value = "DELETE FROM product_attributes WHERE product_id = :productId", nativeQuery = true)
+    void deleteProductAttributesByProductId(@Param("productId") Long productId);
+
+    /**
+     * Deletes the variants of a product.
+     *
+     * @param productId the ID of the product
+     */
+
+    @Modifying
+    @Query(value = "DELETE FROM product_variants WHERE product_id = :productId", nativeQuery = true)
+    void deleteProductVariantsByProductId(@Param("productId") Long productId);
+
+    /**
+     * Deletes a product without loading it. Its attributes and variants must be deleted first.
+     *
+     * @param productId the ID of the product
+     * @return the number of deleted products, 0 if the product does not exist
+     */
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM products WHERE id = :productId", nativeQuery = true)
+    int deleteProductById(@Param("productId") Long productId);
+
+    /**
+     * Streams all products with their category, ordered by ID, through a server-side cursor.
+     * Must be called within a transaction and the stream must be closed.
+     *
+     * @return a stream of product rows
+     */
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, " +
+            "CASE WHEN p.image IS NULL THEN false ELSE true END AS hasImage, " +
+            "c.id AS categoryId, c.name AS categoryName " +
+            "FROM Product p JOIN p.category c ORDER BY p.id")
+    Stream<ProductExportRow> streamAllForExport();
 }
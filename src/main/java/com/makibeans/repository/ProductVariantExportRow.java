@@ -0,0 +1,24 @@
+package com.makibeans.repository;
+
+/**
+ * Projection of a product variant row with its size for the catalog export.
+ */
+
+public interface ProductVariantExportRow {
+
+    Long getProductId();
+
+    Long getId();
+
+    Long getSizeId();
+
+    String getSizeName();
+
+    String getSku();
+
+    Long getPriceInCents();
+
+    Long getStock();
+
+    Long getVersion();
+}
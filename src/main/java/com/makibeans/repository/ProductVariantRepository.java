@@ -3,12 +3,19 @@ package com.makibeans.repository;
 import com.makibeans.model.Product;
 import com.makibeans.model.ProductVariant;
 import com.makibeans.model.Size;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing `ProductVariant` entities.
  */
@@ -25,6 +32,16 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
 
     boolean existsByProductAndSize(Product product, Size size);
 
+    /**
+     * Finds the IDs of the ProductVariants of a size.
+     *
+     * @param sizeId the ID of the size
+     * @return the IDs of the ProductVariants
+     */
+
+    @Query("SELECT pv.id FROM ProductVariant pv WHERE pv.size.id = :sizeId")
+    List<Long> findIdsBySizeId(@Param("sizeId") Long sizeId);
+
     /**
      * Deletes ProductVariants by size ID.
      *
@@ -36,4 +53,29 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Query("DELETE FROM ProductVariant pv WHERE pv.size.id = :sizeId")
     void deleteBySizeId(@Param("sizeId") Long sizeId);
 
+    /**
+     * Finds the stock of the given ProductVariants without loading the entities.
+     *
+     * @param ids the IDs of the ProductVariants
+     * @return the stock rows of the ProductVariants that exist
+     */
+
+    @Query("SELECT pv.id AS id, pv.product.id AS productId, pv.stock AS stock FROM ProductVariant pv WHERE pv.id IN :ids")
+    List<ProductVariantStockRow> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams all product variants with their size, ordered by product ID, through a server-side cursor.
+     * Must be called within a transaction and the stream must be closed.
+     *
+     * @return a stream of product variant rows
+     */
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT pv.product.id AS productId, pv.id AS id, s.id AS sizeId, s.name AS sizeName, pv.sku AS sku, " +
+            "pv.priceInCents AS priceInCents, pv.stock AS stock, pv.version AS version " +
+            "FROM ProductVariant pv JOIN pv.size s ORDER BY pv.product.id, pv.id")
+    Stream<ProductVariantExportRow> streamAllForExport();
 }
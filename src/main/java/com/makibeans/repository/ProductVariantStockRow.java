@@ -0,0 +1,14 @@
+package com.makibeans.repository;
+
+/**
+ * Projection of a product variant row with only its product and stock.
+ */
+
+public interface ProductVariantStockRow {
+
+    Long getId();
+
+    Long getProductId();
+
+    Long getStock();
+}
@@ -0,0 +1,59 @@
+package com.makibeans.repository;
+
+import com.makibeans.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for managing `RevokedToken` entities.
+ */
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Checks if a revoked token with the given token ID exists.
+     *
+     * @param tokenId the token ID (jti claim)
+     * @return true if the token has been revoked, false otherwise
+     */
+
+    boolean existsByTokenId(String tokenId);
+
+    /**
+     * Finds all revoked tokens that have not expired yet.
+     *
+     * @param now the current time
+     * @return a list of revoked tokens that expire after the given time
+     */
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    /**
+     * Finds all unexpired tokens that were revoked after the given time.
+     *
+     * @param since the time after which the tokens were revoked
+     * @param now   the current time
+     * @return a list of revoked tokens
+     */
+
+    @Query("SELECT rt FROM RevokedToken rt WHERE rt.revokedAt > :since AND rt.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    /**
+     * Deletes all revoked tokens that have expired.
+     *
+     * @param now the current time
+     * @return the number of deleted tokens
+     */
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
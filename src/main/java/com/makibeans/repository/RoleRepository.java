@@ -1,7 +1,10 @@
 package com.makibeans.repository;
 
 import com.makibeans.model.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 
@@ -17,11 +20,14 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
 
     /**
      * Finds a Role by its name.
+     * The result is kept in the query cache and the role in the second-level cache,
+     * until a role is written.
      *
      * @param name the name of the role to find.
      * @return an Optional containing the Role if found, or empty if not found.
      */
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
 
     /**
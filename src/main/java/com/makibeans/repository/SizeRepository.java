@@ -2,13 +2,14 @@ package com.makibeans.repository;
 
 import com.makibeans.model.Size;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 /**
  * Repository interface for managing `Size` entities.
  * Provides methods to perform CRUD operations and custom queries on Size data.
  */
 
-public interface SizeRepository extends JpaRepository<Size, Long> {
+public interface SizeRepository extends JpaRepository<Size, Long>, JpaSpecificationExecutor<Size> {
 
     /**
      * Checks if a Size with the given name exists.
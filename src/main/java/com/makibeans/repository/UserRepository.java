@@ -1,7 +1,9 @@
 package com.makibeans.repository;
 
 import com.makibeans.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,16 +14,17 @@ import java.util.Optional;
  */
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
 
     /**
-     * Finds a User by their username.
+     * Finds a User by their username, with their roles, which are needed for authentication.
      *
      * @param username the username of the User to find.
      * @return an Optional containing the User if found, or empty if not found.
      */
 
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
 
     /**
@@ -11,6 +11,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import io.jsonwebtoken.io.Decoders;
@@ -48,6 +49,28 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Extracts the unique token ID (jti claim) from the JWT token.
+     *
+     * @param token the JWT token
+     * @return the token ID, or null for tokens issued without one
+     */
+
+    public String extractTokenId(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
+    /**
+     * Extracts the issue date from the JWT token.
+     *
+     * @param token the JWT token
+     * @return the issue date
+     */
+
+    public Date extractIssuedAt(String token) {
+        return extractClaim(token, Claims::getIssuedAt);
+    }
+
     /**
      * Extracts a specific claim from the JWT token.
      *
@@ -85,7 +108,7 @@ public class JwtUtil {
      * @return the expiration date
      */
 
-    private Date extractExpiration(String token) {
+    public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
 
@@ -123,6 +146,7 @@ public class JwtUtil {
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24 * 10)) // 10 days
@@ -1,29 +1,33 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateRequestDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateResponseDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateUpdateDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
-import com.makibeans.filter.SearchFilter;
+import com.makibeans.filter.SearchSpecification;
 import com.makibeans.mapper.AttributeTemplateMapper;
 import com.makibeans.model.AttributeTemplate;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.repository.AttributeTemplateRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.makibeans.util.UpdateUtils.normalize;
@@ -38,18 +42,22 @@ public class AttributeTemplateService extends AbstractCrudService<AttributeTempl
 
     private final AttributeTemplateRepository attributeTemplateRepository;
     private final AttributeTemplateMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
     private final Logger logger = LoggerFactory.getLogger(AttributeTemplateService.class);
-    private final ProductAttributeService productAttributeService;
 
     @Autowired
     public AttributeTemplateService(
             JpaRepository<AttributeTemplate, Long> repository,
             AttributeTemplateRepository attributeTemplateRepository,
-            AttributeTemplateMapper mapper, @Lazy ProductAttributeService productAttributeService) {
+            AttributeTemplateMapper mapper,
+            ApplicationEventPublisher eventPublisher,
+            CatalogChangeService catalogChangeService) {
         super(repository);
         this.attributeTemplateRepository = attributeTemplateRepository;
         this.mapper = mapper;
-        this.productAttributeService = productAttributeService;
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
     }
 
     /**
@@ -68,39 +76,37 @@ public class AttributeTemplateService extends AbstractCrudService<AttributeTempl
     }
 
     /**
-     * Searches for AttributeTemplates based on the provided filters.
+     * Searches for a page of AttributeTemplates based on the provided filters.
      * The search is performed on the name of the AttributeTemplate.
      *
      * @param searchParams the map containing the search params
-     * @return a list of AttributeTemplateResponseDTOs representing the matched attribute templates
+     * @return a PageDTO of AttributeTemplateResponseDTOs representing the matched attribute templates
      */
 
     @Transactional(readOnly = true)
-    public List<AttributeTemplateResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
+    public PageDTO<AttributeTemplateResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
         logger.debug("Searching AttributeTemplates with filters: {}", searchParams);
 
-        Map<String, Function<AttributeTemplate, String>> searchFields = Map.of(
-                "name", AttributeTemplate::getName);
+        Map<String, String> searchFields = Map.of(
+                "name", "name");
 
-        Map<String, Comparator<AttributeTemplate>> sortFields = Map.of(
-                "id", Comparator.comparing(AttributeTemplate::getId, Comparator.nullsLast(Comparator.naturalOrder())),
-                "name", Comparator.comparing(AttributeTemplate::getName, String.CASE_INSENSITIVE_ORDER));
+        Map<String, String> sortFields = Map.of(
+                "id", "id",
+                "name", "name");
 
-        List<AttributeTemplate> matchedTemplates = SearchFilter.apply(
-                findAll(),
+        Page<AttributeTemplate> matchedTemplates = SearchSpecification.apply(
+                attributeTemplateRepository,
                 searchParams,
                 searchFields,
                 sortFields);
 
-        logger.info("Found {} matching AttributeTemplates", matchedTemplates.size());
+        logger.info("Found {} matching AttributeTemplates", matchedTemplates.getTotalElements());
 
-        return matchedTemplates.stream()
-                .map(mapper::toResponseDTO)
-                .toList();
+        return PageDTO.from(matchedTemplates.map(mapper::toResponseDTO));
     }
 
     /**
-     * Creates a new AttributeTemplate and refreshed the cache of valid attribute keys.
+     * Creates a new AttributeTemplate and publishes the change, so the cache of valid attribute keys is refreshed.
      *
      * @param dto the DTO containing the attribute template details
      * @return the created AttributeTemplate entity as AttributeTemplateResponseDTO
@@ -117,13 +123,15 @@ public class AttributeTemplateService extends AbstractCrudService<AttributeTempl
 
         AttributeTemplate createdAttributeTemplate = create(attributeTemplate);
 
-        refreshAttributeCache();
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.ATTRIBUTE_TEMPLATES));
 
         return mapper.toResponseDTO(createdAttributeTemplate);
     }
 
     /**
-     * Deletes an AttributeTemplate and associated product attributes by ID.
+     * Deletes an AttributeTemplate with its values and associated product attributes by ID.
+     * Everything is removed with four set-based statements, however widely the template is used.
+     * The deleted product attributes are recorded in the catalog change log.
      *
      * @param id the ID of the attribute template to delete
      * @throws ResourceNotFoundException if the attribute template does not exist
@@ -131,24 +139,23 @@ public class AttributeTemplateService extends AbstractCrudService<AttributeTempl
 
     @Transactional
     public void deleteAttributeTemplate(Long id) {
-        findById(id);
-        deleteProductAttributesByTemplateId(id);
-        delete(id);
-    }
+        if (id == null) {
+            throw new IllegalArgumentException("AttributeTemplate ID cannot be null.");
+        }
 
-    /**
-     * Deletes all product attributes associated with the given attribute template ID.
-     *
-     * @param id the ID of the attribute template whose product attributes are to be deleted
-     */
+        List<Long> productAttributeIds = attributeTemplateRepository.findProductAttributeIdsByTemplateId(id);
+        attributeTemplateRepository.deleteAttributeValueLinksByTemplateId(id);
+        attributeTemplateRepository.deleteProductAttributesByTemplateId(id);
+        attributeTemplateRepository.deleteAttributeValuesByTemplateId(id);
+        if (attributeTemplateRepository.deleteAttributeTemplateById(id) == 0) {
+            throw new ResourceNotFoundException("AttributeTemplate with ID " + id + " not found.");
+        }
+        catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, productAttributeIds, CatalogChange.Operation.DELETE);
 
-    private void deleteProductAttributesByTemplateId(Long id) {
-        productAttributeService.getProductAttributesByTemplateId(id)
-                .forEach(productAttribute ->
-                        productAttributeService.deleteProductAttribute(productAttribute.getId()));
+        logger.info("Deleted AttributeTemplate with ID {}", id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.ATTRIBUTE_TEMPLATES));
     }
 
-
     /**
      * Updates an existing AttributeTemplate.
      *
@@ -168,9 +175,11 @@ public class AttributeTemplateService extends AbstractCrudService<AttributeTempl
 
         boolean updated = updateAttributeTemplateNameField(attributeTemplate, dto.getName());
 
-        AttributeTemplate updatedAttributeTemplate = updated ? update(id, attributeTemplate) : attributeTemplate;
-
-        refreshAttributeCache();
+        AttributeTemplate updatedAttributeTemplate = attributeTemplate;
+        if (updated) {
+            updatedAttributeTemplate = update(id, attributeTemplate);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.ATTRIBUTE_TEMPLATES));
+        }
 
         return mapper.toResponseDTO(updatedAttributeTemplate);
     }
@@ -225,11 +234,16 @@ public class AttributeTemplateService extends AbstractCrudService<AttributeTempl
     }
 
     /**
-     * Evicts all entries from the cache named "validAttributeKeys".
-     * This method is used to refresh the cache when attribute templates are created, updated, or deleted.
+     * Evicts all entries from the cache named "validAttributeKeys" once the transaction that created, renamed
+     * or deleted an attribute template has completed. Spring invokes listeners through the proxy,
+     * so the eviction is applied, unlike a call from within this class.
+     *
+     * @param event the catalog change
      */
 
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true,
+            condition = "#root.event.scope() == T(com.makibeans.cache.CatalogChangedEvent.Scope).ATTRIBUTE_TEMPLATES")
     @CacheEvict(value = "validAttributeKeys", allEntries = true)
-    public void refreshAttributeCache() {
+    public void onCatalogChanged(CatalogChangedEvent event) {
     }
 }
@@ -1,24 +1,26 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.attributevalue.AttributeValueRequestDTO;
 import com.makibeans.dto.attributevalue.AttributeValueResponseDTO;
 import com.makibeans.dto.attributevalue.AttributeValueUpdateDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
-import com.makibeans.filter.SearchFilter;
+import com.makibeans.filter.SearchSpecification;
 import com.makibeans.mapper.AttributeValueMapper;
 import com.makibeans.model.AttributeTemplate;
 import com.makibeans.model.AttributeValue;
 import com.makibeans.repository.AttributeValueRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 import static com.makibeans.util.UpdateUtils.normalize;
 import static com.makibeans.util.UpdateUtils.shouldUpdate;
@@ -34,18 +36,21 @@ public class AttributeValueService extends AbstractCrudService<AttributeValue, L
     private final AttributeTemplateService attributeTemplateService;
     private final ProductAttributeService productAttributeService;
     private final AttributeValueMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Autowired
     public AttributeValueService(AttributeValueRepository attributeValueRepository,
                                  AttributeTemplateService attributeTemplateService,
                                  @Lazy ProductAttributeService productAttributeService,
-                                 AttributeValueMapper mapper) {
+                                 AttributeValueMapper mapper,
+                                 ApplicationEventPublisher eventPublisher) {
         super(attributeValueRepository);
         this.attributeValueRepository = attributeValueRepository;
         this.attributeTemplateService = attributeTemplateService;
         this.productAttributeService = productAttributeService;
         this.mapper = mapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -64,36 +69,34 @@ public class AttributeValueService extends AbstractCrudService<AttributeValue, L
     }
 
     /**
-     * Searches for AttributeValues based on the provided filters.
-     * The search is performed on the value field of the AttributeValue.
+     * Searches for a page of AttributeValues based on the provided filters.
+     * The search is performed on the value field of the AttributeValue and the name of its AttributeTemplate.
      *
-     * @param searchParams the map containing the search parameters (e.g., "search", "sort", "order")
-     * @return a list of AttributeValueResponseDTOs representing the matched attribute values
+     * @param searchParams the map containing the search parameters (e.g., "search", "sort", "order", "page", "size")
+     * @return a PageDTO of AttributeValueResponseDTOs representing the matched attribute values
      */
 
     @Transactional(readOnly = true)
-    public List<AttributeValueResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
+    public PageDTO<AttributeValueResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
 
-        Map<String, Function<AttributeValue, String>> searchFields = Map.of(
-                "value", AttributeValue::getValue,
-                "attributeTemplate", attributeValue -> attributeValue.getAttributeTemplate().getName()
+        Map<String, String> searchFields = Map.of(
+                "value", "value",
+                "attributeTemplate", "attributeTemplate.name"
         );
 
-        Map<String, Comparator<AttributeValue>> sortFields = Map.of(
-                "id", Comparator.comparing(AttributeValue::getId, Comparator.nullsLast(Comparator.naturalOrder())),
-                "value", Comparator.comparing(AttributeValue::getValue, String.CASE_INSENSITIVE_ORDER),
-                "attributeTemplate", Comparator.comparing(attributeValue -> attributeValue.getAttributeTemplate().getName()));
+        Map<String, String> sortFields = Map.of(
+                "id", "id",
+                "value", "value",
+                "attributeTemplate", "attributeTemplate.name");
 
-        // Apply filtering and sorting using SearchFilter
-        List<AttributeValue> matchedValues = SearchFilter.apply(
-                findAll(),
+        // Apply filtering, sorting and pagination in the database
+        Page<AttributeValue> matchedValues = SearchSpecification.apply(
+                attributeValueRepository,
                 searchParams,
                 searchFields,
                 sortFields);
 
-        return matchedValues.stream()
-                .map(mapper::toResponseDTO)
-                .toList();
+        return PageDTO.from(matchedValues.map(mapper::toResponseDTO));
     }
 
     /**
@@ -134,6 +137,7 @@ public class AttributeValueService extends AbstractCrudService<AttributeValue, L
         AttributeValue attributeValue = new AttributeValue(attributeTemplate, normalizedValue);
 
         AttributeValue savedAttributeValue = create(attributeValue);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
 
         return mapper.toResponseDTO(savedAttributeValue);
     }
@@ -150,6 +154,7 @@ public class AttributeValueService extends AbstractCrudService<AttributeValue, L
         findById(id);
         productAttributeService.deleteAttributeValuesByAttributeValueId(id);
         delete(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
     }
 
     /**
@@ -171,7 +176,11 @@ public class AttributeValueService extends AbstractCrudService<AttributeValue, L
 
         boolean updated = updateAttributeValueField(attributeValue, newValue);
 
-        AttributeValue updatedAttributeValue = updated ? update(id, attributeValue) : attributeValue;
+        AttributeValue updatedAttributeValue = attributeValue;
+        if (updated) {
+            updatedAttributeValue = update(id, attributeValue);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
+        }
 
         return mapper.toResponseDTO(updatedAttributeValue);
     }
@@ -12,6 +12,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 /**
  * Service class for handling user authentication.
  */
@@ -23,13 +26,15 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthMapper authMapper;
+    private final TokenRevocationService tokenRevocationService;
 
 
-    public AuthService(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil, AuthMapper authMapper) {
+    public AuthService(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil, AuthMapper authMapper, TokenRevocationService tokenRevocationService) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.authMapper = authMapper;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -58,4 +63,31 @@ public class AuthService {
 
         return authMapper.toResponseDTO(user, token);
     }
+
+    /**
+     * Logs out a user by revoking the given JWT token.
+     *
+     * @param token the JWT token to revoke
+     */
+
+    @Transactional
+    public void logoutUser(String token) {
+        tokenRevocationService.revokeToken(token);
+    }
+
+    /**
+     * Revokes all JWT tokens issued to the given user up to now.
+     * The cutoff is truncated to whole seconds because the issued-at claim of a JWT only has
+     * second precision; otherwise a token issued later in the same second would look older than the cutoff.
+     *
+     * @param userId the ID of the user whose tokens are to be revoked
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+
+    @Transactional
+    public void revokeAllTokens(Long userId) {
+        User user = userService.findById(userId);
+        user.setTokensValidAfter(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        userService.update(userId, user);
+    }
 }
@@ -0,0 +1,178 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.dto.catalog.CatalogChangeResponseDTO;
+import com.makibeans.model.CatalogChange;
+import com.makibeans.repository.CatalogChangeRepository;
+import com.makibeans.repository.CatalogChangeRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service class for the catalog change log, which lets consumers such as the mobile app or the search indexer
+ * sync the catalog in O(changes) instead of downloading all of it.
+ * Changes are recorded in the transaction that makes them, so an entry exists if and only if its change committed.
+ * Recording takes a transaction-scoped advisory lock before drawing sequence numbers, so entries become visible
+ * in sequence order: once a consumer has seen an entry, no entry with a lower sequence number can appear later.
+ * The lock serializes catalog writes from the point they record a change until they commit.
+ */
+
+@Service
+public class CatalogChangeService {
+
+    private static final String LOCK_CHANGE_LOG = "SELECT pg_advisory_xact_lock(hashtext('catalog_changes'))";
+
+    private static final String INSERT_CHANGE =
+            "INSERT INTO catalog_changes (seq, entity_type, entity_id, operation, changed_at) " +
+                    "VALUES (nextval('catalog_changes_seq'), ?, ?, ?, now())";
+
+    // a statement may return an entity more than once, e.g. one row per linked attribute value
+    private static final String RECORD_CHANGED =
+            "recorded AS (INSERT INTO catalog_changes (seq, entity_type, entity_id, operation, changed_at) " +
+                    "SELECT nextval('catalog_changes_seq'), ?, c.entity_id, ?, now() " +
+                    "FROM (SELECT DISTINCT entity_id FROM changed) c) ";
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Logger logger = LoggerFactory.getLogger(CatalogChangeService.class);
+
+    public CatalogChangeService(CatalogChangeRepository catalogChangeRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records a change of a single entity. Must be called within the transaction that makes the change.
+     *
+     * @param entityType the type of the changed entity
+     * @param entityId   the ID of the changed entity
+     * @param operation  what happened to the entity
+     */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CatalogChange.EntityType entityType, Long entityId, CatalogChange.Operation operation) {
+        recordAll(entityType, List.of(entityId), operation);
+    }
+
+    /**
+     * Records the same change of many entities with a single JDBC batch.
+     * Must be called within the transaction that makes the changes.
+     *
+     * @param entityType the type of the changed entities
+     * @param entityIds  the IDs of the changed entities
+     * @param operation  what happened to the entities
+     */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(CatalogChange.EntityType entityType, Collection<Long> entityIds, CatalogChange.Operation operation) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute(LOCK_CHANGE_LOG);
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, entityIds, entityIds.size(), (ps, entityId) -> {
+            ps.setString(1, entityType.name());
+            ps.setLong(2, entityId);
+            ps.setString(3, operation.name());
+        });
+    }
+
+    /**
+     * Runs a set-based data-modifying statement and records a change for every entity it returns,
+     * in one round trip. Must be called within a transaction.
+     *
+     * @param sql        an INSERT, UPDATE or DELETE statement without parameters, returning the IDs of the changed entities
+     *                   as entity_id
+     * @param entityType the type of the changed entities
+     * @param operation  what happened to the entities
+     * @return the number of rows the statement returned
+     */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int updateAndRecord(String sql, CatalogChange.EntityType entityType, CatalogChange.Operation operation) {
+        jdbcTemplate.execute(LOCK_CHANGE_LOG);
+
+        Long changed = jdbcTemplate.queryForObject(
+                "WITH changed AS (" + sql + "), " + RECORD_CHANGED + "SELECT count(*) FROM changed",
+                Long.class, entityType.name(), operation.name());
+        return changed == null ? 0 : changed.intValue();
+    }
+
+    /**
+     * Runs a parameterized data-modifying statement and records a change for every entity it returns,
+     * in one round trip. Must be called within a transaction.
+     *
+     * @param sql        an INSERT, UPDATE or DELETE statement returning the IDs of the changed entities as entity_id
+     *                   and a value for the caller as result
+     * @param entityType the type of the changed entities
+     * @param operation  what happened to the entities
+     * @param args       the parameters of the statement
+     * @return the result column of every returned row
+     */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> queryAndRecord(String sql, CatalogChange.EntityType entityType, CatalogChange.Operation operation,
+                                     Object... args) {
+        jdbcTemplate.execute(LOCK_CHANGE_LOG);
+
+        Object[] allArgs = Arrays.copyOf(args, args.length + 2);
+        allArgs[args.length] = entityType.name();
+        allArgs[args.length + 1] = operation.name();
+        return jdbcTemplate.queryForList(
+                "WITH changed AS (" + sql + "), " + RECORD_CHANGED + "SELECT result FROM changed",
+                Long.class, allArgs);
+    }
+
+    /**
+     * Writes the changes after the given sequence number to the output stream as a JSON array, in sequence order.
+     * The entries are read through a server-side cursor, so memory use does not grow with the number of changes.
+     * The stream is flushed but not closed.
+     *
+     * @param since  the last sequence number the consumer has seen, 0 for all changes
+     * @param output the stream to write to
+     * @return the number of written changes
+     * @throws IOException if the output cannot be written
+     */
+
+    @Transactional(readOnly = true)
+    public long streamChanges(long since, OutputStream output) throws IOException {
+        try (Stream<CatalogChangeRow> changes = catalogChangeRepository.streamSince(since)) {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(output)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+
+            long count = 0;
+            for (Iterator<CatalogChangeRow> rows = changes.iterator(); rows.hasNext(); count++) {
+                generator.writeObject(toResponseDTO(rows.next()));
+            }
+            // not finished on failure, so a broken response never looks complete
+            generator.writeEndArray();
+            generator.close();
+
+            logger.info("Streamed {} catalog change(s) after sequence number {}", count, since);
+            return count;
+        }
+    }
+
+    private static CatalogChangeResponseDTO toResponseDTO(CatalogChangeRow row) {
+        return new CatalogChangeResponseDTO(row.getSeq(), row.getEntityType(), row.getEntityId(),
+                row.getOperation(), row.getChangedAt());
+    }
+}
@@ -0,0 +1,319 @@
+package com.makibeans.service;
+
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.product.CatalogLoadReportDTO;
+import com.makibeans.exceptions.InvalidCatalogDataException;
+import com.makibeans.model.CatalogChange;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service class for full catalog loads, e.g. a nightly refresh from a supplier feed.
+ * The feed is streamed into temporary staging tables with PostgreSQL COPY and then merged into the
+ * live tables with set-based SQL, all in one transaction: readers see either the old or the new catalog.
+ * Products are matched by name, variants by product and size, attribute values by template and value.
+ * Only enabled with catalog.copy-loader.enabled=true, since it requires PostgreSQL.
+ */
+
+@Service
+@ConditionalOnProperty(name = "catalog.copy-loader.enabled", havingValue = "true")
+public class CatalogLoadService {
+
+    private static final int MAX_REPORTED_VALUES = 5;
+
+    private static final String CREATE_STAGING_TABLES = """
+            CREATE TEMPORARY TABLE staging_products (name text, description text, category_id bigint) ON COMMIT DROP;
+            CREATE TEMPORARY TABLE staging_variants (product_name text, size_name text, price_in_cents bigint, stock bigint) ON COMMIT DROP;
+            CREATE TEMPORARY TABLE staging_attribute_values (product_name text, template_name text, value text) ON COMMIT DROP
+            """;
+
+    private static final String COPY_PRODUCTS =
+            "COPY staging_products (name, description, category_id) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String COPY_VARIANTS =
+            "COPY staging_variants (product_name, size_name, price_in_cents, stock) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String COPY_ATTRIBUTE_VALUES =
+            "COPY staging_attribute_values (product_name, template_name, value) FROM STDIN WITH (FORMAT csv, HEADER true)";
+
+    // names are stored trimmed and in lowercase, like everywhere else in the catalog
+    private static final String NORMALIZE_STAGING_TABLES = """
+            UPDATE staging_products SET name = lower(trim(name)), description = lower(trim(description));
+            UPDATE staging_variants SET product_name = lower(trim(product_name)), size_name = lower(trim(size_name));
+            UPDATE staging_attribute_values
+               SET product_name = lower(trim(product_name)), template_name = lower(trim(template_name)), value = lower(trim(value));
+            ANALYZE staging_products;
+            ANALYZE staging_variants;
+            ANALYZE staging_attribute_values
+            """;
+
+    private static final String UPDATE_PRODUCTS = """
+            UPDATE products p
+               SET description = s.description, category_id = s.category_id
+              FROM staging_products s
+             WHERE p.name = s.name
+               AND (p.description <> s.description OR p.category_id <> s.category_id)
+            RETURNING p.id AS entity_id
+            """;
+
+    // new rows take one sequence value each; the ids stay unique, the sequence just advances faster
+    private static final String INSERT_PRODUCTS = """
+            INSERT INTO products (id, name, description, category_id)
+            SELECT nextval('products_seq'), s.name, s.description, s.category_id
+              FROM staging_products s
+             WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.name = s.name)
+            RETURNING id AS entity_id
+            """;
+
+    private static final String UPDATE_VARIANTS = """
+            UPDATE product_variants pv
+               SET price_in_cents = s.price_in_cents, stock = s.stock, version = pv.version + 1
+              FROM staging_variants s
+              JOIN products p ON p.name = s.product_name
+              JOIN sizes z ON z.name = s.size_name
+             WHERE pv.product_id = p.id AND pv.size_id = z.id
+               AND (pv.price_in_cents <> s.price_in_cents OR pv.stock <> s.stock)
+            RETURNING pv.id AS entity_id
+            """;
+
+    // SKUs follow the SkuGenerator format; every row takes a whole block of sku_seq, which keeps it unique without a lookup
+    private static final String INSERT_VARIANTS = """
+            INSERT INTO product_variants (id, product_id, size_id, price_in_cents, stock, version, sku)
+            SELECT n.id, n.product_id, n.size_id, n.price_in_cents, n.stock, 0,
+                   upper(regexp_replace(n.product_name, '\\s+', '', 'g')) || '-'
+                       || upper(regexp_replace(n.size_name, '\\s+', '', 'g')) || '-' || nextval('sku_seq')
+              FROM (SELECT nextval('product_variants_seq') AS id, p.id AS product_id, z.id AS size_id,
+                           s.product_name, s.size_name, s.price_in_cents, s.stock
+                      FROM staging_variants s
+                      JOIN products p ON p.name = s.product_name
+                      JOIN sizes z ON z.name = s.size_name
+                     WHERE NOT EXISTS (SELECT 1 FROM product_variants pv WHERE pv.product_id = p.id AND pv.size_id = z.id)) n
+            RETURNING id AS entity_id
+            """;
+
+    private static final String INSERT_ATTRIBUTE_VALUES = """
+            INSERT INTO attribute_values (id, template_id, value)
+            SELECT nextval('attribute_values_seq'), n.template_id, n.value
+              FROM (SELECT DISTINCT t.id AS template_id, s.value
+                      FROM staging_attribute_values s
+                      JOIN attribute_templates t ON t.name = s.template_name
+                     WHERE NOT EXISTS (SELECT 1 FROM attribute_values av WHERE av.template_id = t.id AND av.value = s.value)) n
+            """;
+
+    private static final String INSERT_PRODUCT_ATTRIBUTES = """
+            INSERT INTO product_attributes (id, product_id, template_id)
+            SELECT nextval('product_attributes_seq'), n.product_id, n.template_id
+              FROM (SELECT DISTINCT p.id AS product_id, t.id AS template_id
+                      FROM staging_attribute_values s
+                      JOIN products p ON p.name = s.product_name
+                      JOIN attribute_templates t ON t.name = s.template_name
+                     WHERE NOT EXISTS (SELECT 1 FROM product_attributes pa WHERE pa.product_id = p.id AND pa.template_id = t.id)) n
+            RETURNING id AS entity_id
+            """;
+
+    // the feed is the source of truth for every product attribute it mentions, so values it no longer lists are unlinked
+    private static final String DELETE_STALE_ATTRIBUTE_VALUE_LINKS = """
+            DELETE FROM product_attribute_values pav
+             USING product_attributes pa, products p, attribute_templates t, attribute_values av
+             WHERE pav.product_attribute_id = pa.id
+               AND pa.product_id = p.id
+               AND pa.template_id = t.id
+               AND pav.attribute_value_id = av.id
+               AND EXISTS (SELECT 1 FROM staging_attribute_values s WHERE s.product_name = p.name AND s.template_name = t.name)
+               AND NOT EXISTS (SELECT 1 FROM staging_attribute_values s
+                                WHERE s.product_name = p.name AND s.template_name = t.name AND s.value = av.value)
+            RETURNING pav.product_attribute_id AS entity_id
+            """;
+
+    private static final String INSERT_ATTRIBUTE_VALUE_LINKS = """
+            INSERT INTO product_attribute_values (product_attribute_id, attribute_value_id)
+            SELECT DISTINCT pa.id, av.id
+              FROM staging_attribute_values s
+              JOIN products p ON p.name = s.product_name
+              JOIN attribute_templates t ON t.name = s.template_name
+              JOIN product_attributes pa ON pa.product_id = p.id AND pa.template_id = t.id
+              JOIN attribute_values av ON av.template_id = t.id AND av.value = s.value
+            ON CONFLICT DO NOTHING
+            RETURNING product_attribute_id AS entity_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
+    private final Logger logger = LoggerFactory.getLogger(CatalogLoadService.class);
+
+    public CatalogLoadService(JdbcTemplate jdbcTemplate,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              CatalogChangeService catalogChangeService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
+    }
+
+    /**
+     * Loads a catalog feed. Each input is CSV with a header row:
+     * products (name, description, category_id), variants (product_name, size_name, price_in_cents, stock)
+     * and attribute values (product_name, template_name, value).
+     * If any row cannot be merged, nothing is loaded.
+     *
+     * @param products        the products feed
+     * @param variants        the variants feed, or null to leave variants untouched
+     * @param attributeValues the attribute values feed, or null to leave attributes untouched
+     * @return the load report
+     * @throws InvalidCatalogDataException if the feed contains rows that cannot be merged
+     */
+
+    public CatalogLoadReportDTO loadCatalog(InputStream products, InputStream variants, InputStream attributeValues) {
+        CatalogLoadReportDTO report = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(CREATE_STAGING_TABLES);
+
+            CopyManager copyManager = copyManager();
+            CatalogLoadReportDTO.CatalogLoadReportDTOBuilder builder = CatalogLoadReportDTO.builder()
+                    .stagedProducts(copy(copyManager, COPY_PRODUCTS, products))
+                    .stagedVariants(copy(copyManager, COPY_VARIANTS, variants))
+                    .stagedAttributeValues(copy(copyManager, COPY_ATTRIBUTE_VALUES, attributeValues));
+
+            jdbcTemplate.execute(NORMALIZE_STAGING_TABLES);
+
+            validateProducts();
+            builder.updatedProducts(updateAndRecord(UPDATE_PRODUCTS, CatalogChange.EntityType.PRODUCT))
+                    .insertedProducts(updateAndRecord(INSERT_PRODUCTS, CatalogChange.EntityType.PRODUCT));
+
+            validateVariants();
+            builder.updatedVariants(updateAndRecord(UPDATE_VARIANTS, CatalogChange.EntityType.PRODUCT_VARIANT))
+                    .insertedVariants(updateAndRecord(INSERT_VARIANTS, CatalogChange.EntityType.PRODUCT_VARIANT));
+
+            validateAttributeValues();
+            jdbcTemplate.update(INSERT_ATTRIBUTE_VALUES);
+            updateAndRecord(INSERT_PRODUCT_ATTRIBUTES, CatalogChange.EntityType.PRODUCT_ATTRIBUTE);
+            updateAndRecord(DELETE_STALE_ATTRIBUTE_VALUE_LINKS, CatalogChange.EntityType.PRODUCT_ATTRIBUTE);
+            builder.linkedAttributeValues(updateAndRecord(INSERT_ATTRIBUTE_VALUE_LINKS, CatalogChange.EntityType.PRODUCT_ATTRIBUTE));
+
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS));
+            return builder.build();
+        }));
+
+        logger.info("Loaded catalog: {}", report);
+        return report;
+    }
+
+    /**
+     * Runs a merge statement and records the entities it changed in the catalog change log.
+     *
+     * @param sql        the merge statement, returning the IDs of the changed entities as entity_id
+     * @param entityType the type of the changed entities
+     * @return the number of changed rows
+     */
+
+    private int updateAndRecord(String sql, CatalogChange.EntityType entityType) {
+        return catalogChangeService.updateAndRecord(sql, entityType, CatalogChange.Operation.UPSERT);
+    }
+
+    /**
+     * Returns the COPY API of the connection bound to the current transaction.
+     *
+     * @return the copy manager
+     */
+
+    private CopyManager copyManager() {
+        try {
+            return DataSourceUtils.getConnection(dataSource).unwrap(PGConnection.class).getCopyAPI();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("The catalog loader requires a PostgreSQL connection.", ex);
+        }
+    }
+
+    /**
+     * Streams a CSV input into a staging table.
+     *
+     * @param copyManager the copy manager of the current connection
+     * @param sql         the COPY statement
+     * @param input       the CSV input, or null to skip
+     * @return the number of rows copied
+     */
+
+    private long copy(CopyManager copyManager, String sql, InputStream input) {
+        if (input == null) {
+            return 0;
+        }
+        try {
+            return copyManager.copyIn(sql, input);
+        } catch (SQLException ex) {
+            throw new InvalidCatalogDataException(ex.getMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void validateProducts() {
+        rejectIfAny("Products without name, description or category",
+                "SELECT coalesce(name, '<no name>') FROM staging_products " +
+                        "WHERE name IS NULL OR name = '' OR description IS NULL OR description = '' OR category_id IS NULL");
+        rejectIfAny("Duplicate products",
+                "SELECT name FROM staging_products GROUP BY name HAVING count(*) > 1");
+        rejectIfAny("Unknown categories",
+                "SELECT DISTINCT s.category_id::text FROM staging_products s " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM categories c WHERE c.id = s.category_id)");
+    }
+
+    private void validateVariants() {
+        rejectIfAny("Variants without a valid price or stock",
+                "SELECT product_name || ' ' || size_name FROM staging_variants " +
+                        "WHERE price_in_cents IS NULL OR price_in_cents < 0 OR stock IS NULL OR stock < 0");
+        rejectIfAny("Duplicate variants",
+                "SELECT product_name || ' ' || size_name FROM staging_variants GROUP BY product_name, size_name HAVING count(*) > 1");
+        rejectIfAny("Variants of unknown products",
+                "SELECT DISTINCT s.product_name FROM staging_variants s " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.name = s.product_name)");
+        rejectIfAny("Unknown sizes",
+                "SELECT DISTINCT s.size_name FROM staging_variants s " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM sizes z WHERE z.name = s.size_name)");
+    }
+
+    private void validateAttributeValues() {
+        rejectIfAny("Blank attribute values",
+                "SELECT product_name FROM staging_attribute_values WHERE value IS NULL OR value = ''");
+        rejectIfAny("Attribute values of unknown products",
+                "SELECT DISTINCT s.product_name FROM staging_attribute_values s " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.name = s.product_name)");
+        rejectIfAny("Unknown attribute templates",
+                "SELECT DISTINCT s.template_name FROM staging_attribute_values s " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM attribute_templates t WHERE t.name = s.template_name)");
+    }
+
+    /**
+     * Rejects the load if the given query finds any offending rows.
+     *
+     * @param problem the description of the problem
+     * @param sql     a query returning a description of each offending row
+     * @throws InvalidCatalogDataException if the query returns any rows
+     */
+
+    private void rejectIfAny(String problem, String sql) {
+        List<String> offending = jdbcTemplate.queryForList(sql + " LIMIT " + MAX_REPORTED_VALUES, String.class);
+        if (!offending.isEmpty()) {
+            throw new InvalidCatalogDataException(problem + ": " + String.join(", ", offending));
+        }
+    }
+}
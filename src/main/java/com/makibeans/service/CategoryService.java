@@ -1,26 +1,36 @@
 package com.makibeans.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.cache.CategoryProductCountCache;
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.cache.CategoryProductCounts;
+import com.makibeans.cache.CategoryTree;
+import com.makibeans.cache.CategoryTreeCache;
+import com.makibeans.cache.SerializedCategoryTree;
+import com.makibeans.cache.Versioned;
 import com.makibeans.dto.category.CategoryRequestDTO;
 import com.makibeans.dto.category.CategoryResponseDTO;
 import com.makibeans.dto.category.CategoryUpdateDTO;
 import com.makibeans.exceptions.*;
 import com.makibeans.filter.SearchFilter;
 import com.makibeans.mapper.CategoryMapper;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.model.Category;
-import com.makibeans.model.Product;
 import com.makibeans.repository.CategoryRepository;
+import com.makibeans.util.FilterUtils;
 import com.makibeans.util.ImageUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
-import java.util.function.Function;
 
 import static com.makibeans.util.UpdateUtils.*;
 
@@ -34,72 +44,163 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
-    private final ProductService productService;
+    private final CategoryTreeCache categoryTreeCache;
+    private final CategoryProductCountCache categoryProductCountCache;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
+    private volatile SerializedCategoryTree serializedCategoryTree;
+    private volatile SerializedCategoryTree serializedCategoryTreeWithCounts;
     private final Logger logger = LoggerFactory.getLogger(CategoryService.class);
     private final ImageUtils imageUtils;
 
     @Autowired
-    public CategoryService(JpaRepository<Category, Long> repository, CategoryRepository categoryRepository, CategoryMapper categoryMapper, @Lazy ProductService productService, ImageUtils imageUtils) {
+    public CategoryService(JpaRepository<Category, Long> repository, CategoryRepository categoryRepository, CategoryMapper categoryMapper, CategoryTreeCache categoryTreeCache, CategoryProductCountCache categoryProductCountCache, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher, CatalogChangeService catalogChangeService, ImageUtils imageUtils) {
         super(repository);
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
-        this.productService = productService;
+        this.categoryTreeCache = categoryTreeCache;
+        this.categoryProductCountCache = categoryProductCountCache;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
         this.imageUtils = imageUtils;
     }
 
     /**
-     * Retrieves a category by its ID.
+     * Retrieves a category by its ID from the cached category tree.
      *
-     * @param id the ID of the category to retrieve.
+     * @param id            the ID of the category to retrieve.
+     * @param includeCounts whether to include the direct and subtree product counts.
      * @return the CategoryResponseDTO representing the category.
      * @throws IllegalArgumentException  if the id is null.
      * @throws ResourceNotFoundException if the category does not exist.
      */
 
-    @Transactional(readOnly = true)
-    public CategoryResponseDTO getCategoryById(Long id) {
-        Category category = findById(id);
-        return categoryMapper.toResponseDTO(category);
+    public CategoryResponseDTO getCategoryById(Long id, boolean includeCounts) {
+        if (id == null) {
+            throw new IllegalArgumentException("Category ID cannot be null.");
+        }
+
+        CategoryTree tree = categoryTreeCache.get();
+        CategoryTree.Node node = tree.find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category with ID " + id + " not found."));
+
+        return categoryMapper.toResponseDTO(tree, node, getProductCounts(tree, includeCounts));
     }
 
     /**
-     * Searches and sorts categories based on provided parameters.
+     * Searches and sorts categories of the cached category tree based on provided parameters.
      *
-     * @param searchParams a map containing optional search (e.g. name, description) and sort keys
+     * @param searchParams a map containing optional search (e.g. name, description) and sort keys,
+     *                     and "includeCounts" to include the direct and subtree product counts
      * @return a list of matching categories, converted to response DTOs
      */
 
-    @Transactional(readOnly = true)
     public List<CategoryResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
+        return search(categoryTreeCache.get(), searchParams);
+    }
+
+    /**
+     * Searches and sorts categories like {@link #findBySearchQuery(Map)}, with the catalog version the result reflects.
+     *
+     * @param searchParams a map containing optional search and sort keys, and "includeCounts"
+     * @return a list of matching categories, converted to response DTOs, with its version
+     */
+
+    public Versioned<List<CategoryResponseDTO>> findVersionedBySearchQuery(Map<String, String> searchParams) {
+        // the product counts are never older than the current catalog version, so they are at least as recent as the tree
+        Versioned<CategoryTree> tree = categoryTreeCache.getVersioned();
+        return new Versioned<>(tree.version(), search(tree.value(), searchParams));
+    }
+
+    private List<CategoryResponseDTO> search(CategoryTree tree, Map<String, String> searchParams) {
 
-        Map<String, Function<Category, String>> searchableFields = Map.of(
-                "name", Category::getName,
-                "description", Category::getDescription);
+        Map<String, String> filterParams = new HashMap<>(searchParams);
+        boolean includeCounts = FilterUtils.extractBoolean(filterParams, "includeCounts").orElse(false);
+        filterParams.remove("includeCounts");
 
-        Map<String, Comparator<Category>> sortFields = Map.of(
-                "id", Comparator.comparing(Category::getId, Comparator.nullsLast(Comparator.naturalOrder())),
-                "name", Comparator.comparing(Category::getName, String.CASE_INSENSITIVE_ORDER),
-                "description", Comparator.comparing(Category::getDescription, String.CASE_INSENSITIVE_ORDER));
+        Map<String, Comparator<CategoryTree.Node>> sortFields = Map.of(
+                "id", Comparator.comparing(CategoryTree.Node::id, Comparator.nullsLast(Comparator.naturalOrder())),
+                "name", Comparator.comparing(CategoryTree.Node::name, String.CASE_INSENSITIVE_ORDER),
+                "description", Comparator.comparing(CategoryTree.Node::description, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
 
-        List<Category> matchedCategories = SearchFilter.apply(findAll(),
-                searchParams,
-                searchableFields,
+        CategoryProductCounts counts = getProductCounts(tree, includeCounts);
+
+        List<CategoryTree.Node> matchedCategories = SearchFilter.apply(tree.searchIndex(),
+                filterParams,
                 sortFields);
 
         return matchedCategories.stream()
-                .map(categoryMapper::toResponseDTO)
+                .map(node -> categoryMapper.toResponseDTO(tree, node, counts))
+                .toList();
+    }
+
+    /**
+     * Retrieves the whole category tree as pre-serialized JSON, i.e. the list of root categories
+     * with their nested subcategories. The JSON is serialized once per category tree (and product count)
+     * snapshot and shared by all requests until a category or the product counts change.
+     *
+     * @param includeCounts whether to include the direct and subtree product counts.
+     * @return the serialized category tree with its ETag.
+     * @throws IllegalStateException if the tree cannot be serialized.
+     */
+
+    public SerializedCategoryTree getSerializedCategoryTree(boolean includeCounts) {
+        CategoryTree tree = categoryTreeCache.get();
+        CategoryProductCounts counts = getProductCounts(tree, includeCounts);
+        SerializedCategoryTree current = includeCounts ? serializedCategoryTreeWithCounts : serializedCategoryTree;
+        if (current != null && current.source() == tree && current.counts() == counts) {
+            return current;
+        }
+
+        List<CategoryResponseDTO> roots = tree.roots().stream()
+                .map(root -> categoryMapper.toResponseDTO(tree, root, counts))
                 .toList();
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(roots);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            current = new SerializedCategoryTree(tree, counts, json, etag);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Category tree could not be serialized.", ex);
+        }
+
+        if (includeCounts) {
+            serializedCategoryTreeWithCounts = current;
+        } else {
+            serializedCategoryTree = current;
+        }
+        return current;
+    }
+
+    /**
+     * Retrieves the product counts for the given category tree, if requested.
+     *
+     * @param tree          the current category tree.
+     * @param includeCounts whether product counts are requested.
+     * @return the product counts, or null if they are not requested.
+     */
+
+    private CategoryProductCounts getProductCounts(CategoryTree tree, boolean includeCounts) {
+        return includeCounts ? categoryProductCountCache.get(tree) : null;
     }
 
     /**
-     * Retrieves a list of categories by the given parent category ID.
+     * Retrieves the paths of the given categories from the cached category tree.
      *
-     * @param categoryId the ID of the parent category.
-     * @return a list of categories that have the specified parent category.
+     * @param categoryIds the IDs of the categories.
+     * @return the paths of the categories; unknown IDs are ignored.
      */
 
-    private List<Category> getByParentCategoryId(Long categoryId) {
-        return categoryRepository.findByParentCategoryId(categoryId);
+    public List<String> getCategoryPaths(Collection<Long> categoryIds) {
+        CategoryTree tree = categoryTreeCache.get();
+        return categoryIds.stream()
+                .distinct()
+                .map(tree::find)
+                .flatMap(Optional::stream)
+                .map(CategoryTree.Node::path)
+                .toList();
     }
 
 
@@ -138,34 +239,40 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
             parentCategory.getSubCategories().add(category);
         }
 
+        // the path ends with the ID of the category, which is only known after inserting it
+        category.updatePath();
         Category createdCategory = create(category);
+        createdCategory.updatePath();
+        catalogChangeService.record(CatalogChange.EntityType.CATEGORY, createdCategory.getId(), CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
 
         return categoryMapper.toResponseDTO(createdCategory);
     }
 
     /**
-     * Deletes a category by its ID.
+     * Deletes a category and its subcategories by its ID.
      *
      * @param categoryId the ID of the category to delete; must not be null.
      * @throws IllegalArgumentException  if the categoryId is null.
      * @throws ResourceNotFoundException if the category does not exist.
-     * @throws CategoryInUseException    if category is in use by products.
+     * @throws CategoryInUseException    if the category or one of its subcategories is in use by products.
      */
 
     @Transactional
     public void deleteCategory(Long categoryId) {
 
-        List<Product> products = getAllRelatedProductsByCategoryId(categoryId);
-
-        if (!products.isEmpty()) {
-            String productsString = products
-                    .stream()
-                    .map(Product::getName)
-                    .toList()
-                    .toString();
+        Category category = findById(categoryId);
+        List<String> productNames = categoryRepository.findProductNamesInSubtree(category.getPath());
 
-            throw new CategoryInUseException("Category cannot be deleted because it is in use by the following products:  " + productsString + ". Please re-assign products before deleting the category.");
+        if (!productNames.isEmpty()) {
+            throw new CategoryInUseException("Category cannot be deleted because it is in use by the following products:  " + productNames + ". Please re-assign products before deleting the category.");
         }
+
+        // subcategories are deleted with the category
+        List<Long> deletedCategoryIds = categoryRepository.findIdsInSubtree(category.getPath());
+        delete(categoryId);
+        catalogChangeService.recordAll(CatalogChange.EntityType.CATEGORY, deletedCategoryIds, CatalogChange.Operation.DELETE);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
     }
 
     /**
@@ -189,7 +296,14 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
         updated |= updateCategoryDescription(category, updateDTO.getDescription());
         updated |= updateCategoryParent(category, updateDTO.getParentCategoryId());
 
-        Category updatedCategory = updated ? update(id, category) : category;
+        Category updatedCategory = category;
+        if (updated) {
+            updatedCategory = update(id, category);
+            // the breadcrumbs of all subcategories contain the name and ancestors of the category
+            catalogChangeService.recordAll(CatalogChange.EntityType.CATEGORY,
+                    categoryRepository.findIdsInSubtree(updatedCategory.getPath()), CatalogChange.Operation.UPSERT);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
+        }
 
         return categoryMapper.toResponseDTO(updatedCategory);
     }
@@ -209,6 +323,8 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
         byte[] imageBytes = imageUtils.validateAndExtractImageBytes(image);
         category.setImage(imageBytes);
         update(categoryId, category);
+        catalogChangeService.record(CatalogChange.EntityType.CATEGORY, categoryId, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
         return categoryMapper.toResponseDTO(category);
     }
 
@@ -240,10 +356,13 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
         Category category = findById(categoryId);
         category.setImage(null);
         update(categoryId, category);
+        catalogChangeService.record(CatalogChange.EntityType.CATEGORY, categoryId, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
     }
 
     /**
-     * Validates if setting a parent category would create a circular reference.
+     * Validates if setting a parent category would create a circular reference,
+     * i.e. if the new parent is the subcategory itself or one of its descendants.
      *
      * @param parentCategory the new parent category.
      * @param subCategory    the subcategory to validate.
@@ -251,15 +370,10 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
      */
 
     void validateCircularReference(Category parentCategory, Category subCategory) {
-        Category current = parentCategory;
-
-        while (current != null) {
-            if (current.equals(subCategory)) {
-                throw new CircularReferenceException(String.format(
-                        "Category '%s' cannot be assigned as a subcategory of category '%s' because it would create a circular reference.",
-                        subCategory.getName(), parentCategory.getName()));
-            }
-            current = current.getParentCategory(); // Traverse up the hierarchy
+        if (subCategory.isAncestorOrSelfOf(parentCategory)) {
+            throw new CircularReferenceException(String.format(
+                    "Category '%s' cannot be assigned as a subcategory of category '%s' because it would create a circular reference.",
+                    subCategory.getName(), parentCategory.getName()));
         }
     }
 
@@ -274,8 +388,6 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
 
     void validateUniqueCategoryNameWithinHierarchy(Category parentCategory, String categoryName, Category currentCategory) {
 
-        Category current = parentCategory;
-
         //check if category already exists under same parent category
         if (parentCategory != null) {
             for (Category subCategory : parentCategory.getSubCategories()) {
@@ -286,39 +398,19 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
             }
         }
 
-        // check if category name exist in hierarchy of parent categories
-        while (current != null) {
-            if (current.getName().equalsIgnoreCase(categoryName) && !current.equals(currentCategory)) {
+        // check if category name exist in hierarchy of parent categories, which are all on the path of the parent
+        if (parentCategory != null) {
+            List<Long> ancestorIds = new ArrayList<>(parentCategory.getPathIds());
+            if (currentCategory != null) {
+                ancestorIds.remove(currentCategory.getId());
+            }
+
+            if (!ancestorIds.isEmpty() && categoryRepository.existsByIdInAndNameIgnoreCase(ancestorIds, categoryName)) {
                 throw new DuplicateResourceException(
-                        String.format("Category '%s' already exists in the hierarchy of parent categories.", current.getName())
+                        String.format("Category '%s' already exists in the hierarchy of parent categories.", categoryName)
                 );
             }
-            current = current.getParentCategory(); // Move to the next parent
-        }
-    }
-
-    /**
-     * Retrieves all products related to a given category, including products in its subcategories.
-     *
-     * @param categoryId the ID of the category to retrieve products for.
-     * @return a list of products related to the specified category.
-     */
-
-    private List<Product> getAllRelatedProductsByCategoryId(Long categoryId) {
-        // Find products for the given category
-        List<Product> currentProducts= productService.getProductsByCategoryId(categoryId);
-        List<Product> products = new ArrayList<>(currentProducts);
-
-        // Find subcategories and their products
-        List<Category> subCategories = getByParentCategoryId(categoryId);
-        for (Category subCategory : subCategories) {
-            List<Product> subCategoryProducts = productService.getProductsByCategoryId(subCategory.getId());
-            products.addAll(subCategoryProducts);
         }
-
-        logger.info("Found {} products{}", products.size(), products.stream().map(Product::getName).toList());
-
-        return products;
     }
 
     /**
@@ -371,7 +463,12 @@ public class CategoryService extends AbstractCrudService<Category, Long> {
                     .orElseThrow(() -> new ResourceNotFoundException("Parent category not found."));
 
             validateCircularReference(newParent, category);
+
+            // move the whole subtree by replacing the path prefix of all descendants in one statement
+            String oldPath = category.getPath();
             category.setParentCategory(newParent);
+            category.updatePath();
+            categoryRepository.updateDescendantPaths(oldPath, category.getPath());
             return true;
         }
         return false;
@@ -0,0 +1,351 @@
+package com.makibeans.service;
+
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.inventory.ReservationResponseDTO;
+import com.makibeans.exceptions.InsufficientStockException;
+import com.makibeans.exceptions.ResourceNotFoundException;
+import com.makibeans.model.ProductVariant;
+import com.makibeans.repository.ProductVariantRepository;
+import com.makibeans.repository.ProductVariantStockRow;
+import com.makibeans.util.StripedCounter;
+import com.makibeans.util.TimerWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service class for holding stock while it sits in carts.
+ * Available and reserved stock of each variant are kept in memory, seeded from product_variants.stock on first use,
+ * so reserving stock of a hot variant is a CAS on a striped counter instead of a row lock. Reservations expire after
+ * a TTL unless they are confirmed; confirmed quantities are written behind to the database in periodic batches.
+ * Every flush also reconciles the counters with the database, which picks up edits made through other paths.
+ * Reservations live in memory only, so they do not survive a restart; confirmed quantities are flushed on shutdown.
+ */
+
+@Service
+public class InventoryReservationService {
+
+    private static final long EXPIRY_TICK_MILLIS = 1000;
+    private static final int EXPIRY_BUCKETS = 1024;
+
+    private static final String DECREMENT_STOCK_ROW = "(CAST(? AS bigint), CAST(? AS bigint))";
+
+    private final ProductVariantRepository productVariantRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final Logger logger = LoggerFactory.getLogger(InventoryReservationService.class);
+
+    private final Map<Long, VariantStock> stocks = new ConcurrentHashMap<>();
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+    private final TimerWheel<Reservation> expiries = new TimerWheel<>(EXPIRY_TICK_MILLIS, EXPIRY_BUCKETS, System.currentTimeMillis());
+
+    public InventoryReservationService(ProductVariantRepository productVariantRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ApplicationEventPublisher eventPublisher,
+                                       @Value("${inventory.reservation.ttl:PT15M}") Duration ttl) {
+        this.productVariantRepository = productVariantRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+    }
+
+    /**
+     * In-memory stock of a variant.
+     * The database stock is only read to reconcile: the counters are adjusted by how much it changed since the last
+     * reconciliation, so reservations running at the same time are never overwritten.
+     */
+
+    private static final class VariantStock {
+
+        private final Long productId;
+        private final StripedCounter available;
+        private final LongAdder reserved = new LongAdder();
+        private final LongAdder unflushed = new LongAdder();
+
+        // the database stock the counters account for; only accessed while flushing
+        private long databaseStock;
+
+        VariantStock(Long productId, long stock) {
+            this.productId = productId;
+            this.available = new StripedCounter(stock);
+            this.databaseStock = stock;
+        }
+    }
+
+    private enum ReservationState { ACTIVE, CONFIRMED, RELEASED }
+
+    private record Reservation(UUID id, Long productVariantId, long quantity, String owner, Instant expiresAt,
+                               AtomicReference<ReservationState> state) {
+
+        boolean complete(ReservationState newState) {
+            return state.compareAndSet(ReservationState.ACTIVE, newState);
+        }
+    }
+
+    /**
+     * Reserves stock of a Product Variant for the given user until the reservation expires.
+     *
+     * @param productVariantId the ID of the Product Variant
+     * @param quantity         the quantity to reserve
+     * @param owner            the username of the user the stock is reserved for
+     * @return the ReservationResponseDTO representing the reservation
+     * @throws ResourceNotFoundException  if the Product Variant does not exist
+     * @throws InsufficientStockException if less than the quantity is available
+     */
+
+    public ReservationResponseDTO reserve(Long productVariantId, long quantity, String owner) {
+        VariantStock stock = stockOf(productVariantId);
+
+        stock.reserved.add(quantity);
+        if (!stock.available.tryDecrement(quantity)) {
+            stock.reserved.add(-quantity);
+            throw new InsufficientStockException(
+                    "Cannot reserve " + quantity + " of product variant with ID " + productVariantId + ", only "
+                            + stock.available.sum() + " available.");
+        }
+
+        Instant expiresAt = Instant.now().plus(ttl);
+        Reservation reservation = new Reservation(UUID.randomUUID(), productVariantId, quantity, owner, expiresAt,
+                new AtomicReference<>(ReservationState.ACTIVE));
+        reservations.put(reservation.id(), reservation);
+        expiries.schedule(reservation, expiresAt.toEpochMilli());
+
+        return toResponseDTO(reservation);
+    }
+
+    /**
+     * Releases a reservation, making its stock available again.
+     *
+     * @param reservationId the ID of the reservation
+     * @param owner         the username of the user the reservation belongs to
+     * @throws ResourceNotFoundException if the user has no active reservation with this ID
+     */
+
+    public void release(UUID reservationId, String owner) {
+        Reservation reservation = findActiveReservation(reservationId, owner);
+        if (!reservation.complete(ReservationState.RELEASED)) {
+            throw reservationNotFound(reservationId);
+        }
+        giveBack(reservation);
+    }
+
+    /**
+     * Confirms a reservation, e.g. at checkout. The quantity is deducted from the stock in the database with the next flush.
+     *
+     * @param reservationId the ID of the reservation
+     * @param owner         the username of the user the reservation belongs to
+     * @return the ReservationResponseDTO representing the confirmed reservation
+     * @throws ResourceNotFoundException if the user has no active reservation with this ID
+     */
+
+    public ReservationResponseDTO confirm(UUID reservationId, String owner) {
+        Reservation reservation = findActiveReservation(reservationId, owner);
+        if (!reservation.complete(ReservationState.CONFIRMED)) {
+            throw reservationNotFound(reservationId);
+        }
+        reservations.remove(reservation.id());
+
+        VariantStock stock = stocks.get(reservation.productVariantId());
+        if (stock != null) {
+            stock.unflushed.add(reservation.quantity());
+            stock.reserved.add(-reservation.quantity());
+        }
+        return toResponseDTO(reservation);
+    }
+
+    /**
+     * Returns the stock of a Product Variant that is neither reserved nor sold.
+     *
+     * @param productVariantId the ID of the Product Variant
+     * @return the available stock
+     * @throws ResourceNotFoundException if the Product Variant does not exist
+     */
+
+    public long getAvailableStock(Long productVariantId) {
+        return stockOf(productVariantId).available.sum();
+    }
+
+    /**
+     * Releases all reservations whose TTL has passed.
+     */
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval-ms:1000}")
+    public void expireReservations() {
+        expireReservations(Instant.now());
+    }
+
+    void expireReservations(Instant now) {
+        expiries.advance(now.toEpochMilli(), reservation -> {
+            if (reservation.complete(ReservationState.RELEASED)) {
+                giveBack(reservation);
+            }
+        });
+    }
+
+    /**
+     * Writes the confirmed quantities to the database in one batch and reconciles the in-memory stock with the database.
+     */
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${inventory.reservation.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (stocks.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> sold = new LinkedHashMap<>();
+        stocks.forEach((id, stock) -> {
+            long quantity = stock.unflushed.sumThenReset();
+            if (quantity > 0) {
+                sold.put(id, quantity);
+            }
+        });
+
+        Set<Long> deducted;
+        try {
+            deducted = transactionTemplate.execute(status -> decrementStock(sold));
+        } catch (RuntimeException ex) {
+            logger.warn("Flushing {} confirmed reservation quantities failed, retrying with the next flush", sold.size(), ex);
+            sold.forEach((id, quantity) -> Optional.ofNullable(stocks.get(id)).ifPresent(stock -> stock.unflushed.add(quantity)));
+            return;
+        }
+
+        Set<Long> soldProductIds = new LinkedHashSet<>();
+        sold.forEach((id, quantity) -> {
+            VariantStock stock = stocks.get(id);
+            if (!deducted.contains(id)) {
+                logger.error("Could not deduct {} sold unit(s) of product variant {} from the database, " +
+                        "it was deleted or its stock was lowered below the sold quantity", quantity, id);
+            } else if (stock != null) {
+                soldProductIds.add(stock.productId);
+            }
+        });
+
+        reconcile(sold);
+        if (!deducted.isEmpty()) {
+            logger.info("Flushed confirmed reservations of {} product variant(s)", deducted.size());
+            // one event per product, so only the sold products and the product listings change their version
+            soldProductIds.forEach(productId ->
+                    eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.STOCK, productId)));
+        }
+    }
+
+    /**
+     * Deducts sold quantities from the stock in the database with one conditional statement.
+     * A variant whose stock was lowered below the sold quantity in the meantime through another path is left unchanged,
+     * so the stock never goes below zero and the shortfall is reported instead of lost.
+     *
+     * @param sold the sold quantities by Product Variant ID
+     * @return the IDs of the Product Variants whose stock was deducted
+     */
+
+    private Set<Long> decrementStock(Map<Long, Long> sold) {
+        if (sold.isEmpty()) {
+            return Set.of();
+        }
+
+        String sql = "UPDATE product_variants pv " +
+                "SET stock = pv.stock - v.quantity, version = pv.version + 1 " +
+                "FROM (VALUES " + String.join(", ", Collections.nCopies(sold.size(), DECREMENT_STOCK_ROW)) + ") AS v (id, quantity) " +
+                "WHERE pv.id = v.id AND pv.stock >= v.quantity " +
+                "RETURNING pv.id";
+
+        List<Object> args = new ArrayList<>();
+        sold.forEach((id, quantity) -> {
+            args.add(id);
+            args.add(quantity);
+        });
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, args.toArray()));
+    }
+
+    /**
+     * Adjusts the available stock of every tracked variant by the change of its database stock since the last
+     * reconciliation, other than the flushed sales. Variants that no longer exist are dropped.
+     * If the database stock was lowered by more than is available, the rest is taken with the next reconciliation,
+     * once reservations have been released.
+     *
+     * @param flushed the quantities just flushed by Product Variant ID, whether or not they could be deducted
+     */
+
+    private void reconcile(Map<Long, Long> flushed) {
+        // variants seeded while the query runs are left alone, they were just read from the database
+        Set<Long> ids = Set.copyOf(stocks.keySet());
+        Map<Long, Long> databaseStock = new HashMap<>();
+        productVariantRepository.findStockByIdIn(ids).forEach(row -> databaseStock.put(row.getId(), row.getStock()));
+
+        for (Long id : ids) {
+            VariantStock stock = stocks.get(id);
+            Long current = databaseStock.get(id);
+            if (current == null) {
+                stocks.remove(id);
+            } else if (stock != null) {
+                long change = current - (stock.databaseStock - flushed.getOrDefault(id, 0L));
+                long shortfall = 0;
+                if (change > 0) {
+                    stock.available.increment(change);
+                } else if (change < 0) {
+                    shortfall = -change - stock.available.decrementAtMost(-change);
+                }
+                stock.databaseStock = current + shortfall;
+            }
+        }
+    }
+
+    private VariantStock stockOf(Long productVariantId) {
+        VariantStock stock = stocks.get(productVariantId);
+        if (stock != null) {
+            return stock;
+        }
+
+        // loaded outside of computeIfAbsent, so a slow query does not block other variants; the first seed wins
+        List<ProductVariantStockRow> rows = productVariantRepository.findStockByIdIn(List.of(productVariantId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException(ProductVariant.class.getSimpleName() + " with ID " + productVariantId + " not found.");
+        }
+        return stocks.computeIfAbsent(productVariantId, id -> new VariantStock(rows.get(0).getProductId(), Math.max(0, rows.get(0).getStock())));
+    }
+
+    private Reservation findActiveReservation(UUID reservationId, String owner) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.owner().equals(owner)) {
+            throw reservationNotFound(reservationId);
+        }
+        return reservation;
+    }
+
+    private void giveBack(Reservation reservation) {
+        reservations.remove(reservation.id());
+        VariantStock stock = stocks.get(reservation.productVariantId());
+        if (stock != null) {
+            stock.available.increment(reservation.quantity());
+            stock.reserved.add(-reservation.quantity());
+        }
+    }
+
+    private static ResourceNotFoundException reservationNotFound(UUID reservationId) {
+        return new ResourceNotFoundException("Reservation with ID " + reservationId + " not found.");
+    }
+
+    private static ReservationResponseDTO toResponseDTO(Reservation reservation) {
+        return new ReservationResponseDTO(reservation.id(), reservation.productVariantId(), reservation.quantity(),
+                reservation.expiresAt());
+    }
+}
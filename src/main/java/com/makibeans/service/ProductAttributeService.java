@@ -1,5 +1,6 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
 import com.makibeans.dto.productattribute.ProductAttributeRequestDTO;
 import com.makibeans.dto.productattribute.ProductAttributeResponseDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
@@ -8,6 +9,7 @@ import com.makibeans.mapper.ProductAttributeMapper;
 import com.makibeans.model.*;
 import com.makibeans.repository.ProductAttributeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,15 +28,19 @@ public class ProductAttributeService extends AbstractCrudService<ProductAttribut
     private final AttributeTemplateService attributeTemplateService;
     private final ProductAttributeMapper productAttributeMapper;
     private final AttributeValueService attributeValueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
 
     @Autowired
-    public ProductAttributeService(JpaRepository<ProductAttribute, Long> repository, ProductAttributeRepository productAttributeRepository, ProductService productService, AttributeTemplateService attributeTemplateService, ProductAttributeMapper productAttributeMapper, AttributeValueService attributeValueService) {
+    public ProductAttributeService(JpaRepository<ProductAttribute, Long> repository, ProductAttributeRepository productAttributeRepository, ProductService productService, AttributeTemplateService attributeTemplateService, ProductAttributeMapper productAttributeMapper, AttributeValueService attributeValueService, ApplicationEventPublisher eventPublisher, CatalogChangeService catalogChangeService) {
         super(repository);
         this.productAttributeRepository = productAttributeRepository;
         this.productService = productService;
         this.attributeTemplateService = attributeTemplateService;
         this.productAttributeMapper = productAttributeMapper;
         this.attributeValueService = attributeValueService;
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
     }
 
     /**
@@ -111,6 +117,8 @@ public class ProductAttributeService extends AbstractCrudService<ProductAttribut
 
         ProductAttribute productAttribute = new ProductAttribute(attributeTemplate, product);
         ProductAttribute savedProductAttribute = create(productAttribute);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, savedProductAttribute.getId(), CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, productId));
 
         return productAttributeMapper.toResponseDTO(savedProductAttribute);
     }
@@ -125,9 +133,11 @@ public class ProductAttributeService extends AbstractCrudService<ProductAttribut
 
     @Transactional
     public void deleteProductAttribute(Long productAttributeId) {
-        findById(productAttributeId);
+        Long productId = findById(productAttributeId).getProduct().getId();
         productAttributeRepository.deleteAttributeValuesByProductAttributeId(productAttributeId);
         delete(productAttributeId);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, productAttributeId, CatalogChange.Operation.DELETE);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, productId));
     }
 
     /**
@@ -138,7 +148,10 @@ public class ProductAttributeService extends AbstractCrudService<ProductAttribut
 
     @Transactional
     public void deleteAttributeValuesByAttributeValueId(Long attributeValueId) {
+        List<Long> productAttributeIds = productAttributeRepository.findIdsByAttributeValueId(attributeValueId);
         productAttributeRepository.deleteAttributeValuesByAttributeValueId(attributeValueId);
+        catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, productAttributeIds, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS));
     }
 
     /**
@@ -161,6 +174,9 @@ public class ProductAttributeService extends AbstractCrudService<ProductAttribut
         productAttribute.getAttributeValues().add(attributeValue);
 
         update(productAttributeId, productAttribute);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, productAttributeId, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+                CatalogChangedEvent.Scope.PRODUCT_DETAILS, productAttribute.getProduct().getId()));
     }
 
     /**
@@ -182,6 +198,9 @@ public class ProductAttributeService extends AbstractCrudService<ProductAttribut
         productAttribute.getAttributeValues().remove(attributeValue);
 
         update(productAttributeId, productAttribute);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, productAttributeId, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+                CatalogChangedEvent.Scope.PRODUCT_DETAILS, productAttribute.getProduct().getId()));
     }
 
     /**
@@ -0,0 +1,243 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.dto.attributevalue.AttributeValueSimpleResponseDTO;
+import com.makibeans.dto.product.ProductResponseDTO;
+import com.makibeans.dto.productattribute.ProductAttributeResponseDTO;
+import com.makibeans.dto.productvariant.ProductVariantResponseDTO;
+import com.makibeans.repository.*;
+import com.makibeans.util.CsvUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting the whole catalog, e.g. for partners.
+ * Products, variants and attributes are read through three server-side cursors ordered by product ID and merged
+ * on the fly, so each product is written as soon as it is complete and heap use does not grow with the catalog.
+ * The cursors share one repeatable-read transaction, so they see the same snapshot of the catalog.
+ */
+
+@Service
+public class ProductExportService {
+
+    /**
+     * The supported output formats.
+     */
+
+    public enum Format {
+        /** A JSON array of products, shaped like the products returned by GET /products. */
+        JSON,
+        /** Comma-separated values with a header row and one row per variant, readable by the CSV import. */
+        CSV
+    }
+
+    static final List<String> CSV_HEADER = List.of(
+            "id", "name", "description", "categoryId", "categoryName", "size", "sku", "priceInCents", "stock", "attributes");
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductAttributeRepository productAttributeRepository;
+    private final ObjectMapper objectMapper;
+    private final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    public ProductExportService(ProductRepository productRepository,
+                                ProductVariantRepository productVariantRepository,
+                                ProductAttributeRepository productAttributeRepository,
+                                ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.productAttributeRepository = productAttributeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes all products with their variants and attributes to the output stream.
+     * The stream is flushed but not closed.
+     *
+     * @param output the stream to write to
+     * @param format the output format
+     * @return the number of exported products
+     * @throws IOException if the output cannot be written
+     */
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long exportProducts(OutputStream output, Format format) throws IOException {
+        try (Stream<ProductExportRow> products = productRepository.streamAllForExport();
+             Stream<ProductVariantExportRow> variants = productVariantRepository.streamAllForExport();
+             Stream<ProductAttributeExportRow> attributes = productAttributeRepository.streamAllForExport()) {
+
+            ProductWriter writer = format == Format.CSV ? new CsvProductWriter(output) : new JsonProductWriter(output);
+
+            Cursor<ProductVariantExportRow> variantCursor = new Cursor<>(variants.iterator(), ProductVariantExportRow::getProductId);
+            Cursor<ProductAttributeExportRow> attributeCursor = new Cursor<>(attributes.iterator(), ProductAttributeExportRow::getProductId);
+
+            long count = 0;
+            for (Iterator<ProductExportRow> rows = products.iterator(); rows.hasNext(); count++) {
+                ProductExportRow product = rows.next();
+                writer.write(product, variantCursor.take(product.getId()), attributeCursor.take(product.getId()));
+            }
+            // not finished on failure, so a broken export never looks complete
+            writer.finish();
+
+            logger.info("Exported {} products as {}", count, format);
+            return count;
+        }
+    }
+
+    /**
+     * Iterator over rows ordered by product ID that hands out the rows of one product at a time.
+     */
+
+    private static final class Cursor<T> {
+
+        private final Iterator<T> rows;
+        private final Function<T, Long> productId;
+        private T next;
+
+        Cursor(Iterator<T> rows, Function<T, Long> productId) {
+            this.rows = rows;
+            this.productId = productId;
+            this.next = rows.hasNext() ? rows.next() : null;
+        }
+
+        /**
+         * Returns the rows of the given product. Rows of products before it, which have no product row, are skipped.
+         */
+
+        List<T> take(Long id) {
+            List<T> taken = new ArrayList<>();
+            while (next != null && productId.apply(next) <= id) {
+                if (productId.apply(next).equals(id)) {
+                    taken.add(next);
+                }
+                next = rows.hasNext() ? rows.next() : null;
+            }
+            return taken;
+        }
+    }
+
+    private interface ProductWriter {
+
+        void write(ProductExportRow product, List<ProductVariantExportRow> variants,
+                   List<ProductAttributeExportRow> attributes) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class JsonProductWriter implements ProductWriter {
+
+        private final JsonGenerator generator;
+
+        JsonProductWriter(OutputStream output) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(output)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void write(ProductExportRow product, List<ProductVariantExportRow> variants,
+                          List<ProductAttributeExportRow> attributes) throws IOException {
+            generator.writeObject(toResponseDTO(product, variants, attributes));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+
+    private static final class CsvProductWriter implements ProductWriter {
+
+        private final Writer writer;
+
+        CsvProductWriter(OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            CsvUtils.writeRecord(writer, CSV_HEADER);
+        }
+
+        @Override
+        public void write(ProductExportRow product, List<ProductVariantExportRow> variants,
+                          List<ProductAttributeExportRow> attributes) throws IOException {
+            // the import appends the attributes of every row, so they are only written on the first row of a product
+            String formattedAttributes = formatAttributes(attributes);
+            if (variants.isEmpty()) {
+                CsvUtils.writeRecord(writer, csvRecord(product, null, formattedAttributes));
+            }
+            for (ProductVariantExportRow variant : variants) {
+                CsvUtils.writeRecord(writer, csvRecord(product, variant, formattedAttributes));
+                formattedAttributes = "";
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static ProductResponseDTO toResponseDTO(ProductExportRow product, List<ProductVariantExportRow> variants,
+                                                    List<ProductAttributeExportRow> attributes) {
+        List<ProductVariantResponseDTO> variantDTOs = variants.stream()
+                .map(variant -> new ProductVariantResponseDTO(variant.getId(), variant.getSizeId(), variant.getSizeName(),
+                        variant.getSku(), variant.getPriceInCents(), variant.getStock(), variant.getVersion()))
+                .toList();
+
+        // rows of one attribute are consecutive, one per value
+        List<ProductAttributeResponseDTO> attributeDTOs = new ArrayList<>();
+        for (ProductAttributeExportRow attribute : attributes) {
+            ProductAttributeResponseDTO last = attributeDTOs.isEmpty() ? null : attributeDTOs.get(attributeDTOs.size() - 1);
+            if (last == null || !last.getId().equals(attribute.getId())) {
+                last = new ProductAttributeResponseDTO(attribute.getId(), attribute.getTemplateId(), attribute.getTemplateName(), new ArrayList<>());
+                attributeDTOs.add(last);
+            }
+            if (attribute.getValueId() != null) {
+                last.getValues().add(new AttributeValueSimpleResponseDTO(attribute.getValueId(), attribute.getValue()));
+            }
+        }
+
+        // same image URL as ProductMapper
+        String imageUrl = product.getHasImage() ? "/products/" + product.getId() + "/image" : "null";
+        return new ProductResponseDTO(product.getId(), product.getName(), product.getDescription(), imageUrl,
+                product.getCategoryId(), product.getCategoryName(), variantDTOs, attributeDTOs);
+    }
+
+    private static List<String> csvRecord(ProductExportRow product, ProductVariantExportRow variant, String attributes) {
+        return Arrays.asList(
+                String.valueOf(product.getId()),
+                product.getName(),
+                product.getDescription(),
+                String.valueOf(product.getCategoryId()),
+                product.getCategoryName(),
+                variant != null ? variant.getSizeName() : null,
+                variant != null ? variant.getSku() : null,
+                variant != null ? String.valueOf(variant.getPriceInCents()) : null,
+                variant != null ? String.valueOf(variant.getStock()) : null,
+                attributes);
+    }
+
+    /**
+     * Formats attributes like the CSV import expects them, e.g. "origin=ethiopia|kenya;roast=dark".
+     */
+
+    private static String formatAttributes(List<ProductAttributeExportRow> attributes) {
+        return attributes.stream()
+                .filter(attribute -> attribute.getValue() != null)
+                .collect(Collectors.groupingBy(ProductAttributeExportRow::getTemplateName, LinkedHashMap::new,
+                        Collectors.mapping(ProductAttributeExportRow::getValue, Collectors.joining("|"))))
+                .entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(";"));
+    }
+}
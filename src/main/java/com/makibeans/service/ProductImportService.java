@@ -0,0 +1,721 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.cache.CategoryTree;
+import com.makibeans.cache.CategoryTreeCache;
+import com.makibeans.dto.product.ProductImportErrorDTO;
+import com.makibeans.dto.product.ProductImportReportDTO;
+import com.makibeans.dto.product.ProductImportRowDTO;
+import com.makibeans.dto.product.ProductImportVariantDTO;
+import com.makibeans.model.CatalogChange;
+import com.makibeans.model.SequenceIds;
+import com.makibeans.repository.AttributeTemplateRepository;
+import com.makibeans.repository.AttributeValueRepository;
+import com.makibeans.repository.ProductRepository;
+import com.makibeans.repository.SizeRepository;
+import com.makibeans.util.CsvUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static com.makibeans.util.UpdateUtils.normalize;
+
+/**
+ * Service class for importing products in bulk.
+ * The input is streamed and imported in chunks, each in its own transaction, so memory use does not grow
+ * with the size of the input and a failing chunk does not roll back the chunks before it.
+ * Categories, sizes, attribute templates and attribute values are resolved through in-memory lookup maps
+ * and rows are inserted with JDBC batches instead of one entity at a time.
+ */
+
+@Service
+public class ProductImportService {
+
+    /**
+     * The supported input formats.
+     */
+
+    public enum Format {
+        /** Comma-separated values with a header row; consecutive rows with the same name form one product. */
+        CSV,
+        /** One JSON product object per line. */
+        JSON_LINES
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (id, name, description, category_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT_VARIANT =
+            "INSERT INTO product_variants (id, product_id, size_id, price_in_cents, sku, stock, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_ATTRIBUTE_VALUE =
+            "INSERT INTO attribute_values (id, template_id, value) VALUES (?, ?, ?)";
+    private static final String INSERT_PRODUCT_ATTRIBUTE =
+            "INSERT INTO product_attributes (id, product_id, template_id) VALUES (?, ?, ?)";
+    private static final String INSERT_PRODUCT_ATTRIBUTE_VALUE =
+            "INSERT INTO product_attribute_values (product_attribute_id, attribute_value_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final SkuGenerator skuGenerator;
+    private final SizeRepository sizeRepository;
+    private final AttributeTemplateRepository attributeTemplateRepository;
+    private final AttributeValueRepository attributeValueRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ProductRepository productRepository,
+                                SkuGenerator skuGenerator,
+                                SizeRepository sizeRepository,
+                                AttributeTemplateRepository attributeTemplateRepository,
+                                AttributeValueRepository attributeValueRepository,
+                                CategoryTreeCache categoryTreeCache,
+                                ApplicationEventPublisher eventPublisher,
+                                CatalogChangeService catalogChangeService,
+                                ObjectMapper objectMapper,
+                                @Value("${product.import.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.skuGenerator = skuGenerator;
+        this.sizeRepository = sizeRepository;
+        this.attributeTemplateRepository = attributeTemplateRepository;
+        this.attributeValueRepository = attributeValueRepository;
+        this.categoryTreeCache = categoryTreeCache;
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports products from the given input.
+     * Rows that cannot be imported are skipped and listed in the report; all other rows are imported.
+     *
+     * @param input  the input stream to read the products from, encoded in UTF-8
+     * @param format the format of the input
+     * @return the import report, including the rows that could not be imported
+     * @throws IOException if the input cannot be read
+     */
+
+    public ProductImportReportDTO importProducts(InputStream input, Format format) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readJsonLines(reader, run);
+        }
+        run.flush();
+
+        if (run.importedProducts > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS));
+        }
+
+        logger.info("Imported {} product(s) with {} variant(s) from {} row(s), {} row(s) failed",
+                run.importedProducts, run.importedVariants, run.totalRows, run.failedRows);
+
+        return ProductImportReportDTO.builder()
+                .totalRows(run.totalRows)
+                .importedProducts(run.importedProducts)
+                .importedVariants(run.importedVariants)
+                .failedRows(run.failedRows)
+                .errors(run.errors)
+                .build();
+    }
+
+    // ========================================
+    // PARSING
+    // ========================================
+
+    /**
+     * Reads products in JSON Lines format, one product per line.
+     *
+     * @param reader the reader to read from
+     * @param run    the import run to hand the products to
+     * @throws IOException if the input cannot be read
+     */
+
+    private void readJsonLines(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        long lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                run.accept(lineNumber, 1, objectMapper.readValue(line, ProductImportRowDTO.class));
+            } catch (JsonProcessingException ex) {
+                run.reject(lineNumber, 1, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads products in CSV format.
+     * The header row names the columns: name, description, categoryId and optionally size, priceInCents,
+     * stock and attributes (e.g. "origin=ethiopia|kenya;roast=dark"). Consecutive rows with the same product
+     * name are combined into one product with several variants, so only one product is held in memory at a time.
+     *
+     * @param reader the reader to read from
+     * @param run    the import run to hand the products to
+     * @throws IOException if the input cannot be read
+     */
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        List<String> header = CsvUtils.readRecord(reader);
+        if (header == null) {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+        }
+        if (!columns.keySet().containsAll(List.of("name", "description", "categoryid"))) {
+            run.reject(1, 1, "CSV header must contain the columns name, description and categoryId.");
+            return;
+        }
+
+        CsvProduct current = null;
+        long lineNumber = 1;
+
+        List<String> record;
+        while ((record = CsvUtils.readRecord(reader)) != null) {
+            lineNumber++;
+            if (record.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+
+            String name = csvField(record, columns, "name");
+            if (current == null || !normalize(name).equals(normalize(current.product.getName()))) {
+                if (current != null) {
+                    current.handTo(run);
+                }
+                current = new CsvProduct(lineNumber, record, columns);
+            }
+            current.addRow(lineNumber, record, columns);
+        }
+
+        if (current != null) {
+            current.handTo(run);
+        }
+    }
+
+    /**
+     * A product read from one or more consecutive CSV rows.
+     * If any of its rows is invalid, the whole product is rejected.
+     */
+
+    private static class CsvProduct {
+
+        private final long line;
+        private final ProductImportRowDTO product = new ProductImportRowDTO();
+        private int rows;
+        private long errorLine;
+        private String error;
+
+        CsvProduct(long line, List<String> record, Map<String, Integer> columns) {
+            this.line = line;
+            product.setName(csvField(record, columns, "name"));
+            product.setDescription(csvField(record, columns, "description"));
+            try {
+                product.setCategoryId(parseLong(csvField(record, columns, "categoryid")));
+            } catch (NumberFormatException ex) {
+                fail(line, "Invalid category ID '" + csvField(record, columns, "categoryid") + "'.");
+            }
+        }
+
+        void addRow(long lineNumber, List<String> record, Map<String, Integer> columns) {
+            rows++;
+            try {
+                addCsvVariant(product, record, columns);
+                addCsvAttributes(product, csvField(record, columns, "attributes"));
+            } catch (IllegalArgumentException ex) {
+                fail(lineNumber, ex.getMessage());
+            }
+        }
+
+        void handTo(ImportRun run) {
+            if (error != null) {
+                run.reject(errorLine, rows, error);
+            } else {
+                run.accept(line, rows, product);
+            }
+        }
+
+        private void fail(long lineNumber, String message) {
+            if (error == null) {
+                errorLine = lineNumber;
+                error = message;
+            }
+        }
+    }
+
+    /**
+     * Adds the variant described by a CSV row to the product, if the row has a size.
+     *
+     * @param product the product to add the variant to
+     * @param record  the CSV row
+     * @param columns the column indexes by lowercase column name
+     * @throws IllegalArgumentException if the price or stock is not a number
+     */
+
+    private static void addCsvVariant(ProductImportRowDTO product, List<String> record, Map<String, Integer> columns) {
+        String size = csvField(record, columns, "size");
+        if (size.isBlank()) {
+            return;
+        }
+
+        String price = csvField(record, columns, "priceincents");
+        String stock = csvField(record, columns, "stock");
+        try {
+            product.getVariants().add(new ProductImportVariantDTO(size, parseLong(price), parseLong(stock)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid price or stock: '" + price + "', '" + stock + "'.");
+        }
+    }
+
+    /**
+     * Adds the attributes of a CSV row to the product.
+     *
+     * @param product    the product to add the attributes to
+     * @param attributes the attributes, formatted as "template=value|value;template=value"
+     * @throws IllegalArgumentException if an attribute has no template name
+     */
+
+    private static void addCsvAttributes(ProductImportRowDTO product, String attributes) {
+        for (String attribute : attributes.split(";")) {
+            if (attribute.isBlank()) {
+                continue;
+            }
+
+            int separator = attribute.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid attribute '" + attribute.trim() + "', expected template=value.");
+            }
+
+            List<String> values = product.getAttributes()
+                    .computeIfAbsent(attribute.substring(0, separator).trim(), template -> new ArrayList<>());
+            values.addAll(Arrays.asList(attribute.substring(separator + 1).split("\\|")));
+        }
+    }
+
+    private static String csvField(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? "" : record.get(index).trim();
+    }
+
+    private static Long parseLong(String value) {
+        return value.isBlank() ? null : Long.parseLong(value.trim());
+    }
+
+    // ========================================
+    // IMPORT
+    // ========================================
+
+    /**
+     * A validated product, with all references resolved to IDs.
+     *
+     * @param line            the line the product starts on
+     * @param rows            the number of rows the product was read from
+     * @param name            the normalized product name
+     * @param description     the normalized product description
+     * @param categoryId      the ID of the category
+     * @param variants        the variants of the product
+     * @param attributeValues the normalized attribute values by attribute template ID
+     */
+
+    private record PendingProduct(long line,
+                                  int rows,
+                                  String name,
+                                  String description,
+                                  Long categoryId,
+                                  List<PendingVariant> variants,
+                                  Map<Long, Set<String>> attributeValues) {
+    }
+
+    private record PendingVariant(Long sizeId, String sizeName, Long priceInCents, Long stock) {
+    }
+
+    private record AttributeValueKey(Long templateId, String value) {
+    }
+
+    /**
+     * The outcome of importing a chunk.
+     *
+     * @param inserted                 the products that were inserted
+     * @param duplicates               the products that were skipped because their name is already taken
+     * @param createdAttributeValueIds the IDs of the attribute values created for the chunk
+     */
+
+    private record ChunkResult(List<PendingProduct> inserted,
+                               List<PendingProduct> duplicates,
+                               Map<AttributeValueKey, Long> createdAttributeValueIds) {
+    }
+
+    private record VariantRow(Long productId, PendingVariant variant, String sku) {
+    }
+
+    /**
+     * State of a single import: the lookup maps, the current chunk and the counters for the report.
+     */
+
+    private class ImportRun {
+
+        private final CategoryTree categoryTree = categoryTreeCache.getFresh();
+        private final Map<String, Long> sizeIds = new HashMap<>();
+        private final Map<String, Long> templateIds = new HashMap<>();
+        private final Map<AttributeValueKey, Long> attributeValueIds = new HashMap<>();
+
+        private final List<PendingProduct> chunk = new ArrayList<>();
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedProducts;
+        private long importedVariants;
+        private long failedRows;
+
+        ImportRun() {
+            sizeRepository.findAll().forEach(size -> sizeIds.put(normalize(size.getName()), size.getId()));
+            attributeTemplateRepository.findAll().forEach(template -> templateIds.put(normalize(template.getName()), template.getId()));
+            attributeValueRepository.findAll().forEach(value -> attributeValueIds.put(
+                    new AttributeValueKey(value.getAttributeTemplate().getId(), normalize(value.getValue())), value.getId()));
+        }
+
+        /**
+         * Validates a product and adds it to the current chunk, importing the chunk once it is full.
+         *
+         * @param line    the line the product starts on
+         * @param rows    the number of rows the product was read from
+         * @param product the product to import
+         */
+
+        void accept(long line, int rows, ProductImportRowDTO product) {
+            totalRows += rows;
+
+            String error = validate(product);
+            if (error != null) {
+                reportError(line, rows, error);
+                return;
+            }
+
+            chunk.add(resolve(line, rows, product));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Records rows that could not be read at all.
+         *
+         * @param line    the line of the first row
+         * @param rows    the number of rows
+         * @param message the reason
+         */
+
+        void reject(long line, int rows, String message) {
+            totalRows += rows;
+            reportError(line, rows, message);
+        }
+
+        /**
+         * Imports the current chunk in its own transaction.
+         * If the chunk fails as a whole, e.g. because of a concurrent change, all its rows are reported as failed.
+         */
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            List<PendingProduct> pending = List.copyOf(chunk);
+            chunk.clear();
+
+            try {
+                ChunkResult result = Objects.requireNonNull(transactionTemplate.execute(status -> insertChunk(pending)));
+
+                attributeValueIds.putAll(result.createdAttributeValueIds());
+                for (PendingProduct product : result.inserted()) {
+                    importedProducts++;
+                    importedVariants += product.variants().size();
+                }
+                result.duplicates().forEach(product ->
+                        reportError(product.line(), product.rows(), "Product with name '" + product.name() + "' already exists."));
+            } catch (RuntimeException ex) {
+                String cause = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+                logger.warn("Product import chunk of {} product(s) failed: {}", pending.size(), cause);
+                pending.forEach(product -> reportError(product.line(), product.rows(), "Chunk could not be imported: " + cause));
+            }
+        }
+
+        /**
+         * Checks a product for missing fields and unknown references.
+         *
+         * @param product the product to check
+         * @return the error message, or null if the product is valid
+         */
+
+        private String validate(ProductImportRowDTO product) {
+            if (product.getName() == null || product.getName().isBlank()) {
+                return "Product name cannot be blank.";
+            }
+            if (product.getDescription() == null || product.getDescription().isBlank()) {
+                return "Product description cannot be blank.";
+            }
+            if (categoryTree.find(product.getCategoryId()).isEmpty()) {
+                return "Category with ID " + product.getCategoryId() + " not found.";
+            }
+
+            Set<String> sizes = new HashSet<>();
+            for (ProductImportVariantDTO variant : Optional.ofNullable(product.getVariants()).orElse(List.of())) {
+                String size = normalize(variant.getSize());
+                if (!sizeIds.containsKey(size)) {
+                    return "Size '" + size + "' not found.";
+                }
+                if (!sizes.add(size)) {
+                    return "Duplicate variant for size '" + size + "'.";
+                }
+                if (variant.getPriceInCents() == null || variant.getPriceInCents() < 0) {
+                    return "Price should be a minimum of 0.";
+                }
+                if (variant.getStock() == null || variant.getStock() < 0) {
+                    return "Stock should be a minimum of 0.";
+                }
+            }
+
+            for (Map.Entry<String, List<String>> attribute : Optional.ofNullable(product.getAttributes()).orElse(Map.of()).entrySet()) {
+                if (!templateIds.containsKey(normalize(attribute.getKey()))) {
+                    return "Attribute template '" + normalize(attribute.getKey()) + "' not found.";
+                }
+                if (attribute.getValue() == null || attribute.getValue().stream().anyMatch(value -> value == null || value.isBlank())) {
+                    return "Attribute value cannot be blank.";
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Resolves the references of a validated product to IDs.
+         *
+         * @param line    the line the product starts on
+         * @param rows    the number of rows the product was read from
+         * @param product the validated product
+         * @return the product ready to be inserted
+         */
+
+        private PendingProduct resolve(long line, int rows, ProductImportRowDTO product) {
+            List<PendingVariant> variants = Optional.ofNullable(product.getVariants()).orElse(List.of()).stream()
+                    .map(variant -> new PendingVariant(sizeIds.get(normalize(variant.getSize())),
+                            normalize(variant.getSize()), variant.getPriceInCents(), variant.getStock()))
+                    .toList();
+
+            Map<Long, Set<String>> attributeValues = new LinkedHashMap<>();
+            Optional.ofNullable(product.getAttributes()).orElse(Map.of()).forEach((template, values) ->
+                    values.forEach(value -> attributeValues
+                            .computeIfAbsent(templateIds.get(normalize(template)), id -> new LinkedHashSet<>())
+                            .add(normalize(value))));
+
+            return new PendingProduct(line, rows, normalize(product.getName()), normalize(product.getDescription()),
+                    product.getCategoryId(), variants, attributeValues);
+        }
+
+        /**
+         * Inserts a chunk of products with their variants and attributes.
+         * Must be called within a transaction.
+         *
+         * @param pending the products to insert
+         * @return the outcome of the chunk
+         */
+
+        private ChunkResult insertChunk(List<PendingProduct> pending) {
+            Set<String> takenNames = new HashSet<>(productRepository.findExistingNames(
+                    pending.stream().map(PendingProduct::name).toList()));
+
+            List<PendingProduct> products = new ArrayList<>();
+            List<PendingProduct> duplicates = new ArrayList<>();
+            for (PendingProduct product : pending) {
+                (takenNames.add(product.name()) ? products : duplicates).add(product);
+            }
+
+            Map<AttributeValueKey, Long> createdAttributeValueIds = new HashMap<>();
+            if (products.isEmpty()) {
+                return new ChunkResult(products, duplicates, createdAttributeValueIds);
+            }
+
+            List<Long> productIds = insertWithIds(INSERT_PRODUCT, "products_seq", products, (ps, product) -> {
+                ps.setString(2, product.name());
+                ps.setString(3, product.description());
+                ps.setLong(4, product.categoryId());
+            });
+
+            catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT, productIds, CatalogChange.Operation.UPSERT);
+            catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT_VARIANT, insertVariants(products, productIds),
+                    CatalogChange.Operation.UPSERT);
+            insertAttributes(products, productIds, createdAttributeValueIds);
+            return new ChunkResult(products, duplicates, createdAttributeValueIds);
+        }
+
+        /**
+         * Inserts the variants of the given products with freshly generated SKUs.
+         *
+         * @param products   the inserted products
+         * @param productIds the IDs of the products, in the same order
+         * @return the IDs of the inserted variants
+         */
+
+        private List<Long> insertVariants(List<PendingProduct> products, List<Long> productIds) {
+            List<VariantRow> variants = new ArrayList<>();
+            for (int i = 0; i < products.size(); i++) {
+                PendingProduct product = products.get(i);
+                for (PendingVariant variant : product.variants()) {
+                    variants.add(new VariantRow(productIds.get(i), variant, skuGenerator.generate(product.name(), variant.sizeName())));
+                }
+            }
+            if (variants.isEmpty()) {
+                return List.of();
+            }
+
+            return insertWithIds(INSERT_PRODUCT_VARIANT, "product_variants_seq", variants, (ps, row) -> {
+                ps.setLong(2, row.productId());
+                ps.setLong(3, row.variant().sizeId());
+                ps.setLong(4, row.variant().priceInCents());
+                ps.setString(5, row.sku());
+                ps.setLong(6, row.variant().stock());
+            });
+        }
+
+        /**
+         * Inserts the attributes of the given products, creating attribute values that do not exist yet.
+         *
+         * @param products                 the inserted products
+         * @param productIds               the IDs of the products, in the same order
+         * @param createdAttributeValueIds receives the IDs of the attribute values created for the chunk
+         */
+
+        private void insertAttributes(List<PendingProduct> products,
+                                      List<Long> productIds,
+                                      Map<AttributeValueKey, Long> createdAttributeValueIds) {
+
+            List<AttributeValueKey> newValues = products.stream()
+                    .flatMap(product -> product.attributeValues().entrySet().stream()
+                            .flatMap(entry -> entry.getValue().stream().map(value -> new AttributeValueKey(entry.getKey(), value))))
+                    .filter(key -> !attributeValueIds.containsKey(key))
+                    .distinct()
+                    .toList();
+
+            if (!newValues.isEmpty()) {
+                List<Long> newValueIds = insertWithIds(INSERT_ATTRIBUTE_VALUE, "attribute_values_seq", newValues, (ps, key) -> {
+                    ps.setLong(2, key.templateId());
+                    ps.setString(3, key.value());
+                });
+                for (int i = 0; i < newValues.size(); i++) {
+                    createdAttributeValueIds.put(newValues.get(i), newValueIds.get(i));
+                }
+            }
+
+            List<Long[]> attributes = new ArrayList<>();
+            for (int i = 0; i < products.size(); i++) {
+                Long productId = productIds.get(i);
+                products.get(i).attributeValues().keySet().forEach(templateId -> attributes.add(new Long[]{productId, templateId}));
+            }
+            if (attributes.isEmpty()) {
+                return;
+            }
+
+            List<Long> attributeIds = insertWithIds(INSERT_PRODUCT_ATTRIBUTE, "product_attributes_seq", attributes, (ps, attribute) -> {
+                ps.setLong(2, attribute[0]);
+                ps.setLong(3, attribute[1]);
+            });
+            catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, attributeIds, CatalogChange.Operation.UPSERT);
+
+            // attributes were collected in the same order, so walk the products again to pair them with their values
+            List<Long[]> attributeValueLinks = new ArrayList<>();
+            int attributeIndex = 0;
+            for (PendingProduct product : products) {
+                for (Map.Entry<Long, Set<String>> entry : product.attributeValues().entrySet()) {
+                    Long attributeId = attributeIds.get(attributeIndex++);
+                    for (String value : entry.getValue()) {
+                        AttributeValueKey key = new AttributeValueKey(entry.getKey(), value);
+                        Long valueId = attributeValueIds.getOrDefault(key, createdAttributeValueIds.get(key));
+                        attributeValueLinks.add(new Long[]{attributeId, valueId});
+                    }
+                }
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_ATTRIBUTE_VALUE, attributeValueLinks, attributeValueLinks.size(), (ps, link) -> {
+                ps.setLong(1, link[0]);
+                ps.setLong(2, link[1]);
+            });
+        }
+
+        private void reportError(long line, int rows, String message) {
+            failedRows += rows;
+            addError(new ProductImportErrorDTO(line, message));
+        }
+
+        private void addError(ProductImportErrorDTO error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * Inserts rows in a single JDBC batch with IDs taken from the given sequence.
+     * IDs are allocated in blocks, the same way Hibernate allocates them, so one sequence call covers
+     * many rows and the IDs never collide with those handed out to entities.
+     *
+     * @param sql      the insert statement; its first parameter is the ID
+     * @param sequence the name of the ID sequence
+     * @param rows     the rows to insert
+     * @param setter   sets the remaining parameters of a row, starting at index 2
+     * @param <T>      the type of the rows
+     * @return the IDs of the inserted rows, in the same order as the rows
+     */
+
+    private <T> List<Long> insertWithIds(String sql, String sequence, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        int blocks = (rows.size() + SequenceIds.ALLOCATION_SIZE - 1) / SequenceIds.ALLOCATION_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(
+                "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)", Long.class, sequence, blocks);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ids.add(blockStarts.get(i / SequenceIds.ALLOCATION_SIZE) + i % SequenceIds.ALLOCATION_SIZE);
+        }
+
+        List<Integer> indexes = IntStream.range(0, rows.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(sql, indexes, indexes.size(), (ps, i) -> {
+            ps.setLong(1, ids.get(i));
+            setter.setValues(ps, rows.get(i));
+        });
+        return ids;
+    }
+}
@@ -1,5 +1,9 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.cache.ProductReadCache;
+import com.makibeans.cache.Versioned;
 import com.makibeans.dto.product.ProductPageDTO;
 import com.makibeans.dto.product.ProductRequestDTO;
 import com.makibeans.dto.product.ProductResponseDTO;
@@ -8,17 +12,22 @@ import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ImageProcessingException;
 import com.makibeans.exceptions.ResourceNotFoundException;
 import com.makibeans.mapper.ProductMapper;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.model.Category;
 import com.makibeans.model.Product;
 import com.makibeans.repository.ProductRepository;
 import com.makibeans.filter.ProductFilter;
+import com.makibeans.util.FilterUtils;
 import com.makibeans.util.ImageUtils;
+import com.makibeans.util.SingleFlight;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -40,10 +49,13 @@ public class ProductService extends AbstractCrudService<Product, Long> {
     private final CategoryService categoryService;
     private final ProductMapper productMapper;
     private final AttributeTemplateService attributeTemplateService;
-    private final ProductAttributeService productAttributeService;
     private final Logger logger = LoggerFactory.getLogger(ProductService.class);
     private final ImageUtils imageUtils;
-
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductReadCache productReadCache;
+    private final CatalogVersions catalogVersions;
+    private final CatalogChangeService catalogChangeService;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
     public ProductService(
@@ -52,28 +64,55 @@ public class ProductService extends AbstractCrudService<Product, Long> {
             CategoryService categoryService,
             ProductMapper productMapper,
             AttributeTemplateService attributeTemplateService,
-            @Lazy ProductAttributeService productAttributeService, ImageUtils imageUtils) {
+            ImageUtils imageUtils,
+            ApplicationEventPublisher eventPublisher,
+            ProductReadCache productReadCache,
+            CatalogVersions catalogVersions,
+            CatalogChangeService catalogChangeService,
+            PlatformTransactionManager transactionManager) {
         super(repository);
         this.productRepository = productRepository;
         this.categoryService = categoryService;
         this.productMapper = productMapper;
         this.attributeTemplateService = attributeTemplateService;
-        this.productAttributeService = productAttributeService;
         this.imageUtils = imageUtils;
+        this.eventPublisher = eventPublisher;
+        this.productReadCache = productReadCache;
+        this.catalogVersions = catalogVersions;
+        this.catalogChangeService = catalogChangeService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
      * Retrieves a product by its ID.
+     * Served from the product read cache, which may return a stale product within the staleness bound
+     * while it is reloaded in the background.
      *
      * @param productId the ID of the product to retrieve.
      * @return the ProductResponseDTO representing the product.
      */
 
-    @Transactional(readOnly = true)
     public ProductResponseDTO getProductById(Long productId) {
-        Product product = findById(productId);
-        logger.info("product: {}", product);
-        return productMapper.toResponseDTO(product);
+        return getVersionedProductById(productId).value();
+    }
+
+    /**
+     * Retrieves a product by its ID, with the product version it reflects.
+     *
+     * @param productId the ID of the product to retrieve.
+     * @return the ProductResponseDTO representing the product, with its version.
+     */
+
+    public Versioned<ProductResponseDTO> getVersionedProductById(Long productId) {
+        return productReadCache.getProduct(productId, () -> {
+            long version = catalogVersions.productVersion(productId);
+            return new Versioned<>(version, readOnlyTransaction.execute(status -> {
+                Product product = findById(productId);
+                logger.info("product: {}", product);
+                return productMapper.toResponseDTO(product);
+            }));
+        });
     }
 
     /**
@@ -93,25 +132,83 @@ public class ProductService extends AbstractCrudService<Product, Long> {
      * The filters can include category ID, category name, price range, size, SKU, stock, and custom attributes.
      * Uses ProductFilter to handle the filtering and pagination logic.
      * Additionally, you can search on product name, description, attribute template, and attribute value.
+     * Results are served from the product read cache, which may return a stale page within the staleness bound
+     * while it is recomputed in the background. Identical searches that miss the cache at the same time are
+     * computed once and share the result; only the caller that computes it opens a transaction, so waiting
+     * callers do not hold a database connection.
      *
      * @param filters a map containing the filter criteria as key-value pairs.
-     *                Supported keys: "categoryId", "categoryName", "minPrice", "maxPrice", "sizeId", "sizeName", "sku", "stock", "query", "sort", "order", "page", "size".
+     *                Supported keys: "categoryId", "categoryName", "minPrice", "maxPrice", "sizeId", "sizeName", "sku", "stock", "query", "sort", "order", "page", "size", "includeSubcategories".
      *                Any other keys will be treated as custom attribute filters.
+     *                With "includeSubcategories=true", "categoryId" also matches products in all subcategories of the given categories.
+     *
      * @return a ProductPageDTO representing the filtered products.
      */
 
-    @Transactional
     public ProductPageDTO findBySearchQuery(Map<String, String> filters) {
+        return findVersionedBySearchQuery(filters).value();
+    }
 
+    /**
+     * Filters products like {@link #findBySearchQuery(Map)}, with the catalog version the result reflects.
+     *
+     * @param filters a map containing the filter criteria as key-value pairs.
+     * @return a ProductPageDTO representing the filtered products, with its version.
+     */
+
+    public Versioned<ProductPageDTO> findVersionedBySearchQuery(Map<String, String> filters) {
+        // the copy is equal for the same parameters in any order, and callers cannot change it while it is cached
+        Map<String, String> key = Map.copyOf(filters);
+        return productReadCache.getSearch(key, () -> {
+            long version = catalogVersions.version();
+            return new Versioned<>(version, readOnlyTransaction.execute(status -> search(key)));
+        });
+    }
+
+    /**
+     * Returns how many product searches were coalesced onto a search that was already running.
+     *
+     * @return the coalescing statistics of product searches
+     */
+
+    public SingleFlight.Stats getSearchCoalescingStats() {
+        return productReadCache.searchLoadStats();
+    }
+
+    private ProductPageDTO search(Map<String, String> filters) {
         ProductFilter productFilter = ProductFilter.builder()
                 .filters(filters)
-                .products(findAll())
+                .products(findCandidateProducts(filters))
                 .productMapper(productMapper)
                 .validAttributeKeys(attributeTemplateService.getValidAttributeKeys())
                 .build();
         return productFilter.apply();
     }
 
+    /**
+     * Loads the products the filters are applied to.
+     * If subcategories are included, only the products of the category subtrees are loaded,
+     * using an indexed prefix query on the category path per requested category.
+     *
+     * @param filters the filter criteria.
+     * @return the products to filter.
+     */
+
+    private List<Product> findCandidateProducts(Map<String, String> filters) {
+        boolean includeSubcategories = FilterUtils.extractBoolean(filters, "includeSubcategories").orElse(false);
+        List<Long> categoryIds = FilterUtils.extractLongList(filters, "categoryId");
+
+        if (!includeSubcategories || categoryIds.isEmpty()) {
+            return findAll();
+        }
+
+        Map<Long, Product> products = new LinkedHashMap<>();
+        categoryService.getCategoryPaths(categoryIds).forEach(path ->
+                productRepository.findByCategoryPathStartingWith(path)
+                        .forEach(product -> products.putIfAbsent(product.getId(), product)));
+        return new ArrayList<>(products.values());
+    }
+
     /**
      * Creates a new product.
      *
@@ -134,11 +231,14 @@ public class ProductService extends AbstractCrudService<Product, Long> {
                 .build();
 
         Product savedProduct = create(product);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT, savedProduct.getId(), CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS, savedProduct.getId()));
         return productMapper.toResponseDTO(savedProduct);
     }
 
     /**
-     * Deletes a product and associated product attributes by its ID
+     * Deletes a product with its attributes and variants by its ID.
+     * Everything is removed with four set-based statements, however many attributes and variants the product has.
      *
      * @param productId the ID of the product to delete.
      * @throws ResourceNotFoundException if the product does not exist.
@@ -146,8 +246,20 @@ public class ProductService extends AbstractCrudService<Product, Long> {
 
     @Transactional
     public void deleteProduct(Long productId) {
-        deleteProductAttributes(productId);
-        delete(productId);
+        if (productId == null) {
+            throw new IllegalArgumentException("Product ID cannot be null.");
+        }
+
+        productRepository.deleteAttributeValueLinksByProductId(productId);
+        productRepository.deleteProductAttributesByProductId(productId);
+        productRepository.deleteProductVariantsByProductId(productId);
+        if (productRepository.deleteProductById(productId) == 0) {
+            throw new ResourceNotFoundException("Product with ID " + productId + " not found.");
+        }
+
+        logger.info("Deleted Product with ID {}", productId);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT, productId, CatalogChange.Operation.DELETE);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS, productId));
     }
 
 
@@ -166,11 +278,23 @@ public class ProductService extends AbstractCrudService<Product, Long> {
 
         boolean updated = false;
 
+        boolean categoryChanged = updateCategoryField(product, dto.getCategoryId());
+
         updated |= updateProductNameField(product, dto.getName());
-        updated |= updateCategoryField(product, dto.getCategoryId());
+        updated |= categoryChanged;
         updated |= updateProductDescriptionField(product, dto.getDescription());
 
-        Product updatedProduct = updated ? update(productId, product) : product;
+        if (categoryChanged) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS, productId));
+        } else if (updated) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, productId));
+        }
+
+        Product updatedProduct = product;
+        if (updated) {
+            updatedProduct = update(productId, product);
+            catalogChangeService.record(CatalogChange.EntityType.PRODUCT, productId, CatalogChange.Operation.UPSERT);
+        }
 
         return productMapper.toResponseDTO(updatedProduct);
     }
@@ -193,6 +317,8 @@ public class ProductService extends AbstractCrudService<Product, Long> {
         product.setImage(imageBytes);
 
         Product updatedProduct = update(productId, product);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT, productId, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, productId));
 
         return productMapper.toResponseDTO(updatedProduct);
     }
@@ -226,6 +352,8 @@ public class ProductService extends AbstractCrudService<Product, Long> {
         Product product = findById(productId);
         product.setImage(null);
         update(productId, product);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT, productId, CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, productId));
     }
 
     /**
@@ -293,15 +421,4 @@ public class ProductService extends AbstractCrudService<Product, Long> {
         }
         return false;
     }
-
-    /**
-     * Deletes all product attributes associated with a product.
-     *
-     * @param productId the ID of the product whose attributes are to be deleted.
-     */
-    private void deleteProductAttributes(Long productId) {
-        productAttributeService.getProductAttributesByProductId(productId)
-                .forEach(productAttribute ->
-                        productAttributeService.deleteProductAttribute(productAttribute.getId()));
-    }
 }
@@ -0,0 +1,289 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.productvariant.ProductVariantBulkUpdateDTO;
+import com.makibeans.dto.productvariant.ProductVariantBulkUpdateErrorDTO;
+import com.makibeans.dto.productvariant.ProductVariantBulkUpdateReportDTO;
+import com.makibeans.model.CatalogChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Service class for updating the stock and price of many Product Variants at once, e.g. for inventory syncs.
+ * The request is streamed and applied in chunks, each with a single UPDATE ... FROM (VALUES ...) statement
+ * per lookup column and in its own transaction, so no entities are loaded and a failing chunk does not
+ * roll back the chunks before it.
+ */
+
+@Service
+public class ProductVariantBulkUpdateService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
+    private final int chunkSize;
+    private final Logger logger = LoggerFactory.getLogger(ProductVariantBulkUpdateService.class);
+
+    public ProductVariantBulkUpdateService(PlatformTransactionManager transactionManager,
+                                           ObjectMapper objectMapper,
+                                           ApplicationEventPublisher eventPublisher,
+                                           CatalogChangeService catalogChangeService,
+                                           @Value("${product-variant.bulk-update.chunk-size:1000}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Applies the updates in the given JSON array.
+     * Entries that cannot be applied are skipped and listed in the report; all other entries are applied.
+     * If the same variant is updated twice, the later entry wins.
+     *
+     * @param input the JSON array of updates
+     * @return the update report, including the entries that could not be applied
+     * @throws IOException if the input cannot be read
+     */
+
+    public ProductVariantBulkUpdateReportDTO updateProductVariants(InputStream input) throws IOException {
+        UpdateRun run = new UpdateRun();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                run.reject(0, "Expected a JSON array of updates.");
+            } else {
+                readEntries(parser, run);
+            }
+        }
+        run.flush();
+        if (run.updatedVariants > 0) {
+            // the chunks are committed already, so the change is visible to every listener
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS));
+        }
+
+        logger.info("Bulk updated {} product variant(s) from {} entries, {} entries failed",
+                run.updatedVariants, run.totalEntries, run.failedEntries);
+
+        return ProductVariantBulkUpdateReportDTO.builder()
+                .totalEntries(run.totalEntries)
+                .updatedVariants(run.updatedVariants)
+                .failedEntries(run.failedEntries)
+                .errors(run.errors)
+                .build();
+    }
+
+    /**
+     * Reads the entries of the array one at a time.
+     * An entry that does not match the expected fields is rejected, malformed JSON ends the run.
+     *
+     * @param parser the parser, positioned at the start of the array
+     * @param run    the update run to hand the entries to
+     * @throws IOException if the input cannot be read
+     */
+
+    private void readEntries(JsonParser parser, UpdateRun run) throws IOException {
+        long index = 0;
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    run.reject(index, "Invalid JSON, the array is not closed.");
+                    return;
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    run.accept(index, objectMapper.treeToValue(node, ProductVariantBulkUpdateDTO.class));
+                } catch (JsonProcessingException ex) {
+                    run.reject(index, "Invalid entry: " + ex.getOriginalMessage());
+                }
+                index++;
+            }
+        } catch (JsonProcessingException ex) {
+            run.reject(index, "Invalid JSON, remaining entries were not read: " + ex.getOriginalMessage());
+        }
+    }
+
+    /**
+     * A validated update.
+     *
+     * @param index        the position of the entry in the request
+     * @param id           the ID of the variant, or null if it is identified by SKU
+     * @param sku          the SKU of the variant, or null if it is identified by ID
+     * @param stock        the new stock, or null to keep it
+     * @param priceInCents the new price, or null to keep it
+     */
+
+    private record PendingUpdate(long index, Long id, String sku, Long stock, Long priceInCents) {
+
+        String key() {
+            return id != null ? "id:" + id : "sku:" + sku;
+        }
+    }
+
+    /**
+     * State of a single bulk update: the current chunk and the counters for the report.
+     */
+
+    private class UpdateRun {
+
+        private final Map<String, PendingUpdate> chunk = new LinkedHashMap<>();
+        private final List<ProductVariantBulkUpdateErrorDTO> errors = new ArrayList<>();
+        private long totalEntries;
+        private long updatedVariants;
+        private long failedEntries;
+
+        /**
+         * Validates an entry and adds it to the current chunk, applying the chunk once it is full.
+         *
+         * @param index the position of the entry
+         * @param entry the entry
+         */
+
+        void accept(long index, ProductVariantBulkUpdateDTO entry) {
+            totalEntries++;
+
+            String error = validate(entry);
+            if (error != null) {
+                reportError(index, error);
+                return;
+            }
+
+            PendingUpdate update = new PendingUpdate(index, entry.getId(),
+                    entry.getId() == null ? entry.getSku().trim() : null, entry.getStock(), entry.getPriceInCents());
+
+            // one statement cannot update a row twice, so a repeated variant starts a new chunk
+            if (chunk.containsKey(update.key())) {
+                flush();
+            }
+            chunk.put(update.key(), update);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Records an entry that could not be read.
+         *
+         * @param index   the position of the entry
+         * @param message the reason
+         */
+
+        void reject(long index, String message) {
+            totalEntries++;
+            reportError(index, message);
+        }
+
+        /**
+         * Applies the current chunk in its own transaction.
+         * Entries that match no variant are reported; if the chunk fails as a whole, all its entries are reported.
+         */
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            List<PendingUpdate> pending = List.copyOf(chunk.values());
+            chunk.clear();
+
+            try {
+                Set<Long> updated = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                    Set<Long> matched = new HashSet<>();
+                    matched.addAll(update("id", "bigint", pending.stream().filter(u -> u.id() != null).toList()));
+                    matched.addAll(update("sku", "varchar", pending.stream().filter(u -> u.id() == null).toList()));
+                    return matched;
+                }));
+
+                updatedVariants += updated.size();
+                pending.stream()
+                        .filter(update -> !updated.contains(update.index()))
+                        .forEach(update -> reportError(update.index(), update.id() != null
+                                ? "Product variant with ID " + update.id() + " not found."
+                                : "Product variant with SKU '" + update.sku() + "' not found."));
+            } catch (RuntimeException ex) {
+                String cause = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+                logger.warn("Product variant bulk update chunk of {} entries failed: {}", pending.size(), cause);
+                pending.forEach(update -> reportError(update.index(), "Chunk could not be applied: " + cause));
+            }
+        }
+
+        private String validate(ProductVariantBulkUpdateDTO entry) {
+            boolean hasSku = entry.getSku() != null && !entry.getSku().isBlank();
+            if ((entry.getId() == null) == !hasSku) {
+                return "Exactly one of id and sku must be given.";
+            }
+            if (entry.getStock() == null && entry.getPriceInCents() == null) {
+                return "At least one of stock and priceInCents must be given.";
+            }
+            if (entry.getStock() != null && entry.getStock() < 0) {
+                return "Stock should be a minimum of 0.";
+            }
+            if (entry.getPriceInCents() != null && entry.getPriceInCents() < 0) {
+                return "Price should be a minimum of 0.";
+            }
+            return null;
+        }
+
+        private void reportError(long index, String message) {
+            failedEntries++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductVariantBulkUpdateErrorDTO(index, message));
+            }
+        }
+    }
+
+    /**
+     * Applies updates that identify their variant by the given column with a single statement,
+     * which also records the updated variants in the catalog change log. Must be called within a transaction.
+     *
+     * @param column  the lookup column, id or sku
+     * @param type    the SQL type of the lookup column
+     * @param updates the updates to apply
+     * @return the indexes of the updates that matched a variant
+     */
+
+    private List<Long> update(String column, String type, List<PendingUpdate> updates) {
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+
+        String row = "(CAST(? AS bigint), CAST(? AS " + type + "), CAST(? AS bigint), CAST(? AS bigint))";
+        String sql = "UPDATE product_variants pv " +
+                "SET stock = coalesce(v.stock, pv.stock), price_in_cents = coalesce(v.price_in_cents, pv.price_in_cents), " +
+                "version = pv.version + 1 " +
+                "FROM (VALUES " + String.join(", ", Collections.nCopies(updates.size(), row)) + ") " +
+                "AS v (entry_index, lookup, stock, price_in_cents) " +
+                "WHERE pv." + column + " = v.lookup " +
+                "RETURNING pv.id AS entity_id, v.entry_index AS result";
+
+        Object[] args = new Object[updates.size() * 4];
+        for (int i = 0; i < updates.size(); i++) {
+            PendingUpdate update = updates.get(i);
+            args[i * 4] = update.index();
+            args[i * 4 + 1] = update.id() != null ? update.id() : update.sku();
+            args[i * 4 + 2] = update.stock();
+            args[i * 4 + 3] = update.priceInCents();
+        }
+        return catalogChangeService.queryAndRecord(sql, CatalogChange.EntityType.PRODUCT_VARIANT,
+                CatalogChange.Operation.UPSERT, args);
+    }
+}
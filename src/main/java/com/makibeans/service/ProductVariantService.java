@@ -1,22 +1,25 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
 import com.makibeans.dto.productvariant.ProductVariantRequestDTO;
 import com.makibeans.dto.productvariant.ProductVariantResponseDTO;
 import com.makibeans.dto.productvariant.ProductVariantUpdateDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
 import com.makibeans.mapper.ProductVariantMapper;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.model.Product;
 import com.makibeans.model.ProductVariant;
 import com.makibeans.model.Size;
 import com.makibeans.repository.ProductVariantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
 import static com.makibeans.util.UpdateUtils.shouldUpdate;
 
@@ -32,6 +35,9 @@ public class ProductVariantService extends AbstractCrudService<ProductVariant, L
     private final ProductService productService;
     private final SizeService sizeService;
     private final ProductVariantMapper productVariantMapper;
+    private final SkuGenerator skuGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogChangeService catalogChangeService;
 
     @Autowired
     public ProductVariantService(
@@ -39,12 +45,18 @@ public class ProductVariantService extends AbstractCrudService<ProductVariant, L
             ProductVariantRepository productVariantRepository,
             ProductService productService,
             SizeService sizeService,
-            ProductVariantMapper productVariantMapper) {
+            ProductVariantMapper productVariantMapper,
+            SkuGenerator skuGenerator,
+            ApplicationEventPublisher eventPublisher,
+            CatalogChangeService catalogChangeService) {
         super(repository);
         this.productVariantRepository = productVariantRepository;
         this.productService = productService;
         this.sizeService = sizeService;
         this.productVariantMapper = productVariantMapper;
+        this.skuGenerator = skuGenerator;
+        this.eventPublisher = eventPublisher;
+        this.catalogChangeService = catalogChangeService;
     }
 
     /**
@@ -94,11 +106,13 @@ public class ProductVariantService extends AbstractCrudService<ProductVariant, L
                 product,
                 size,
                 dto.getPriceInCents(),
-                generateSKU(product, size),
+                skuGenerator.generate(product.getName(), size.getName()),
                 dto.getStock()
         );
 
         ProductVariant savedVariant = create(productVariant);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT_VARIANT, savedVariant.getId(), CatalogChange.Operation.UPSERT);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, product.getId()));
 
         return productVariantMapper.toResponseDTO(savedVariant);
     }
@@ -111,7 +125,10 @@ public class ProductVariantService extends AbstractCrudService<ProductVariant, L
 
     @Transactional
     public void deleteProductVariant(Long productVariantId) {
+        Long productId = findById(productVariantId).getProduct().getId();
         delete(productVariantId);
+        catalogChangeService.record(CatalogChange.EntityType.PRODUCT_VARIANT, productVariantId, CatalogChange.Operation.DELETE);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS, productId));
     }
 
     /**
@@ -122,48 +139,46 @@ public class ProductVariantService extends AbstractCrudService<ProductVariant, L
 
     @Transactional
     public void deleteProductVariantBySizeId(Long sizeId) {
+        List<Long> productVariantIds = productVariantRepository.findIdsBySizeId(sizeId);
         productVariantRepository.deleteBySizeId(sizeId);
+        catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT_VARIANT, productVariantIds, CatalogChange.Operation.DELETE);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS));
     }
 
     /**
      * Updates an existing Product Variant.
      *
      * @param productVariantId the ID of the Product Variant to update
-     * @param dto the DTO containing updated price and stock
+     * @param dto the DTO containing updated price and stock, and optionally the version they are based on
      * @return the updated ProductVariantResponseDTO
      * @throws ResourceNotFoundException if the Product Variant does not exist
+     * @throws ObjectOptimisticLockingFailureException if the Product Variant has changed since the given version
      */
 
     @Transactional
     public ProductVariantResponseDTO updateProductVariant(Long productVariantId, ProductVariantUpdateDTO dto) {
         ProductVariant productVariant = findById(productVariantId);
 
+        if (dto.getVersion() != null && dto.getVersion() != productVariant.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(ProductVariant.class, productVariantId);
+        }
+
         boolean updated = false;
 
         updated |= updatePriceInCentsField(productVariant, dto.getPriceInCents());
         updated |= updateStockField(productVariant, dto.getStock());
         updated |= updateSkuField(productVariant);
 
-        ProductVariant updatedVariant = updated ? update(productVariantId, productVariant) : productVariant;
+        ProductVariant updatedVariant = productVariant;
+        if (updated) {
+            updatedVariant = update(productVariantId, productVariant);
+            catalogChangeService.record(CatalogChange.EntityType.PRODUCT_VARIANT, productVariantId, CatalogChange.Operation.UPSERT);
+            eventPublisher.publishEvent(new CatalogChangedEvent(
+                    CatalogChangedEvent.Scope.PRODUCT_DETAILS, productVariant.getProduct().getId()));
+        }
         return productVariantMapper.toResponseDTO(updatedVariant);
     }
 
-    /**
-     * Generates a unique SKU based on product and size.
-     *
-     * @param product the associated Product entity
-     * @param size the associated Size entity
-     * @return the generated SKU
-     */
-
-    private String generateSKU(Product product, Size size) {
-        String productCode = product.getName().replaceAll("\\s+", "").toUpperCase();
-        String sizeCode = size.getName().replaceAll("\\s+", "").toUpperCase();
-        String uniqueNumber = String.format("%04d", ThreadLocalRandom.current().nextInt(10000));
-
-        return productCode + "-" + sizeCode + "-" + uniqueNumber;
-    }
-
     /**
      * Updates the price in cents field of the Product Variant if it has changed.
      *
@@ -197,19 +212,20 @@ public class ProductVariantService extends AbstractCrudService<ProductVariant, L
     }
 
     /**
-     * Updates the SKU field of the Product Variant if it has changed.
+     * Regenerates the SKU of the Product Variant if the product or size was renamed since it was generated.
      *
      * @param productVariant the Product Variant to update
      * @return true if the SKU was updated, false otherwise
      */
 
     private boolean updateSkuField(ProductVariant productVariant) {
-        String newSku = generateSKU(productVariant.getProduct(), productVariant.getSize());
-        if (shouldUpdate(newSku, productVariant.getSku())) {
-            productVariant.setSku(newSku);
-            return true;
+        String productName = productVariant.getProduct().getName();
+        String sizeName = productVariant.getSize().getName();
+        if (skuGenerator.matches(productVariant.getSku(), productName, sizeName)) {
+            return false;
         }
-        return false;
+        productVariant.setSku(skuGenerator.generate(productName, sizeName));
+        return true;
     }
 
     /**
@@ -1,26 +1,28 @@
     package com.makibeans.service;
 
+    import com.makibeans.cache.CatalogChangedEvent;
+    import com.makibeans.dto.PageDTO;
     import com.makibeans.dto.size.SizeRequestDTO;
     import com.makibeans.dto.size.SizeResponseDTO;
     import com.makibeans.dto.size.SizeUpdateDTO;
     import com.makibeans.exceptions.DuplicateResourceException;
     import com.makibeans.exceptions.ResourceNotFoundException;
-    import com.makibeans.filter.SearchFilter;
+    import com.makibeans.filter.SearchSpecification;
     import com.makibeans.mapper.SizeMapper;
     import com.makibeans.model.Size;
     import com.makibeans.repository.SizeRepository;
     import org.slf4j.Logger;
     import org.slf4j.LoggerFactory;
     import org.springframework.beans.factory.annotation.Autowired;
+    import org.springframework.context.ApplicationEventPublisher;
     import org.springframework.context.annotation.Lazy;
+    import org.springframework.data.domain.Page;
     import org.springframework.data.jpa.repository.JpaRepository;
     import org.springframework.stereotype.Service;
     import org.springframework.transaction.annotation.Transactional;
 
-    import java.util.Comparator;
     import java.util.List;
     import java.util.Map;
-    import java.util.function.Function;
 
     import static com.makibeans.util.UpdateUtils.normalize;
     import static com.makibeans.util.UpdateUtils.shouldUpdate;
@@ -37,16 +39,19 @@
         private final SizeMapper sizeMapper;
         private final Logger logger = LoggerFactory.getLogger(SizeService.class);
         private final ProductVariantService productVariantService;
+        private final ApplicationEventPublisher eventPublisher;
 
         @Autowired
         public SizeService(JpaRepository<Size, Long> repository,
                            SizeRepository sizeRepository,
                            SizeMapper sizeMapper,
-                           @Lazy ProductVariantService productVariantService) {
+                           @Lazy ProductVariantService productVariantService,
+                           ApplicationEventPublisher eventPublisher) {
             super(repository);
             this.sizeRepository = sizeRepository;
             this.sizeMapper = sizeMapper;
             this.productVariantService = productVariantService;
+            this.eventPublisher = eventPublisher;
         }
 
         /**
@@ -78,32 +83,30 @@
         }
 
         /**
-         * Finds sizes based on search query parameters.
+         * Finds a page of sizes based on search query parameters.
          *
-         * @param searchParams the search parameters to filter sizes
-         * @return a list of SizeResponseDTO representing the matching sizes
+         * @param searchParams the search parameters to filter, sort and paginate sizes
+         * @return a PageDTO of SizeResponseDTO representing the matching sizes
          */
 
         @Transactional(readOnly = true)
-        public List<SizeResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
+        public PageDTO<SizeResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
 
-            Map<String, Function<Size, String>> searchFields = Map.of(
-                    "name", Size::getName);
+            Map<String, String> searchFields = Map.of(
+                    "name", "name");
 
-            Map<String, Comparator<Size>> sortFields = Map.of(
-                    "id", Comparator.comparing(Size::getId, Comparator.nullsLast(Comparator.naturalOrder())),
-                    "name", Comparator.comparing(Size::getName, String.CASE_INSENSITIVE_ORDER));
+            Map<String, String> sortFields = Map.of(
+                    "id", "id",
+                    "name", "name");
 
-            List<Size> matchSizes = SearchFilter.apply(
-                    findAll(),
+            Page<Size> matchSizes = SearchSpecification.apply(
+                    sizeRepository,
                     searchParams,
                     searchFields,
                     sortFields);
 
             // Convert to response DTOs
-            return matchSizes.stream()
-                    .map(sizeMapper::toResponseDTO)
-                    .toList();
+            return PageDTO.from(matchSizes.map(sizeMapper::toResponseDTO));
         }
 
         /**
@@ -123,6 +126,7 @@
             Size size = new Size(normalizedName);
 
             Size savedSize = create(size);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
 
             return sizeMapper.toResponseDTO(savedSize);
         }
@@ -137,6 +141,7 @@
         public void deleteSize(Long sizeId){
             productVariantService.deleteProductVariantBySizeId(sizeId);
             delete(sizeId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
         }
 
         /**
@@ -154,7 +159,11 @@
 
             boolean updated = updateSizeNameField(size, sizeRequestDTO.getName());
 
-            Size updatedSize = updated ? update(sizeId, size) : size;
+            Size updatedSize = size;
+            if (updated) {
+                updatedSize = update(sizeId, size);
+                eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
+            }
 
             return sizeMapper.toResponseDTO(updatedSize);
         }
@@ -0,0 +1,84 @@
+package com.makibeans.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates SKUs of the form PRODUCTCODE-SIZECODE-NUMBER, e.g. "ETHIOPIANDARKROAST-250G-10042".
+ * The number comes from the sku_seq database sequence, which hands out blocks of numbers, so SKUs are unique
+ * across threads and application instances without a lookup or retry, and most SKUs cost no database round trip.
+ * Numbers start at 10000, above the four-digit random numbers of SKUs generated before the sequence existed.
+ */
+
+@Component
+public class SkuGenerator {
+
+    // must match the increment of sku_seq in data.sql: a sequence value is the first number of a block
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next;
+    private long blockEnd;
+
+    public SkuGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Generates a new SKU for a variant of the given product and size.
+     *
+     * @param productName the name of the product
+     * @param sizeName    the name of the size
+     * @return the generated SKU
+     */
+
+    public String generate(String productName, String sizeName) {
+        return prefix(productName, sizeName) + nextNumber();
+    }
+
+    /**
+     * Checks if a SKU was generated for the given product and size names, i.e. if it is still up to date
+     * after the product or size was renamed.
+     *
+     * @param sku         the SKU to check
+     * @param productName the name of the product
+     * @param sizeName    the name of the size
+     * @return true if the SKU starts with the codes of the product and size
+     */
+
+    public boolean matches(String sku, String productName, String sizeName) {
+        String prefix = prefix(productName, sizeName);
+        return sku != null && sku.length() > prefix.length() && sku.startsWith(prefix);
+    }
+
+    private synchronized long nextNumber() {
+        if (next == blockEnd) {
+            Long blockStart = jdbcTemplate.queryForObject("SELECT nextval('sku_seq')", Long.class);
+            next = blockStart;
+            blockEnd = blockStart + BLOCK_SIZE;
+        }
+        return next++;
+    }
+
+    private static String prefix(String productName, String sizeName) {
+        StringBuilder prefix = new StringBuilder(productName.length() + sizeName.length() + 2);
+        appendCode(prefix, productName);
+        prefix.append('-');
+        appendCode(prefix, sizeName);
+        return prefix.append('-').toString();
+    }
+
+    /**
+     * Appends the name without whitespace and in upper case.
+     */
+
+    private static void appendCode(StringBuilder target, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                target.append(Character.toUpperCase(c));
+            }
+        }
+    }
+}
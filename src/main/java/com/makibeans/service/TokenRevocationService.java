@@ -0,0 +1,197 @@
+package com.makibeans.service;
+
+import com.makibeans.model.RevokedToken;
+import com.makibeans.model.User;
+import com.makibeans.repository.RevokedTokenRepository;
+import com.makibeans.security.JwtUtil;
+import com.makibeans.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class for revoking JWT tokens and checking whether a token has been revoked.
+ * Revocations are persisted in the database and mirrored in memory, so revocation checks
+ * on the request path never hit the database. A bloom filter in front of the exact set
+ * answers the common "not revoked" case without touching the map.
+ */
+
+@Service
+public class TokenRevocationService {
+
+    private static final int MIN_EXPECTED_REVOCATIONS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter = new BloomFilter(MIN_EXPECTED_REVOCATIONS, FALSE_POSITIVE_RATE);
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, JwtUtil jwtUtil) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * Loads all unexpired revocations from the database into memory.
+     */
+
+    @PostConstruct
+    public void loadRevokedTokens() {
+        Instant now = Instant.now();
+        List<RevokedToken> tokens = revokedTokenRepository.findByExpiresAtAfter(now);
+        tokens.forEach(token -> revokedTokens.put(token.getTokenId(), token.getExpiresAt()));
+        rebuildBloomFilter();
+        lastSync = now;
+        logger.info("Loaded {} revoked token(s)", tokens.size());
+    }
+
+    /**
+     * Revokes the given JWT token until it expires.
+     *
+     * @param token the JWT token to revoke
+     * @throws IllegalArgumentException if the token does not carry a token ID
+     */
+
+    @Transactional
+    public void revokeToken(String token) {
+        String tokenId = jwtUtil.extractTokenId(token);
+        if (tokenId == null) {
+            throw new IllegalArgumentException("Token cannot be revoked because it has no token ID.");
+        }
+
+        if (revokedTokenRepository.existsByTokenId(tokenId)) {
+            return;
+        }
+
+        String username = jwtUtil.extractUsername(token);
+        Instant expiresAt = jwtUtil.extractExpiration(token).toInstant();
+
+        revokedTokenRepository.save(new RevokedToken(tokenId, username, expiresAt, Instant.now()));
+        rememberAfterCommit(tokenId, expiresAt);
+
+        logger.info("Revoked token {} of user {}", tokenId, username);
+    }
+
+    /**
+     * Checks if the given JWT token has been revoked, either individually or because
+     * all tokens of the user issued before a certain moment were revoked.
+     *
+     * @param token       the JWT token to check
+     * @param userDetails the user the token belongs to
+     * @return true if the token has been revoked, false otherwise
+     */
+
+    public boolean isRevoked(String token, UserDetails userDetails) {
+        if (userDetails instanceof User user && user.getTokensValidAfter() != null) {
+            Date issuedAt = jwtUtil.extractIssuedAt(token);
+            if (issuedAt == null || issuedAt.toInstant().isBefore(user.getTokensValidAfter())) {
+                return true;
+            }
+        }
+        return isTokenIdRevoked(jwtUtil.extractTokenId(token));
+    }
+
+    /**
+     * Checks if the token with the given token ID has been revoked.
+     *
+     * @param tokenId the token ID (jti claim); may be null for tokens issued without one
+     * @return true if the token has been revoked, false otherwise
+     */
+
+    public boolean isTokenIdRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Picks up revocations made by other application instances since the last sync.
+     */
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void syncRevokedTokens() {
+        Instant now = Instant.now();
+        List<RevokedToken> tokens = revokedTokenRepository.findRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+        tokens.forEach(token -> remember(token.getTokenId(), token.getExpiresAt()));
+        lastSync = now;
+    }
+
+    /**
+     * Removes expired revocations from the database and from memory.
+     * Expired tokens are rejected by their expiration date, so they no longer need to be tracked.
+     */
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        rebuildBloomFilter();
+        logger.info("Purged {} expired revoked token(s)", deleted);
+    }
+
+    /**
+     * Adds a revocation to the in-memory set once the surrounding transaction commits,
+     * so that a rolled back revocation is not enforced by this instance only.
+     * Without an active transaction the revocation is added immediately.
+     *
+     * @param tokenId   the token ID
+     * @param expiresAt the expiration date of the token
+     */
+
+    private void rememberAfterCommit(String tokenId, Instant expiresAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(tokenId, expiresAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(tokenId, expiresAt);
+            }
+        });
+    }
+
+    /**
+     * Adds a revocation to the in-memory set and bloom filter.
+     *
+     * @param tokenId   the token ID
+     * @param expiresAt the expiration date of the token
+     */
+
+    private synchronized void remember(String tokenId, Instant expiresAt) {
+        revokedTokens.put(tokenId, expiresAt);
+        bloomFilter.add(tokenId);
+    }
+
+    /**
+     * Rebuilds the bloom filter from the exact set, since bloom filters do not support removal.
+     * The filter is sized with head room so that it does not saturate before the next rebuild.
+     * Synchronized with {@link #remember} so that no revocation is lost while the filter is swapped.
+     */
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_EXPECTED_REVOCATIONS, revokedTokens.size() * 2), FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+    }
+}
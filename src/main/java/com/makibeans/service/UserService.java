@@ -1,30 +1,35 @@
 package com.makibeans.service;
 
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.user.UserRequestDTO;
 import com.makibeans.dto.user.UserResponseDTO;
 import com.makibeans.dto.user.UserUpdateDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
-import com.makibeans.filter.SearchFilter;
+import com.makibeans.filter.SearchSpecification;
 import com.makibeans.mapper.UserMapper;
 import com.makibeans.model.Role;
 import com.makibeans.model.User;
 import com.makibeans.repository.UserRepository;
 import com.makibeans.security.JwtUtil;
+import com.makibeans.util.FilterUtils;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 import static com.makibeans.util.UpdateUtils.normalize;
 import static com.makibeans.util.UpdateUtils.shouldUpdate;
@@ -37,6 +42,8 @@ import static com.makibeans.util.UpdateUtils.shouldUpdate;
 @Service
 public class UserService extends AbstractCrudService<User, Long> {
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
@@ -96,35 +103,59 @@ public class UserService extends AbstractCrudService<User, Long> {
     }
 
     /**
-     * Retrieves a list of users based on the provided search parameters.
-     * Searchable fields: name, username, email, role.
+     * Retrieves a page of users based on the provided search parameters.
+     * Searchable fields: name, username, email. "search" matches usernames and emails by prefix,
+     * and "role" keeps users with any of the comma-separated roles, e.g. "admin" or "ROLE_USER,ROLE_ADMIN".
      *
-     * @param searchParams a map of search parameters to filter the users.
-     * @return a list of UserResponseDTO representing the matched users.
+     * @param searchParams a map of search parameters to filter, sort and paginate the users.
+     * @return a PageDTO of UserResponseDTO representing the matched users.
      */
 
     @Transactional(readOnly = true)
-    public List<UserResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
+    public PageDTO<UserResponseDTO> findBySearchQuery(Map<String, String> searchParams) {
 
-        Map<String, Function<User, String>> searchFields = Map.of(
-                "name", User::getUsername,
-                "username", User::getUsername,
-                "email", User::getEmail);
+        Map<String, String> searchFields = Map.of(
+                "name", "username",
+                "username", "username",
+                "email", "email");
 
-        Map<String, Comparator<User>> sortFields = Map.of(
-                "id", Comparator.comparing(User::getId, Comparator.nullsLast(Comparator.naturalOrder())),
-                "userName", Comparator.comparing(User::getUsername, String.CASE_INSENSITIVE_ORDER),
-                "email", Comparator.comparing(User::getEmail, String.CASE_INSENSITIVE_ORDER));
+        Map<String, String> sortFields = Map.of(
+                "id", "id",
+                "userName", "username",
+                "email", "email");
 
-        List<User> matchedUsers = SearchFilter.apply(
-                findAll(),
+        Page<User> matchedUsers = SearchSpecification.apply(
+                userRepository,
                 searchParams,
                 searchFields,
-                sortFields);
+                sortFields,
+                SearchSpecification.Match.PREFIX,
+                Map.of("role", UserService::hasAnyRole));
 
-        return matchedUsers.stream()
-                .map(userMapper::toResponseDTO)
+        return PageDTO.from(matchedUsers.map(userMapper::toResponseDTO));
+    }
+
+    /**
+     * Builds a filter for users with any of the given roles. Role names are matched ignoring case,
+     * with or without the "ROLE_" prefix.
+     *
+     * @param roles the comma-separated role names
+     * @return the specification matching users with any of the roles
+     */
+
+    static Specification<User> hasAnyRole(String roles) {
+        List<String> roleNames = FilterUtils.splitAndNormalize(roles).stream()
+                .map(role -> role.toUpperCase().startsWith(ROLE_PREFIX) ? role.toUpperCase() : ROLE_PREFIX + role.toUpperCase())
                 .toList();
+
+        // a subquery instead of a join, so users with several matching roles are not duplicated
+        return (root, query, cb) -> {
+            Subquery<Long> userIds = query.subquery(Long.class);
+            Root<User> user = userIds.from(User.class);
+            Join<User, Role> role = user.join("roles");
+            userIds.select(user.get("id")).where(role.get("name").in(roleNames));
+            return root.get("id").in(userIds);
+        };
     }
 
     /**
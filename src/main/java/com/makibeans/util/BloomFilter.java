@@ -0,0 +1,107 @@
+package com.makibeans.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe bloom filter for strings.
+ * A negative answer is always correct, a positive answer may be a false positive
+ * and has to be confirmed against an exact data structure.
+ */
+
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final int numBits;
+    private final int numHashes;
+
+    /**
+     * Creates a bloom filter sized for the expected number of insertions and false positive rate.
+     *
+     * @param expectedInsertions the expected number of elements; must be positive
+     * @param falsePositiveRate  the desired false positive rate, between 0 and 1 (exclusive)
+     * @throws IllegalArgumentException if the arguments are out of range
+     */
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive.");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1.");
+        }
+
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.words = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add; must not be null
+     */
+
+    public void add(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < numHashes; i++) {
+            int bit = bitIndex(h1 + i * h2);
+            long mask = 1L << bit;
+            words.getAndAccumulate(bit >>> 6, mask, (current, m) -> current | m);
+        }
+    }
+
+    /**
+     * Checks if the value might have been added to the filter.
+     *
+     * @param value the value to check; must not be null
+     * @return false if the value was definitely never added, true if it might have been added
+     */
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < numHashes; i++) {
+            int bit = bitIndex(h1 + i * h2);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps a combined hash to a bit position within the filter.
+     *
+     * @param combinedHash the combined hash value
+     * @return the bit index
+     */
+
+    private int bitIndex(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % numBits;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the given string, followed by a finalizing mix step.
+     *
+     * @param value the value to hash
+     * @return the 64-bit hash
+     */
+
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+}
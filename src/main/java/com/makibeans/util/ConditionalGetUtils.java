@@ -0,0 +1,101 @@
+package com.makibeans.util;
+
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.cache.Versioned;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Utility class for answering conditional GET requests before the response body is computed.
+ */
+
+public class ConditionalGetUtils {
+
+    /**
+     * Checks whether the If-None-Match header of the request matches the given ETag, using weak comparison.
+     * Only the request is inspected, so the response keeps the ETag of the body it eventually carries.
+     *
+     * @param request the current request
+     * @param etag    the ETag the response would currently carry
+     * @return true if the client already holds the current response
+     */
+
+    public static boolean isNotModified(HttpServletRequest request, String etag) {
+        return new ServletWebRequest(request).checkNotModified(etag);
+    }
+
+    /**
+     * Builds a 304 Not Modified response.
+     *
+     * @param etag the ETag the client already holds
+     * @return the empty response
+     */
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    /**
+     * Builds a 200 OK response tagged with the ETag of its body.
+     * Clients must revalidate it on every use, so they never keep reading an outdated response.
+     *
+     * @param etag the ETag of the body
+     * @param body the response body
+     * @return the response
+     */
+
+    public static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    /**
+     * Answers a conditional GET of catalog data that is loaded on every request.
+     * The response is tagged with the given version, which the caller must read before the body is loaded,
+     * as described in {@link CatalogVersions}.
+     *
+     * @param request  the current request
+     * @param versions the catalog versions
+     * @param version  the current version of the requested data
+     * @param body     loads the response body; not called if the client already holds the current response
+     * @return a 304 Not Modified response, or a 200 OK response tagged with the version
+     */
+
+    public static <T> ResponseEntity<T> conditionalGet(HttpServletRequest request, CatalogVersions versions,
+                                                       long version, Supplier<T> body) {
+        return conditionalGetVersioned(request, versions, version, () -> new Versioned<>(version, body.get()));
+    }
+
+    /**
+     * Answers a conditional GET of catalog data that may be served from a cache.
+     * The response is tagged with the version the loaded body reflects, which may be older than the current one.
+     *
+     * @param request        the current request
+     * @param versions       the catalog versions
+     * @param currentVersion the current version of the requested data
+     * @param body           loads the response body with its version; not called if the client already holds
+     *                       the current response
+     * @return a 304 Not Modified response, or a 200 OK response tagged with the version of the body
+     */
+
+    public static <T> ResponseEntity<T> conditionalGetVersioned(HttpServletRequest request, CatalogVersions versions,
+                                                                long currentVersion, Supplier<Versioned<T>> body) {
+        String currentEtag = versions.etag(currentVersion);
+        if (isNotModified(request, currentEtag)) {
+            return notModified(currentEtag);
+        }
+
+        Versioned<T> loaded = body.get();
+        return ok(versions.etag(loaded.version()), loaded.value());
+    }
+}
@@ -0,0 +1,103 @@
+package com.makibeans.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for reading and writing CSV records (RFC 4180) from and to a stream, one record at a time.
+ */
+
+public class CsvUtils {
+
+    /**
+     * Reads the next record from the reader.
+     * Fields may be quoted with double quotes; quoted fields may contain commas, line breaks
+     * and escaped quotes ("").
+     *
+     * @param reader the reader to read from
+     * @return the fields of the record, or null if the end of the stream has been reached
+     * @throws IOException if the stream cannot be read or ends inside a quoted field
+     */
+
+    public static List<String> readRecord(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                if (reader.read() == '"') {
+                    field.append('"');
+                } else {
+                    reader.reset();
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new IOException("CSV input ends inside a quoted field.");
+        }
+        if (empty) {
+            return null;
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Writes a record to the writer, terminated by CRLF.
+     * Fields containing commas, quotes or line breaks are quoted; null fields are written as empty fields.
+     *
+     * @param writer the writer to write to
+     * @param fields the fields of the record
+     * @throws IOException if the record cannot be written
+     */
+
+    public static void writeRecord(Writer writer, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String field = fields.get(i);
+            if (field == null) {
+                continue;
+            }
+            if (field.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+                writer.write(field);
+                continue;
+            }
+            writer.write('"');
+            writer.write(field.replace("\"", "\"\""));
+            writer.write('"');
+        }
+        writer.write("\r\n");
+    }
+}
@@ -69,6 +69,18 @@ public class FilterUtils {
         }
     }
 
+    /**
+     * Extract a Boolean value.
+     *
+     * @param filters the filter map
+     * @param key     the key to extract
+     * @return an Optional containing true if the value is "true" (ignoring case), false otherwise, or empty if blank or not present
+     */
+
+    public static Optional<Boolean> extractBoolean(Map<String, String> filters, String key) {
+        return extract(filters, key, Boolean::parseBoolean);
+    }
+
     /**
      * Splits a comma-separated string into a cleaned list of lowercase, trimmed strings.
      *
@@ -0,0 +1,96 @@
+package com.makibeans.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key onto one computation.
+ * The first caller for a key computes the value; callers that arrive while it is still computing wait for it
+ * and get the same value, or the same exception. Nothing is kept once the computation finished, so a later
+ * call computes the value again.
+ *
+ * @param <K> the key type; keys must implement equals and hashCode
+ * @param <V> the value type
+ */
+
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+
+    /**
+     * Snapshot of the counters of a {@link SingleFlight}.
+     *
+     * @param calls           the number of calls
+     * @param executions      the number of calls that computed the value themselves
+     * @param coalescedCalls  the number of calls that waited for the computation of another call
+     * @param coalescingRatio the share of calls that were coalesced, between 0 and 1
+     */
+
+    public record Stats(long calls, long executions, long coalescedCalls, double coalescingRatio) {
+    }
+
+    /**
+     * Returns the value for a key, computing it unless a computation for an equal key is already in flight.
+     *
+     * @param key      the key identifying the computation
+     * @param supplier computes the value
+     * @return the computed value
+     * @throws RuntimeException the exception thrown by the computation
+     */
+
+    public V execute(K key, Supplier<V> supplier) {
+        calls.increment();
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return join(running);
+        }
+
+        executions.increment();
+        try {
+            V value = supplier.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the call counters.
+     *
+     * @return the statistics
+     */
+
+    public Stats stats() {
+        long executionCount = executions.sum();
+        // read after the executions, so the calls always include them
+        long callCount = Math.max(calls.sum(), executionCount);
+        long coalesced = callCount - executionCount;
+        return new Stats(callCount, executionCount, coalesced, callCount == 0 ? 0.0 : (double) coalesced / callCount);
+    }
+
+    private V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // rethrow what the computation threw, so waiters fail the same way as the caller that computed
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
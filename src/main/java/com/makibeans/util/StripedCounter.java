@@ -0,0 +1,134 @@
+package com.makibeans.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe non-negative counter that is spread over several cells, so threads hammering the same
+ * counter mostly update different cells instead of contending on one.
+ * A decrement that fits into the calling thread's cell or any other cell is a single CAS; only if the
+ * amount has to be gathered from several cells do callers serialize on a lock.
+ * The counter never goes below zero.
+ */
+
+public class StripedCounter {
+
+    private static final int MAX_CELLS = 64;
+
+    // cells are 8 longs (64 bytes) apart, so neighbouring cells do not share a cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * Creates a counter with the given initial value, with about one cell per available processor.
+     *
+     * @param initialValue the initial value; must not be negative
+     * @throws IllegalArgumentException if the initial value is negative
+     */
+
+    public StripedCounter(long initialValue) {
+        if (initialValue < 0) {
+            throw new IllegalArgumentException("Initial value cannot be negative.");
+        }
+        int numCells = Math.min(MAX_CELLS, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+        this.cells = new AtomicLongArray(numCells * PADDING);
+        this.mask = numCells - 1;
+        spread(initialValue);
+    }
+
+    /**
+     * Decrements the counter if its value is at least the given amount.
+     *
+     * @param amount the amount to take; must be positive
+     * @return true if the counter was decremented, false if its value is less than the amount
+     */
+
+    public boolean tryDecrement(long amount) {
+        int home = homeCell();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current;
+            while ((current = cells.get(index)) >= amount) {
+                if (cells.compareAndSet(index, current, current - amount)) {
+                    return true;
+                }
+            }
+        }
+        return gatherAndDecrement(amount, home);
+    }
+
+    /**
+     * Increments the counter.
+     *
+     * @param amount the amount to add; must not be negative
+     */
+
+    public void increment(long amount) {
+        cells.getAndAdd(homeCell() * PADDING, amount);
+    }
+
+    /**
+     * Returns the current value. Under concurrent updates the result is a snapshot, not an exact value.
+     *
+     * @return the sum of all cells
+     */
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Decrements the counter by the given amount, or by its whole value if that is less.
+     *
+     * @param amount the amount to take; must not be negative
+     * @return the amount that was taken
+     */
+
+    public synchronized long decrementAtMost(long amount) {
+        long total = drain();
+        long taken = Math.min(total, amount);
+        cells.getAndAdd(homeCell() * PADDING, total - taken);
+        return taken;
+    }
+
+    /**
+     * Slow path of {@link #tryDecrement}: takes the amount from all cells together.
+     * Callers are serialized here and with {@link #decrementAtMost}, so one caller's drained cells are never mistaken
+     * for an empty counter by another.
+     */
+
+    private synchronized boolean gatherAndDecrement(long amount, int home) {
+        long total = drain();
+        if (total < amount) {
+            cells.getAndAdd(home * PADDING, total);
+            return false;
+        }
+        cells.getAndAdd(home * PADDING, total - amount);
+        return true;
+    }
+
+    private long drain() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    private void spread(long value) {
+        int numCells = mask + 1;
+        for (int i = 0; i < numCells; i++) {
+            cells.getAndAdd(i * PADDING, value / numCells + (i < value % numCells ? 1 : 0));
+        }
+    }
+
+    private int homeCell() {
+        long id = Thread.currentThread().threadId();
+        return (((int) (id ^ (id >>> 32)) * 0x9E3779B9) >>> 16) & mask;
+    }
+}
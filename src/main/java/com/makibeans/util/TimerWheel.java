@@ -0,0 +1,91 @@
+package com.makibeans.util;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for large numbers of timeouts with a coarse resolution.
+ * Scheduling is a queue append and expiring costs one bucket scan per tick, independent of how many
+ * timeouts are pending, so no per-timeout timer task or priority queue is needed.
+ * Timeouts are not cancelled; the expiry callback is expected to ignore values that are no longer relevant.
+ *
+ * @param <T> the type of the values that time out
+ */
+
+public class TimerWheel<T> {
+
+    private record Timeout<T>(long tick, T value) {
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private volatile long currentTick;
+
+    /**
+     * Creates a timer wheel.
+     *
+     * @param tickMillis  the resolution in milliseconds; timeouts fire up to one tick late
+     * @param numBuckets  the number of buckets, rounded up to a power of two; timeouts further away than
+     *                    one revolution stay in their bucket for several revolutions
+     * @param startMillis the time the wheel starts at, in epoch milliseconds
+     */
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int numBuckets, long startMillis) {
+        if (tickMillis <= 0 || numBuckets <= 0) {
+            throw new IllegalArgumentException("Tick and number of buckets must be positive.");
+        }
+        int size = Integer.highestOneBit(numBuckets * 2 - 1);
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a value to time out at the given time.
+     *
+     * @param value          the value
+     * @param deadlineMillis the time to time out at, in epoch milliseconds
+     */
+
+    public void schedule(T value, long deadlineMillis) {
+        long tick = Math.max(currentTick + 1, Math.ceilDiv(deadlineMillis - startMillis, tickMillis));
+        buckets[(int) (tick & mask)].add(new Timeout<>(tick, value));
+    }
+
+    /**
+     * Advances the wheel to the given time and hands every value whose deadline has passed to the callback.
+     *
+     * @param nowMillis the current time, in epoch milliseconds
+     * @param onTimeout the callback for values that timed out
+     */
+
+    public synchronized void advance(long nowMillis, Consumer<T> onTimeout) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        if (targetTick <= currentTick) {
+            return;
+        }
+
+        // after a long pause every bucket is due, so scan each one once instead of once per missed tick
+        long fromTick = Math.max(currentTick + 1, targetTick - mask);
+        for (long tick = fromTick; tick <= targetTick; tick++) {
+            Iterator<Timeout<T>> timeouts = buckets[(int) (tick & mask)].iterator();
+            while (timeouts.hasNext()) {
+                Timeout<T> timeout = timeouts.next();
+                if (timeout.tick() <= targetTick) {
+                    timeouts.remove();
+                    onTimeout.accept(timeout.value());
+                }
+            }
+        }
+        currentTick = targetTick;
+    }
+}
@@ -2,100 +2,124 @@
 -- ========================
 -- insert attribute templates
 -- ========================
-insert into attribute_templates (name)
-values ('origin'),
-       ('flavor'),
-       ('intensity');
+insert into attribute_templates (id, name)
+values (1, 'origin'),
+       (2, 'flavor'),
+       (3, 'intensity');
 
 -- ========================
 -- insert attribute values
 -- ========================
-insert into attribute_values (template_id, value)
-values (1, 'colombia'),
-       (1, 'ethiopia'),
-       (1, 'kenya'),
-       (1, 'brazil'),
-       (2, 'nutty'),
-       (2, 'chocolatey'),
-       (2, 'fruity'),
-       (2, 'spicy'),
-       (3, 'mild'),
-       (3, 'medium'),
-       (3, 'strong'),
-       (3, 'extra strong');
+insert into attribute_values (id, template_id, value)
+values (1, 1, 'colombia'),
+       (2, 1, 'ethiopia'),
+       (3, 1, 'kenya'),
+       (4, 1, 'brazil'),
+       (5, 2, 'nutty'),
+       (6, 2, 'chocolatey'),
+       (7, 2, 'fruity'),
+       (8, 2, 'spicy'),
+       (9, 3, 'mild'),
+       (10, 3, 'medium'),
+       (11, 3, 'strong'),
+       (12, 3, 'extra strong');
 
 -- ===============
 -- insert sizes
 -- ===============
-insert into sizes (name)
-values ('100g'),
-       ('250g'),
-       ('500g'),
-       ('small'),
-       ('medium'),
-       ('large');
+insert into sizes (id, name)
+values (1, '100g'),
+       (2, '250g'),
+       (3, '500g'),
+       (4, 'small'),
+       (5, 'medium'),
+       (6, 'large');
 
 -- ===================
 -- insert categories
 -- ===================
-insert into categories (name, description, parent_category_id)
-values ('coffee', 'all types of coffee beans and blends', null),
-       ('brewing equipment', 'gear for brewing coffee', null),
-       ('accessories', 'accessories for your coffee ritual', null),
-
-       ('espresso beans', 'strong, dark-roasted beans perfect for espresso', 1),
-       ('filter coffee', 'medium-roasted beans for pour-over or drip', 1),
-       ('decaf', 'decaffeinated coffee for late nights', 1),
-
-       ('dark roast', 'deep and bold espresso roast', 4),
-       ('medium roast', 'balanced flavor and smooth finish', 4),
-       ('single origin', 'unique beans from a specific region', 5),
-       ('blends', 'flavorful blends for daily brews', 5),
-
-       ('french press', 'immersion brewing gear', 2),
-       ('pour over', 'tools for manual pour-over brewing', 2),
-       ('espresso machines', 'machines for pulling perfect shots', 2),
-       ('manual', 'lever-based espresso machines', 13),
-       ('automatic', 'fully automated espresso brewing', 13),
-
-       ('cups & mugs', 'serve your coffee in style', 3),
-       ('grinders', 'manual and electric grinders', 3),
-       ('scales', 'precision scales for brewing', 3);
+insert into categories (id, name, description, parent_category_id)
+values (1, 'coffee', 'all types of coffee beans and blends', null),
+       (2, 'brewing equipment', 'gear for brewing coffee', null),
+       (3, 'accessories', 'accessories for your coffee ritual', null),
+
+       (4, 'espresso beans', 'strong, dark-roasted beans perfect for espresso', 1),
+       (5, 'filter coffee', 'medium-roasted beans for pour-over or drip', 1),
+       (6, 'decaf', 'decaffeinated coffee for late nights', 1),
+
+       (7, 'dark roast', 'deep and bold espresso roast', 4),
+       (8, 'medium roast', 'balanced flavor and smooth finish', 4),
+       (9, 'single origin', 'unique beans from a specific region', 5),
+       (10, 'blends', 'flavorful blends for daily brews', 5),
+
+       (11, 'french press', 'immersion brewing gear', 2),
+       (12, 'pour over', 'tools for manual pour-over brewing', 2),
+       (13, 'espresso machines', 'machines for pulling perfect shots', 2),
+       (14, 'manual', 'lever-based espresso machines', 13),
+       (15, 'automatic', 'fully automated espresso brewing', 13),
+
+       (16, 'cups & mugs', 'serve your coffee in style', 3),
+       (17, 'grinders', 'manual and electric grinders', 3),
+       (18, 'scales', 'precision scales for brewing', 3);
+
+-- ==========================
+-- backfill category paths
+-- ==========================
+with recursive category_paths(id, path) as (
+    select id, '/' || id || '/'
+    from categories
+    where parent_category_id is null
+    union all
+    select c.id, cp.path || c.id || '/'
+    from categories c
+    join category_paths cp on c.parent_category_id = cp.id
+)
+update categories c
+set path = cp.path
+from category_paths cp
+where c.id = cp.id;
+
+-- prefix searches on the path (path like '/1/4/%') can only use an index with pattern ops
+create index if not exists idx_category_path_pattern on categories (path varchar_pattern_ops);
+
+-- the admin user search matches lower(username) and lower(email) by prefix (like 'mak%') or equality
+create index if not exists idx_user_username_lower_pattern on users (lower(username) varchar_pattern_ops);
+create index if not exists idx_user_email_lower_pattern on users (lower(email) varchar_pattern_ops);
 
 -- ================
 -- insert products
 -- ================
-insert into products (name, description, category_id)
-values ('ethiopian dark roast', 'bold and fruity beans from ethiopia, perfect for espresso lovers.', 7),
-       ('colombian medium roast', 'balanced, nutty flavor with a smooth finish.', 8),
-       ('single origin kenya aa', 'bright and acidic coffee with citrus notes.', 9),
-       ('house blend filter', 'smooth and mild blend for everyday pour-over brews.', 10),
-       ('brazilian decaf', 'sweet and nutty decaf with no compromise on flavor.', 6),
-       ('bodum french press', 'classic 8-cup french press made of borosilicate glass.', 11),
-       ('hario v60 dripper', 'ceramic pour-over cone for precision brewing.', 12),
-       ('la marzocco linea mini', 'professional-grade espresso machine for home baristas.', 15),
-       ('hand grinder', 'portable manual grinder with ceramic burrs.', 17),
-       ('coffee scale', 'digital scale with timer for accurate brewing.', 18);
+insert into products (id, name, description, category_id)
+values (1, 'ethiopian dark roast', 'bold and fruity beans from ethiopia, perfect for espresso lovers.', 7),
+       (2, 'colombian medium roast', 'balanced, nutty flavor with a smooth finish.', 8),
+       (3, 'single origin kenya aa', 'bright and acidic coffee with citrus notes.', 9),
+       (4, 'house blend filter', 'smooth and mild blend for everyday pour-over brews.', 10),
+       (5, 'brazilian decaf', 'sweet and nutty decaf with no compromise on flavor.', 6),
+       (6, 'bodum french press', 'classic 8-cup french press made of borosilicate glass.', 11),
+       (7, 'hario v60 dripper', 'ceramic pour-over cone for precision brewing.', 12),
+       (8, 'la marzocco linea mini', 'professional-grade espresso machine for home baristas.', 15),
+       (9, 'hand grinder', 'portable manual grinder with ceramic burrs.', 17),
+       (10, 'coffee scale', 'digital scale with timer for accurate brewing.', 18);
 
 -- ========================
 -- insert product attributes
 -- ========================
-insert into product_attributes (product_id, template_id)
-values (1, 1),
-       (1, 2),
-       (1, 3),
-       (2, 1),
-       (2, 2),
-       (2, 3),
-       (3, 1),
-       (3, 2),
-       (3, 3),
-       (4, 1),
-       (4, 2),
-       (4, 3),
-       (5, 1),
-       (5, 2),
-       (5, 3);
+insert into product_attributes (id, product_id, template_id)
+values (1, 1, 1),
+       (2, 1, 2),
+       (3, 1, 3),
+       (4, 2, 1),
+       (5, 2, 2),
+       (6, 2, 3),
+       (7, 3, 1),
+       (8, 3, 2),
+       (9, 3, 3),
+       (10, 4, 1),
+       (11, 4, 2),
+       (12, 4, 3),
+       (13, 5, 1),
+       (14, 5, 2),
+       (15, 5, 3);
 
 -- ================================
 -- insert product attribute values
@@ -120,14 +144,28 @@ values (1, 2),
 -- ====================
 -- insert product variants
 -- ====================
-insert into product_variants (product_id, size_id, price_in_cents, stock, sku)
-values (1, 1, 2000, 50, 'ETH-100G-001'),
-       (1, 2, 2500, 30, 'ETH-250G-002'),
-       (2, 1, 2200, 40, 'COL-100G-003'),
-       (2, 2, 2800, 25, 'COL-250G-004'),
-       (3, 1, 2300, 35, 'KEN-100G-005'),
-       (3, 2, 3000, 20, 'KEN-250G-006'),
-       (4, 1, 1800, 60, 'HBL-100G-007'),
-       (4, 2, 2400, 45, 'HBL-250G-008'),
-       (5, 1, 1600, 70, 'BZD-100G-009'),
-       (5, 2, 2100, 50, 'BZD-250G-010');
+insert into product_variants (id, product_id, size_id, price_in_cents, stock, sku, version)
+values (1, 1, 1, 2000, 50, 'ETH-100G-001', 0),
+       (2, 1, 2, 2500, 30, 'ETH-250G-002', 0),
+       (3, 2, 1, 2200, 40, 'COL-100G-003', 0),
+       (4, 2, 2, 2800, 25, 'COL-250G-004', 0),
+       (5, 3, 1, 2300, 35, 'KEN-100G-005', 0),
+       (6, 3, 2, 3000, 20, 'KEN-250G-006', 0),
+       (7, 4, 1, 1800, 60, 'HBL-100G-007', 0),
+       (8, 4, 2, 2400, 45, 'HBL-250G-008', 0),
+       (9, 5, 1, 1600, 70, 'BZD-100G-009', 0),
+       (10, 5, 2, 2100, 50, 'BZD-250G-010', 0);
+
+-- =====================================================
+-- move the id sequences past the explicitly inserted ids
+-- =====================================================
+select setval('attribute_templates_seq', (select coalesce(max(id), 0) + 1 from attribute_templates), false);
+select setval('attribute_values_seq', (select coalesce(max(id), 0) + 1 from attribute_values), false);
+select setval('sizes_seq', (select coalesce(max(id), 0) + 1 from sizes), false);
+select setval('categories_seq', (select coalesce(max(id), 0) + 1 from categories), false);
+select setval('products_seq', (select coalesce(max(id), 0) + 1 from products), false);
+select setval('product_attributes_seq', (select coalesce(max(id), 0) + 1 from product_attributes), false);
+select setval('product_variants_seq', (select coalesce(max(id), 0) + 1 from product_variants), false);
+
+-- numbers for generated SKUs, handed out in blocks of 50 (see SkuGenerator)
+create sequence if not exists sku_seq start with 10000 increment by 50;
@@ -0,0 +1,37 @@
+package com.makibeans.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogVersions
+ */
+
+class CatalogVersionsTest {
+
+    private final CatalogVersions catalogVersions = new CatalogVersions();
+
+    @Test
+    void should_AdvanceOnlyTheSoldProduct_When_StockChanges() {
+        // Act
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Scope.STOCK, 1L));
+
+        // Assert
+        assertEquals(1, catalogVersions.version(), "Expected the catalog version to advance");
+        assertEquals(1, catalogVersions.productVersion(1L), "Expected the sold product to advance");
+        assertEquals(0, catalogVersions.productVersion(2L), "Expected other products to keep their version");
+        assertEquals(0, catalogVersions.referenceVersion(), "Expected the reference data version to stay unchanged");
+    }
+
+    @Test
+    void should_AdvanceAllProductsAndReferenceData_When_ChangeMayAffectAnyProduct() {
+        // Act
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
+
+        // Assert
+        assertEquals(1, catalogVersions.version(), "Expected the catalog version to advance");
+        assertEquals(1, catalogVersions.productVersion(2L), "Expected every product to advance");
+        assertEquals(1, catalogVersions.referenceVersion(), "Expected the reference data version to advance");
+    }
+}
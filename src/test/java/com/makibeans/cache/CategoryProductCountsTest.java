@@ -0,0 +1,58 @@
+package com.makibeans.cache;
+
+import com.makibeans.repository.CategoryProductCountRow;
+import com.makibeans.repository.CategoryTreeRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CategoryProductCounts
+ */
+
+class CategoryProductCountsTest {
+
+    private record Row(Long getId, String getName, String getDescription, Long getParentCategoryId, boolean getHasImage)
+            implements CategoryTreeRow {
+    }
+
+    private record CountRow(Long getCategoryId, long getProductCount) implements CategoryProductCountRow {
+    }
+
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            new Row(1L, "Coffee", null, null, false),
+            new Row(2L, "Beans", null, 1L, false),
+            new Row(3L, "Espresso", null, 2L, false),
+            new Row(4L, "Ground", null, 1L, false),
+            new Row(5L, "Tea", null, null, false)));
+
+    @Test
+    void should_RollCountsUpToAncestors() {
+        // Act
+        CategoryProductCounts counts = CategoryProductCounts.of(tree, List.of(
+                new CountRow(1L, 1L),
+                new CountRow(3L, 4L),
+                new CountRow(4L, 2L)));
+
+        // Assert
+        assertEquals(1L, counts.directCount(1L), "Expected one product directly in Coffee");
+        assertEquals(7L, counts.subtreeCount(1L), "Expected all coffee products in the Coffee subtree");
+        assertEquals(0L, counts.directCount(2L), "Expected no products directly in Beans");
+        assertEquals(4L, counts.subtreeCount(2L), "Expected the Espresso products in the Beans subtree");
+        assertEquals(4L, counts.subtreeCount(3L), "Expected leaf subtree count to equal its direct count");
+        assertEquals(0L, counts.subtreeCount(5L), "Expected no products in Tea");
+        assertSame(tree, counts.source(), "Expected the counts to reference their tree");
+    }
+
+    @Test
+    void should_ReturnZero_When_CategoryUnknown() {
+        // Act
+        CategoryProductCounts counts = CategoryProductCounts.of(tree, List.of());
+
+        // Assert
+        assertEquals(0L, counts.directCount(99L), "Expected zero for unknown categories");
+        assertEquals(0L, counts.subtreeCount(99L), "Expected zero for unknown categories");
+    }
+}
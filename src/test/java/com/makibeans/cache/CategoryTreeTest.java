@@ -0,0 +1,85 @@
+package com.makibeans.cache;
+
+import com.makibeans.repository.CategoryTreeRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CategoryTree
+ */
+
+class CategoryTreeTest {
+
+    private record Row(Long getId, String getName, String getDescription, Long getParentCategoryId, boolean getHasImage)
+            implements CategoryTreeRow {
+    }
+
+    private CategoryTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = CategoryTree.of(List.of(
+                new Row(3L, "Espresso", "Strong coffee", 2L, true),
+                new Row(1L, "Coffee", "Rich coffee flavors", null, false),
+                new Row(2L, "Beans", "Arabica and Robusta", 1L, false),
+                new Row(4L, "Tea", "Loose leaf", null, false),
+                new Row(5L, "Ristretto", "Short espresso", 3L, false)));
+    }
+
+    @Test
+    void should_ComputeDepthParentAndAncestors_When_TreeIsBuilt() {
+        // Act
+        CategoryTree.Node ristretto = tree.find(5L).orElseThrow();
+
+        // Assert
+        assertEquals(3, ristretto.depth(), "Expected depth 3");
+        assertEquals(3L, ristretto.parentId(), "Expected parent to be Espresso");
+        assertEquals(List.of(1L, 2L, 3L), ristretto.ancestorIds(), "Expected ancestors from root to parent");
+        assertEquals(List.of("Coffee", "Beans", "Espresso"),
+                tree.ancestors(ristretto).stream().map(CategoryTree.Node::name).toList(),
+                "Expected breadcrumb names in order");
+    }
+
+    @Test
+    void should_ListRootsAndChildrenOrderedById() {
+        // Act & Assert
+        assertEquals(List.of(1L, 4L), tree.roots().stream().map(CategoryTree.Node::id).toList(), "Expected root IDs");
+        assertEquals(List.of(2L), tree.find(1L).orElseThrow().childIds(), "Expected Beans as child of Coffee");
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), tree.nodes().stream().map(CategoryTree.Node::id).toList(), "Expected all nodes");
+    }
+
+    @Test
+    void should_ReturnSubtreeIds_When_RootIdsGiven() {
+        // Act & Assert
+        assertEquals(Set.of(2L, 3L, 5L), tree.subtreeIds(List.of(2L)), "Expected Beans and its descendants");
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), tree.subtreeIds(List.of(1L, 4L, 99L)), "Expected unknown IDs to be ignored");
+    }
+
+    @Test
+    void should_DetectAncestors() {
+        // Act & Assert
+        assertTrue(tree.isAncestorOrSelf(1L, 5L), "Expected Coffee to be an ancestor of Ristretto");
+        assertTrue(tree.isAncestorOrSelf(5L, 5L), "Expected a category to be its own ancestor-or-self");
+        assertFalse(tree.isAncestorOrSelf(4L, 5L), "Expected Tea not to be an ancestor of Ristretto");
+        assertFalse(tree.isAncestorOrSelf(5L, 1L), "Expected a descendant not to be an ancestor");
+    }
+
+    @Test
+    void should_TreatRowsWithMissingParentAsRoots_And_DropCycles() {
+        // Arrange
+        CategoryTree broken = CategoryTree.of(List.of(
+                new Row(1L, "Orphan", null, 42L, false),
+                new Row(2L, "A", null, 3L, false),
+                new Row(3L, "B", null, 2L, false)));
+
+        // Act & Assert
+        assertEquals(List.of(1L), broken.roots().stream().map(CategoryTree.Node::id).toList(), "Expected orphan as root");
+        assertTrue(broken.find(2L).isEmpty(), "Expected categories in a cycle to be dropped");
+        assertEquals(1, broken.size(), "Expected only the orphan");
+    }
+}
@@ -0,0 +1,183 @@
+package com.makibeans.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RevalidatingCache
+ */
+
+class RevalidatingCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private RevalidatingCache<String, String> cache(Duration expireAfterWrite, Duration maxStaleness) {
+        return new RevalidatingCache<>("test", new CacheSpec(100, expireAfterWrite), maxStaleness, refreshes::add, now::get);
+    }
+
+    @Test
+    void should_ServeFreshValue_Without_Reloading() {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(Duration.ofSeconds(30), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("key", () -> "v" + loads.incrementAndGet());
+
+        // Act
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        String value = cache.get("key", () -> "v" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("v1", value, "Expected the cached value");
+        assertEquals(1, loads.get(), "Expected the value to be loaded once");
+        assertTrue(refreshes.isEmpty(), "Expected no refresh of a fresh value");
+    }
+
+    @Test
+    void should_ServeStaleValue_And_RefreshInBackground_When_Invalidated() {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(null, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("key", () -> "v" + loads.incrementAndGet());
+        cache.invalidateAll();
+
+        // Act
+        String stale = cache.get("key", () -> "v" + loads.incrementAndGet());
+        String staleAgain = cache.get("key", () -> "v" + loads.incrementAndGet());
+        refreshes.forEach(Runnable::run);
+        String refreshed = cache.get("key", () -> "v" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("v1", stale, "Expected the stale value to be served right away");
+        assertEquals("v1", staleAgain, "Expected the stale value while the refresh is pending");
+        assertEquals(1, refreshes.size(), "Expected a single refresh for the key");
+        assertEquals("v2", refreshed, "Expected the refreshed value");
+        assertEquals(2, loads.get(), "Expected one load and one refresh");
+    }
+
+    @Test
+    void should_LoadSynchronously_When_StaleLongerThanMaxStaleness() {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(Duration.ofSeconds(30), Duration.ofSeconds(10));
+        cache.get("key", () -> "old");
+
+        // Act
+        now.addAndGet(Duration.ofSeconds(41).toNanos());
+        String value = cache.get("key", () -> "new");
+
+        // Assert
+        assertEquals("new", value, "Expected a value stale for too long to be reloaded by the caller");
+        assertTrue(refreshes.isEmpty(), "Expected no background refresh");
+    }
+
+    @Test
+    void should_ReturnFreshValue_When_GetFreshAfterInvalidation() {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(null, Duration.ofMinutes(1));
+        cache.get("key", () -> "old");
+        cache.invalidateAll();
+
+        // Act
+        String value = cache.getFresh("key", () -> "new");
+
+        // Assert
+        assertEquals("new", value, "Expected the stale value to be reloaded");
+        assertEquals("new", cache.get("key", () -> "other"), "Expected the reloaded value to be cached as fresh");
+    }
+
+    @Test
+    void should_DropStaleValue_When_RefreshFails() {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(null, Duration.ofMinutes(1));
+        cache.get("key", () -> "old");
+        cache.invalidateAll();
+
+        // Act
+        cache.get("key", () -> {
+            throw new IllegalStateException("gone");
+        });
+        refreshes.forEach(Runnable::run);
+
+        // Assert
+        assertThrows(IllegalStateException.class,
+                () -> cache.get("key", () -> {
+                    throw new IllegalStateException("gone");
+                }),
+                "Expected the next reader to load the value and see the failure");
+    }
+
+    @Test
+    void should_LoadOnce_When_IdenticalMissesRunConcurrently() throws Exception {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(Duration.ofSeconds(30), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("key", () -> {
+            loadStarted.countDown();
+            try {
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "v" + loads.incrementAndGet();
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS), "Expected the first load to start");
+
+        CompletableFuture<String> second = new CompletableFuture<>();
+        Thread waiter = new Thread(() -> second.complete(cache.get("key", () -> "v" + loads.incrementAndGet())));
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING && !second.isDone()) {
+            Thread.onSpinWait();
+        }
+        releaseLoad.countDown();
+
+        // Assert
+        assertEquals("v1", first.get(5, TimeUnit.SECONDS), "Expected the loaded value");
+        assertEquals("v1", second.get(5, TimeUnit.SECONDS), "Expected the second caller to share the loaded value");
+        assertEquals(1, loads.get(), "Expected the value to be loaded once");
+        assertEquals(0.5, cache.loadStats().coalescingRatio(), "Expected half of the loads to be coalesced");
+    }
+
+    @Test
+    void should_NotJoinLoadStartedBeforeInvalidation_When_GettingFreshValue() throws Exception {
+        // Arrange
+        RevalidatingCache<String, String> cache = cache(null, Duration.ofMinutes(1));
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        CompletableFuture<String> before = CompletableFuture.supplyAsync(() -> cache.getFresh("key", () -> {
+            loadStarted.countDown();
+            try {
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "old";
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS), "Expected the first load to start");
+
+        // Act
+        cache.invalidateAll();
+        CompletableFuture<String> after = CompletableFuture.supplyAsync(() -> cache.getFresh("key", () -> "new"));
+        String fresh = after.get(5, TimeUnit.SECONDS);
+        releaseLoad.countDown();
+
+        // Assert
+        assertEquals("new", fresh, "Expected a load that started after the invalidation");
+        assertEquals("old", before.get(5, TimeUnit.SECONDS), "Expected the first caller to get its own load");
+        assertEquals("new", cache.getFresh("key", () -> "reloaded"),
+                "Expected the older load not to replace the newer value");
+    }
+}
@@ -0,0 +1,137 @@
+package com.makibeans.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TinyLfuCache
+ */
+
+class TinyLfuCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private TinyLfuCache cache(long maximumSize, Duration expireAfterWrite) {
+        return new TinyLfuCache("test", new CacheSpec(maximumSize, expireAfterWrite), now::get);
+    }
+
+    @Test
+    void should_StayWithinMaximumSize_And_CountEvictions() {
+        // Arrange
+        TinyLfuCache cache = cache(100, null);
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, "value-" + i);
+        }
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(100, stats.size(), "Expected the cache to be bounded");
+        assertEquals(900, stats.evictionCount(), "Expected every overflowing entry to be evicted");
+    }
+
+    @Test
+    void should_KeepFrequentlyReadEntries_When_ScannedWithOneOffKeys() {
+        // Arrange
+        TinyLfuCache cache = cache(100, null);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot-" + i);
+            }
+        }
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("scan-" + i, i);
+        }
+
+        // Assert
+        for (int i = 0; i < 50; i++) {
+            assertNotNull(cache.get("hot-" + i), "Expected hot entry " + i + " to survive the scan");
+        }
+    }
+
+    @Test
+    void should_CountHitsAndMisses() {
+        // Arrange
+        TinyLfuCache cache = cache(10, null);
+        cache.put("key", "value");
+
+        // Act
+        Cache.ValueWrapper hit = cache.get("key");
+        Cache.ValueWrapper miss = cache.get("other");
+
+        // Assert
+        assertEquals("value", hit.get(), "Expected the cached value");
+        assertNull(miss, "Expected no value for an unknown key");
+        assertEquals(1, cache.stats().hitCount(), "Expected one hit");
+        assertEquals(1, cache.stats().missCount(), "Expected one miss");
+    }
+
+    @Test
+    void should_DropEntries_When_Expired() {
+        // Arrange
+        TinyLfuCache cache = cache(10, Duration.ofSeconds(10));
+        cache.put("key", "value");
+
+        // Act
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        Cache.ValueWrapper beforeExpiry = cache.get("key");
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        Cache.ValueWrapper afterExpiry = cache.get("key");
+
+        // Assert
+        assertNotNull(beforeExpiry, "Expected the entry to be served before it expires");
+        assertNull(afterExpiry, "Expected the entry to be dropped once it expired");
+        assertEquals(1, cache.stats().expirationCount(), "Expected one expiration");
+        assertEquals(0, cache.stats().size(), "Expected the expired entry to be removed");
+    }
+
+    @Test
+    void should_LoadValueOnce_And_CacheNullValues() {
+        // Arrange
+        TinyLfuCache cache = cache(10, null);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Object first = cache.get("key", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Object second = cache.get("key", () -> {
+            loads.incrementAndGet();
+            return "other";
+        });
+
+        // Assert
+        assertNull(first, "Expected the loaded null value");
+        assertNull(second, "Expected the cached null value");
+        assertEquals(1, loads.get(), "Expected the value to be loaded once");
+    }
+
+    @Test
+    void should_RemoveEntries_When_EvictedOrCleared() {
+        // Arrange
+        TinyLfuCache cache = cache(10, null);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        // Act & Assert
+        cache.evict("a");
+        assertNull(cache.get("a"), "Expected the evicted entry to be gone");
+        cache.clear();
+        assertNull(cache.get("b"), "Expected the cache to be empty after clear");
+        cache.put("c", 3);
+        assertEquals(3, cache.get("c").get(), "Expected the cache to be usable after clear");
+    }
+}
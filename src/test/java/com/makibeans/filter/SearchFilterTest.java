@@ -0,0 +1,67 @@
+package com.makibeans.filter;
+
+import com.makibeans.exceptions.InvalidFilterException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchFilter
+ */
+
+class SearchFilterTest {
+
+    private record Item(Long id, String name, String description) {
+    }
+
+    private static final Map<String, Function<Item, String>> SEARCH_FIELDS = Map.of(
+            "name", Item::name,
+            "description", Item::description);
+
+    private static final Map<String, Comparator<Item>> SORT_FIELDS = Map.of(
+            "id", Comparator.comparing(Item::id),
+            "name", Comparator.comparing(Item::name, String.CASE_INSENSITIVE_ORDER));
+
+    private final SearchIndex<Item> index = SearchIndex.of(List.of(
+            new Item(1L, "Espresso", "Strong Coffee"),
+            new Item(2L, " Beans ", null),
+            new Item(3L, "Tea", "Loose leaf")), SEARCH_FIELDS);
+
+    @Test
+    void should_MatchAnyField_When_SearchQueryGiven() {
+        // Act
+        List<Item> result = SearchFilter.apply(index, Map.of("search", "  COFFEE "), SORT_FIELDS);
+
+        // Assert
+        assertEquals(List.of(1L), result.stream().map(Item::id).toList(), "Expected the item whose description contains the query");
+    }
+
+    @Test
+    void should_MatchFieldIgnoringCaseAndWhitespace_When_FieldFilterGiven() {
+        // Act
+        List<Item> result = SearchFilter.apply(index, Map.of("name", "beans"), SORT_FIELDS);
+
+        // Assert
+        assertEquals(List.of(2L), result.stream().map(Item::id).toList(), "Expected the item with the trimmed name");
+    }
+
+    @Test
+    void should_SortDescending_When_OrderIsDesc() {
+        // Act
+        List<Item> result = SearchFilter.apply(index, Map.of("sort", "name", "order", "desc"), SORT_FIELDS);
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), result.stream().map(Item::id).toList(), "Expected items sorted by name descending");
+    }
+
+    @Test
+    void should_ThrowInvalidFilterException_When_ParamIsNotIndexed() {
+        // Act & Assert
+        assertThrows(InvalidFilterException.class, () -> SearchFilter.apply(index, Map.of("color", "red"), SORT_FIELDS));
+    }
+}
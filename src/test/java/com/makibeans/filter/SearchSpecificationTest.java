@@ -0,0 +1,121 @@
+package com.makibeans.filter;
+
+import com.makibeans.exceptions.InvalidFilterException;
+import com.makibeans.model.Size;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SearchSpecification
+ */
+
+class SearchSpecificationTest {
+
+    private static final Map<String, String> SORT_FIELDS = Map.of(
+            "id", "id",
+            "userName", "username",
+            "attributeTemplate", "attributeTemplate.name");
+
+    // ========================================
+    // PAGINATION
+    // ========================================
+
+    @Test
+    void should_UseFirstPageOfDefaultSize_When_NoPaginationParams() {
+        // Act
+        Pageable pageable = SearchSpecification.toPageable(Map.of(), SORT_FIELDS);
+
+        // Assert
+        assertEquals(0, pageable.getPageNumber(), "Expected the first page");
+        assertEquals(SearchSpecification.DEFAULT_PAGE_SIZE, pageable.getPageSize(), "Expected the default page size");
+        assertEquals(Sort.Direction.ASC, pageable.getSort().getOrderFor("id").getDirection(), "Expected pages to be ordered by ID");
+    }
+
+    @Test
+    void should_CapPageSize_When_SizeExceedsMaximum() {
+        // Act
+        Pageable pageable = SearchSpecification.toPageable(Map.of("page", "3", "size", "100000"), SORT_FIELDS);
+
+        // Assert
+        assertEquals(3, pageable.getPageNumber(), "Expected the requested page");
+        assertEquals(SearchSpecification.MAX_PAGE_SIZE, pageable.getPageSize(), "Expected the page size to be capped");
+    }
+
+    @Test
+    void should_ThrowInvalidFilterException_When_PageIsNegative() {
+        // Act & Assert
+        assertThrows(InvalidFilterException.class, () -> SearchSpecification.toPageable(Map.of("page", "-1"), SORT_FIELDS));
+        assertThrows(InvalidFilterException.class, () -> SearchSpecification.toPageable(Map.of("size", "0"), SORT_FIELDS));
+    }
+
+    // ========================================
+    // SORT
+    // ========================================
+
+    @Test
+    void should_SortByMappedPathIgnoringCase_When_SortParamMatchesField() {
+        // Act
+        Pageable pageable = SearchSpecification.toPageable(Map.of("sort", "USERNAME", "order", "desc"), SORT_FIELDS);
+
+        // Assert
+        Sort.Order order = pageable.getSort().getOrderFor("username");
+        assertNotNull(order, "Expected the sort field to be matched ignoring case");
+        assertEquals(Sort.Direction.DESC, order.getDirection(), "Expected the requested direction");
+        assertTrue(order.isIgnoreCase(), "Expected strings to be sorted ignoring case");
+        assertEquals(Sort.Direction.DESC, pageable.getSort().getOrderFor("id").getDirection(), "Expected ID as tie-breaker");
+    }
+
+    @Test
+    void should_SortByNestedPath_When_SortFieldIsAssociation() {
+        // Act
+        Pageable pageable = SearchSpecification.toPageable(Map.of("sort", "attributeTemplate"), SORT_FIELDS);
+
+        // Assert
+        assertNotNull(pageable.getSort().getOrderFor("attributeTemplate.name"), "Expected the association path to be sorted");
+    }
+
+    // ========================================
+    // PARAMS
+    // ========================================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_ThrowInvalidFilterException_When_ParamIsUnknown() {
+        // Arrange
+        JpaSpecificationExecutor<Size> repository = mock(JpaSpecificationExecutor.class);
+
+        // Act & Assert
+        assertThrows(InvalidFilterException.class,
+                () -> SearchSpecification.apply(repository, Map.of("color", "red"), Map.of("name", "name"), SORT_FIELDS));
+
+        // Verify
+        verify(repository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_ApplyCustomFilter_When_ParamIsCustomFilter() {
+        // Arrange
+        JpaSpecificationExecutor<Size> repository = mock(JpaSpecificationExecutor.class);
+        Specification<Size> filter = (root, query, cb) -> cb.conjunction();
+        Function<String, Specification<Size>> customFilter = mock(Function.class);
+        when(customFilter.apply("250g")).thenReturn(filter);
+
+        // Act
+        SearchSpecification.apply(repository, Map.of("weight", "250g"), Map.of("name", "name"), SORT_FIELDS,
+                SearchSpecification.Match.PREFIX, Map.of("weight", customFilter));
+
+        // Verify
+        verify(customFilter).apply("250g");
+        verify(repository).findAll(any(Specification.class), any(Pageable.class));
+    }
+}
@@ -0,0 +1,85 @@
+package com.makibeans.integration;
+
+import com.makibeans.repository.AttributeTemplateRepository;
+import com.makibeans.repository.AttributeValueRepository;
+import com.makibeans.repository.ProductAttributeRepository;
+import com.makibeans.repository.ProductRepository;
+import com.makibeans.repository.ProductVariantRepository;
+import com.makibeans.service.AttributeTemplateService;
+import com.makibeans.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class CascadingDeleteIntegrationTest {
+
+    // one statement each for join rows, attributes, variants/values and the row itself
+    private static final long STATEMENTS_PER_DELETE = 4;
+
+    @Autowired private ProductService productService;
+    @Autowired private AttributeTemplateService attributeTemplateService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductAttributeRepository productAttributeRepository;
+    @Autowired private ProductVariantRepository productVariantRepository;
+    @Autowired private AttributeTemplateRepository attributeTemplateRepository;
+    @Autowired private AttributeValueRepository attributeValueRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // ===================================
+    // Product with attributes and variants
+    // ===================================
+    @Test
+    void should_DeleteProductWithConstantNumberOfStatements() {
+        // Arrange: product 1 has three attributes with values and several variants
+        assertFalse(productAttributeRepository.findByProductId(1L).isEmpty(), "Expected product 1 to have attributes");
+        statistics.clear();
+
+        // Act
+        productService.deleteProduct(1L);
+
+        // Assert
+        assertEquals(STATEMENTS_PER_DELETE, statistics.getPrepareStatementCount(), "Expected one statement per table");
+        assertFalse(productRepository.existsById(1L), "Expected the product to be deleted");
+        assertTrue(productAttributeRepository.findByProductId(1L).isEmpty(), "Expected the attributes to be deleted");
+        assertTrue(productVariantRepository.findAll().stream().noneMatch(variant -> variant.getProduct().getId().equals(1L)),
+                "Expected the variants to be deleted");
+        assertTrue(productRepository.existsById(2L), "Expected other products to be kept");
+    }
+
+    // ===================================
+    // Template used by many products
+    // ===================================
+    @Test
+    void should_DeleteAttributeTemplateWithConstantNumberOfStatements() {
+        // Arrange: template 1 is used by five products
+        assertEquals(5, productAttributeRepository.findByAttributeTemplateId(1L).size(), "Expected template 1 to be used by five products");
+        statistics.clear();
+
+        // Act
+        attributeTemplateService.deleteAttributeTemplate(1L);
+
+        // Assert
+        assertEquals(STATEMENTS_PER_DELETE, statistics.getPrepareStatementCount(), "Expected one statement per table");
+        assertFalse(attributeTemplateRepository.existsById(1L), "Expected the template to be deleted");
+        assertTrue(productAttributeRepository.findByAttributeTemplateId(1L).isEmpty(), "Expected its product attributes to be deleted");
+        assertTrue(attributeValueRepository.findAll().stream().noneMatch(value -> value.getAttributeTemplate().getId().equals(1L)),
+                "Expected its values to be deleted");
+        assertEquals(2, productAttributeRepository.findByProductId(1L).size(), "Expected other attributes of the products to be kept");
+    }
+}
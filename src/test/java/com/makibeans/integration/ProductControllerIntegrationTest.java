@@ -56,6 +56,21 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.productAttributes", hasSize(3)));
     }
 
+    @Test
+    void should_ReturnNotModified_When_ProductETagMatches() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
     // ===================================
     // POST /products - Create Product
     // ===================================
@@ -0,0 +1,92 @@
+package com.makibeans.integration;
+
+import com.makibeans.model.Product;
+import com.makibeans.model.ProductVariant;
+import com.makibeans.model.SequenceIds;
+import com.makibeans.model.Size;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ProductVariantBatchInsertIntegrationTest {
+
+    private static final int VARIANTS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(ProductVariantBatchInsertIntegrationTest.class);
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    private record Measurement(long statements, long millis) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ===================================
+    // Creating 10k variants
+    // ===================================
+    @Test
+    void should_InsertVariantsInBatches_When_Creating10kVariants() {
+        // Act: the same inserts with the configured batch size and with batching turned off
+        Measurement batched = insertVariants("BATCHED", BATCH_SIZE);
+        Measurement unbatched = insertVariants("UNBATCHED", 1);
+        logger.info("Inserted {} variants: batched {} statements in {} ms ({} rows/s), unbatched {} statements in {} ms ({} rows/s)",
+                VARIANTS, batched.statements(), batched.millis(), rowsPerSecond(batched),
+                unbatched.statements(), unbatched.millis(), rowsPerSecond(unbatched));
+
+        // Assert: one statement per batch plus one sequence call per block of IDs
+        long expectedBatchedStatements = VARIANTS / BATCH_SIZE + VARIANTS / SequenceIds.ALLOCATION_SIZE;
+        assertTrue(batched.statements() <= expectedBatchedStatements,
+                "Expected at most " + expectedBatchedStatements + " statements when batching, got " + batched.statements());
+        assertTrue(unbatched.statements() >= VARIANTS,
+                "Expected one statement per row without batching, got " + unbatched.statements());
+        assertEquals(2L * VARIANTS, countVariantsWithSkuPrefix(), "Expected all variants to be inserted");
+    }
+
+    private Measurement insertVariants(String skuPrefix, int batchSize) {
+        statistics.clear();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            Product product = entityManager.getReference(Product.class, 1L);
+            Size size = entityManager.getReference(Size.class, 1L);
+            for (int i = 0; i < VARIANTS; i++) {
+                entityManager.persist(new ProductVariant(product, size, 999L, "BENCH-" + skuPrefix + "-" + i, 10L));
+            }
+        });
+        return new Measurement(statistics.getPrepareStatementCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long countVariantsWithSkuPrefix() {
+        return entityManager.createQuery("SELECT count(pv) FROM ProductVariant pv WHERE pv.sku LIKE 'BENCH-%'", Long.class)
+                .getSingleResult();
+    }
+
+    private static long rowsPerSecond(Measurement measurement) {
+        return VARIANTS * 1000L / Math.max(1, measurement.millis());
+    }
+}
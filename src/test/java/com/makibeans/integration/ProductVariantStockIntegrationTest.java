@@ -0,0 +1,100 @@
+package com.makibeans.integration;
+
+import com.makibeans.dto.inventory.ReservationResponseDTO;
+import com.makibeans.dto.productvariant.ProductVariantUpdateDTO;
+import com.makibeans.exceptions.InsufficientStockException;
+import com.makibeans.repository.ProductVariantRepository;
+import com.makibeans.service.InventoryReservationService;
+import com.makibeans.service.ProductVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ProductVariantStockIntegrationTest {
+
+    private static final int BUYERS = 32;
+    private static final int RESERVATIONS_PER_BUYER = 10;
+
+    @Autowired private ProductVariantService productVariantService;
+    @Autowired private InventoryReservationService inventoryReservationService;
+    @Autowired private ProductVariantRepository productVariantRepository;
+
+    @BeforeEach
+    void setUp() {
+        // the test data was reloaded behind the reservation engine's back, so reconcile it first
+        inventoryReservationService.flush();
+    }
+
+    // ===================================
+    // Concurrent checkouts of one hot variant
+    // ===================================
+    @Test
+    void should_NeverOversell_When_ManyBuyersCheckOutSameVariantConcurrently() throws Exception {
+        // Arrange: variant 1 starts with 50 in stock, far less than the 320 units requested
+        long initialStock = productVariantRepository.findById(1L).orElseThrow().getStock();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < RESERVATIONS_PER_BUYER; j++) {
+                    try {
+                        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 1L, "buyer");
+                        inventoryReservationService.confirm(reservation.getId(), "buyer");
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        inventoryReservationService.flush();
+
+        // Assert
+        long finalStock = productVariantRepository.findById(1L).orElseThrow().getStock();
+        assertEquals(initialStock, reserved.get(), "Expected exactly the initial stock to be reserved");
+        assertEquals(BUYERS * RESERVATIONS_PER_BUYER - initialStock, rejected.get(), "Expected all other reservations to be rejected");
+        assertEquals(0, finalStock, "Expected the stock to be sold out, never negative");
+    }
+
+    // ===================================
+    // Edits based on a stale version
+    // ===================================
+    @Test
+    void should_RejectUpdate_When_StockWasSoldSinceVersionWasRead() {
+        // Arrange
+        long version = productVariantService.getProductVariantById(2L).getVersion();
+        ReservationResponseDTO reservation = inventoryReservationService.reserve(2L, 5L, "buyer");
+        inventoryReservationService.confirm(reservation.getId(), "buyer");
+        inventoryReservationService.flush();
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> productVariantService.updateProductVariant(2L, new ProductVariantUpdateDTO(null, 100L, version)));
+        assertEquals(25, productVariantRepository.findById(2L).orElseThrow().getStock(), "Expected the sale to be kept");
+    }
+}
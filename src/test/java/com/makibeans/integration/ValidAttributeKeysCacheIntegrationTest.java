@@ -0,0 +1,80 @@
+package com.makibeans.integration;
+
+import com.makibeans.dto.attributetemplate.AttributeTemplateRequestDTO;
+import com.makibeans.dto.attributetemplate.AttributeTemplateUpdateDTO;
+import com.makibeans.service.AttributeTemplateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Sql(scripts = "classpath:test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ValidAttributeKeysCacheIntegrationTest {
+
+    @Autowired private AttributeTemplateService attributeTemplateService;
+    @Autowired private CacheManager cacheManager;
+
+    private Cache validAttributeKeys;
+
+    @BeforeEach
+    void setUp() {
+        // the test data is reloaded without events, so start every test from an empty cache
+        validAttributeKeys = cacheManager.getCache("validAttributeKeys");
+        validAttributeKeys.clear();
+
+        assertEquals(Set.of("origin", "flavor", "intensity"), attributeTemplateService.getValidAttributeKeys(),
+                "Expected the keys of the test data");
+        assertNotNull(validAttributeKeys.get(SimpleKey.EMPTY), "Expected the keys to be cached");
+    }
+
+    // ===================================
+    // Create
+    // ===================================
+    @Test
+    void should_ContainNewKey_When_TemplateIsCreated() {
+        // Act
+        attributeTemplateService.createAttributeTemplate(new AttributeTemplateRequestDTO("roast"));
+
+        // Assert
+        assertNull(validAttributeKeys.get(SimpleKey.EMPTY), "Expected the cache to be evicted after commit");
+        assertEquals(Set.of("origin", "flavor", "intensity", "roast"), attributeTemplateService.getValidAttributeKeys(),
+                "Expected the new key to be valid");
+    }
+
+    // ===================================
+    // Rename
+    // ===================================
+    @Test
+    void should_ContainRenamedKey_When_TemplateIsRenamed() {
+        // Act
+        attributeTemplateService.updateAttributeTemplate(2L, new AttributeTemplateUpdateDTO("aroma"));
+
+        // Assert
+        assertNull(validAttributeKeys.get(SimpleKey.EMPTY), "Expected the cache to be evicted after commit");
+        assertEquals(Set.of("origin", "aroma", "intensity"), attributeTemplateService.getValidAttributeKeys(),
+                "Expected the old key to be replaced by the new one");
+    }
+
+    // ===================================
+    // Delete
+    // ===================================
+    @Test
+    void should_NotContainKey_When_TemplateIsDeleted() {
+        // Act
+        attributeTemplateService.deleteAttributeTemplate(1L);
+
+        // Assert
+        assertNull(validAttributeKeys.get(SimpleKey.EMPTY), "Expected the cache to be evicted after commit");
+        assertEquals(Set.of("flavor", "intensity"), attributeTemplateService.getValidAttributeKeys(),
+                "Expected the deleted key to be invalid");
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -107,4 +109,46 @@ class CategoryTest {
         String expected = "Category(id=null, name=Category, description=Category description)";
         assertEquals(expected, result, "toString() should return expected string format");
     }
+
+    // Path Tests
+    @Test
+    void when_updatePathWithoutId_then_shouldUseParentPath() {
+        // Arrange
+        parentCategory.setPath("/1/");
+
+        // Act
+        category.updatePath();
+
+        // Assert
+        assertEquals("/1/", category.getPath(), "Path should be the parent path until an ID is assigned");
+    }
+
+    @Test
+    void when_updatePathWithId_then_shouldAppendId() {
+        // Arrange
+        parentCategory.setPath("/1/");
+        category.setId(7L);
+
+        // Act
+        category.updatePath();
+
+        // Assert
+        assertEquals("/1/7/", category.getPath(), "Path should end with the ID of the category");
+        assertEquals(List.of(1L, 7L), category.getPathIds(), "Path IDs should be parsed from the path");
+    }
+
+    @Test
+    void when_isAncestorOrSelfOf_then_shouldComparePathPrefixes() {
+        // Arrange
+        parentCategory.setPath("/1/");
+        category.setPath("/1/7/");
+        Category other = new Category("Other", "Other description");
+        other.setPath("/17/");
+
+        // Assert
+        assertTrue(parentCategory.isAncestorOrSelfOf(category), "Parent should be an ancestor of the category");
+        assertTrue(category.isAncestorOrSelfOf(category), "Category should be its own ancestor-or-self");
+        assertFalse(category.isAncestorOrSelfOf(parentCategory), "Category should not be an ancestor of its parent");
+        assertFalse(parentCategory.isAncestorOrSelfOf(other), "Path prefixes should only match whole IDs");
+    }
 }
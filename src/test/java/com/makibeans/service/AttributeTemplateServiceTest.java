@@ -1,5 +1,7 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateRequestDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateResponseDTO;
 import com.makibeans.dto.attributetemplate.AttributeTemplateUpdateDTO;
@@ -7,14 +9,19 @@ import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
 import com.makibeans.mapper.AttributeTemplateMapper;
 import com.makibeans.model.AttributeTemplate;
-import com.makibeans.model.ProductAttribute;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.repository.AttributeTemplateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
@@ -36,7 +43,13 @@ class AttributeTemplateServiceTest {
     private AttributeTemplateMapper mapper;
 
     @Mock
-    private ProductAttributeService productAttributeService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogChangeService catalogChangeService;
+
+    private static final CatalogChangedEvent TEMPLATES_CHANGED =
+            new CatalogChangedEvent(CatalogChangedEvent.Scope.ATTRIBUTE_TEMPLATES);
 
     @InjectMocks
     private AttributeTemplateService attributeTemplateService;
@@ -80,7 +93,8 @@ class AttributeTemplateServiceTest {
         verify(attributeTemplateRepository).existsByName("origin");
         verify(attributeTemplateRepository).save(any(AttributeTemplate.class));
         verify(mapper).toResponseDTO(any());
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verify(eventPublisher).publishEvent(TEMPLATES_CHANGED);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper, eventPublisher);
     }
 
     @Test
@@ -95,7 +109,8 @@ class AttributeTemplateServiceTest {
 
         // Verify
         verify(attributeTemplateRepository).existsByName("origin");
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
+        verifyNoInteractions(eventPublisher);
     }
 
     // ========================================
@@ -105,49 +120,28 @@ class AttributeTemplateServiceTest {
     @Test
     void should_DeleteAttributeTemplateAndAssociatedProductAttributes_When_IdExists() {
         // Arrange
-        AttributeTemplate template = new AttributeTemplate("origin");
-        ReflectionTestUtils.setField(template, "id", 1L);
-        ProductAttribute productAttribute = mock(ProductAttribute.class);
-
-        when(attributeTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
-        when(productAttributeService.getProductAttributesByTemplateId(1L)).thenReturn(List.of(productAttribute));
-        when(productAttribute.getId()).thenReturn(99L);
-
-        // Act
-        attributeTemplateService.deleteAttributeTemplate(1L);
-
-        // Verify
-        verify(productAttributeService).getProductAttributesByTemplateId(1L);
-        verify(productAttributeService).deleteProductAttribute(99L);
-        verify(attributeTemplateRepository, times(2)).findById(1L);
-        verify(attributeTemplateRepository).delete(template);
-        verifyNoMoreInteractions(attributeTemplateRepository, productAttributeService, mapper);
-    }
-
-    @Test
-    void should_DeleteOnlyAttributeTemplate_When_NoAssociatedProductAttributesExist() {
-        // Arrange
-        AttributeTemplate template = new AttributeTemplate("origin");
-        ReflectionTestUtils.setField(template, "id", 1L);
-
-        when(attributeTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
-        when(productAttributeService.getProductAttributesByTemplateId(1L)).thenReturn(Collections.emptyList());
+        when(attributeTemplateRepository.findProductAttributeIdsByTemplateId(1L)).thenReturn(List.of(10L, 11L));
+        when(attributeTemplateRepository.deleteAttributeTemplateById(1L)).thenReturn(1);
 
         // Act
         attributeTemplateService.deleteAttributeTemplate(1L);
 
         // Verify
-        verify(productAttributeService).getProductAttributesByTemplateId(1L);
-        verify(productAttributeService, never()).deleteProductAttribute(any());
-        verify(attributeTemplateRepository, times(2)).findById(1L);
-        verify(attributeTemplateRepository).delete(template);
-        verifyNoMoreInteractions(attributeTemplateRepository, productAttributeService, mapper);
+        InOrder inOrder = inOrder(attributeTemplateRepository, catalogChangeService);
+        inOrder.verify(attributeTemplateRepository).findProductAttributeIdsByTemplateId(1L);
+        inOrder.verify(attributeTemplateRepository).deleteAttributeValueLinksByTemplateId(1L);
+        inOrder.verify(attributeTemplateRepository).deleteProductAttributesByTemplateId(1L);
+        inOrder.verify(attributeTemplateRepository).deleteAttributeValuesByTemplateId(1L);
+        inOrder.verify(attributeTemplateRepository).deleteAttributeTemplateById(1L);
+        inOrder.verify(catalogChangeService).recordAll(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, List.of(10L, 11L), CatalogChange.Operation.DELETE);
+        verify(eventPublisher).publishEvent(TEMPLATES_CHANGED);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper, eventPublisher, catalogChangeService);
     }
 
     @Test
     void should_ThrowResourceNotFoundException_When_DeleteWithInvalidId() {
         // Arrange
-        when(attributeTemplateRepository.findById(99L)).thenReturn(Optional.empty());
+        when(attributeTemplateRepository.deleteAttributeTemplateById(99L)).thenReturn(0);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
@@ -155,8 +149,8 @@ class AttributeTemplateServiceTest {
                 "Expected exception: ResourceNotFoundException");
 
         // Verify
-        verify(attributeTemplateRepository).findById(99L);
-        verifyNoMoreInteractions(attributeTemplateRepository);
+        verify(attributeTemplateRepository).deleteAttributeTemplateById(99L);
+        verifyNoInteractions(mapper, eventPublisher, catalogChangeService);
     }
 
     // ========================================
@@ -189,7 +183,8 @@ class AttributeTemplateServiceTest {
         verify(attributeTemplateRepository).existsByName("origin");
         verify(attributeTemplateRepository).save(any(AttributeTemplate.class));
         verify(mapper).toResponseDTO(any());
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verify(eventPublisher).publishEvent(TEMPLATES_CHANGED);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper, eventPublisher);
     }
 
     @Test
@@ -210,7 +205,8 @@ class AttributeTemplateServiceTest {
         // Verify
         verify(attributeTemplateRepository).findById(1L);
         verify(mapper).toResponseDTO(template);
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -229,7 +225,7 @@ class AttributeTemplateServiceTest {
         // Verify
         verify(attributeTemplateRepository).findById(1L);
         verify(attributeTemplateRepository).existsByName("origin");
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
     }
 
     @Test
@@ -244,7 +240,7 @@ class AttributeTemplateServiceTest {
 
         // Verify
         verify(attributeTemplateRepository).findById(99L);
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
     }
 
     // ========================================
@@ -269,7 +265,7 @@ class AttributeTemplateServiceTest {
         // Verify
         verify(attributeTemplateRepository).findById(1L);
         verify(mapper).toResponseDTO(template);
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
     }
 
     @Test
@@ -284,7 +280,7 @@ class AttributeTemplateServiceTest {
 
         // Verify
         verify(attributeTemplateRepository).findById(99L);
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
     }
 
     // ========================================
@@ -308,17 +304,7 @@ class AttributeTemplateServiceTest {
 
         // Verify
         verify(attributeTemplateRepository).findAll();
-        verifyNoMoreInteractions(attributeTemplateRepository, mapper, productAttributeService);
-    }
-
-    @Test
-    void should_RefreshCacheWithoutError() {
-        // Act & Assert
-        assertDoesNotThrow(() -> attributeTemplateService.refreshAttributeCache(),
-                "Expected no exception to be thrown");
-
-        // Verify
-        verifyNoInteractions(attributeTemplateRepository, mapper, productAttributeService);
+        verifyNoMoreInteractions(attributeTemplateRepository, mapper);
     }
 
     // ========================================
@@ -332,19 +318,20 @@ class AttributeTemplateServiceTest {
         AttributeTemplate template = new AttributeTemplate("Flavor");
         AttributeTemplateResponseDTO expectedDTO = new AttributeTemplateResponseDTO(1L, "Flavor");
 
-        when(attributeTemplateRepository.findAll()).thenReturn(List.of(template));
+        when(attributeTemplateRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(template), invocation.getArgument(1), 1));
         when(mapper.toResponseDTO(template)).thenReturn(expectedDTO);
 
         // Act
-        List<AttributeTemplateResponseDTO> result = attributeTemplateService.findBySearchQuery(params);
+        PageDTO<AttributeTemplateResponseDTO> result = attributeTemplateService.findBySearchQuery(params);
 
         // Assert
-        assertNotNull(result, "Result list should not be null");
-        assertEquals(1, result.size(), "Expected exactly one result matching 'flavor'");
-        assertEquals(expectedDTO, result.get(0), "Returned DTO should match expected template DTO");
+        assertNotNull(result, "Result page should not be null");
+        assertEquals(1, result.getContent().size(), "Expected exactly one result matching 'flavor'");
+        assertEquals(expectedDTO, result.getContent().get(0), "Returned DTO should match expected template DTO");
 
         // Verify
-        verify(attributeTemplateRepository).findAll();
+        verify(attributeTemplateRepository).findAll(any(Specification.class), any(Pageable.class));
         verify(mapper).toResponseDTO(template);
         verifyNoMoreInteractions(attributeTemplateRepository, mapper);
     }
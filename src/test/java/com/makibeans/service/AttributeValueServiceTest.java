@@ -1,5 +1,6 @@
 package com.makibeans.service;
 
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.attributevalue.AttributeValueRequestDTO;
 import com.makibeans.dto.attributevalue.AttributeValueResponseDTO;
 import com.makibeans.dto.attributevalue.AttributeValueUpdateDTO;
@@ -15,6 +16,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
@@ -38,6 +43,9 @@ class AttributeValueServiceTest {
     @Mock
     private ProductAttributeService productAttributeService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private AttributeValueMapper mapper;
 
@@ -299,19 +307,21 @@ class AttributeValueServiceTest {
 
         Map<String, String> params = Map.of("value", "red");
 
-        when(attributeValueRepository.findAll()).thenReturn(List.of(value));
+        when(attributeValueRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(value), invocation.getArgument(1), 1));
         when(mapper.toResponseDTO(value)).thenReturn(expectedDTO);
 
         // Act
-        List<AttributeValueResponseDTO> result = attributeValueService.findBySearchQuery(params);
+        PageDTO<AttributeValueResponseDTO> result = attributeValueService.findBySearchQuery(params);
 
         // Assert
         assertNotNull(result, "Result should not be null");
-        assertEquals(1, result.size(), "Expected 1 result from filtered list");
-        assertEquals(expectedDTO, result.get(0), "Expected returned DTO to match expected DTO");
+        assertEquals(1, result.getContent().size(), "Expected 1 result from filtered page");
+        assertEquals(expectedDTO, result.getContent().get(0), "Expected returned DTO to match expected DTO");
+        assertEquals(1L, result.getTotalElements(), "Expected the total from the database count");
 
         // Verify
-        verify(attributeValueRepository).findAll();
+        verify(attributeValueRepository).findAll(any(Specification.class), any(Pageable.class));
         verify(mapper).toResponseDTO(value);
         verifyNoMoreInteractions(attributeValueRepository, mapper);
     }
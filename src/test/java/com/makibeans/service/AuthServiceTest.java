@@ -18,6 +18,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +30,7 @@ class AuthServiceTest {
     @Mock PasswordEncoder passwordEncoder;
     @Mock JwtUtil jwtUtil;
     @Mock AuthMapper authMapper;
+    @Mock TokenRevocationService tokenRevocationService;
 
     @InjectMocks AuthService authService;
 
@@ -115,4 +119,59 @@ class AuthServiceTest {
         verify(passwordEncoder).matches("password123", "hashedPassword");
         verifyNoMoreInteractions(userService, passwordEncoder);
     }
+
+    // ========================================
+    // LOGOUT
+    // ========================================
+
+    @Test
+    void should_RevokeToken_When_UserLogsOut() {
+        // Act
+        authService.logoutUser("jwt-token");
+
+        // Verify
+        verify(tokenRevocationService).revokeToken("jwt-token");
+        verifyNoMoreInteractions(tokenRevocationService, userService, jwtUtil);
+    }
+
+    // ========================================
+    // REVOKE ALL TOKENS
+    // ========================================
+
+    @Test
+    void should_SetTokensValidAfter_When_RevokingAllTokens() {
+        // Arrange
+        Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        when(userService.findById(1L)).thenReturn(user);
+        when(userService.update(1L, user)).thenReturn(user);
+
+        // Act
+        authService.revokeAllTokens(1L);
+
+        // Assert
+        assertNotNull(user.getTokensValidAfter(), "Expected tokensValidAfter to be set");
+        assertFalse(user.getTokensValidAfter().isBefore(before), "Expected tokensValidAfter to be now");
+        assertEquals(0, user.getTokensValidAfter().getNano(), "Expected tokensValidAfter to be truncated to seconds");
+
+        // Verify
+        verify(userService).findById(1L);
+        verify(userService).update(1L, user);
+        verifyNoMoreInteractions(userService, tokenRevocationService);
+    }
+
+    @Test
+    void should_ThrowResourceNotFoundException_When_RevokingAllTokensOfNonExistingUser() {
+        // Arrange
+        when(userService.findById(1L)).thenThrow(new ResourceNotFoundException("User not found"));
+
+        // Act & Assert
+        assertThrows(
+                ResourceNotFoundException.class,
+                () -> authService.revokeAllTokens(1L),
+                "Expected ResourceNotFoundException when user not found");
+
+        // Verify
+        verify(userService).findById(1L);
+        verifyNoMoreInteractions(userService, tokenRevocationService);
+    }
 }
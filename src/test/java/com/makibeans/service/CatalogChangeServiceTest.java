@@ -0,0 +1,134 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.model.CatalogChange;
+import com.makibeans.repository.CatalogChangeRepository;
+import com.makibeans.repository.CatalogChangeRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CatalogChangeService
+ */
+
+@ExtendWith(MockitoExtension.class)
+class CatalogChangeServiceTest {
+
+    @Mock CatalogChangeRepository catalogChangeRepository;
+    @Mock JdbcTemplate jdbcTemplate;
+
+    CatalogChangeService catalogChangeService;
+
+    private record Row(Long getSeq, CatalogChange.EntityType getEntityType, Long getEntityId,
+                       CatalogChange.Operation getOperation, Instant getChangedAt) implements CatalogChangeRow {
+    }
+
+    @BeforeEach
+    void setUp() {
+        catalogChangeService = new CatalogChangeService(catalogChangeRepository, jdbcTemplate,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    // ========================================
+    // RECORD
+    // ========================================
+
+    @Test
+    void should_LockChangeLogBeforeInsertingChanges_When_RecordingChanges() {
+        // Act
+        catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT_VARIANT, List.of(1L, 2L), CatalogChange.Operation.UPSERT);
+
+        // Verify
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(contains("pg_advisory_xact_lock"));
+        inOrder.verify(jdbcTemplate).batchUpdate(contains("INSERT INTO catalog_changes"), eq(List.of(1L, 2L)), eq(2),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<Long>>any());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void should_NotLockChangeLog_When_NothingChanged() {
+        // Act
+        catalogChangeService.recordAll(CatalogChange.EntityType.PRODUCT, List.of(), CatalogChange.Operation.DELETE);
+
+        // Verify
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void should_RecordReturnedEntitiesAndCountRows_When_UpdatingAndRecording() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(3L);
+
+        // Act
+        int changed = catalogChangeService.updateAndRecord("UPDATE products SET name = name RETURNING id AS entity_id",
+                CatalogChange.EntityType.PRODUCT, CatalogChange.Operation.UPSERT);
+
+        // Assert
+        assertEquals(3, changed, "Expected the number of rows returned by the statement");
+
+        // Verify
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(contains("pg_advisory_xact_lock"));
+        inOrder.verify(jdbcTemplate).queryForObject(
+                startsWith("WITH changed AS (UPDATE products SET name = name RETURNING id AS entity_id)"),
+                eq(Long.class), eq("PRODUCT"), eq("UPSERT"));
+    }
+
+    // ========================================
+    // STREAM
+    // ========================================
+
+    @Test
+    void should_WriteChangesInSequenceOrder_When_StreamingChanges() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        when(catalogChangeRepository.streamSince(5L)).thenReturn(Stream.of(
+                new Row(6L, CatalogChange.EntityType.PRODUCT, 1L, CatalogChange.Operation.UPSERT, Instant.EPOCH),
+                new Row(7L, CatalogChange.EntityType.CATEGORY, 3L, CatalogChange.Operation.DELETE, Instant.EPOCH)));
+
+        // Act
+        long count = catalogChangeService.streamChanges(5L, output);
+
+        // Assert
+        JsonNode changes = new ObjectMapper().readTree(output.toByteArray());
+        assertEquals(2, count, "Expected both changes to be streamed");
+        assertEquals(2, changes.size(), "Expected a JSON array of both changes");
+        assertEquals(6L, changes.get(0).get("seq").asLong(), "Expected the changes in sequence order");
+        assertEquals("PRODUCT", changes.get(0).get("entityType").asText(), "Expected the entity type");
+        assertEquals("DELETE", changes.get(1).get("operation").asText(), "Expected the operation");
+        assertEquals(3L, changes.get(1).get("entityId").asLong(), "Expected the entity ID");
+    }
+
+    @Test
+    void should_WriteEmptyArray_When_NoChangesSinceSequenceNumber() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        when(catalogChangeRepository.streamSince(9L)).thenReturn(Stream.empty());
+
+        // Act
+        long count = catalogChangeService.streamChanges(9L, output);
+
+        // Assert
+        assertEquals(0, count, "Expected no changes to be streamed");
+        assertEquals("[]", output.toString(), "Expected an empty JSON array");
+    }
+}
@@ -0,0 +1,118 @@
+package com.makibeans.service;
+
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.product.CatalogLoadReportDTO;
+import com.makibeans.exceptions.InvalidCatalogDataException;
+import com.makibeans.model.CatalogChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CatalogLoadService
+ */
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogLoadServiceTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock DataSource dataSource;
+    @Mock Connection connection;
+    @Mock PGConnection pgConnection;
+    @Mock CopyManager copyManager;
+    @Mock PlatformTransactionManager transactionManager;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock CatalogChangeService catalogChangeService;
+
+    private static final CatalogChangedEvent PRODUCTS_CHANGED =
+            new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS);
+
+    CatalogLoadService catalogLoadService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        catalogLoadService = new CatalogLoadService(jdbcTemplate, dataSource, transactionManager, eventPublisher, catalogChangeService);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+    }
+
+    @Test
+    void should_CopyAndMergeCatalog_When_FeedIsValid() throws Exception {
+        // Arrange
+        when(copyManager.copyIn(contains("staging_products"), any(InputStream.class))).thenReturn(3L);
+        when(copyManager.copyIn(contains("staging_variants"), any(InputStream.class))).thenReturn(5L);
+        when(catalogChangeService.updateAndRecord(startsWith("UPDATE products"), any(), any())).thenReturn(1);
+        when(catalogChangeService.updateAndRecord(startsWith("INSERT INTO products"), any(), any())).thenReturn(2);
+        when(catalogChangeService.updateAndRecord(startsWith("UPDATE product_variants"), any(), any())).thenReturn(4);
+        when(catalogChangeService.updateAndRecord(startsWith("INSERT INTO product_variants"), any(), any())).thenReturn(1);
+
+        // Act
+        CatalogLoadReportDTO report = catalogLoadService.loadCatalog(stream("name,description,category_id\n"),
+                stream("product_name,size_name,price_in_cents,stock\n"), null);
+
+        // Assert
+        assertEquals(3, report.getStagedProducts(), "Expected the copied product rows to be reported");
+        assertEquals(5, report.getStagedVariants(), "Expected the copied variant rows to be reported");
+        assertEquals(0, report.getStagedAttributeValues(), "Expected no attribute values without a feed");
+        assertEquals(1, report.getUpdatedProducts(), "Expected the updated products to be reported");
+        assertEquals(2, report.getInsertedProducts(), "Expected the inserted products to be reported");
+        assertEquals(4, report.getUpdatedVariants(), "Expected the updated variants to be reported");
+        assertEquals(1, report.getInsertedVariants(), "Expected the inserted variants to be reported");
+
+        // Verify
+        verify(copyManager, times(2)).copyIn(anyString(), any(InputStream.class));
+        verify(jdbcTemplate).execute(contains("CREATE TEMPORARY TABLE"));
+        verify(catalogChangeService, times(2)).updateAndRecord(
+                anyString(), eq(CatalogChange.EntityType.PRODUCT), eq(CatalogChange.Operation.UPSERT));
+        verify(catalogChangeService, times(2)).updateAndRecord(
+                anyString(), eq(CatalogChange.EntityType.PRODUCT_VARIANT), eq(CatalogChange.Operation.UPSERT));
+        verify(transactionManager).commit(any());
+        verify(eventPublisher).publishEvent(PRODUCTS_CHANGED);
+    }
+
+    @Test
+    void should_RollBackWithoutMerging_When_FeedHasDuplicateProducts() throws Exception {
+        // Arrange
+        when(jdbcTemplate.queryForList(contains("HAVING count(*) > 1"), eq(String.class))).thenReturn(List.of("espresso"));
+
+        // Act & Assert
+        InvalidCatalogDataException ex = assertThrows(InvalidCatalogDataException.class,
+                () -> catalogLoadService.loadCatalog(stream("name,description,category_id\n"), null, null),
+                "Expected duplicate products to reject the load");
+        assertEquals("Duplicate products: espresso", ex.getMessage(), "Expected the offending names in the message");
+
+        // Verify
+        verify(jdbcTemplate, never()).update(anyString());
+        verifyNoInteractions(catalogChangeService);
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
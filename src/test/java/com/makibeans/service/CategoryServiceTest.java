@@ -1,5 +1,12 @@
 package com.makibeans.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.cache.CategoryProductCountCache;
+import com.makibeans.cache.CategoryProductCounts;
+import com.makibeans.cache.CategoryTree;
+import com.makibeans.cache.CategoryTreeCache;
+import com.makibeans.cache.SerializedCategoryTree;
 import com.makibeans.dto.category.CategoryRequestDTO;
 import com.makibeans.dto.category.CategoryResponseDTO;
 import com.makibeans.dto.category.CategoryUpdateDTO;
@@ -8,9 +15,11 @@ import com.makibeans.exceptions.CircularReferenceException;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
 import com.makibeans.mapper.CategoryMapper;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.model.Category;
-import com.makibeans.model.Product;
+import com.makibeans.repository.CategoryProductCountRow;
 import com.makibeans.repository.CategoryRepository;
+import com.makibeans.repository.CategoryTreeRow;
 import com.makibeans.util.ImageUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +27,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
@@ -34,19 +44,34 @@ class CategoryServiceTest {
 
     @Mock private CategoryRepository categoryRepository;
     @Mock private CategoryMapper categoryMapper;
-    @Mock private ProductService productService;
+    @Mock private CategoryTreeCache categoryTreeCache;
+    @Mock private CategoryProductCountCache categoryProductCountCache;
+    @Mock private ObjectMapper objectMapper;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private CatalogChangeService catalogChangeService;
     @Mock private ImageUtils imageUtils;
 
     @InjectMocks private CategoryService categoryService;
 
     private Category rootCategory;
     private Category subCategory;
+    private CategoryTree categoryTree;
+
+    private record Row(Long getId, String getName, String getDescription, Long getParentCategoryId, boolean getHasImage)
+            implements CategoryTreeRow {
+    }
 
     @BeforeEach
     void setUp() {
         rootCategory = new Category("Coffee", "Rich coffee flavors");
         subCategory = new Category("Beans", "Arabica and Robusta");
         subCategory.setParentCategory(rootCategory);
+
+        categoryTree = CategoryTree.of(List.of(
+                new Row(1L, "Coffee", "Rich coffee flavors", null, false),
+                new Row(2L, "Beans", "Arabica and Robusta", 1L, false),
+                new Row(3L, "Espresso", "Strong coffee", 2L, false),
+                new Row(4L, "Tea", "Loose leaf", null, false)));
     }
 
     // ========================================
@@ -58,7 +83,7 @@ class CategoryServiceTest {
         // Arrange
         CategoryRequestDTO request = new CategoryRequestDTO("Coffee", "Rich", null);
         Category savedCategory = new Category("coffee", "rich");
-        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "rich", null, null, List.of(), List.of());
+        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "rich", null, null, List.of(), List.of(), null, null);
 
         when(categoryRepository.existsByNameAndParentCategory("coffee", null)).thenReturn(false);
         when(categoryRepository.save(any(Category.class))).thenReturn(savedCategory);
@@ -75,7 +100,7 @@ class CategoryServiceTest {
         verify(categoryRepository).existsByNameAndParentCategory("coffee", null);
         verify(categoryRepository).save(any(Category.class));
         verify(categoryMapper).toResponseDTO(savedCategory);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     @Test
@@ -92,18 +117,22 @@ class CategoryServiceTest {
 
         // Verify
         verify(categoryRepository).existsByNameAndParentCategory("coffee", null);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     @Test
     void should_CreateSubCategory_When_ValidParent() {
         // Arrange
         CategoryRequestDTO request = new CategoryRequestDTO("Beans", "Roasted", 1L);
+        rootCategory.setId(1L);
+        rootCategory.setPath("/1/");
         Category savedCategory = new Category("beans", "roasted");
+        savedCategory.setId(2L);
         savedCategory.setParentCategory(rootCategory);
-        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(2L, "beans", "roasted", null, 1L, List.of(), List.of());
+        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(2L, "beans", "roasted", null, 1L, List.of(), List.of(), null, null);
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(rootCategory));
+        when(categoryRepository.existsByIdInAndNameIgnoreCase(List.of(1L), "beans")).thenReturn(false);
         when(categoryRepository.save(any())).thenReturn(savedCategory);
         when(categoryMapper.toResponseDTO(savedCategory)).thenReturn(expectedResponseDTO);
 
@@ -114,12 +143,14 @@ class CategoryServiceTest {
         assertNotNull(result, "Expected category response not to be null");
         assertEquals("beans", result.getName(), "Expected subcategory name to be 'beans'");
         assertEquals(1L, result.getParentCategoryId(), "Expected parent category ID to be 1");
+        assertEquals("/1/2/", savedCategory.getPath(), "Expected path to end with the ID of the new category");
 
         // Verify
         verify(categoryRepository).findById(1L);
+        verify(categoryRepository).existsByIdInAndNameIgnoreCase(List.of(1L), "beans");
         verify(categoryRepository).save(any());
         verify(categoryMapper).toResponseDTO(savedCategory);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     // ========================================
@@ -130,20 +161,75 @@ class CategoryServiceTest {
     void should_ThrowCategoryInUseException_When_CategoryHasProducts() {
         // Arrange
         rootCategory.setId(1L);
-        Product product = mock(Product.class);
-        when(productService.getProductsByCategoryId(1L)).thenReturn(List.of(product));
-        when(categoryRepository.findByParentCategoryId(1L)).thenReturn(List.of());
+        rootCategory.setPath("/1/");
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(rootCategory));
+        when(categoryRepository.findProductNamesInSubtree("/1/")).thenReturn(List.of("espresso"));
 
         // Act & Assert
-        assertThrows(
+        CategoryInUseException exception = assertThrows(
                 CategoryInUseException.class,
                 () -> categoryService.deleteCategory(1L),
                 "Expected CategoryInUseException when products exist");
+        assertTrue(exception.getMessage().contains("espresso"), "Expected the message to name the product");
 
         // Verify
-        verify(productService).getProductsByCategoryId(1L);
-        verify(categoryRepository).findByParentCategoryId(1L);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verify(categoryRepository).findById(1L);
+        verify(categoryRepository).findProductNamesInSubtree("/1/");
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
+    }
+
+    @Test
+    void should_DeleteCategory_When_SubtreeHasNoProducts() {
+        // Arrange
+        rootCategory.setId(1L);
+        rootCategory.setPath("/1/");
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(rootCategory));
+        when(categoryRepository.findProductNamesInSubtree("/1/")).thenReturn(List.of());
+        when(categoryRepository.findIdsInSubtree("/1/")).thenReturn(List.of(1L, 2L));
+
+        // Act
+        categoryService.deleteCategory(1L);
+
+        // Verify
+        verify(categoryRepository, times(2)).findById(1L);
+        verify(categoryRepository).findProductNamesInSubtree("/1/");
+        verify(categoryRepository).findIdsInSubtree("/1/");
+        verify(categoryRepository).delete(rootCategory);
+        verify(catalogChangeService).recordAll(CatalogChange.EntityType.CATEGORY, List.of(1L, 2L), CatalogChange.Operation.DELETE);
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils, eventPublisher);
+    }
+
+    // ========================================
+    // SUBTREE
+    // ========================================
+
+    @Test
+    void should_ReturnCategoryPaths_When_CategoryIdsGiven() {
+        // Arrange
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
+
+        // Act
+        List<String> result = categoryService.getCategoryPaths(List.of(3L, 4L, 3L));
+
+        // Assert
+        assertEquals(List.of("/1/2/3/", "/4/"), result, "Expected the paths of the categories");
+
+        // Verify
+        verify(categoryTreeCache).get();
+        verifyNoInteractions(categoryRepository, categoryMapper, imageUtils);
+    }
+
+    @Test
+    void should_IgnoreUnknownCategoryIds_When_ResolvingPaths() {
+        // Arrange
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
+
+        // Act
+        List<String> result = categoryService.getCategoryPaths(List.of(99L));
+
+        // Assert
+        assertTrue(result.isEmpty(), "Expected no paths for unknown categories");
     }
 
     // ========================================
@@ -154,10 +240,12 @@ class CategoryServiceTest {
     void should_UpdateCategoryNameAndDescription() {
         // Arrange
         CategoryUpdateDTO updateDTO = new CategoryUpdateDTO("Updated", "New desc", null);
-        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "updated", "new desc", null, null, List.of(), List.of());
+        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "updated", "new desc", null, null, List.of(), List.of(), null, null);
+        rootCategory.setPath("/1/");
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(rootCategory));
         when(categoryRepository.save(rootCategory)).thenReturn(rootCategory);
+        when(categoryRepository.findIdsInSubtree("/1/")).thenReturn(List.of(1L, 2L));
         when(categoryMapper.toResponseDTO(rootCategory)).thenReturn(expectedResponseDTO);
 
         // Act
@@ -170,8 +258,11 @@ class CategoryServiceTest {
         // Verify
         verify(categoryRepository).findById(1L);
         verify(categoryRepository).save(rootCategory);
+        verify(categoryRepository).findIdsInSubtree("/1/");
         verify(categoryMapper).toResponseDTO(rootCategory);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verify(catalogChangeService).recordAll(CatalogChange.EntityType.CATEGORY, List.of(1L, 2L), CatalogChange.Operation.UPSERT);
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.CATEGORIES));
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils, eventPublisher);
     }
 
     @Test
@@ -188,7 +279,7 @@ class CategoryServiceTest {
 
         // Verify
         verify(categoryRepository).findById(99L);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     // ========================================
@@ -198,20 +289,32 @@ class CategoryServiceTest {
     @Test
     void should_ThrowCircularReferenceException_When_CircularReferenceDetected() {
         // Arrange
-        Category root = new Category("Root", "Top level");
-        Category child = new Category("Child", "Child category");
-        child.setParentCategory(root);
-        root.getSubCategories().add(child);
-        root.setParentCategory(child); // create circular reference
+        Category root = new Category("Coffee", "Top level");
+        Category grandChild = new Category("Espresso", "Grandchild category");
+        root.setPath("/1/");
+        grandChild.setPath("/1/2/3/");
 
         // Act & Assert
         assertThrows(
                 CircularReferenceException.class, () ->
-                categoryService.validateCircularReference(child, root),
+                categoryService.validateCircularReference(grandChild, root),
                 "Expected CircularReferenceException for circular reference");
 
         // Verify
-        verifyNoInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoInteractions(categoryRepository, categoryMapper, imageUtils);
+    }
+
+    @Test
+    void should_NotThrow_When_NewParentIsInAnotherSubtree() {
+        // Arrange
+        Category tea = new Category("Tea", "Loose leaf");
+        Category beans = new Category("Beans", "Arabica and Robusta");
+        tea.setPath("/4/");
+        beans.setPath("/1/2/");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> categoryService.validateCircularReference(tea, beans),
+                "Expected no exception when the new parent is not a descendant");
     }
 
     @Test
@@ -227,7 +330,7 @@ class CategoryServiceTest {
                 "Expected DuplicateResourceException");
 
         // Verify
-        verifyNoInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     @Test
@@ -236,12 +339,45 @@ class CategoryServiceTest {
         rootCategory.setName("Coffee");
         subCategory.setName("Sub");
         subCategory.setParentCategory(rootCategory);
+        subCategory.setPath("/1/2/");
+        when(categoryRepository.existsByIdInAndNameIgnoreCase(List.of(1L, 2L), "Coffee")).thenReturn(true);
 
         // Act & Assert
         assertThrows(
                 DuplicateResourceException.class,
                 () -> categoryService.validateUniqueCategoryNameWithinHierarchy(subCategory, "Coffee", null),
                 "Expected DuplicateResourceException");
+
+        // Verify
+        verify(categoryRepository).existsByIdInAndNameIgnoreCase(List.of(1L, 2L), "Coffee");
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    void should_MoveDescendants_When_ParentCategoryChanges() {
+        // Arrange
+        Category tea = new Category("Tea", "Loose leaf");
+        tea.setId(4L);
+        tea.setPath("/4/");
+        subCategory.setId(2L);
+        subCategory.setPath("/1/2/");
+        CategoryUpdateDTO updateDTO = new CategoryUpdateDTO(null, null, 4L);
+
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(subCategory));
+        when(categoryRepository.findById(4L)).thenReturn(Optional.of(tea));
+        when(categoryRepository.updateDescendantPaths("/1/2/", "/4/2/")).thenReturn(1);
+        when(categoryRepository.save(subCategory)).thenReturn(subCategory);
+
+        // Act
+        categoryService.updateCategory(2L, updateDTO);
+
+        // Assert
+        assertEquals(tea, subCategory.getParentCategory(), "Expected the new parent to be set");
+        assertEquals("/4/2/", subCategory.getPath(), "Expected the path to be moved under the new parent");
+
+        // Verify
+        verify(categoryRepository).updateDescendantPaths("/1/2/", "/4/2/");
+        verify(categoryRepository).save(subCategory);
     }
 
     // ========================================
@@ -251,38 +387,64 @@ class CategoryServiceTest {
     @Test
     void should_ReturnCategoryResponseDTO_When_IdExists() {
         // Arrange
-        rootCategory.setId(1L);
-        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "desc", null, null, List.of(), List.of());
+        CategoryTree.Node node = categoryTree.find(1L).orElseThrow();
+        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "desc", null, null, List.of(), List.of(), null, null);
 
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(rootCategory));
-        when(categoryMapper.toResponseDTO(rootCategory)).thenReturn(expectedResponseDTO);
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
+        when(categoryMapper.toResponseDTO(categoryTree, node, null)).thenReturn(expectedResponseDTO);
 
         // Act
-        CategoryResponseDTO result = categoryService.getCategoryById(1L);
+        CategoryResponseDTO result = categoryService.getCategoryById(1L, false);
 
         // Assert
         assertEquals("coffee", result.getName(), "Expected category name to be 'coffee'");
 
         // Verify
-        verify(categoryRepository).findById(1L);
-        verify(categoryMapper).toResponseDTO(rootCategory);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verify(categoryTreeCache).get();
+        verify(categoryMapper).toResponseDTO(categoryTree, node, null);
+        verifyNoMoreInteractions(categoryTreeCache, categoryMapper);
+        verifyNoInteractions(categoryRepository, categoryProductCountCache, imageUtils);
+    }
+
+    @Test
+    void should_IncludeProductCounts_When_Requested() {
+        // Arrange
+        CategoryTree.Node node = categoryTree.find(1L).orElseThrow();
+        CategoryProductCounts counts = CategoryProductCounts.of(categoryTree, List.<CategoryProductCountRow>of());
+        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "desc", null, null, List.of(), List.of(), 0L, 0L);
+
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
+        when(categoryProductCountCache.get(categoryTree)).thenReturn(counts);
+        when(categoryMapper.toResponseDTO(categoryTree, node, counts)).thenReturn(expectedResponseDTO);
+
+        // Act
+        CategoryResponseDTO result = categoryService.getCategoryById(1L, true);
+
+        // Assert
+        assertEquals(0L, result.getSubtreeProductCount(), "Expected the subtree product count to be included");
+
+        // Verify
+        verify(categoryTreeCache).get();
+        verify(categoryProductCountCache).get(categoryTree);
+        verify(categoryMapper).toResponseDTO(categoryTree, node, counts);
+        verifyNoMoreInteractions(categoryTreeCache, categoryProductCountCache, categoryMapper);
+        verifyNoInteractions(categoryRepository, imageUtils);
     }
 
     @Test
     void should_ThrowResourceNotFoundException_When_IdInvalid() {
         // Arrange
-        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
 
         // Act & Assert
         assertThrows(
                 ResourceNotFoundException.class,
-                () -> categoryService.getCategoryById(99L),
+                () -> categoryService.getCategoryById(99L, false),
                 "Expected ResourceNotFoundException");
 
         // Verify
-        verify(categoryRepository).findById(99L);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verify(categoryTreeCache).get();
+        verifyNoInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     // ========================================
@@ -295,7 +457,7 @@ class CategoryServiceTest {
         rootCategory.setId(1L);
         MultipartFile mockImage = mock(MultipartFile.class);
         byte[] imageBytes = new byte[]{1, 2, 3};
-        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "desc", null, null, List.of(), List.of());
+        CategoryResponseDTO expectedResponseDTO = new CategoryResponseDTO(1L, "coffee", "desc", null, null, List.of(), List.of(), null, null);
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(rootCategory));
         when(imageUtils.validateAndExtractImageBytes(mockImage)).thenReturn(imageBytes);
@@ -314,7 +476,7 @@ class CategoryServiceTest {
         verify(imageUtils).validateAndExtractImageBytes(mockImage);
         verify(categoryRepository).save(rootCategory);
         verify(categoryMapper).toResponseDTO(rootCategory);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     @Test
@@ -334,7 +496,7 @@ class CategoryServiceTest {
         // Verify
         verify(categoryRepository).findById(1L);
         verify(categoryRepository).save(rootCategory);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     @Test
@@ -354,7 +516,7 @@ class CategoryServiceTest {
 
         // Verify
         verify(categoryRepository).findById(1L);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
     }
 
     @Test
@@ -371,7 +533,58 @@ class CategoryServiceTest {
 
         // Verify
         verify(categoryRepository).findById(1L);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper, productService, imageUtils);
+        verifyNoMoreInteractions(categoryRepository, categoryMapper, imageUtils);
+    }
+
+    // ========================================
+    // TREE
+    // ========================================
+
+    @Test
+    void should_SerializeRootCategoriesOnce_When_TreeIsUnchanged() throws Exception {
+        // Arrange
+        CategoryTree.Node coffee = categoryTree.find(1L).orElseThrow();
+        CategoryTree.Node tea = categoryTree.find(4L).orElseThrow();
+        CategoryResponseDTO coffeeDTO = new CategoryResponseDTO(1L, "coffee", null, null, null, List.of(), List.of(), null, null);
+        CategoryResponseDTO teaDTO = new CategoryResponseDTO(4L, "tea", null, null, null, List.of(), List.of(), null, null);
+        byte[] json = "[]".getBytes();
+
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
+        when(categoryMapper.toResponseDTO(categoryTree, coffee, null)).thenReturn(coffeeDTO);
+        when(categoryMapper.toResponseDTO(categoryTree, tea, null)).thenReturn(teaDTO);
+        when(objectMapper.writeValueAsBytes(List.of(coffeeDTO, teaDTO))).thenReturn(json);
+
+        // Act
+        SerializedCategoryTree first = categoryService.getSerializedCategoryTree(false);
+        SerializedCategoryTree second = categoryService.getSerializedCategoryTree(false);
+
+        // Assert
+        assertSame(json, first.json(), "Expected the serialized JSON");
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""), "Expected a quoted ETag");
+        assertSame(first, second, "Expected the snapshot to be reused while the tree is unchanged");
+
+        // Verify
+        verify(objectMapper).writeValueAsBytes(List.of(coffeeDTO, teaDTO));
+        verifyNoMoreInteractions(objectMapper);
+    }
+
+    @Test
+    void should_SerializeAgain_When_TreeWasRebuilt() throws Exception {
+        // Arrange
+        CategoryTree rebuiltTree = CategoryTree.of(List.of(new Row(1L, "Coffee", null, null, false)));
+        when(categoryTreeCache.get()).thenReturn(categoryTree, rebuiltTree);
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("[1]".getBytes(), "[2]".getBytes());
+
+        // Act
+        SerializedCategoryTree first = categoryService.getSerializedCategoryTree(false);
+        SerializedCategoryTree second = categoryService.getSerializedCategoryTree(false);
+
+        // Assert
+        assertNotEquals(first.etag(), second.etag(), "Expected a new ETag for the rebuilt tree");
+        assertSame(rebuiltTree, second.source(), "Expected the snapshot of the rebuilt tree");
+
+        // Verify
+        verify(objectMapper, times(2)).writeValueAsBytes(any());
     }
 
     // ========================================
@@ -382,11 +595,11 @@ class CategoryServiceTest {
     void should_FilterCategories_ByName() {
         // Arrange
         Map<String, String> params = Map.of("name", "espresso");
-        Category category = new Category("Espresso", "Strong coffee");
-        CategoryResponseDTO expectedDTO = new CategoryResponseDTO(1L, "espresso", "strong coffee", null, null, List.of(), List.of());
+        CategoryTree.Node node = categoryTree.find(3L).orElseThrow();
+        CategoryResponseDTO expectedDTO = new CategoryResponseDTO(3L, "espresso", "strong coffee", null, 2L, List.of(), List.of(), null, null);
 
-        when(categoryRepository.findAll()).thenReturn(List.of(category));
-        when(categoryMapper.toResponseDTO(category)).thenReturn(expectedDTO);
+        when(categoryTreeCache.get()).thenReturn(categoryTree);
+        when(categoryMapper.toResponseDTO(categoryTree, node, null)).thenReturn(expectedDTO);
 
         // Act
         List<CategoryResponseDTO> result = categoryService.findBySearchQuery(params);
@@ -397,8 +610,9 @@ class CategoryServiceTest {
         assertEquals(expectedDTO, result.get(0), "Returned category should match expected DTO");
 
         // Verify
-        verify(categoryRepository).findAll();
-        verify(categoryMapper).toResponseDTO(category);
-        verifyNoMoreInteractions(categoryRepository, categoryMapper);
+        verify(categoryTreeCache).get();
+        verify(categoryMapper).toResponseDTO(categoryTree, node, null);
+        verifyNoMoreInteractions(categoryTreeCache, categoryMapper);
+        verifyNoInteractions(categoryRepository);
     }
 }
@@ -0,0 +1,330 @@
+package com.makibeans.service;
+
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.inventory.ReservationResponseDTO;
+import com.makibeans.exceptions.InsufficientStockException;
+import com.makibeans.exceptions.ResourceNotFoundException;
+import com.makibeans.repository.ProductVariantRepository;
+import com.makibeans.repository.ProductVariantStockRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryReservationService
+ */
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReservationServiceTest {
+
+    @Mock ProductVariantRepository productVariantRepository;
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+    @Mock ApplicationEventPublisher eventPublisher;
+
+    InventoryReservationService inventoryReservationService;
+
+    private record StockRow(Long getId, Long getProductId, Long getStock) implements ProductVariantStockRow {
+    }
+
+    @BeforeEach
+    void setUp() {
+        inventoryReservationService = new InventoryReservationService(productVariantRepository, jdbcTemplate,
+                transactionManager, eventPublisher, Duration.ofMinutes(10));
+    }
+
+    // ========================================
+    // RESERVE
+    // ========================================
+
+    @Test
+    void should_ReserveStock_When_EnoughAvailable() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+
+        // Act
+        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 4L, "alice");
+
+        // Assert
+        assertNotNull(reservation.getId(), "Expected the reservation to have an ID");
+        assertEquals(4L, reservation.getQuantity(), "Expected the reserved quantity");
+        assertEquals(6, inventoryReservationService.getAvailableStock(1L), "Expected the reserved stock to be unavailable");
+
+        // Verify
+        verify(productVariantRepository, times(1)).findStockByIdIn(List.of(1L));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void should_ThrowInsufficientStockException_When_NotEnoughAvailable() {
+        // Arrange
+        stubDatabaseStock(1L, 3L);
+        inventoryReservationService.reserve(1L, 2L, "alice");
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> inventoryReservationService.reserve(1L, 2L, "bob"));
+        assertEquals(1, inventoryReservationService.getAvailableStock(1L), "Expected the failed reservation to take nothing");
+    }
+
+    @Test
+    void should_ThrowResourceNotFoundException_When_VariantDoesNotExist() {
+        // Arrange
+        when(productVariantRepository.findStockByIdIn(List.of(99L))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> inventoryReservationService.reserve(99L, 1L, "alice"));
+    }
+
+    @Test
+    void should_NeverOversell_When_ManyThreadsReserveConcurrently() throws Exception {
+        // Arrange
+        stubDatabaseStock(1L, 100L);
+        int threads = 16;
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String owner = "user" + i;
+            buyers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 20; j++) {
+                    try {
+                        inventoryReservationService.reserve(1L, 1L, owner);
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        // sold out
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(100, reserved.get(), "Expected exactly the stock to be reserved");
+        assertEquals(0, inventoryReservationService.getAvailableStock(1L), "Expected no stock to be left");
+    }
+
+    @Test
+    void should_NeverOversell_When_FlushingWhileManyThreadsReserveAndRelease() throws Exception {
+        // Arrange: the database stock stays at 8, half as many as there are buyers, and nothing is confirmed
+        when(productVariantRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(new StockRow(1L, 7L, 8L)));
+        int threads = 16;
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        AtomicBoolean buying = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+
+        Future<?> flusher = executor.submit(() -> {
+            start.await();
+            while (buying.get()) {
+                inventoryReservationService.flush();
+            }
+            return null;
+        });
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String owner = "user" + i;
+            buyers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 5_000; j++) {
+                    try {
+                        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 1L, owner);
+                        maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+                        held.decrementAndGet();
+                        inventoryReservationService.release(reservation.getId(), owner);
+                    } catch (InsufficientStockException ex) {
+                        // sold out for now
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get(30, TimeUnit.SECONDS);
+        }
+        buying.set(false);
+        flusher.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        inventoryReservationService.flush();
+
+        // Assert
+        assertTrue(maxHeld.get() <= 8, "Expected never more than the stock to be reserved at once, but was " + maxHeld.get());
+        assertEquals(8, inventoryReservationService.getAvailableStock(1L), "Expected all stock to be available again");
+    }
+
+    // ========================================
+    // RELEASE & EXPIRY
+    // ========================================
+
+    @Test
+    void should_MakeStockAvailable_When_ReservationIsReleased() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 4L, "alice");
+
+        // Act
+        inventoryReservationService.release(reservation.getId(), "alice");
+
+        // Assert
+        assertEquals(10, inventoryReservationService.getAvailableStock(1L), "Expected the stock to be available again");
+        assertThrows(ResourceNotFoundException.class, () -> inventoryReservationService.release(reservation.getId(), "alice"),
+                "Expected a reservation to be released only once");
+    }
+
+    @Test
+    void should_ThrowResourceNotFoundException_When_ReleasingReservationOfOtherUser() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 4L, "alice");
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> inventoryReservationService.release(reservation.getId(), "bob"));
+        assertEquals(6, inventoryReservationService.getAvailableStock(1L), "Expected the reservation to be kept");
+    }
+
+    @Test
+    void should_MakeStockAvailable_When_ReservationExpires() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 4L, "alice");
+
+        // Act
+        inventoryReservationService.expireReservations(Instant.now().plus(Duration.ofMinutes(5)));
+        long availableBeforeTtl = inventoryReservationService.getAvailableStock(1L);
+        inventoryReservationService.expireReservations(reservation.getExpiresAt().plusSeconds(2));
+
+        // Assert
+        assertEquals(6, availableBeforeTtl, "Expected the reservation to be held until its TTL passes");
+        assertEquals(10, inventoryReservationService.getAvailableStock(1L), "Expected the expired stock to be available again");
+        assertThrows(ResourceNotFoundException.class, () -> inventoryReservationService.confirm(reservation.getId(), "alice"),
+                "Expected an expired reservation not to be confirmable");
+    }
+
+    // ========================================
+    // CONFIRM & FLUSH
+    // ========================================
+
+    @Test
+    void should_WriteConfirmedQuantitiesBehind_When_Flushing() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO confirmed = inventoryReservationService.reserve(1L, 4L, "alice");
+        inventoryReservationService.reserve(1L, 1L, "bob");
+        inventoryReservationService.confirm(confirmed.getId(), "alice");
+
+        when(jdbcTemplate.queryForList(contains("UPDATE product_variants"), eq(Long.class), eq(1L), eq(4L))).thenReturn(List.of(1L));
+
+        // the database has 4 fewer from the flush and 2 fewer from an edit made elsewhere
+        when(productVariantRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(new StockRow(1L, 7L, 4L)));
+
+        // Act
+        inventoryReservationService.flush();
+
+        // Assert
+        assertEquals(3, inventoryReservationService.getAvailableStock(1L), "Expected the stock to be reconciled with the database");
+
+        // Verify
+        verify(jdbcTemplate).queryForList(contains("stock >= v.quantity"), eq(Long.class), eq(1L), eq(4L));
+        verify(transactionManager).commit(any());
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.STOCK, 7L));
+    }
+
+    @Test
+    void should_NotDeductStock_When_StockWasLoweredBelowSoldQuantity() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO confirmed = inventoryReservationService.reserve(1L, 4L, "alice");
+        inventoryReservationService.confirm(confirmed.getId(), "alice");
+
+        // the stock was lowered to 2 elsewhere, so the conditional update matches no row
+        when(jdbcTemplate.queryForList(contains("UPDATE product_variants"), eq(Long.class), eq(1L), eq(4L))).thenReturn(List.of());
+        when(productVariantRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(new StockRow(1L, 7L, 2L)));
+
+        // Act
+        inventoryReservationService.flush();
+
+        // Assert
+        assertEquals(2, inventoryReservationService.getAvailableStock(1L), "Expected the stock to be reconciled with the database");
+
+        // Verify
+        verify(transactionManager).commit(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void should_TakeRestOfLoweredStockLater_When_StockIsStillReserved() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO reservation = inventoryReservationService.reserve(1L, 8L, "alice");
+
+        // the stock was lowered from 10 to 5 elsewhere while 8 are reserved
+        when(productVariantRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(new StockRow(1L, 7L, 5L)));
+
+        // Act
+        inventoryReservationService.flush();
+        long availableWhileReserved = inventoryReservationService.getAvailableStock(1L);
+        inventoryReservationService.release(reservation.getId(), "alice");
+        inventoryReservationService.flush();
+
+        // Assert
+        assertEquals(0, availableWhileReserved, "Expected the available stock to be taken first");
+        assertEquals(5, inventoryReservationService.getAvailableStock(1L), "Expected the rest to be taken once released");
+
+        // Verify
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    void should_KeepConfirmedQuantities_When_FlushFails() {
+        // Arrange
+        stubDatabaseStock(1L, 10L);
+        ReservationResponseDTO confirmed = inventoryReservationService.reserve(1L, 4L, "alice");
+        inventoryReservationService.confirm(confirmed.getId(), "alice");
+        when(jdbcTemplate.queryForList(contains("UPDATE product_variants"), eq(Long.class), eq(1L), eq(4L)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(1L));
+
+        // Act
+        inventoryReservationService.flush();
+        inventoryReservationService.flush();
+
+        // Verify
+        verify(jdbcTemplate, times(2)).queryForList(contains("UPDATE product_variants"), eq(Long.class), eq(1L), eq(4L));
+        verify(eventPublisher, times(1)).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    private void stubDatabaseStock(Long id, Long stock) {
+        when(productVariantRepository.findStockByIdIn(List.of(id))).thenReturn(List.of(new StockRow(id, 7L, stock)));
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
@@ -32,6 +33,8 @@ class ProductAttributeServiceTest {
     @Mock AttributeTemplateService attributeTemplateService;
     @Mock AttributeValueService attributeValueService;
     @Mock ProductAttributeMapper productAttributeMapper;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock CatalogChangeService catalogChangeService;
 
     @InjectMocks ProductAttributeService productAttributeService;
 
@@ -315,11 +318,16 @@ class ProductAttributeServiceTest {
 
     @Test
     void should_DeleteAttributeValues_ByAttributeValueId() {
+        // Arrange
+        when(productAttributeRepository.findIdsByAttributeValueId(1L)).thenReturn(List.of(3L, 4L));
+
         // Act
         productAttributeService.deleteAttributeValuesByAttributeValueId(1L);
 
         // Verify
+        verify(productAttributeRepository).findIdsByAttributeValueId(1L);
         verify(productAttributeRepository).deleteAttributeValuesByAttributeValueId(1L);
+        verify(catalogChangeService).recordAll(CatalogChange.EntityType.PRODUCT_ATTRIBUTE, List.of(3L, 4L), CatalogChange.Operation.UPSERT);
         verifyNoMoreInteractions(productAttributeRepository);
     }
 }
@@ -0,0 +1,134 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductExportService
+ */
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    @Mock ProductRepository productRepository;
+    @Mock ProductVariantRepository productVariantRepository;
+    @Mock ProductAttributeRepository productAttributeRepository;
+
+    ProductExportService productExportService;
+
+    private record ProductRow(Long getId, String getName, String getDescription, boolean getHasImage,
+                              Long getCategoryId, String getCategoryName) implements ProductExportRow {
+    }
+
+    private record VariantRow(Long getProductId, Long getId, Long getSizeId, String getSizeName, String getSku,
+                              Long getPriceInCents, Long getStock, Long getVersion) implements ProductVariantExportRow {
+    }
+
+    private record AttributeRow(Long getProductId, Long getId, Long getTemplateId, String getTemplateName,
+                                Long getValueId, String getValue) implements ProductAttributeExportRow {
+    }
+
+    @BeforeEach
+    void setUp() {
+        productExportService = new ProductExportService(productRepository, productVariantRepository,
+                productAttributeRepository, new ObjectMapper());
+
+        when(productRepository.streamAllForExport()).thenReturn(Stream.of(
+                new ProductRow(1L, "espresso", "smooth, rich", true, 10L, "coffee"),
+                new ProductRow(2L, "hand grinder", "ceramic burrs", false, 20L, "grinders")));
+        when(productVariantRepository.streamAllForExport()).thenReturn(Stream.of(
+                new VariantRow(1L, 100L, 5L, "250g", "ESPRESSO-250G-10000", 1299L, 10L, 0L),
+                new VariantRow(1L, 101L, 6L, "1kg", "ESPRESSO-1KG-10001", 3999L, 3L, 2L)));
+        when(productAttributeRepository.streamAllForExport()).thenReturn(Stream.of(
+                new AttributeRow(1L, 7L, 1L, "origin", 11L, "ethiopia"),
+                new AttributeRow(1L, 7L, 1L, "origin", 12L, "kenya"),
+                new AttributeRow(1L, 8L, 2L, "roast", 21L, "dark"),
+                new AttributeRow(2L, 9L, 3L, "material", null, null)));
+    }
+
+    // ========================================
+    // JSON
+    // ========================================
+
+    @Test
+    void should_WriteProductsWithVariantsAndAttributes_When_ExportingJson() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        long count = productExportService.exportProducts(output, ProductExportService.Format.JSON);
+
+        // Assert
+        JsonNode products = new ObjectMapper().readTree(output.toByteArray());
+        assertEquals(2, count, "Expected both products to be exported");
+        assertEquals(2, products.size(), "Expected a JSON array of both products");
+
+        JsonNode espresso = products.get(0);
+        assertEquals("espresso", espresso.get("name").asText());
+        assertEquals("/products/1/image", espresso.get("imageUrl").asText());
+        assertEquals("coffee", espresso.get("categoryName").asText());
+        assertEquals(2, espresso.get("productVariants").size(), "Expected both variants of the first product");
+        assertEquals("1kg", espresso.get("productVariants").get(1).get("sizeName").asText());
+        assertEquals(2, espresso.get("productAttributes").size(), "Expected the values of one attribute to be grouped");
+        assertEquals(2, espresso.get("productAttributes").get(0).get("values").size());
+        assertEquals("kenya", espresso.get("productAttributes").get(0).get("values").get(1).get("value").asText());
+
+        JsonNode grinder = products.get(1);
+        assertEquals(0, grinder.get("productVariants").size(), "Expected the second product to have no variants");
+        assertEquals("material", grinder.get("productAttributes").get(0).get("attributeTemplateName").asText());
+        assertEquals(0, grinder.get("productAttributes").get(0).get("values").size(), "Expected an attribute without values");
+    }
+
+    // ========================================
+    // CSV
+    // ========================================
+
+    @Test
+    void should_WriteOneRowPerVariantInImportFormat_When_ExportingCsv() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.exportProducts(output, ProductExportService.Format.CSV);
+
+        // Assert
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertArrayEquals(new String[]{
+                "id,name,description,categoryId,categoryName,size,sku,priceInCents,stock,attributes",
+                "1,espresso,\"smooth, rich\",10,coffee,250g,ESPRESSO-250G-10000,1299,10,origin=ethiopia|kenya;roast=dark",
+                "1,espresso,\"smooth, rich\",10,coffee,1kg,ESPRESSO-1KG-10001,3999,3,",
+                "2,hand grinder,ceramic burrs,20,grinders,,,,,"
+        }, lines, "Expected a header, one row per variant and the attributes only on the first row of a product");
+    }
+
+    @Test
+    void should_SkipRowsWithoutProduct_When_MergingCursors() throws IOException {
+        // Arrange
+        when(productVariantRepository.streamAllForExport()).thenReturn(Stream.of(
+                new VariantRow(0L, 99L, 5L, "250g", "GONE-250G-10002", 999L, 1L, 0L),
+                new VariantRow(2L, 102L, 5L, "250g", "HANDGRINDER-250G-10003", 2499L, 4L, 0L)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.exportProducts(output, ProductExportService.Format.JSON);
+
+        // Assert
+        JsonNode products = new ObjectMapper().readTree(output.toByteArray());
+        assertEquals(0, products.get(0).get("productVariants").size(), "Expected the orphaned variant to be skipped");
+        assertEquals(102L, products.get(1).get("productVariants").get(0).get("id").asLong());
+    }
+}
@@ -0,0 +1,229 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.cache.CategoryTree;
+import com.makibeans.cache.CategoryTreeCache;
+import com.makibeans.dto.product.ProductImportErrorDTO;
+import com.makibeans.dto.product.ProductImportReportDTO;
+import com.makibeans.model.AttributeTemplate;
+import com.makibeans.model.CatalogChange;
+import com.makibeans.model.Size;
+import com.makibeans.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductImportService
+ */
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+    @Mock ProductRepository productRepository;
+    @Mock SkuGenerator skuGenerator;
+    @Mock SizeRepository sizeRepository;
+    @Mock AttributeTemplateRepository attributeTemplateRepository;
+    @Mock AttributeValueRepository attributeValueRepository;
+    @Mock CategoryTreeCache categoryTreeCache;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock CatalogChangeService catalogChangeService;
+
+    private static final CatalogChangedEvent PRODUCTS_CHANGED =
+            new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS);
+
+    ProductImportService productImportService;
+
+    private record Row(Long getId, String getName, String getDescription, Long getParentCategoryId, boolean getHasImage)
+            implements CategoryTreeRow {
+    }
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(jdbcTemplate, transactionManager, productRepository,
+                skuGenerator, sizeRepository, attributeTemplateRepository, attributeValueRepository,
+                categoryTreeCache, eventPublisher, catalogChangeService, new ObjectMapper(), 2);
+
+        Size size = new Size("250g");
+        ReflectionTestUtils.setField(size, "id", 10L);
+        AttributeTemplate origin = new AttributeTemplate("origin");
+        ReflectionTestUtils.setField(origin, "id", 20L);
+
+        when(categoryTreeCache.getFresh()).thenReturn(CategoryTree.of(List.of(new Row(1L, "Coffee", null, null, false))));
+        when(sizeRepository.findAll()).thenReturn(List.of(size));
+        when(attributeTemplateRepository.findAll()).thenReturn(List.of(origin));
+        when(attributeValueRepository.findAll()).thenReturn(List.of());
+    }
+
+    // ========================================
+    // CSV
+    // ========================================
+
+    @Test
+    void should_ImportProductsInChunks_When_CsvIsValid() throws Exception {
+        // Arrange
+        String csv = """
+                name,description,categoryId,size,priceInCents,stock,attributes
+                Espresso,"Dark, rich",1,250g,1299,10,origin=ethiopia
+                Lungo,Mild,1,250g,999,5,
+                Ristretto,Short,1,,,,
+                """;
+        AtomicLong ids = new AtomicLong(100);
+        stubInsertsReturningIds(ids);
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(List.of());
+
+        // Act
+        ProductImportReportDTO report = productImportService.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, report.getTotalRows(), "Expected three rows to be read");
+        assertEquals(3, report.getImportedProducts(), "Expected all products to be imported");
+        assertEquals(2, report.getImportedVariants(), "Expected two variants to be imported");
+        assertEquals(0, report.getFailedRows(), "Expected no failed rows");
+        assertTrue(report.getErrors().isEmpty(), "Expected no errors");
+
+        // Verify
+        verify(productRepository, times(2)).findExistingNames(anyCollection());
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO product_variants"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO product_attribute_values"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(catalogChangeService, times(2)).recordAll(eq(CatalogChange.EntityType.PRODUCT), anyCollection(), eq(CatalogChange.Operation.UPSERT));
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher).publishEvent(PRODUCTS_CHANGED);
+    }
+
+    @Test
+    void should_RejectWholeProduct_When_OneOfItsCsvRowsIsInvalid() throws Exception {
+        // Arrange
+        String csv = """
+                name,description,categoryId,size,priceInCents,stock
+                Espresso,Dark,1,250g,1299,10
+                Espresso,Dark,1,1kg,4999,3
+                Decaf,Mild,99,250g,999,5
+                """;
+
+        // Act
+        ProductImportReportDTO report = productImportService.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, report.getTotalRows(), "Expected three rows to be read");
+        assertEquals(0, report.getImportedProducts(), "Expected no products to be imported");
+        assertEquals(3, report.getFailedRows(), "Expected all rows to fail");
+        assertEquals(List.of(
+                        new ProductImportErrorDTO(2, "Size '1kg' not found."),
+                        new ProductImportErrorDTO(4, "Category with ID 99 not found.")),
+                report.getErrors(), "Expected one error per product, reported at the product's first line");
+
+        // Verify
+        verifyNoInteractions(jdbcTemplate, productRepository, transactionManager, eventPublisher);
+    }
+
+    @Test
+    void should_ReportError_When_CsvHeaderIsIncomplete() throws Exception {
+        // Act
+        ProductImportReportDTO report = productImportService.importProducts(stream("name,size\nEspresso,250g\n"), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, report.getErrors().size(), "Expected a single header error");
+        assertEquals(1, report.getErrors().get(0).getLine(), "Expected the error on the header line");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // ========================================
+    // JSON LINES
+    // ========================================
+
+    @Test
+    void should_SkipExistingAndInvalidProducts_When_JsonLinesContainErrors() throws Exception {
+        // Arrange
+        String jsonLines = """
+                {"name": "Espresso", "description": "Dark", "categoryId": 1}
+                {"name": "Lungo", "description": "Mild", "categoryId": 1, "variants": [{"size": "250g", "priceInCents": 999, "stock": 5}]}
+                not json
+                """;
+        stubInsertsReturningIds(new AtomicLong(1));
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(List.of("espresso"));
+
+        // Act
+        ProductImportReportDTO report = productImportService.importProducts(stream(jsonLines), ProductImportService.Format.JSON_LINES);
+
+        // Assert
+        assertEquals(3, report.getTotalRows(), "Expected three rows to be read");
+        assertEquals(1, report.getImportedProducts(), "Expected only Lungo to be imported");
+        assertEquals(1, report.getImportedVariants(), "Expected the Lungo variant to be imported");
+        assertEquals(2, report.getFailedRows(), "Expected two failed rows");
+        assertEquals(new ProductImportErrorDTO(1, "Product with name 'espresso' already exists."), report.getErrors().get(0),
+                "Expected the existing product to be reported once its chunk is imported");
+        assertEquals(3, report.getErrors().get(1).getLine(), "Expected the invalid JSON to be reported");
+    }
+
+    @Test
+    void should_ReportAllRowsOfChunk_When_ChunkFails() throws Exception {
+        // Arrange
+        String jsonLines = """
+                {"name": "Espresso", "description": "Dark", "categoryId": 1}
+                {"name": "Lungo", "description": "Mild", "categoryId": 1}
+                """;
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(List.of());
+        stubIdAllocation(new AtomicLong(1));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act
+        ProductImportReportDTO report = productImportService.importProducts(stream(jsonLines), ProductImportService.Format.JSON_LINES);
+
+        // Assert
+        assertEquals(0, report.getImportedProducts(), "Expected no products to be imported");
+        assertEquals(2, report.getFailedRows(), "Expected both rows of the chunk to fail");
+        assertTrue(report.getErrors().stream().allMatch(error -> error.getMessage().contains("duplicate key")),
+                "Expected the cause in every error");
+
+        // Verify
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void stubInsertsReturningIds(AtomicLong ids) {
+        stubIdAllocation(ids);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> new int[][]{new int[((Collection<?>) invocation.getArgument(1)).size()]});
+    }
+
+    private void stubIdAllocation(AtomicLong blocks) {
+        when(jdbcTemplate.queryForList(contains("nextval"), eq(Long.class), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    int count = invocation.getArgument(3);
+                    List<Long> blockStarts = new ArrayList<>();
+                    for (int i = 0; i < count; i++) {
+                        blockStarts.add(blocks.getAndIncrement() * 50 + 1);
+                    }
+                    return blockStarts;
+                });
+    }
+}
@@ -1,5 +1,9 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.cache.CatalogVersions;
+import com.makibeans.cache.ProductReadCache;
+import com.makibeans.cache.Versioned;
 import com.makibeans.dto.product.ProductPageDTO;
 import com.makibeans.dto.product.ProductRequestDTO;
 import com.makibeans.dto.product.ProductResponseDTO;
@@ -7,22 +11,26 @@ import com.makibeans.dto.product.ProductUpdateDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
 import com.makibeans.mapper.ProductMapper;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.model.Category;
 import com.makibeans.model.Product;
-import com.makibeans.model.ProductAttribute;
 import com.makibeans.repository.ProductRepository;
 import com.makibeans.util.ImageUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,9 +47,20 @@ class ProductServiceTest {
     @Mock
     ProductMapper productMapper;
     @Mock
-    ProductAttributeService productAttributeService;
-    @Mock
     ImageUtils imageUtils;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    ProductReadCache productReadCache;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    CatalogVersions catalogVersions;
+    @Mock
+    CatalogChangeService catalogChangeService;
+
+    private static final CatalogChangedEvent PRODUCTS_CHANGED =
+            new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS);
 
     @InjectMocks
     ProductService productService;
@@ -53,6 +72,12 @@ class ProductServiceTest {
     void setUp() {
         category = new Category("Coffee", "Rich flavor");
         product = new Product("Espresso", "Smooth and rich", null, category);
+
+        // the read cache is a pass-through, so the loaders run on every call
+        lenient().when(productReadCache.getSearch(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Versioned<ProductPageDTO>>>getArgument(1).get());
+        lenient().when(productReadCache.getProduct(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Versioned<ProductResponseDTO>>>getArgument(1).get());
     }
 
     @AfterEach
@@ -91,7 +116,8 @@ class ProductServiceTest {
         verify(categoryService).findById(1L);
         verify(productRepository).save(any());
         verify(productMapper).toResponseDTO(product);
-        verifyNoMoreInteractions(productRepository, categoryService, productMapper);
+        verify(eventPublisher).publishEvent(PRODUCTS_CHANGED);
+        verifyNoMoreInteractions(productRepository, categoryService, productMapper, eventPublisher);
     }
 
     @Test
@@ -112,28 +138,28 @@ class ProductServiceTest {
     // ========================================
 
     @Test
-    void should_DeleteProduct_When_IdExists() {
+    void should_DeleteProductWithConstantNumberOfStatements_When_IdExists() {
         // Arrange
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        ProductAttribute productAttribute = mock(ProductAttribute.class);
-        when(productAttribute.getId()).thenReturn(99L);
-        when(productAttributeService.getProductAttributesByProductId(1L)).thenReturn(List.of(productAttribute));
+        when(productRepository.deleteProductById(1L)).thenReturn(1);
 
         // Act
         productService.deleteProduct(1L);
 
         // Verify
-        verify(productRepository).findById(1L);
-        verify(productAttributeService).getProductAttributesByProductId(1L);
-        verify(productAttributeService).deleteProductAttribute(99L);
-        verify(productRepository).delete(product);
-        verifyNoMoreInteractions(productRepository, productAttributeService);
+        InOrder inOrder = inOrder(productRepository, catalogChangeService, eventPublisher);
+        inOrder.verify(productRepository).deleteAttributeValueLinksByProductId(1L);
+        inOrder.verify(productRepository).deleteProductAttributesByProductId(1L);
+        inOrder.verify(productRepository).deleteProductVariantsByProductId(1L);
+        inOrder.verify(productRepository).deleteProductById(1L);
+        inOrder.verify(catalogChangeService).record(CatalogChange.EntityType.PRODUCT, 1L, CatalogChange.Operation.DELETE);
+        inOrder.verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCTS, 1L));
+        verifyNoMoreInteractions(productRepository, eventPublisher);
     }
 
     @Test
     void should_ThrowResourceNotFoundException_When_DeletingNonexistentProduct() {
         // Arrange
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.deleteProductById(99L)).thenReturn(0);
 
         // Act & Assert
         assertThrows(
@@ -142,8 +168,8 @@ class ProductServiceTest {
                 "Expected ResourceNotFoundException when deleting a non-existent product");
 
         // Verify
-        verify(productRepository).findById(99L);
-        verifyNoMoreInteractions(productRepository);
+        verify(productRepository).deleteProductById(99L);
+        verifyNoInteractions(eventPublisher);
     }
 
     // ========================================
@@ -173,6 +199,28 @@ class ProductServiceTest {
         verifyNoMoreInteractions(productRepository, productMapper);
     }
 
+    @Test
+    void should_ReturnProductWithVersionReadBeforeLoading_When_IdExists() {
+        // Arrange
+        ProductResponseDTO expectedResponse = new ProductResponseDTO(1L, "Espresso", "Smooth and rich", null, 1L, "Coffee", List.of(), List.of());
+
+        when(catalogVersions.productVersion(1L)).thenReturn(7L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toResponseDTO(product)).thenReturn(expectedResponse);
+
+        // Act
+        Versioned<ProductResponseDTO> actual = productService.getVersionedProductById(1L);
+
+        // Assert
+        assertEquals(7L, actual.version(), "Expected the product version");
+        assertEquals(expectedResponse, actual.value(), "Expected the mapped product");
+
+        // Verify
+        InOrder inOrder = inOrder(catalogVersions, productRepository);
+        inOrder.verify(catalogVersions).productVersion(1L);
+        inOrder.verify(productRepository).findById(1L);
+    }
+
 
     @Test
     void should_ReturnProducts_When_CategoryIdExists() {
@@ -251,6 +299,7 @@ class ProductServiceTest {
         verify(productRepository).findById(1L);
         verify(productMapper).toResponseDTO(product);
         verifyNoMoreInteractions(productRepository, productMapper);
+        verifyNoInteractions(eventPublisher);
     }
 
 
@@ -382,6 +431,37 @@ class ProductServiceTest {
         verify(productRepository).findAll();
         verify(attributeTemplateService).getValidAttributeKeys();
         verify(productMapper).toResponseDTO(espresso);
-        verifyNoMoreInteractions(productRepository, attributeTemplateService, productMapper, productAttributeService, imageUtils);
+        verifyNoMoreInteractions(productRepository, attributeTemplateService, productMapper, imageUtils);
+    }
+
+    @Test
+    void should_ReturnProductsOfSubcategories_When_IncludeSubcategoriesIsTrue() {
+        // Arrange
+        Map<String, String> filters = Map.of("categoryId", "1", "includeSubcategories", "true");
+        Category subCategory = new Category("Beans", "Whole beans");
+        ReflectionTestUtils.setField(subCategory, "id", 2L);
+
+        Product espresso = new Product("Espresso", "Strong coffee", null, subCategory);
+        ReflectionTestUtils.setField(espresso, "id", 1L);
+        ProductResponseDTO responseDTO = new ProductResponseDTO(1L, "Espresso", "Strong coffee", null, 2L, "Beans", List.of(), List.of());
+
+        when(categoryService.getCategoryPaths(List.of(1L))).thenReturn(List.of("/1/"));
+        when(productRepository.findByCategoryPathStartingWith("/1/")).thenReturn(List.of(espresso));
+        when(attributeTemplateService.getValidAttributeKeys()).thenReturn(Set.of());
+        when(productMapper.toResponseDTO(espresso)).thenReturn(responseDTO);
+
+        // Act
+        ProductPageDTO result = productService.findBySearchQuery(filters);
+
+        // Assert
+        assertEquals(1, result.getContent().size(), "Expected only the product of the subcategory");
+        assertEquals(responseDTO, result.getContent().get(0), "Expected the product in the result to match the mapped DTO");
+
+        // Verify
+        verify(categoryService).getCategoryPaths(List.of(1L));
+        verify(productRepository).findByCategoryPathStartingWith("/1/");
+        verify(productRepository, never()).findAll();
+        verify(productMapper).toResponseDTO(espresso);
+        verifyNoMoreInteractions(categoryService, productMapper);
     }
 }
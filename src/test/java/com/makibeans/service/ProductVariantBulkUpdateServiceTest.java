@@ -0,0 +1,160 @@
+package com.makibeans.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.productvariant.ProductVariantBulkUpdateErrorDTO;
+import com.makibeans.dto.productvariant.ProductVariantBulkUpdateReportDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductVariantBulkUpdateService
+ */
+
+@ExtendWith(MockitoExtension.class)
+class ProductVariantBulkUpdateServiceTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+    @Mock ApplicationEventPublisher eventPublisher;
+
+    ProductVariantBulkUpdateService productVariantBulkUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        CatalogChangeService catalogChangeService = new CatalogChangeService(null, jdbcTemplate, new ObjectMapper());
+        productVariantBulkUpdateService = new ProductVariantBulkUpdateService(
+                transactionManager, new ObjectMapper(), eventPublisher, catalogChangeService, 2);
+    }
+
+    @Test
+    void should_UpdateVariantsInChunks_When_EntriesAreValid() throws Exception {
+        // Arrange
+        String json = """
+                [{"id": 1, "stock": 5}, {"sku": "ESPRESSO-250G-0001", "priceInCents": 1299}, {"id": 3, "stock": 0, "priceInCents": 999}]
+                """;
+        stubUpdatesMatchingAll();
+
+        // Act
+        ProductVariantBulkUpdateReportDTO report = productVariantBulkUpdateService.updateProductVariants(stream(json));
+
+        // Assert
+        assertEquals(3, report.getTotalEntries(), "Expected three entries to be read");
+        assertEquals(3, report.getUpdatedVariants(), "Expected all variants to be updated");
+        assertEquals(0, report.getFailedEntries(), "Expected no failed entries");
+
+        // Verify
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).queryForList(sql.capture(), eq(Long.class), any(Object[].class));
+        assertTrue(sql.getAllValues().get(0).contains("WHERE pv.id = v.lookup"), "Expected the first chunk to update by ID");
+        assertTrue(sql.getAllValues().get(1).contains("WHERE pv.sku = v.lookup"), "Expected the first chunk to update by SKU");
+        assertTrue(sql.getAllValues().get(0).contains("INSERT INTO catalog_changes"), "Expected the updated variants to be recorded");
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS));
+    }
+
+    @Test
+    void should_ReportInvalidAndUnmatchedEntries_When_UpdatingVariants() throws Exception {
+        // Arrange
+        String json = """
+                [{"id": 1, "stock": -1}, {"id": 2, "sku": "X"}, {"id": 3}, {"id": 4, "color": "red"}, {"id": 5, "stock": 1}, {"id": 6, "stock": 1}]
+                """;
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(4L));
+
+        // Act
+        ProductVariantBulkUpdateReportDTO report = productVariantBulkUpdateService.updateProductVariants(stream(json));
+
+        // Assert
+        assertEquals(6, report.getTotalEntries(), "Expected six entries to be read");
+        assertEquals(1, report.getUpdatedVariants(), "Expected only the matched variant to be updated");
+        assertEquals(5, report.getFailedEntries(), "Expected five failed entries");
+        assertEquals(new ProductVariantBulkUpdateErrorDTO(0, "Stock should be a minimum of 0."), report.getErrors().get(0));
+        assertEquals(new ProductVariantBulkUpdateErrorDTO(1, "Exactly one of id and sku must be given."), report.getErrors().get(1));
+        assertEquals(new ProductVariantBulkUpdateErrorDTO(2, "At least one of stock and priceInCents must be given."), report.getErrors().get(2));
+        assertTrue(report.getErrors().get(3).getMessage().startsWith("Invalid entry"), "Expected the unknown field to be rejected");
+        assertEquals(new ProductVariantBulkUpdateErrorDTO(5, "Product variant with ID 6 not found."), report.getErrors().get(4));
+    }
+
+    @Test
+    void should_StartNewChunk_When_VariantIsRepeated() throws Exception {
+        // Arrange
+        String json = """
+                [{"id": 1, "stock": 5}, {"id": 1, "stock": 4}]
+                """;
+        stubUpdatesMatchingAll();
+
+        // Act
+        ProductVariantBulkUpdateReportDTO report = productVariantBulkUpdateService.updateProductVariants(stream(json));
+
+        // Assert
+        assertEquals(2, report.getUpdatedVariants(), "Expected both updates to be applied");
+
+        // Verify
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void should_ReportAllEntriesOfChunk_When_ChunkFails() throws Exception {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act
+        ProductVariantBulkUpdateReportDTO report = productVariantBulkUpdateService.updateProductVariants(
+                stream("[{\"id\": 1, \"stock\": 5}, {\"id\": 2, \"stock\": 4}]"));
+
+        // Assert
+        assertEquals(0, report.getUpdatedVariants(), "Expected no variants to be updated");
+        assertEquals(2, report.getFailedEntries(), "Expected both entries of the chunk to fail");
+
+        // Verify
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void should_ReportError_When_BodyIsNotAnArray() throws Exception {
+        // Act
+        ProductVariantBulkUpdateReportDTO report = productVariantBulkUpdateService.updateProductVariants(stream("{\"id\": 1}"));
+
+        // Assert
+        assertEquals(1, report.getFailedEntries(), "Expected a single error");
+
+        // Verify
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void stubUpdatesMatchingAll() {
+        // every entry occupies four parameters, the first of which is its index; the last two belong to the change log
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            List<Long> indexes = new ArrayList<>();
+            for (int i = 2; i < args.length - 2; i += 4) {
+                indexes.add((Long) args[i]);
+            }
+            return indexes;
+        });
+    }
+}
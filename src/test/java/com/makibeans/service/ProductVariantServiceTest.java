@@ -1,11 +1,13 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
 import com.makibeans.dto.productvariant.ProductVariantRequestDTO;
 import com.makibeans.dto.productvariant.ProductVariantResponseDTO;
 import com.makibeans.dto.productvariant.ProductVariantUpdateDTO;
 import com.makibeans.exceptions.DuplicateResourceException;
 import com.makibeans.exceptions.ResourceNotFoundException;
 import com.makibeans.mapper.ProductVariantMapper;
+import com.makibeans.model.CatalogChange;
 import com.makibeans.model.Category;
 import com.makibeans.model.Product;
 import com.makibeans.model.ProductVariant;
@@ -17,6 +19,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +35,9 @@ class ProductVariantServiceTest {
     @Mock ProductService productService;
     @Mock SizeService sizeService;
     @Mock ProductVariantMapper productVariantMapper;
+    @Mock SkuGenerator skuGenerator;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock CatalogChangeService catalogChangeService;
 
     @InjectMocks ProductVariantService productVariantService;
 
@@ -53,7 +60,7 @@ class ProductVariantServiceTest {
     void should_ReturnVariant_When_IdExists() {
         // Arrange
         ProductVariant variant = new ProductVariant(product, size, 1000L, "ESP-SM-0001", 10L);
-        ProductVariantResponseDTO expectedResponseDTO = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0001", 1000L, 10L);
+        ProductVariantResponseDTO expectedResponseDTO = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0001", 1000L, 10L, 0L);
 
         when(productVariantRepository.findById(1L)).thenReturn(Optional.of(variant));
         when(productVariantMapper.toResponseDTO(variant)).thenReturn(expectedResponseDTO);
@@ -95,8 +102,8 @@ class ProductVariantServiceTest {
         // Arrange
         ProductVariant variant1 = new ProductVariant(product, size, 1000L, "ESP-SM-0001", 10L);
         ProductVariant variant2 = new ProductVariant(product, size, 1200L, "ESP-SM-0002", 20L);
-        ProductVariantResponseDTO responseDTO1 = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0001", 1000L, 10L);
-        ProductVariantResponseDTO responseDTO2 = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0002", 1200L, 20L);
+        ProductVariantResponseDTO responseDTO1 = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0001", 1000L, 10L, 0L);
+        ProductVariantResponseDTO responseDTO2 = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0002", 1200L, 20L, 0L);
 
 
         when(productVariantRepository.findAll()).thenReturn(List.of(variant1, variant2));
@@ -128,11 +135,12 @@ class ProductVariantServiceTest {
         // Arrange
         ProductVariantRequestDTO requestDTO = new ProductVariantRequestDTO(1L, 1L, 1200L, 20L);
         ProductVariant variant = new ProductVariant(product, size, 1200L, "ESP-SM-0002", 20L);
-        ProductVariantResponseDTO expectedResponseDTO = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0002", 1200L, 20L);
+        ProductVariantResponseDTO expectedResponseDTO = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0002", 1200L, 20L, 0L);
 
         when(productService.findById(1L)).thenReturn(product);
         when(sizeService.findById(1L)).thenReturn(size);
         when(productVariantRepository.existsByProductAndSize(product, size)).thenReturn(false);
+        when(skuGenerator.generate(product.getName(), size.getName())).thenReturn("ESP-SM-0002");
         when(productVariantRepository.save(any(ProductVariant.class))).thenReturn(variant);
         when(productVariantMapper.toResponseDTO(variant)).thenReturn(expectedResponseDTO);
 
@@ -147,6 +155,7 @@ class ProductVariantServiceTest {
         verify(productService).findById(1L);
         verify(sizeService).findById(1L);
         verify(productVariantRepository).existsByProductAndSize(product, size);
+        verify(skuGenerator).generate(product.getName(), size.getName());
         verify(productVariantRepository).save(any(ProductVariant.class));
         verify(productVariantMapper).toResponseDTO(variant);
     }
@@ -177,10 +186,11 @@ class ProductVariantServiceTest {
     @Test
     void should_UpdateVariant_When_Valid() {
         // Arrange
-        ProductVariantUpdateDTO dto = new ProductVariantUpdateDTO(1300L, 15L);
-        ProductVariantResponseDTO expectedDTO = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0001", 1300L, 15L);
+        ProductVariantUpdateDTO dto = new ProductVariantUpdateDTO(1300L, 15L, null);
+        ProductVariantResponseDTO expectedDTO = new ProductVariantResponseDTO(null, product.getId(), size.getName(), "ESP-SM-0001", 1300L, 15L, 0L);
 
         when(productVariantRepository.findById(1L)).thenReturn(Optional.of(variant));
+        when(skuGenerator.matches("ESP-SM-0001", product.getName(), size.getName())).thenReturn(true);
         when(productVariantRepository.save(any())).thenReturn(variant);
         when(productVariantMapper.toResponseDTO(variant)).thenReturn(expectedDTO);
 
@@ -190,18 +200,39 @@ class ProductVariantServiceTest {
         // Assert
         assertNotNull(result, "Result should not be null");
         assertEquals(expectedDTO, result, "Expected updated ProductVariantResponseDTO to match");
+        assertEquals("ESP-SM-0001", variant.getSku(), "Expected the SKU to be kept");
 
         // Verify
         verify(productVariantRepository).findById(1L);
         verify(productVariantRepository).save(variant);
         verify(productVariantMapper).toResponseDTO(variant);
+        verify(skuGenerator, never()).generate(anyString(), anyString());
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS));
+    }
+
+    @Test
+    void should_RegenerateSku_When_ProductWasRenamed() {
+        // Arrange
+        when(productVariantRepository.findById(1L)).thenReturn(Optional.of(variant));
+        when(skuGenerator.matches("ESP-SM-0001", product.getName(), size.getName())).thenReturn(false);
+        when(skuGenerator.generate(product.getName(), size.getName())).thenReturn("ESPRESSO-SMALL-10000");
+        when(productVariantRepository.save(any())).thenReturn(variant);
+
+        // Act
+        productVariantService.updateProductVariant(1L, new ProductVariantUpdateDTO(null, null, null));
+
+        // Assert
+        assertEquals("ESPRESSO-SMALL-10000", variant.getSku(), "Expected a SKU with the new product code");
+
+        // Verify
+        verify(productVariantRepository).save(variant);
     }
 
 
     @Test
     void should_ThrowResourceNotFoundException_When_UpdatingNonexistentVariant() {
         // Arrange
-        ProductVariantUpdateDTO dto = new ProductVariantUpdateDTO(1300L, 15L);
+        ProductVariantUpdateDTO dto = new ProductVariantUpdateDTO(1300L, 15L, null);
         when(productVariantRepository.findById(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -211,6 +242,19 @@ class ProductVariantServiceTest {
         verify(productVariantRepository).findById(99L);
     }
 
+    @Test
+    void should_ThrowOptimisticLockingFailure_When_UpdatingWithStaleVersion() {
+        // Arrange
+        ProductVariantUpdateDTO dto = new ProductVariantUpdateDTO(1300L, 15L, 3L);
+        when(productVariantRepository.findById(1L)).thenReturn(Optional.of(variant));
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productVariantService.updateProductVariant(1L, dto));
+
+        // Verify
+        verify(productVariantRepository, never()).save(any());
+    }
+
     // ========================================
     // DELETE
     // ========================================
@@ -226,19 +270,23 @@ class ProductVariantServiceTest {
         // Assert - no exception means success
 
         // Verify
-        verify(productVariantRepository).findById(1L);
+        verify(productVariantRepository, times(2)).findById(1L);
         verify(productVariantRepository).delete(variant);
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.PRODUCT_DETAILS));
     }
 
     @Test
     void should_DeleteVariantsBySizeId() {
         // Arrange
         Long sizeId = 1L;
+        when(productVariantRepository.findIdsBySizeId(sizeId)).thenReturn(List.of(5L, 6L));
 
         // Act
         productVariantService.deleteProductVariantBySizeId(sizeId);
 
         // Verify
+        verify(productVariantRepository).findIdsBySizeId(sizeId);
         verify(productVariantRepository).deleteBySizeId(sizeId);
+        verify(catalogChangeService).recordAll(CatalogChange.EntityType.PRODUCT_VARIANT, List.of(5L, 6L), CatalogChange.Operation.DELETE);
     }
 }
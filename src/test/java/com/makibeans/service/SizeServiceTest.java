@@ -1,5 +1,7 @@
 package com.makibeans.service;
 
+import com.makibeans.cache.CatalogChangedEvent;
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.size.SizeRequestDTO;
 import com.makibeans.dto.size.SizeResponseDTO;
 import com.makibeans.dto.size.SizeUpdateDTO;
@@ -15,6 +17,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +35,7 @@ class SizeServiceTest {
     @Mock SizeRepository sizeRepository;
     @Mock SizeMapper sizeMapper;
     @Mock ProductVariantService productVariantService;
+    @Mock ApplicationEventPublisher eventPublisher;
     @InjectMocks SizeService sizeService;
 
     Size size;
@@ -100,6 +107,7 @@ class SizeServiceTest {
         verify(productVariantService).deleteProductVariantBySizeId(1L);
         verify(sizeRepository).findById(1L);
         verify(sizeRepository).delete(any(Size.class));
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Scope.REFERENCE_DATA));
         verifyNoMoreInteractions(sizeRepository);
     }
 
@@ -265,24 +273,24 @@ class SizeServiceTest {
     void should_FilterSizes_ByName() {
         // Arrange
         Size size1 = new Size("Medium");
-        Size size2 = new Size("Large");
-        Size size3 = new Size("Small");
         SizeResponseDTO sizeResponseDTO1 = new SizeResponseDTO(1L, "Medium");
-        Map<String, String> params = Map.of("name", "medium");
+        Map<String, String> params = Map.of("name", "medium", "page", "1", "size", "5");
 
-        when(sizeRepository.findAll()).thenReturn(List.of(size1, size2, size3));
+        when(sizeRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(size1), invocation.getArgument(1), 6));
         when(sizeMapper.toResponseDTO(size1)).thenReturn(sizeResponseDTO1);
 
         // Act
-        List<SizeResponseDTO> result = sizeService.findBySearchQuery(params);
+        PageDTO<SizeResponseDTO> result = sizeService.findBySearchQuery(params);
 
         // Assert
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size(), "Only one size should match the filter");
-        assertEquals(sizeResponseDTO1, result.get(0), "Filtered size should match");
+        assertEquals(List.of(sizeResponseDTO1), result.getContent(), "Filtered size should match");
+        assertEquals(1, result.getPage(), "Expected the requested page");
+        assertEquals(5, result.getSize(), "Expected the requested page size");
+        assertEquals(2, result.getTotalPages(), "Expected the total pages from the database count");
 
         // Verify
-        verify(sizeRepository).findAll();
+        verify(sizeRepository).findAll(any(Specification.class), any(Pageable.class));
         verify(sizeMapper).toResponseDTO(size1);
         verifyNoMoreInteractions(sizeRepository);
     }
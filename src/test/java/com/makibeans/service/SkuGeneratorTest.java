@@ -0,0 +1,73 @@
+package com.makibeans.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SkuGenerator
+ */
+
+@ExtendWith(MockitoExtension.class)
+class SkuGeneratorTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+
+    SkuGenerator skuGenerator;
+
+    @BeforeEach
+    void setUp() {
+        skuGenerator = new SkuGenerator(jdbcTemplate);
+    }
+
+    @Test
+    void should_GenerateSkuFromCodesAndSequence_When_Called() {
+        // Arrange
+        when(jdbcTemplate.queryForObject("SELECT nextval('sku_seq')", Long.class)).thenReturn(10000L);
+
+        // Act
+        String sku = skuGenerator.generate("ethiopian dark roast", "250 g");
+
+        // Assert
+        assertEquals("ETHIOPIANDARKROAST-250G-10000", sku, "Expected the codes without whitespace and the sequence number");
+    }
+
+    @Test
+    void should_FetchNewBlock_When_BlockIsUsedUp() {
+        // Arrange
+        when(jdbcTemplate.queryForObject("SELECT nextval('sku_seq')", Long.class)).thenReturn(10000L, 10050L);
+        Set<String> skus = new HashSet<>();
+
+        // Act
+        for (int i = 0; i <= SkuGenerator.BLOCK_SIZE; i++) {
+            skus.add(skuGenerator.generate("espresso", "small"));
+        }
+
+        // Assert
+        assertEquals(SkuGenerator.BLOCK_SIZE + 1, skus.size(), "Expected every SKU to be unique");
+        assertTrue(skus.contains("ESPRESSO-SMALL-10050"), "Expected the next block to start at the next sequence value");
+
+        // Verify
+        verify(jdbcTemplate, times(2)).queryForObject("SELECT nextval('sku_seq')", Long.class);
+    }
+
+    @Test
+    void should_MatchSku_When_CodesAreUnchanged() {
+        // Assert
+        assertTrue(skuGenerator.matches("ESPRESSO-SMALL-10000", "espresso", "small"), "Expected the SKU to match");
+        assertFalse(skuGenerator.matches("ESPRESSO-SMALL-10000", "lungo", "small"), "Expected a renamed product not to match");
+        assertFalse(skuGenerator.matches("ESPRESSO-SMALL-", "espresso", "small"), "Expected a SKU without number not to match");
+
+        // Verify
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
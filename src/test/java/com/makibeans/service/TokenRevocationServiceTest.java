@@ -0,0 +1,240 @@
+package com.makibeans.service;
+
+import com.makibeans.model.RevokedToken;
+import com.makibeans.model.User;
+import com.makibeans.repository.RevokedTokenRepository;
+import com.makibeans.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock RevokedTokenRepository revokedTokenRepository;
+    @Mock JwtUtil jwtUtil;
+
+    @InjectMocks TokenRevocationService tokenRevocationService;
+
+    User user;
+    Instant expiresAt;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("maki");
+
+        expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        user = null;
+        expiresAt = null;
+    }
+
+    // ========================================
+    // REVOKE TOKEN
+    // ========================================
+
+    @Test
+    void should_PersistAndRememberRevocation_When_TokenIsRevoked() {
+        // Arrange
+        when(jwtUtil.extractTokenId("jwt-token")).thenReturn("token-id");
+        when(revokedTokenRepository.existsByTokenId("token-id")).thenReturn(false);
+        when(jwtUtil.extractUsername("jwt-token")).thenReturn("maki");
+        when(jwtUtil.extractExpiration("jwt-token")).thenReturn(Date.from(expiresAt));
+
+        // Act
+        tokenRevocationService.revokeToken("jwt-token");
+
+        // Assert
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("token-id", captor.getValue().getTokenId(), "Expected token ID to be persisted");
+        assertEquals("maki", captor.getValue().getUsername(), "Expected username to be persisted");
+        assertTrue(tokenRevocationService.isTokenIdRevoked("token-id"), "Expected token to be revoked");
+
+        // Verify
+        verify(revokedTokenRepository).existsByTokenId("token-id");
+        verifyNoMoreInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void should_RememberRevocationOnlyAfterCommit_When_TransactionIsActive() {
+        // Arrange
+        when(jwtUtil.extractTokenId("jwt-token")).thenReturn("token-id");
+        when(revokedTokenRepository.existsByTokenId("token-id")).thenReturn(false);
+        when(jwtUtil.extractUsername("jwt-token")).thenReturn("maki");
+        when(jwtUtil.extractExpiration("jwt-token")).thenReturn(Date.from(expiresAt));
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Act
+            tokenRevocationService.revokeToken("jwt-token");
+
+            // Assert
+            assertFalse(tokenRevocationService.isTokenIdRevoked("token-id"), "Expected token not to be revoked before commit");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(tokenRevocationService.isTokenIdRevoked("token-id"), "Expected token to be revoked after commit");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Verify
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void should_NotPersistAgain_When_TokenIsAlreadyRevoked() {
+        // Arrange
+        when(jwtUtil.extractTokenId("jwt-token")).thenReturn("token-id");
+        when(revokedTokenRepository.existsByTokenId("token-id")).thenReturn(true);
+
+        // Act
+        tokenRevocationService.revokeToken("jwt-token");
+
+        // Verify
+        verify(revokedTokenRepository).existsByTokenId("token-id");
+        verify(revokedTokenRepository, never()).save(any());
+        verifyNoMoreInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void should_ThrowIllegalArgumentException_When_TokenHasNoTokenId() {
+        // Arrange
+        when(jwtUtil.extractTokenId("jwt-token")).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> tokenRevocationService.revokeToken("jwt-token"),
+                "Expected IllegalArgumentException when token has no token ID");
+
+        // Verify
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    // ========================================
+    // IS REVOKED
+    // ========================================
+
+    @Test
+    void should_ReturnFalse_When_TokenIsNotRevoked() {
+        // Arrange
+        when(jwtUtil.extractTokenId("jwt-token")).thenReturn("token-id");
+
+        // Act
+        boolean result = tokenRevocationService.isRevoked("jwt-token", user);
+
+        // Assert
+        assertFalse(result, "Expected token not to be revoked");
+
+        // Verify
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void should_ReturnFalse_When_TokenIdIsNull() {
+        // Act & Assert
+        assertFalse(tokenRevocationService.isTokenIdRevoked(null), "Expected null token ID not to be revoked");
+    }
+
+    @Test
+    void should_ReturnTrue_When_TokenWasIssuedBeforeTokensValidAfter() {
+        // Arrange
+        user.setTokensValidAfter(Instant.now());
+        when(jwtUtil.extractIssuedAt("jwt-token")).thenReturn(Date.from(Instant.now().minus(1, ChronoUnit.MINUTES)));
+
+        // Act
+        boolean result = tokenRevocationService.isRevoked("jwt-token", user);
+
+        // Assert
+        assertTrue(result, "Expected token issued before tokensValidAfter to be revoked");
+
+        // Verify
+        verify(jwtUtil, never()).extractTokenId(any());
+    }
+
+    @Test
+    void should_ReturnFalse_When_TokenWasIssuedAfterTokensValidAfter() {
+        // Arrange
+        user.setTokensValidAfter(Instant.now().minus(1, ChronoUnit.HOURS));
+        when(jwtUtil.extractIssuedAt("jwt-token")).thenReturn(new Date());
+        when(jwtUtil.extractTokenId("jwt-token")).thenReturn("token-id");
+
+        // Act
+        boolean result = tokenRevocationService.isRevoked("jwt-token", user);
+
+        // Assert
+        assertFalse(result, "Expected token issued after tokensValidAfter not to be revoked");
+    }
+
+    // ========================================
+    // LOAD, SYNC AND PURGE
+    // ========================================
+
+    @Test
+    void should_LoadUnexpiredRevocations_When_ServiceStarts() {
+        // Arrange
+        RevokedToken revokedToken = new RevokedToken("token-id", "maki", expiresAt, Instant.now());
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(List.of(revokedToken));
+
+        // Act
+        tokenRevocationService.loadRevokedTokens();
+
+        // Assert
+        assertTrue(tokenRevocationService.isTokenIdRevoked("token-id"), "Expected loaded token to be revoked");
+        assertFalse(tokenRevocationService.isTokenIdRevoked("other-token-id"), "Expected other token not to be revoked");
+    }
+
+    @Test
+    void should_RememberRevocationsFromOtherInstances_When_Syncing() {
+        // Arrange
+        RevokedToken revokedToken = new RevokedToken("token-id", "maki", expiresAt, Instant.now());
+        when(revokedTokenRepository.findRevokedSince(any(Instant.class), any(Instant.class))).thenReturn(List.of(revokedToken));
+
+        // Act
+        tokenRevocationService.syncRevokedTokens();
+
+        // Assert
+        assertTrue(tokenRevocationService.isTokenIdRevoked("token-id"), "Expected synced token to be revoked");
+    }
+
+    @Test
+    void should_ForgetExpiredRevocations_When_Purging() {
+        // Arrange
+        RevokedToken expired = new RevokedToken("expired-id", "maki", Instant.now().minus(1, ChronoUnit.MINUTES), Instant.now());
+        RevokedToken active = new RevokedToken("active-id", "maki", expiresAt, Instant.now());
+        when(revokedTokenRepository.findRevokedSince(any(Instant.class), any(Instant.class))).thenReturn(List.of(expired, active));
+        when(revokedTokenRepository.deleteExpired(any(Instant.class))).thenReturn(1);
+        tokenRevocationService.syncRevokedTokens();
+
+        // Act
+        tokenRevocationService.purgeExpiredTokens();
+
+        // Assert
+        assertFalse(tokenRevocationService.isTokenIdRevoked("expired-id"), "Expected expired token to be forgotten");
+        assertTrue(tokenRevocationService.isTokenIdRevoked("active-id"), "Expected active token to stay revoked");
+
+        // Verify
+        verify(revokedTokenRepository).deleteExpired(any(Instant.class));
+    }
+}
@@ -1,5 +1,6 @@
 package com.makibeans.service;
 
+import com.makibeans.dto.PageDTO;
 import com.makibeans.dto.user.UserRequestDTO;
 import com.makibeans.dto.user.UserResponseDTO;
 import com.makibeans.dto.user.UserUpdateDTO;
@@ -15,6 +16,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.*;
@@ -406,18 +410,38 @@ class UserServiceTest {
     void should_FilterUsers_ByUsername() {
         // Arrange
         Map<String, String> params = Map.of("username", "maki");
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(user), invocation.getArgument(1), 1));
         when(userMapper.toResponseDTO(user)).thenReturn(new UserResponseDTO());
 
         // Act
-        List<UserResponseDTO> result = userService.findBySearchQuery(params);
+        PageDTO<UserResponseDTO> result = userService.findBySearchQuery(params);
 
         // Assert
-        assertEquals(1, result.size());
+        assertEquals(1, result.getContent().size());
 
         //Verify
-        verify(userRepository).findAll();
+        verify(userRepository).findAll(any(Specification.class), any(Pageable.class));
         verify(userMapper).toResponseDTO(user);
         verifyNoMoreInteractions(userRepository, userMapper);
     }
+
+    @Test
+    void should_AcceptRoleFilter_When_SearchingUsers() {
+        // Arrange
+        Map<String, String> params = Map.of("search", "mak", "role", "admin,ROLE_USER");
+        when(userRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(user), invocation.getArgument(1), 21));
+        when(userMapper.toResponseDTO(user)).thenReturn(new UserResponseDTO());
+
+        // Act
+        PageDTO<UserResponseDTO> result = userService.findBySearchQuery(params);
+
+        // Assert
+        assertEquals(21, result.getTotalElements(), "Expected the total count of matching users");
+        assertEquals(2, result.getTotalPages());
+
+        //Verify
+        verify(userRepository).findAll(any(Specification.class), any(Pageable.class));
+    }
 }